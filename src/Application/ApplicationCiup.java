@@ -29,7 +29,7 @@ public class ApplicationCiup {
      * Constructeur de déploiement de l'application CIUP.
      * Cette méthode effectue les étapes suivantes :
      * <ul>
-     *   <li>Chargement des données sauvegardées via {@link GestionSauvegarde#charger()}</li>
+     *   <li>Chargement des données sauvegardées via {@link DepotCiup#charger()}</li>
      *   <li>Création d'une instance de {@link Ciup} via {@link Factory#constructionCiup()} si aucune sauvegarde n'est trouvée</li>
      *   <li>Initialisation des vues : {@link VueListeMaisons}, {@link VueListeEtudiant}, {@link VueListeSoiree}</li>
      *   <li>Création des formulaires : {@link VueFormulaireEtudiant}, {@link vueFormulaireSoirees}</li>
@@ -41,7 +41,10 @@ public class ApplicationCiup {
          VueListeEtudiant panelEtudiant;
          VueListeSoiree panelSoiree;
 
-         Ciup ciupCharge = GestionSauvegarde.charger();
+         // Les sauvegardes de fond capturent le modèle sur le thread Swing qui le modifie
+         Persistance.getDepot().setExecuteurModele(SwingUtilities::invokeLater);
+
+         Ciup ciupCharge = Persistance.getDepot().charger();
          if (ciupCharge == null) {
              ciupCharge = Factory.constructionCiup();
          }
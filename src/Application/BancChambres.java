@@ -0,0 +1,146 @@
+package Application;
+
+import Modele.*;
+import java.util.*;
+
+/**
+ * Banc d'essai des stratégies de choix des chambres ({@link StrategieChambre}).
+ * <p>
+ * Pour chaque stratégie et chaque charge, une maison neuve de chambres simples et doubles mêlées
+ * reçoit une suite d'arrivées et de départs tirés au hasard, la même pour toutes les stratégies.
+ * Une arrivée est inscrite : logée, ou mise en liste d'attente si la maison est pleine. Chaque
+ * étudiant présent, logé ou en attente, part au même rythme ; le départ d'un logé fait entrer un
+ * candidat en attente. La charge est le nombre moyen d'étudiants présents rapporté au nombre de
+ * places : au-delà de 100 %, la liste d'attente s'allonge d'autant.
+ * </p>
+ * <p>
+ * Une fois le régime atteint, le banc relève à intervalles réguliers le taux d'occupation des lits,
+ * la longueur de la liste d'attente et le nombre de chambres doubles entièrement vides, les seules
+ * où un binôme pourrait encore être logé ensemble ; il affiche leurs moyennes et le débit. Un lit
+ * convient à tout étudiant seul : l'occupation et l'attente ne dépendent pas de la stratégie,
+ * seules les chambres doubles laissées vides en dépendent.
+ * </p>
+ * <p>
+ * Usage : {@code BancChambres [nbOperations]}, par défaut 200 000 opérations par mesure.
+ * </p>
+ */
+public class BancChambres {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre de chambres de la maison */
+    private static final int NB_CHAMBRES = 200;
+
+    /** Part des chambres doubles, en pour cent, les autres étant simples */
+    private static final int DOUBLES_POUR_CENT = 45;
+
+    /** Charges mesurées, en pour cent des places */
+    private static final int[] CHARGES_POUR_CENT = { 70, 85, 95, 100, 105, 120 };
+
+    /** Part des opérations, en début de mesure, pendant laquelle rien n'est relevé */
+    private static final int MISE_EN_REGIME_POUR_CENT = 10;
+
+    /** Nombre d'opérations entre deux relevés */
+    private static final int INTERVALLE_RELEVES = 100;
+
+    /** Graine des tirages, pour des mesures reproductibles et identiques d'une stratégie à l'autre */
+    private static final long GRAINE = 42;
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Lance le banc d'essai et affiche un tableau des mesures par charge.
+     *
+     * @param args nombre d'opérations par mesure (facultatif)
+     */
+    public static void main(String[] args) {
+        int nbOperations = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        List<Integer> capacites = capacites();
+        int nbDoubles = Collections.frequency(capacites, 2);
+
+        System.out.printf("%d opérations, %d chambres dont %d doubles (%d places)%n",
+                nbOperations, NB_CHAMBRES, nbDoubles, NB_CHAMBRES + nbDoubles);
+        // Échauffement, non mesuré
+        for (StrategieChambre strategie : StrategieChambre.values()) {
+            executer(strategie, capacites, CHARGES_POUR_CENT[0], nbOperations);
+        }
+        System.out.printf("%-8s %-18s %12s %16s %14s %14s%n",
+                "charge", "stratégie", "occupation", "liste d'attente", "doubles vides", "opérations/s");
+        for (int charge : CHARGES_POUR_CENT) {
+            for (StrategieChambre strategie : StrategieChambre.values()) {
+                double[] mesure = executer(strategie, capacites, charge, nbOperations);
+                System.out.printf("%7d%% %-18s %11.1f%% %16.1f %14.1f %14.0f%n",
+                        charge, strategie, 100 * mesure[0], mesure[1], mesure[2], mesure[3]);
+            }
+        }
+    }
+
+    /**
+     * Capacités des chambres de la maison, simples et doubles mêlées comme dans {@link Factory}.
+     */
+    private static List<Integer> capacites() {
+        Random aleatoire = new Random(GRAINE);
+        List<Integer> capacites = new ArrayList<>(NB_CHAMBRES);
+        for (int i = 0; i < NB_CHAMBRES; i++) {
+            capacites.add((aleatoire.nextInt(100) < DOUBLES_POUR_CENT) ? 2 : 1);
+        }
+        return capacites;
+    }
+
+    /**
+     * Exécute les opérations sur une maison neuve réglée sur une stratégie.
+     *
+     * @return le taux d'occupation moyen, la longueur moyenne de la liste d'attente,
+     *         le nombre moyen de chambres doubles vides et le débit en opérations par seconde
+     */
+    private static double[] executer(StrategieChambre strategie, List<Integer> capacites, int charge, int nbOperations) {
+        Ciup ciup = new Ciup(new MaisonInternationale("Maison internationale", "Internationale", "Direction", "Paris"));
+        MaisonEtudiante maison = new MaisonEtudiante(ciup, "Maison", "Direction", "France", "Paris", capacites);
+        maison.setStrategieChambre(strategie);
+        double presentsAttendus = maison.getCapaciteEtudiantsMax() * charge / 100.0;
+        Random aleatoire = new Random(GRAINE);
+        int debutReleves = nbOperations / 100 * MISE_EN_REGIME_POUR_CENT;
+        double occupation = 0;
+        double attente = 0;
+        double doublesVides = 0;
+        int nbReleves = 0;
+
+        long debut = System.nanoTime();
+        for (int operation = 0; operation < nbOperations; operation++) {
+            List<Etudiant> loges = maison.getListeEtudiante();
+            List<Etudiant> enAttente = maison.getlisteAttente();
+            int presents = loges.size() + enAttente.size();
+            // Arrivées au rythme de la charge, départs proportionnels au nombre de présents
+            if (aleatoire.nextDouble() * (presentsAttendus + presents) < presentsAttendus) {
+                maison.inscrireEtudiant(Etudiant.candidat(ciup, "Nom" + operation, "Prénom", "France", null));
+            } else {
+                int tirage = aleatoire.nextInt(presents);
+                maison.retirerEtudiant((tirage < loges.size()) ? loges.get(tirage) : enAttente.get(tirage - loges.size()));
+            }
+            if (operation >= debutReleves && operation % INTERVALLE_RELEVES == 0) {
+                occupation += (double) maison.getNbEtudiants() / maison.getCapaciteEtudiantsMax();
+                attente += maison.getlisteAttente().size();
+                doublesVides += compterDoublesVides(maison);
+                nbReleves++;
+            }
+        }
+        double duree = (System.nanoTime() - debut) / 1e9;
+        ciup.verifierEffectifs();
+        return new double[] { occupation / nbReleves, attente / nbReleves, doublesVides / nbReleves, nbOperations / duree };
+    }
+
+    /** @return le nombre de chambres de deux places ou plus où personne n'est logé */
+    private static int compterDoublesVides(MaisonEtudiante maison) {
+        int nombre = 0;
+        for (Chambre chambre : maison.getListeChambres()) {
+            if (chambre.getCapacite() >= 2 && chambre.getListeEtudiante().isEmpty()) {
+                nombre++;
+            }
+        }
+        return nombre;
+    }
+}
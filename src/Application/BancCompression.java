@@ -0,0 +1,143 @@
+package Application;
+
+import Modele.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Banc d'essai des compressions de sauvegarde ({@link CompressionSauvegarde}).
+ * <p>
+ * Pour chaque jeu de données synthétique ({@link Factory#genererCiup(int, int, long)}) et chaque
+ * compression, la sauvegarde est produite comme le fait {@link GestionSauvegarde} : une racine et
+ * un fichier par maison, encodés par {@link CodecBinaireCiup} puis compressés séparément.
+ * Le banc affiche la taille totale des fichiers, le temps de sauvegarde (encodage et compression)
+ * et le temps de chargement complet (décompression, décodage et reconstruction de toutes les maisons).
+ * Les fichiers restent en mémoire : les temps mesurés ne dépendent pas du disque.
+ * </p>
+ * <p>
+ * Usage : {@code BancCompression [nbEtudiants...]}, par défaut 1 000, 10 000 et 50 000 étudiants
+ * répartis dans une maison pour 250 étudiants. Chaque mesure garde le meilleur de
+ * {@value #NB_MESURES} exécutions, après {@value #NB_ECHAUFFEMENTS} exécutions d'échauffement.
+ * </p>
+ */
+public class BancCompression {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre d'exécutions d'échauffement, non mesurées */
+    private static final int NB_ECHAUFFEMENTS = 3;
+
+    /** Nombre d'exécutions mesurées */
+    private static final int NB_MESURES = 5;
+
+    /** Nombre d'étudiants par maison dans les jeux de données */
+    private static final int ETUDIANTS_PAR_MAISON = 250;
+
+    /** Graine des jeux de données, pour des mesures reproductibles */
+    private static final long GRAINE = 42;
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Lance le banc d'essai et affiche un tableau par jeu de données.
+     *
+     * @param args nombres d'étudiants des jeux de données (facultatif)
+     * @throws IOException en cas d'erreur d'encodage
+     */
+    public static void main(String[] args) throws IOException {
+        int[] tailles = (args.length > 0)
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 1_000, 10_000, 50_000 };
+        List<CompressionSauvegarde> compressions = Arrays.asList(
+                CompressionSauvegarde.aucune(),
+                CompressionSauvegarde.lz(),
+                CompressionSauvegarde.deflate(1),
+                CompressionSauvegarde.deflate(6),
+                CompressionSauvegarde.deflate(9),
+                CompressionSauvegarde.gzip(6));
+
+        for (int nbEtudiants : tailles) {
+            int nbMaisons = Math.max(1, nbEtudiants / ETUDIANTS_PAR_MAISON);
+            Ciup ciup = Factory.genererCiup(nbMaisons, nbEtudiants, GRAINE);
+            System.out.printf("%n%d étudiants, %d maisons%n", nbEtudiants, nbMaisons);
+            System.out.printf("%-12s %14s %8s %16s %18s%n",
+                    "compression", "taille (o)", "ratio", "sauvegarde (ms)", "chargement (ms)");
+
+            long tailleBrute = 0;
+            for (CompressionSauvegarde compression : compressions) {
+                List<byte[]> fichiers = sauvegarder(ciup, compression);
+                long taille = 0;
+                for (byte[] fichier : fichiers) {
+                    taille += fichier.length;
+                }
+                if (tailleBrute == 0) {
+                    tailleBrute = taille;
+                }
+                double sauvegarde = mesurer(() -> sauvegarder(ciup, compression));
+                double chargement = mesurer(() -> charger(fichiers));
+                System.out.printf("%-12s %14d %8.2f %16.2f %18.2f%n", compression.getNom(), taille,
+                        (double) tailleBrute / taille, sauvegarde, chargement);
+            }
+        }
+    }
+
+    /**
+     * Encode et compresse la racine puis chaque maison, comme une sauvegarde complète.
+     */
+    private static List<byte[]> sauvegarder(Ciup ciup, CompressionSauvegarde compression) throws IOException {
+        CodecBinaireCiup codec = new CodecBinaireCiup();
+        List<MaisonEtudiante> maisons = ciup.getListeMaisonsEtudiantes();
+        List<byte[]> fichiers = new ArrayList<>(maisons.size() + 1);
+
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        codec.ecrireRacine(ciup, 0, new int[maisons.size()], tampon);
+        fichiers.add(compression.compresser(tampon.toByteArray()));
+        for (MaisonEtudiante maison : maisons) {
+            tampon = new ByteArrayOutputStream();
+            codec.ecrireMaison(maison, tampon);
+            fichiers.add(compression.compresser(tampon.toByteArray()));
+        }
+        return fichiers;
+    }
+
+    /**
+     * Décompresse et décode la racine et toutes les maisons, puis reconstruit la CIUP.
+     */
+    private static Ciup charger(List<byte[]> fichiers) throws IOException {
+        CodecBinaireCiup codec = new CodecBinaireCiup();
+        CodecBinaireCiup.Racine racine = codec.lireRacine(
+                CompressionSauvegarde.decompresser(new ByteArrayInputStream(fichiers.get(0))));
+        List<CodecBinaireCiup.SectionMaison> sections = new ArrayList<>(fichiers.size() - 1);
+        for (byte[] fichier : fichiers.subList(1, fichiers.size())) {
+            sections.add(codec.lireMaison(CompressionSauvegarde.decompresser(new ByteArrayInputStream(fichier))));
+        }
+        return codec.assembler(racine, sections);
+    }
+
+    /**
+     * Exécute une tâche plusieurs fois et retourne sa meilleure durée, en millisecondes.
+     */
+    private static double mesurer(Tache tache) throws IOException {
+        for (int i = 0; i < NB_ECHAUFFEMENTS; i++) {
+            tache.executer();
+        }
+        long meilleure = Long.MAX_VALUE;
+        for (int i = 0; i < NB_MESURES; i++) {
+            long debut = System.nanoTime();
+            tache.executer();
+            meilleure = Math.min(meilleure, System.nanoTime() - debut);
+        }
+        return meilleure / 1e6;
+    }
+
+    /**
+     * Tâche mesurée par le banc.
+     */
+    private interface Tache {
+        Object executer() throws IOException;
+    }
+}
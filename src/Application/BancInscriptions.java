@@ -0,0 +1,206 @@
+package Application;
+
+import Modele.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Banc d'essai des inscriptions concurrentes dans les maisons étudiantes.
+ * <p>
+ * Pour chaque nombre de threads, une CIUP neuve reçoit le même nombre total d'opérations,
+ * partagé entre les threads : chaque thread inscrit et retire des étudiants dans ses propres
+ * maisons (la maison d'indice i revient au thread i modulo le nombre de threads) et, pour une
+ * petite part des opérations, transfère un de ses étudiants vers une maison quelconque, ce qui
+ * croise les verrous des threads. Les étudiants promus depuis une liste d'attente dans une maison
+ * d'un thread lui sont transmis, pour qu'il puisse les retirer à leur tour. Le banc affiche le débit, l'accélération par rapport à un
+ * thread et l'efficacité par cœur, puis vérifie la cohérence de chaque maison : aucun étudiant
+ * logé deux fois, chambres et histogramme des nationalités conformes aux logés, effectifs tenus
+ * à jour conformes à un recomptage ({@link Ciup#verifierEffectifs()}).
+ * </p>
+ * <p>
+ * Usage : {@code BancInscriptions [nbThreadsMax [nbOperations]]}, par défaut autant de threads
+ * que de processeurs disponibles et 400 000 opérations. Chaque mesure garde le meilleur de
+ * {@value #NB_MESURES} exécutions, après {@value #NB_ECHAUFFEMENTS} exécutions d'échauffement.
+ * </p>
+ */
+public class BancInscriptions {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre d'exécutions d'échauffement, non mesurées */
+    private static final int NB_ECHAUFFEMENTS = 2;
+
+    /** Nombre d'exécutions mesurées */
+    private static final int NB_MESURES = 3;
+
+    /** Nombre de maisons de la CIUP, multiple des nombres de threads usuels */
+    private static final int NB_MAISONS = 64;
+
+    /** Nombre de chambres de chaque maison, de deux places chacune */
+    private static final int NB_CHAMBRES = 50;
+
+    /** Part des opérations qui transfèrent un étudiant vers la maison d'un autre thread, en pour mille */
+    private static final int TRANSFERTS_POUR_MILLE = 20;
+
+    private static final String[] NATIONALITES = { "France", "Japon", "Brésil", "Maroc", "Inde", "Chili", "Italie", "Liban" };
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Lance le banc d'essai et affiche un tableau des débits.
+     *
+     * @param args nombre maximal de threads et nombre total d'opérations (facultatifs)
+     * @throws InterruptedException si le thread principal est interrompu
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int nbThreadsMax = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int nbOperations = (args.length > 1) ? Integer.parseInt(args[1]) : 400_000;
+
+        System.out.printf("%d opérations, %d maisons de %d places, %d processeur(s)%n",
+                nbOperations, NB_MAISONS, 2 * NB_CHAMBRES, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %14s %14s %12s %10s%n", "threads", "durée (ms)", "opérations/s", "accélération", "efficacité");
+        double reference = 0;
+        for (int nbThreads = 1; nbThreads <= nbThreadsMax; nbThreads *= 2) {
+            for (int i = 0; i < NB_ECHAUFFEMENTS; i++) {
+                executer(nbThreads, nbOperations);
+            }
+            double meilleure = Double.MAX_VALUE;
+            for (int i = 0; i < NB_MESURES; i++) {
+                meilleure = Math.min(meilleure, executer(nbThreads, nbOperations));
+            }
+            if (reference == 0) {
+                reference = meilleure;
+            }
+            double acceleration = reference / meilleure;
+            System.out.printf("%-8d %14.1f %14.0f %12.2f %9.0f%%%n", nbThreads, meilleure,
+                    nbOperations / meilleure * 1000, acceleration, 100 * acceleration / nbThreads);
+            if (nbThreads < nbThreadsMax && nbThreads * 2 > nbThreadsMax) {
+                nbThreads = nbThreadsMax / 2;
+            }
+        }
+    }
+
+    /**
+     * Exécute les opérations sur une CIUP neuve, vérifie sa cohérence et retourne la durée.
+     *
+     * @return la durée des opérations, en millisecondes
+     */
+    private static double executer(int nbThreads, int nbOperations) throws InterruptedException {
+        Ciup ciup = new Ciup(new MaisonInternationale("Maison internationale", "Internationale", "Direction", "Paris"));
+        List<Integer> capacites = Collections.nCopies(NB_CHAMBRES, 2);
+        List<MaisonEtudiante> maisons = new ArrayList<>(NB_MAISONS);
+        for (int i = 0; i < NB_MAISONS; i++) {
+            maisons.add(new MaisonEtudiante(ciup, "Maison " + i, "Direction", NATIONALITES[i % NATIONALITES.length],
+                    "Paris", capacites));
+        }
+
+        List<Queue<Etudiant>> promus = new ArrayList<>(nbThreads);
+        for (int t = 0; t < nbThreads; t++) {
+            promus.add(new ConcurrentLinkedQueue<>());
+        }
+        ciup.ajouterEcouteurPromotions(promotion ->
+                promus.get(maisons.indexOf(promotion.getMaison()) % nbThreads).add(promotion.getEtudiant()));
+
+        ExecutorService executeur = Executors.newFixedThreadPool(nbThreads);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<?>> taches = new ArrayList<>(nbThreads);
+        for (int t = 0; t < nbThreads; t++) {
+            int numero = t;
+            taches.add(executeur.submit(() -> {
+                depart.await();
+                operer(ciup, maisons, promus.get(numero), numero, nbThreads, nbOperations / nbThreads);
+                return null;
+            }));
+        }
+        long debut = System.nanoTime();
+        depart.countDown();
+        for (Future<?> tache : taches) {
+            try {
+                tache.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec d'un thread du banc", e.getCause());
+            }
+        }
+        double duree = (System.nanoTime() - debut) / 1e6;
+        executeur.shutdown();
+        verifier(ciup, maisons);
+        return duree;
+    }
+
+    /**
+     * Opérations d'un thread : inscriptions et retraits dans ses maisons, et quelques transferts.
+     * Les étudiants promus dans ses maisons sont lus dans la file {@code promus}.
+     */
+    private static void operer(Ciup ciup, List<MaisonEtudiante> maisons, Queue<Etudiant> promus,
+                               int numero, int nbThreads, int nbOperations) {
+        Random aleatoire = new Random(numero);
+        List<MaisonEtudiante> siennes = new ArrayList<>();
+        for (int i = numero; i < maisons.size(); i += nbThreads) {
+            siennes.add(maisons.get(i));
+        }
+        List<Etudiant> loges = new ArrayList<>();
+        for (int operation = 0; operation < nbOperations; operation++) {
+            for (Etudiant promu = promus.poll(); promu != null; promu = promus.poll()) {
+                loges.add(promu);
+            }
+            int tirage = aleatoire.nextInt(1000);
+            if (tirage < TRANSFERTS_POUR_MILLE && !loges.isEmpty()) {
+                Etudiant etudiant = loges.get(aleatoire.nextInt(loges.size()));
+                MaisonEtudiante residence = etudiant.getMaisonResidence();
+                MaisonEtudiante destination = maisons.get(aleatoire.nextInt(maisons.size()));
+                if (residence != null && residence.transfererEtudiant(etudiant, destination)) {
+                    loges.remove(etudiant);
+                }
+            } else if (tirage < 550 || loges.isEmpty()) {
+                Etudiant etudiant = Etudiant.candidat(ciup, "Nom" + numero + "-" + operation, "Prénom",
+                        NATIONALITES[aleatoire.nextInt(NATIONALITES.length)], null);
+                siennes.get(aleatoire.nextInt(siennes.size())).inscrireEtudiant(etudiant);
+                if (etudiant.getMaisonResidence() != null) {
+                    loges.add(etudiant);
+                }
+            } else {
+                Etudiant etudiant = loges.remove(aleatoire.nextInt(loges.size()));
+                MaisonEtudiante residence = etudiant.getMaisonResidence();
+                if (residence != null) {
+                    residence.retirerEtudiant(etudiant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vérifie la cohérence des maisons une fois les threads terminés.
+     *
+     * @throws IllegalStateException si une maison est incohérente
+     */
+    private static void verifier(Ciup ciup, List<MaisonEtudiante> maisons) {
+        Set<Etudiant> vus = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MaisonEtudiante maison : maisons) {
+            int dansChambres = 0;
+            for (Chambre chambre : maison.getListeChambres()) {
+                if (chambre.getListeEtudiante().size() > chambre.getCapacite()) {
+                    throw new IllegalStateException("Chambre surpeuplée dans " + maison.getNom());
+                }
+                dansChambres += chambre.getListeEtudiante().size();
+            }
+            for (Etudiant etudiant : maison.getListeEtudiante()) {
+                if (!vus.add(etudiant) || etudiant.getMaisonResidence() != maison) {
+                    throw new IllegalStateException(etudiant.getNom() + " logé deux fois ou mal rattaché");
+                }
+            }
+            if (dansChambres != maison.getNbEtudiants()
+                    || maison.getHistogrammeNationalites().getTotal() != maison.getNbEtudiants()
+                    || maison.getNbEtudiants() > maison.getCapaciteEtudiantsMax()) {
+                throw new IllegalStateException("Effectifs incohérents dans " + maison.getNom());
+            }
+        }
+        ciup.verifierEffectifs();
+        if (ciup.getNbEtudiants() != vus.size()) {
+            throw new IllegalStateException("Nombre d'étudiants de la CIUP incohérent");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package Application;
+
+import Modele.*;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Export en ligne de commande des maisons étudiantes ({@link ExportMaisons}),
+ * par exemple pour l'extraction nocturne.
+ * <p>
+ * La CIUP est chargée depuis le dépôt de l'application ({@link Persistance}), puis son instantané
+ * complet est écrit au format CSV ou JSON Lines, déduit de l'extension du fichier.
+ * </p>
+ * <p>
+ * Usage : {@code ExportCiup fichier.(csv|jsonl) [--maison nom]... [--nationalite nationalite]...}
+ * </p>
+ */
+public class ExportCiup {
+
+    /**
+     * Lance l'export vers le fichier donné en argument.
+     *
+     * @param args le chemin du fichier, puis les filtres éventuels
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage : ExportCiup fichier.(csv|jsonl) [--maison nom]... [--nationalite nationalite]...");
+            return;
+        }
+        List<String> maisons = new ArrayList<>();
+        List<String> nationalites = new ArrayList<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--maison")) {
+                maisons.add(args[i + 1]);
+            } else if (args[i].equals("--nationalite")) {
+                nationalites.add(args[i + 1]);
+            } else {
+                System.out.println("Option inconnue : " + args[i]);
+                return;
+            }
+        }
+
+        Ciup ciup = Persistance.getDepot().charger();
+        if (ciup == null) {
+            System.out.println("Aucune CIUP enregistrée à exporter.");
+            return;
+        }
+        ExportMaisons export = new ExportMaisons(ExportMaisons.Format.depuisExtension(args[0]));
+        export.setMaisons(maisons.isEmpty() ? null : maisons);
+        export.setNationalites(nationalites.isEmpty() ? null : nationalites);
+
+        long debut = System.nanoTime();
+        long nbLignes = export.exporter(ciup.instantaneComplet(), Paths.get(args[0]));
+        System.out.printf("%d ligne(s) écrite(s) dans %s en %.1f ms%n", nbLignes, args[0], (System.nanoTime() - debut) / 1e6);
+    }
+}
@@ -0,0 +1,40 @@
+package Application;
+
+import Modele.*;
+import java.io.*;
+
+/**
+ * Import en ligne de commande d'un fichier CSV d'étudiants ({@link ImportEtudiantsCsv}).
+ * <p>
+ * La CIUP est chargée depuis le dépôt de l'application ({@link Persistance}), ou construite par
+ * {@link Factory#constructionCiup()} si aucune sauvegarde n'existe ; les étudiants du fichier
+ * y sont affectés, la CIUP est enregistrée une fois, puis le bilan de l'import est affiché.
+ * </p>
+ * <p>
+ * Usage : {@code ImportEtudiants fichier.csv [tailleLot]}.
+ * </p>
+ */
+public class ImportEtudiants {
+
+    /**
+     * Lance l'import du fichier donné en argument.
+     *
+     * @param args le chemin du fichier CSV, puis éventuellement la taille des lots
+     * @throws IOException en cas d'erreur de lecture ou d'en-tête invalide
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage : ImportEtudiants fichier.csv [tailleLot]");
+            return;
+        }
+        int tailleLot = (args.length > 1) ? Integer.parseInt(args[1]) : ImportEtudiantsCsv.TAILLE_LOT_PAR_DEFAUT;
+
+        DepotCiup depot = Persistance.getDepot();
+        Ciup ciup = depot.charger();
+        if (ciup == null) {
+            ciup = Factory.constructionCiup();
+        }
+        ImportEtudiantsCsv.Rapport rapport = new ImportEtudiantsCsv(ciup, tailleLot).importer(new File(args[0]), depot);
+        System.out.println(rapport);
+    }
+}
@@ -0,0 +1,46 @@
+package Application;
+
+import Modele.*;
+import java.io.*;
+
+/**
+ * Migration en ligne de commande d'une ancienne sauvegarde {@code ciup.ser}
+ * vers le format binaire de {@link GestionSauvegarde} ({@link MigrationHistorique}).
+ * <p>
+ * L'avancement est affiché au fil des maisons écrites, puis le bilan : nombre de maisons,
+ * chambres, étudiants, inscriptions en attente et soirées convertis, octets lus et écrits,
+ * et résultat de la vérification d'un échantillon de maisons relues.
+ * </p>
+ * <p>
+ * Usage : {@code MigrationCiup [ciup.ser]}.
+ * </p>
+ */
+public class MigrationCiup {
+
+    /** Nombre de lignes d'avancement affichées au plus pendant la migration */
+    private static final int NB_ETAPES = 20;
+
+    /**
+     * Lance la migration du fichier donné en argument, {@code ciup.ser} par défaut.
+     *
+     * @param args le chemin du fichier sérialisé (facultatif)
+     * @throws Exception en cas d'erreur de lecture ou d'écriture
+     */
+    public static void main(String[] args) throws Exception {
+        File source = new File(args.length > 0 ? args[0] : "ciup.ser");
+        MigrationHistorique migration = new MigrationHistorique(source);
+        migration.setProgression((nbEcrites, nbMaisons, nom, octets) -> {
+            int pas = Math.max(1, nbMaisons / NB_ETAPES);
+            if (nbEcrites % pas == 0 || nbEcrites == nbMaisons) {
+                System.out.printf("%d/%d maison(s) écrite(s) (%d%%), %d octets%n",
+                        nbEcrites, nbMaisons, nbEcrites * 100 / nbMaisons, octets);
+            }
+        });
+        MigrationHistorique.Bilan bilan = migration.migrer();
+        System.out.println(bilan);
+        if (!bilan.estVerifie()) {
+            System.out.println("Vérification en échec : la racine écrite a été supprimée, " + source + " reste la sauvegarde de référence.");
+            System.exit(1);
+        }
+    }
+}
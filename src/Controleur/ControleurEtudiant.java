@@ -3,6 +3,7 @@ package Controleur;
 import Vue.*;
 import Modele.*;
 import java.awt.event.*;
+import java.util.List;
 import javax.swing.*;
 
 /**
@@ -17,7 +18,7 @@ import javax.swing.*;
  *   <li>l'annulation d'une action en cours.</li>
  * </ul>
  *
- * Toutes les actions entraînent une sauvegarde automatique de l'état de la CIUP.
+ * Les actions modifiant la CIUP sont consignées dans le journal des opérations.
  *
  * @author Otman Benbouziane
  * @version 1.0
@@ -25,7 +26,7 @@ import javax.swing.*;
  * @see VueFormulaireEtudiant
  * @see Etudiant
  * @see MaisonEtudiante
- * @see GestionSauvegarde
+ * @see DepotCiup
  */
 public class ControleurEtudiant implements ActionListener {
 
@@ -102,7 +103,7 @@ public class ControleurEtudiant implements ActionListener {
      *   <li>{@link #ACTION_RETOUR_ACCUEIL} : revient à la page principale de l'application</li>
      * </ul>
      *
-     * Une sauvegarde est automatiquement effectuée après chaque action.
+     * L'inscription et la suppression d'un étudiant sont consignées dans le journal des opérations.
      *
      * @param e l'événement déclenché par l'utilisateur
      */
@@ -120,7 +121,10 @@ public class ControleurEtudiant implements ActionListener {
                 break;
 
             case ACTION_AJOUTER_ETUDIANT:
-                _formulaire.recupererDonnees();
+                Etudiant nouvelEtudiant = _formulaire.recupererDonnees();
+                if (nouvelEtudiant != null) {
+                    Persistance.getDepot().journaliser(_vue.get_ciup(), Operation.inscription(_vue.get_ciup(), nouvelEtudiant));
+                }
                 _vue.rafraichirPanelGauche(this);
                 break;
 
@@ -130,7 +134,9 @@ public class ControleurEtudiant implements ActionListener {
 
             case ACTION_SUPPRIMER_ETUDIANT:
                 if (etudiant != null && maison != null) {
-                    maison.retirerEtudiant(etudiant);
+                    List<PromotionAttente.Promotion> promues = maison.retirerEtudiant(etudiant);
+                    Persistance.getDepot().journaliser(_vue.get_ciup(),
+                            Operation.retrait(_vue.get_ciup(), maison, etudiant, promues));
                     _vue.rafraichirPanelGauche(this);
                 }
                 break;
@@ -147,8 +153,5 @@ public class ControleurEtudiant implements ActionListener {
             default:
                 break;
         }
-
-        // Sauvegarde l’état actuel de la CIUP après chaque action
-        GestionSauvegarde.sauvegarder(_vue.get_ciup());
     }
 }
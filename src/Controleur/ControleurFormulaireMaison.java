@@ -17,11 +17,11 @@ import java.io.File;
  *   <li>l'annulation des modifications en fermant simplement le formulaire.</li>
  * </ul>
  * 
- * Toute modification validée entraîne une sauvegarde automatique de l'état de la CIUP.
+ * Toute modification validée est consignée dans le journal des opérations de la CIUP.
  * 
  * @see VueFormulaireMaison
  * @see Maison
- * @see GestionSauvegarde
+ * @see DepotCiup
  * 
  * @version 1.0
  * @author Lucas Pausé-Chapuis
@@ -71,21 +71,21 @@ public class ControleurFormulaireMaison {
 
     /**
      * Récupère les données saisies dans les champs du formulaire
-     * et les applique à l'objet maison, puis sauvegarde.
+     * et les applique à l'objet maison, puis journalise la modification.
      */
     private void validerInfos() {
         maison.setNom(vue.getChampNom().getText());
         maison.setDescription(vue.getChampDescription().getText());
         maison.setNationalite(vue.getChampNationalite().getText());
         maison.setDirecteur(vue.getChampDirecteur().getText());
-        GestionSauvegarde.sauvegarder(maison.getCiup());
+        Persistance.getDepot().journaliser(maison.getCiup(), Operation.modificationMaison(maison.getCiup(), maison));
         vue.dispose();
     }
 
     /**
      * Ouvre une boîte de dialogue pour sélectionner une image.
      * Si une image est choisie, elle est redimensionnée, affichée dans le formulaire
-     * et associée à la maison. Une sauvegarde est effectuée.
+     * et associée à la maison. La modification est journalisée.
      */
     private void choisirImage() {
         JFileChooser fileChooser = new JFileChooser();
@@ -100,7 +100,7 @@ public class ControleurFormulaireMaison {
             String imagePath = selectedFile.getAbsolutePath();
             vue.getLabelImage().setIcon(vue.redimensionnerImage(100, 100, imagePath));
             maison.setCheminImage(imagePath);
-            GestionSauvegarde.sauvegarder(maison.getCiup());
+            Persistance.getDepot().journaliser(maison.getCiup(), Operation.modificationMaison(maison.getCiup(), maison));
         }
     }
 }
@@ -5,8 +5,9 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.File;
 
-import Modele.GestionSauvegarde;
+import Modele.Persistance;
 import Modele.Maison;
+import Modele.Operation;
 
 /**
  * Contrôleur utilitaire permettant de gérer la sélection et l'affichage d'une image pour une maison.
@@ -17,11 +18,11 @@ import Modele.Maison;
  * <ul>
  *   <li>l'ouverture d'une boîte de dialogue pour choisir une image sur le disque,</li>
  *   <li>l'affichage de l'image redimensionnée dans un composant {@code JLabel},</li>
- *   <li>la mise à jour du chemin de l'image dans l'objet {@code Maison} et la sauvegarde automatique.</li>
+ *   <li>la mise à jour du chemin de l'image dans l'objet {@code Maison} et sa journalisation.</li>
  * </ul>
  * 
  * @see Maison
- * @see GestionSauvegarde
+ * @see Persistance
  * 
  * @version 1.0
  * @author Lucas Pausé-Chapuis
@@ -34,7 +35,7 @@ public class ControleurImageMaison {
 
     /**
      * Ouvre une boîte de dialogue pour sélectionner une image, l'affiche dans le label fourni
-     * et associe son chemin à l'objet {@code Maison} donné, puis déclenche une sauvegarde.
+     * et associe son chemin à l'objet {@code Maison} donné, puis journalise la modification.
      *
      * @param labelImage le composant {@code JLabel} dans lequel l'image redimensionnée sera affichée
      * @param maison l'objet {@code Maison} auquel l'image est associée
@@ -58,7 +59,7 @@ public class ControleurImageMaison {
 
             // Mise à jour du modèle
             maison.setCheminImage(imagePath);
-            GestionSauvegarde.sauvegarder(maison.getCiup());
+            Persistance.getDepot().journaliser(maison.getCiup(), Operation.modificationMaison(maison.getCiup(), maison));
         }
     }
 
@@ -24,7 +24,7 @@ import Vue.*;
  * @see VueInfosMaison
  * @see MaisonEtudiante
  * @see VueFormulaireMaison
- * @see GestionSauvegarde
+ * @see DepotCiup
  */
 public class ControleurInfosMaison {
 	
@@ -46,7 +46,7 @@ public class ControleurInfosMaison {
                 parent.dispose();
             }
             frame.dispose();
-            GestionSauvegarde.sauvegarder(ciup);
+            Persistance.getDepot().demanderSauvegarde(ciup);
             VueListeMaisons.lanceApplication();
         };
     }
@@ -64,7 +64,7 @@ public class ControleurInfosMaison {
             new VueFormulaireMaison(frame, maison);
             frame.dispose();
             new VueInfosMaison(ciup, maison); // Réouverture après l'édition (facultatif selon logique métier)
-            GestionSauvegarde.sauvegarder(ciup);
+            Persistance.getDepot().demanderSauvegarde(ciup);
         };
     }
 
@@ -87,12 +87,13 @@ public class ControleurInfosMaison {
                 JOptionPane.WARNING_MESSAGE
             );
             if (confirmation == JOptionPane.OK_OPTION) {
+                Operation suppression = Operation.suppressionMaison(ciup, maison);
                 ciup.supprimerMaison(maison);
                 frame.dispose();
                 if (parent != null) {
                     parent.dispose();
                 }
-                GestionSauvegarde.sauvegarder(ciup);
+                Persistance.getDepot().journaliser(ciup, suppression);
             }
         };
     }
@@ -113,13 +114,11 @@ public class ControleurInfosMaison {
             @Override
             public void mouseClicked(MouseEvent e) {
                 ControleurImageMaison.choisirEtAfficherImage(labelImage, maison);
-                GestionSauvegarde.sauvegarder(maison.getCiup());
             }
 
             @Override
             public void mouseEntered(MouseEvent e) {
                 labelImage.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-                GestionSauvegarde.sauvegarder(maison.getCiup());
             }
         };
     }
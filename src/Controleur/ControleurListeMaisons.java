@@ -23,7 +23,7 @@ import javax.swing.*;
  * 
  * @see VueInfosMaison
  * @see MaisonEtudiante
- * @see GestionSauvegarde
+ * @see DepotCiup
  */
 public class ControleurListeMaisons {
 	
@@ -71,7 +71,7 @@ public class ControleurListeMaisons {
             @Override
             public void mouseClicked(MouseEvent e) {
                 new VueInfosMaison(ciup, frame, maison);
-                GestionSauvegarde.sauvegarder(ciup);
+                Persistance.getDepot().demanderSauvegarde(ciup);
             }
         };
     }
@@ -105,8 +105,8 @@ public class ControleurListeMaisons {
                 // Ouvre la vue d'informations sur cette nouvelle maison
                 new VueInfosMaison(ciup, frame, nouvelleMaison);
 
-                // Sauvegarde le modèle
-                GestionSauvegarde.sauvegarder(ciup);
+                // Journalise la création de la maison
+                Persistance.getDepot().journaliser(ciup, Operation.ajoutMaison(ciup, nouvelleMaison));
             }
         };
     }
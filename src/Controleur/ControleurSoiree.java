@@ -16,8 +16,8 @@ import javax.swing.*;
  * </p>
  * 
  * <p>
- * Ce contrôleur s'occupe également de la gestion de la sauvegarde automatique
- * après chaque action modifiant les données.
+ * Ce contrôleur consigne également dans le journal des opérations
+ * chaque action modifiant les données.
  * </p>
  * 
  * @author Otman Benbouziane
@@ -141,7 +141,13 @@ public class ControleurSoiree implements ActionListener {
                 break;
 
             case ACTION_AJOUTER_SOIREE:
-                _vueFormulaireSoirees.recupererDonnees();
+                Soiree nouvelleSoiree = _vueFormulaireSoirees.recupererDonnees();
+                if (nouvelleSoiree != null) {
+                    MaisonEtudiante organisatrice = _vueListesSoirees.get_ciup()
+                            .getMaisonParNom(_vueFormulaireSoirees.getFieldMaison().getText().trim());
+                    Persistance.getDepot().journaliser(_vueListesSoirees.get_ciup(),
+                            Operation.ajoutSoiree(_vueListesSoirees.get_ciup(), organisatrice, nouvelleSoiree));
+                }
                 _vueListesSoirees.rafraichirPanelGauche(this);
                 break;
 
@@ -152,6 +158,8 @@ public class ControleurSoiree implements ActionListener {
             case ACTION_SUPPRIMER_SOIREE:
                 if (soiree != null && maison != null) {
                     maison.retirerSoiree(soiree);
+                    Persistance.getDepot().journaliser(_vueListesSoirees.get_ciup(),
+                            Operation.retraitSoiree(_vueListesSoirees.get_ciup(), maison, soiree));
                     _vueListesSoirees.rafraichirPanelGauche(this);
                 }
                 break;
@@ -164,8 +172,5 @@ public class ControleurSoiree implements ActionListener {
             default:
                 break;
         }
-
-        // Sauvegarde automatique après chaque modification
-        GestionSauvegarde.sauvegarder(_vueListesSoirees.get_ciup());
     }
 }
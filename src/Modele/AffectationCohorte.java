@@ -0,0 +1,748 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Affectation groupée d'une cohorte d'étudiants, par exemple les admissions d'une rentrée
+ * ({@link Ciup#affecterCohorte(Collection)}).
+ * <p>
+ * Contrairement aux affectations une à une faites par le constructeur d'{@link Etudiant},
+ * toutes les places sont d'abord calculées sur une prévision de l'état des maisons, sans rien
+ * modifier, puis appliquées ensemble :
+ * </p>
+ * <ol>
+ * <li>les candidats ayant un souhait sont inscrits dans la maison souhaitée, logés s'il y reste
+ * une chambre, sinon en liste d'attente ;</li>
+ * <li>les autres sont logés dans la maison de leur nationalité s'il y reste une chambre ;
+ * une maison nationale pleine ne retient pas ses candidats en liste d'attente, ils passent
+ * à l'étape suivante ;</li>
+ * <li>les derniers sont répartis équitablement, comme par {@link Ciup#affecterMaisonEquitablement} :
+ * la maison la moins chargée où leur nationalité n'est pas majoritaire. Les nationalités sont
+ * entrelacées selon leur poids dans la cohorte, si bien que le seuil de 50% est évalué sur une
+ * cohorte mêlée plutôt qu'au fil de l'ordre d'arrivée.</li>
+ * </ol>
+ * <p>
+ * Ces étapes forment la politique {@link Politique#COHORTE}. Deux autres politiques calculent
+ * les places sur les mêmes prévisions, ce qui rend leurs bilans directement comparables :
+ * {@link Politique#GLOUTONNE} rejoue l'affectation une à une des constructeurs d'{@link Etudiant},
+ * et {@link Politique#OPTIMALE} résout un flot de coût minimal ({@link FlotCoutMin}) qui maximise
+ * le nombre de logés sous les plafonds de nationalité, en privilégiant les souhaits.
+ * {@link Ciup#simulerCohorte} calcule un bilan sans rien appliquer, et une {@link SimulationCiup}
+ * rejoue une cohorte sur une copie de l'état des maisons.
+ * </p>
+ * <p>
+ * L'application est atomique : les candidats invalides sont écartés avant toute modification,
+ * et si une inscription échoue, celles déjà faites sont annulées avant de propager l'erreur.
+ * Les inscriptions ne sont pas journalisées une à une : l'appelant enregistre la CIUP une fois
+ * la cohorte affectée. Doit être appelé sur le thread qui modifie le modèle.
+ * </p>
+ *
+ * @version 1.0
+ * @see Bilan
+ */
+public class AffectationCohorte {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Politique de calcul des places d'une cohorte.
+     */
+    public enum Politique {
+
+        /**
+         * Candidats pris un à un dans l'ordre reçu, comme par les constructeurs d'{@link Etudiant} :
+         * maison souhaitée, sinon maison nationale (en liste d'attente si elle est pleine),
+         * sinon répartition équitable.
+         */
+        GLOUTONNE,
+
+        /**
+         * Souhaits d'abord, puis chambres libres des maisons nationales, puis répartition
+         * équitable des autres candidats, nationalités entrelacées.
+         */
+        COHORTE,
+
+        /**
+         * Flot de coût minimal : le plus grand nombre possible de candidats sont logés, aucune
+         * nationalité ne dépassant la moitié des places d'une maison autre que la sienne ;
+         * à nombre égal, les souhaits puis les maisons nationales sont privilégiés.
+         * Les candidats sans chambre sont mis en liste d'attente de leur maison souhaitée,
+         * sinon nationale, sinon de la maison à la plus courte liste d'attente.
+         */
+        OPTIMALE
+    }
+
+    /**
+     * Bilan d'une affectation groupée : places obtenues par étape, rejets, état final des maisons et débit.
+     */
+    public static class Bilan {
+
+        /** Nombre maximal de rejets détaillés conservés */
+        public static final int MAX_REJETS_DETAILLES = 100;
+
+        private final Politique politique;
+        private final boolean simulation;
+        private int nbCandidats;
+        private int nbLogesSouhait;
+        private int nbLogesNationale;
+        private int nbLogesEquitable;
+        private int nbEnAttente;
+        private int nbDebordements;
+        private int nbRejets;
+        private int nbLitsVides;
+        private int nbMaisonsEnAttente;
+        private int nbMaisonsMajoriteEtrangere;
+        private final List<String> rejets = new ArrayList<>();
+        private final Map<MaisonEtudiante, Integer> placementsParMaison = new LinkedHashMap<>();
+        private long dureePlanificationNanos;
+        private long dureeApplicationNanos;
+
+        private Bilan(Politique politique, boolean simulation) {
+            this.politique = politique;
+            this.simulation = simulation;
+        }
+
+        private void rejeter(Etudiant etudiant, String motif) {
+            nbRejets++;
+            if (rejets.size() < MAX_REJETS_DETAILLES) {
+                rejets.add((etudiant == null) ? motif : etudiant.getPrenom() + " " + etudiant.getNom() + " : " + motif);
+            }
+        }
+
+        /** @return la politique ayant calculé les places */
+        public Politique getPolitique() {
+            return politique;
+        }
+
+        /** @return true si les places ont seulement été calculées, sans être appliquées */
+        public boolean estSimulation() {
+            return simulation;
+        }
+
+        /** @return le nombre de candidats reçus, rejetés compris */
+        public int getNbCandidats() {
+            return nbCandidats;
+        }
+
+        /** @return le nombre de candidats logés dans la maison qu'ils souhaitaient */
+        public int getNbLogesSouhait() {
+            return nbLogesSouhait;
+        }
+
+        /** @return le nombre de candidats logés dans la maison de leur nationalité */
+        public int getNbLogesNationale() {
+            return nbLogesNationale;
+        }
+
+        /** @return le nombre de candidats logés par la répartition équitable */
+        public int getNbLogesEquitable() {
+            return nbLogesEquitable;
+        }
+
+        /** @return le nombre total de candidats logés */
+        public int getNbLoges() {
+            return nbLogesSouhait + nbLogesNationale + nbLogesEquitable;
+        }
+
+        /** @return le nombre de candidats placés en liste d'attente */
+        public int getNbEnAttente() {
+            return nbEnAttente;
+        }
+
+        /** @return le nombre de candidats dont la maison nationale était pleine, passés à la répartition équitable */
+        public int getNbDebordements() {
+            return nbDebordements;
+        }
+
+        /** @return le nombre de candidats écartés */
+        public int getNbRejets() {
+            return nbRejets;
+        }
+
+        /** @return le nombre de chambres restées libres dans la CIUP après l'affectation */
+        public int getNbLitsVides() {
+            return nbLitsVides;
+        }
+
+        /** @return le nombre de maisons ayant une liste d'attente après l'affectation */
+        public int getNbMaisonsEnAttente() {
+            return nbMaisonsEnAttente;
+        }
+
+        /**
+         * @return le nombre de maisons où, après l'affectation, plus de la moitié des logés
+         *         ont une nationalité autre que celle de la maison
+         */
+        public int getNbMaisonsMajoriteEtrangere() {
+            return nbMaisonsMajoriteEtrangere;
+        }
+
+        /**
+         * Retourne le détail des premiers rejets (au plus {@value #MAX_REJETS_DETAILLES}),
+         * sous la forme "prénom nom : motif".
+         *
+         * @return la liste non modifiable des rejets détaillés
+         */
+        public List<String> getRejets() {
+            return Collections.unmodifiableList(rejets);
+        }
+
+        /**
+         * Retourne le nombre de candidats inscrits (logés ou en attente) dans chaque maison.
+         *
+         * @return la table non modifiable des inscriptions par maison, dans l'ordre des premières
+         */
+        public Map<MaisonEtudiante, Integer> getPlacementsParMaison() {
+            return Collections.unmodifiableMap(placementsParMaison);
+        }
+
+        /** @return la durée du calcul des places, en millisecondes */
+        public double getDureePlanificationMs() {
+            return dureePlanificationNanos / 1e6;
+        }
+
+        /** @return la durée de l'application des inscriptions, en millisecondes */
+        public double getDureeApplicationMs() {
+            return dureeApplicationNanos / 1e6;
+        }
+
+        /** @return le nombre de candidats traités par seconde, calcul et application compris */
+        public double getCandidatsParSeconde() {
+            long duree = dureePlanificationNanos + dureeApplicationNanos;
+            return (duree == 0) ? 0 : nbCandidats * 1e9 / duree;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            texte.append("Politique ").append(politique).append(simulation ? " (simulation) : " : " : ")
+                    .append(nbCandidats).append(" candidat(s) : ").append(getNbLoges()).append(" logé(s) (")
+                    .append(nbLogesSouhait).append(" par souhait, ").append(nbLogesNationale).append(" en maison nationale, ")
+                    .append(nbLogesEquitable).append(" par répartition équitable), ").append(nbEnAttente)
+                    .append(" en attente, ").append(nbRejets).append(" rejet(s), ").append(nbDebordements)
+                    .append(" débordement(s) de maison nationale, ").append(placementsParMaison.size()).append(" maison(s) concernée(s)\n");
+            texte.append(nbLitsVides).append(" lit(s) vide(s), ").append(nbMaisonsEnAttente).append(" maison(s) avec liste d'attente, ")
+                    .append(nbMaisonsMajoriteEtrangere).append(" maison(s) à majorité étrangère\n");
+            texte.append(String.format("calcul : %.1f ms, application : %.1f ms (%.0f candidats/s)",
+                    getDureePlanificationMs(), getDureeApplicationMs(), getCandidatsParSeconde()));
+            for (String rejet : rejets) {
+                texte.append("\n  ").append(rejet);
+            }
+            if (nbRejets > rejets.size()) {
+                texte.append("\n  ... ").append(nbRejets - rejets.size()).append(" autre(s) rejet(s)");
+            }
+            return texte.toString();
+        }
+    }
+
+    /**
+     * État prévu d'une maison au fil du calcul des places.
+     */
+    private static final class Prevision {
+
+        /** État de la maison avant la cohorte */
+        private final EtatMaison etat;
+
+        private final MaisonEtudiante maison;
+
+        /** Chambres encore libres : capacité moins logés */
+        private int libres;
+
+        /** Places disponibles au sens de la répartition : libres moins inscrits en attente */
+        private int disponibles;
+
+        /** Nombre de logés prévus */
+        private int total;
+
+        /** Nationalité de plus de la moitié des logés prévus, ou null */
+        private String majorite;
+
+        /** Longueur prévue de la liste d'attente */
+        private int attente;
+
+        /** Logés prévus en plus des actuels, par nationalité normalisée */
+        private final Map<String, Integer> ajouts = new HashMap<>();
+
+        /** Candidats logés et mis en attente dans la maison, dans l'ordre */
+        private final List<Etudiant> loges = new ArrayList<>();
+        private final List<Etudiant> enAttente = new ArrayList<>();
+
+        private Prevision(EtatMaison etat) {
+            this.etat = etat;
+            this.maison = etat.maison;
+            this.total = etat.histogramme.getTotal();
+            this.libres = etat.getLibres();
+            this.attente = etat.attente;
+            this.disponibles = libres - attente;
+            this.majorite = etat.histogramme.getMajoritaire();
+        }
+
+        private int effectif(String nationalite) {
+            return etat.histogramme.getEffectif(nationalite)
+                    + ajouts.getOrDefault(Ciup.normaliserNationalite(nationalite), 0);
+        }
+
+        /** Prévoit un logé de plus ; seule sa nationalité peut devenir majoritaire. */
+        private void loger(Etudiant candidat) {
+            String nationalite = candidat.getNationalite();
+            loges.add(candidat);
+            libres--;
+            disponibles--;
+            total++;
+            ajouts.merge(Ciup.normaliserNationalite(nationalite), 1, Integer::sum);
+            if (majorite != null && effectif(majorite) * 2 <= total) {
+                majorite = null;
+            }
+            if (majorite == null && effectif(nationalite) * 2 > total) {
+                majorite = nationalite;
+            }
+        }
+
+        private void mettreEnAttente(Etudiant candidat) {
+            enAttente.add(candidat);
+            disponibles--;
+            attente++;
+        }
+    }
+
+    /** Étapes d'affectation, dans l'ordre où elles sont tentées */
+    private enum Etape { SOUHAIT, NATIONALE, EQUITABLE }
+
+    /** Place calculée pour un candidat */
+    private static final class Placement {
+        private final Etudiant etudiant;
+        private final MaisonEtudiante maison;
+        private final boolean loge;
+        private final Etape etape;
+
+        private Placement(Etudiant etudiant, MaisonEtudiante maison, boolean loge, Etape etape) {
+            this.etudiant = etudiant;
+            this.maison = maison;
+            this.loge = loge;
+            this.etape = etape;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** CIUP dont les maisons accueillent la cohorte */
+    private final Ciup ciup;
+
+    /** Simulation dont les maisons accueillent la cohorte, ou null pour les maisons réelles */
+    private final SimulationCiup simulation;
+
+    /** Prévision de chaque maison de la CIUP, dans l'ordre de la CIUP */
+    private final Map<MaisonEtudiante, Prevision> previsions = new LinkedHashMap<>();
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Prépare l'affectation d'une cohorte dans une CIUP.
+     *
+     * @param ciup la CIUP dont les maisons accueillent la cohorte
+     */
+    AffectationCohorte(Ciup ciup) {
+        this.ciup = ciup;
+        this.simulation = null;
+    }
+
+    /**
+     * Prépare l'affectation d'une cohorte dans l'état simulé des maisons. Les places sont
+     * seulement calculées ; {@link #etatsPrevus()} retourne ensuite l'état des maisons modifiées.
+     *
+     * @param simulation la simulation dont les maisons accueillent la cohorte
+     */
+    AffectationCohorte(SimulationCiup simulation) {
+        this.ciup = simulation.getCiup();
+        this.simulation = simulation;
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Calcule la place de chaque candidat selon une politique, puis les inscrit tous si demandé.
+     *
+     * @param candidats les étudiants à affecter, ni logés ni en liste d'attente
+     * @param politique la politique de calcul des places
+     * @param appliquer false pour seulement calculer le bilan, sans modifier la CIUP
+     * @return le bilan de l'affectation
+     * @throws RuntimeException si une inscription échoue ; aucune n'est alors conservée
+     */
+    Bilan affecter(Collection<Etudiant> candidats, Politique politique, boolean appliquer) {
+        Bilan bilan = new Bilan(politique, !appliquer);
+        bilan.nbCandidats = candidats.size();
+        long debut = System.nanoTime();
+        List<Etudiant> valides = valider(candidats, bilan);
+        List<Placement> placements;
+        switch (politique) {
+            case GLOUTONNE:
+                placements = planifierGlouton(valides);
+                break;
+            case OPTIMALE:
+                placements = planifierOptimal(valides);
+                break;
+            default:
+                placements = planifierCohorte(valides, bilan);
+        }
+        long debutApplication = System.nanoTime();
+        bilan.dureePlanificationNanos = debutApplication - debut;
+        if (appliquer) {
+            appliquer(placements);
+            bilan.dureeApplicationNanos = System.nanoTime() - debutApplication;
+        }
+
+        for (Placement placement : placements) {
+            bilan.placementsParMaison.merge(placement.maison, 1, Integer::sum);
+            if (!placement.loge) {
+                bilan.nbEnAttente++;
+            } else if (placement.etape == Etape.SOUHAIT) {
+                bilan.nbLogesSouhait++;
+            } else if (placement.etape == Etape.NATIONALE) {
+                bilan.nbLogesNationale++;
+            } else {
+                bilan.nbLogesEquitable++;
+            }
+        }
+        for (Prevision prevision : previsions.values()) {
+            bilan.nbLitsVides += Math.max(0, prevision.libres);
+            if (prevision.attente > 0) {
+                bilan.nbMaisonsEnAttente++;
+            }
+            if (prevision.majorite != null && !estNationale(prevision, prevision.majorite)) {
+                bilan.nbMaisonsMajoriteEtrangere++;
+            }
+        }
+        return bilan;
+    }
+
+    /**
+     * Retourne l'état prévu, après la cohorte, de chaque maison où un candidat a été inscrit.
+     *
+     * @return les nouveaux états, dans l'ordre des maisons
+     */
+    Map<MaisonEtudiante, EtatMaison> etatsPrevus() {
+        Map<MaisonEtudiante, EtatMaison> etats = new LinkedHashMap<>();
+        for (Prevision prevision : previsions.values()) {
+            if (!prevision.loges.isEmpty() || !prevision.enAttente.isEmpty()) {
+                etats.put(prevision.maison, prevision.etat.avecInscriptions(prevision.loges, prevision.enAttente));
+            }
+        }
+        return etats;
+    }
+
+    /**
+     * Écarte les candidats absents, déjà inscrits, en double, ou souhaitant une maison
+     * étrangère à la CIUP. Dans une simulation, un souhait pour une maison absente
+     * (fermée par le scénario) est ignoré plutôt que rejeté.
+     */
+    private List<Etudiant> valider(Collection<Etudiant> candidats, Bilan bilan) {
+        Set<Etudiant> inscrits = new HashSet<>();
+        if (simulation == null) {
+            for (MaisonEtudiante maison : ciup.getListeMaisonsEtudiantes()) {
+                previsions.put(maison, new Prevision(new EtatMaison(maison)));
+                inscrits.addAll(maison.getlisteAttente());
+            }
+        } else {
+            for (EtatMaison etat : simulation.getEtats()) {
+                previsions.put(etat.maison, new Prevision(etat));
+            }
+        }
+        List<Etudiant> valides = new ArrayList<>(candidats.size());
+        for (Etudiant candidat : candidats) {
+            if (candidat == null) {
+                bilan.rejeter(null, "candidat absent");
+            } else if (candidat.getMaisonResidence() != null) {
+                bilan.rejeter(candidat, "déjà logé à " + candidat.getMaisonResidence().getNom());
+            } else if (inscrits.contains(candidat)) {
+                bilan.rejeter(candidat, "déjà en liste d'attente ou présent plus haut dans la cohorte");
+            } else if (simulation == null && candidat.getSouhait() != null && !previsions.containsKey(candidat.getSouhait())) {
+                bilan.rejeter(candidat, "la maison souhaitée n'appartient pas à la CIUP");
+            } else if (previsions.isEmpty()) {
+                bilan.rejeter(candidat, "aucune maison étudiante dans la CIUP");
+            } else {
+                inscrits.add(candidat);
+                valides.add(candidat);
+            }
+        }
+        return valides;
+    }
+
+    /**
+     * Politique {@link Politique#GLOUTONNE} : chaque candidat, dans l'ordre reçu, est inscrit dans
+     * sa maison souhaitée, sinon nationale, sinon dans la maison choisie par la répartition équitable.
+     */
+    private List<Placement> planifierGlouton(List<Etudiant> candidats) {
+        List<Placement> placements = new ArrayList<>(candidats.size());
+        RepartitionEquitable repartition = repartitionPrevue();
+        for (Etudiant candidat : candidats) {
+            Prevision prevision;
+            Etape etape;
+            MaisonEtudiante souhait = souhait(candidat);
+            MaisonEtudiante nationale = nationale(candidat.getNationalite());
+            if (souhait != null) {
+                prevision = previsions.get(souhait);
+                etape = Etape.SOUHAIT;
+            } else if (nationale != null) {
+                prevision = previsions.get(nationale);
+                etape = Etape.NATIONALE;
+            } else {
+                prevision = previsions.get(repartition.choisir(candidat.getNationalite()));
+                etape = Etape.EQUITABLE;
+            }
+            placements.add(placer(candidat, prevision, etape));
+            repartition.placer(prevision.maison, prevision.disponibles, prevision.majorite);
+        }
+        return placements;
+    }
+
+    /**
+     * Politique {@link Politique#COHORTE} : la place de chaque candidat valide est calculée
+     * étape par étape, sur les prévisions.
+     */
+    private List<Placement> planifierCohorte(List<Etudiant> candidats, Bilan bilan) {
+        List<Placement> placements = new ArrayList<>(candidats.size());
+        List<Etudiant> sansSouhait = new ArrayList<>();
+        for (Etudiant candidat : candidats) {
+            if (souhait(candidat) != null) {
+                placements.add(placer(candidat, previsions.get(souhait(candidat)), Etape.SOUHAIT));
+            } else {
+                sansSouhait.add(candidat);
+            }
+        }
+
+        List<Etudiant> restants = new ArrayList<>();
+        for (Etudiant candidat : sansSouhait) {
+            MaisonEtudiante nationale = nationale(candidat.getNationalite());
+            if (nationale == null) {
+                restants.add(candidat);
+            } else if (previsions.get(nationale).libres > 0) {
+                placements.add(placer(candidat, previsions.get(nationale), Etape.NATIONALE));
+            } else {
+                bilan.nbDebordements++;
+                restants.add(candidat);
+            }
+        }
+        if (restants.isEmpty()) {
+            return placements;
+        }
+
+        RepartitionEquitable repartition = repartitionPrevue();
+        for (Etudiant candidat : entrelacer(restants)) {
+            Prevision prevision = previsions.get(repartition.choisir(candidat.getNationalite()));
+            placements.add(placer(candidat, prevision, Etape.EQUITABLE));
+            repartition.placer(prevision.maison, prevision.disponibles, prevision.majorite);
+        }
+        return placements;
+    }
+
+    /**
+     * Politique {@link Politique#OPTIMALE} : flot de coût minimal sur le graphe
+     * source → groupe → (maison, nationalité) → maison → puits.
+     * <p>
+     * Les candidats de même nationalité normalisée et de même souhait forment un groupe, de capacité
+     * leur nombre ; chaque groupe peut aller vers chaque maison, pour un coût de 0 dans la
+     * maison souhaitée, 1 dans une maison de sa nationalité et 2 ailleurs. Le sommet
+     * (maison, nationalité) borne les logés de cette nationalité à la moitié des places de
+     * la maison, existants compris, sauf dans une maison de cette nationalité ; l'arc maison → puits
+     * porte les chambres libres. Le flot maximal loge le plus de candidats possible,
+     * et son coût minimal honore le plus de souhaits, puis de maisons nationales.
+     * </p>
+     */
+    private List<Placement> planifierOptimal(List<Etudiant> candidats) {
+        Map<String, Map<MaisonEtudiante, List<Etudiant>>> groupes = new LinkedHashMap<>();
+        for (Etudiant candidat : candidats) {
+            groupes.computeIfAbsent(Ciup.normaliserNationalite(candidat.getNationalite()), n -> new LinkedHashMap<>())
+                    .computeIfAbsent(souhait(candidat), s -> new ArrayList<>()).add(candidat);
+        }
+        List<Prevision> maisons = new ArrayList<>(previsions.values());
+        int nbGroupes = 0;
+        for (Map<MaisonEtudiante, List<Etudiant>> parSouhait : groupes.values()) {
+            nbGroupes += parSouhait.size();
+        }
+
+        // Sommets : source, puits, maisons, puis pour chaque nationalité ses (maison, nationalité) et ses groupes
+        int source = 0;
+        int puits = 1;
+        int nbSommets = 2 + maisons.size() + groupes.size() * maisons.size() + nbGroupes;
+        FlotCoutMin flot = new FlotCoutMin(nbSommets);
+        for (int m = 0; m < maisons.size(); m++) {
+            flot.ajouterArc(2 + m, puits, Math.max(0, maisons.get(m).libres), 0);
+        }
+        int prochainSommet = 2 + maisons.size();
+        List<List<Etudiant>> listeGroupes = new ArrayList<>(nbGroupes);
+        List<int[]> arcsGroupes = new ArrayList<>(nbGroupes);
+        for (Map.Entry<String, Map<MaisonEtudiante, List<Etudiant>>> nationalite : groupes.entrySet()) {
+            int[] sommetsMaisons = new int[maisons.size()];
+            for (int m = 0; m < maisons.size(); m++) {
+                Prevision prevision = maisons.get(m);
+                int plafond = estNationale(prevision, nationalite.getKey()) ? FlotCoutMin.INFINI
+                        : Math.max(0, prevision.etat.capacite / 2 - prevision.effectif(nationalite.getKey()));
+                sommetsMaisons[m] = prochainSommet++;
+                flot.ajouterArc(sommetsMaisons[m], 2 + m, plafond, 0);
+            }
+            for (Map.Entry<MaisonEtudiante, List<Etudiant>> groupe : nationalite.getValue().entrySet()) {
+                int sommetGroupe = prochainSommet++;
+                flot.ajouterArc(source, sommetGroupe, groupe.getValue().size(), 0);
+                int[] arcs = new int[maisons.size()];
+                for (int m = 0; m < maisons.size(); m++) {
+                    Prevision prevision = maisons.get(m);
+                    long cout = (prevision.maison == groupe.getKey()) ? 0 : estNationale(prevision, nationalite.getKey()) ? 1 : 2;
+                    arcs[m] = flot.ajouterArc(sommetGroupe, sommetsMaisons[m], FlotCoutMin.INFINI, cout);
+                }
+                listeGroupes.add(groupe.getValue());
+                arcsGroupes.add(arcs);
+            }
+        }
+        flot.resoudre(source, puits);
+
+        List<Placement> placements = new ArrayList<>(candidats.size());
+        List<Etudiant> sansChambre = new ArrayList<>();
+        for (int g = 0; g < listeGroupes.size(); g++) {
+            Iterator<Etudiant> membres = listeGroupes.get(g).iterator();
+            int[] arcs = arcsGroupes.get(g);
+            for (int m = 0; m < maisons.size(); m++) {
+                for (int n = flot.getFlot(arcs[m]); n > 0; n--) {
+                    Etudiant candidat = membres.next();
+                    placements.add(placer(candidat, maisons.get(m), etape(candidat, maisons.get(m))));
+                }
+            }
+            membres.forEachRemaining(sansChambre::add);
+        }
+
+        TasIndexe<Prevision> plusCourteAttente = new TasIndexe<>((a, b) -> (a.attente != b.attente)
+                ? Integer.compare(a.attente, b.attente) : Integer.compare(a.maison.getIdentifiant(), b.maison.getIdentifiant()));
+        maisons.forEach(plusCourteAttente::ajouter);
+        for (Etudiant candidat : sansChambre) {
+            MaisonEtudiante maison = (souhait(candidat) != null) ? souhait(candidat)
+                    : nationale(candidat.getNationalite());
+            Prevision prevision = (maison != null) ? previsions.get(maison) : plusCourteAttente.tete();
+            prevision.mettreEnAttente(candidat);
+            plusCourteAttente.actualiser(prevision);
+            placements.add(new Placement(candidat, prevision.maison, false, etape(candidat, prevision)));
+        }
+        return placements;
+    }
+
+    /**
+     * Range toutes les maisons dans une répartition équitable selon leur charge prévue.
+     */
+    private RepartitionEquitable repartitionPrevue() {
+        RepartitionEquitable repartition = new RepartitionEquitable();
+        for (Prevision prevision : previsions.values()) {
+            repartition.placer(prevision.maison, prevision.disponibles, prevision.majorite);
+        }
+        return repartition;
+    }
+
+    /**
+     * Retourne la maison souhaitée par un candidat, si elle fait partie des maisons prévues.
+     */
+    private MaisonEtudiante souhait(Etudiant candidat) {
+        MaisonEtudiante souhait = candidat.getSouhait();
+        return (souhait != null && previsions.containsKey(souhait)) ? souhait : null;
+    }
+
+    /**
+     * Retourne la première maison d'une nationalité, réelle ou simulée.
+     */
+    private MaisonEtudiante nationale(String nationalite) {
+        return (simulation == null) ? ciup.getMaisonNationale(nationalite) : simulation.getMaisonNationale(nationalite);
+    }
+
+    /**
+     * Indique si une maison est une maison de la nationalité donnée, aux accents et à la casse près.
+     */
+    private static boolean estNationale(Prevision prevision, String nationalite) {
+        String cle = Ciup.normaliserNationalite(nationalite);
+        return cle != null && cle.equals(Ciup.normaliserNationalite(prevision.etat.nationalite));
+    }
+
+    /**
+     * Retrouve l'étape correspondant à la maison attribuée à un candidat.
+     */
+    private Etape etape(Etudiant candidat, Prevision prevision) {
+        if (prevision.maison == souhait(candidat)) {
+            return Etape.SOUHAIT;
+        }
+        return estNationale(prevision, candidat.getNationalite()) ? Etape.NATIONALE : Etape.EQUITABLE;
+    }
+
+    /**
+     * Prévoit l'inscription d'un candidat dans une maison : logé s'il reste une chambre,
+     * sinon en liste d'attente.
+     */
+    private static Placement placer(Etudiant candidat, Prevision prevision, Etape etape) {
+        boolean loge = prevision.libres > 0;
+        if (loge) {
+            prevision.loger(candidat);
+        } else {
+            prevision.mettreEnAttente(candidat);
+        }
+        return new Placement(candidat, prevision.maison, loge, etape);
+    }
+
+    /**
+     * Ordonne les candidats de sorte que chaque nationalité soit répartie uniformément
+     * sur toute la séquence : le i-ème des n candidats d'une nationalité est placé à la
+     * position relative (i + 1/2) / n, l'ordre de première apparition des nationalités
+     * départageant les égalités.
+     */
+    private static List<Etudiant> entrelacer(List<Etudiant> candidats) {
+        Map<String, List<Etudiant>> parNationalite = new LinkedHashMap<>();
+        for (Etudiant candidat : candidats) {
+            parNationalite.computeIfAbsent(Ciup.normaliserNationalite(candidat.getNationalite()), n -> new ArrayList<>()).add(candidat);
+        }
+        if (parNationalite.size() <= 1) {
+            return candidats;
+        }
+        List<Etudiant> ordre = new ArrayList<>(candidats.size());
+        double[] positions = new double[candidats.size()];
+        for (List<Etudiant> groupe : parNationalite.values()) {
+            for (int i = 0; i < groupe.size(); i++) {
+                positions[ordre.size()] = (i + 0.5) / groupe.size();
+                ordre.add(groupe.get(i));
+            }
+        }
+        Integer[] indices = new Integer[ordre.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, Comparator.comparingDouble(i -> positions[i]));
+        List<Etudiant> entrelaces = new ArrayList<>(indices.length);
+        for (Integer indice : indices) {
+            entrelaces.add(ordre.get(indice));
+        }
+        return entrelaces;
+    }
+
+    /**
+     * Inscrit les candidats aux places calculées, ou n'en conserve aucune si l'une échoue.
+     */
+    private static void appliquer(List<Placement> placements) {
+        int nbAppliques = 0;
+        try {
+            for (Placement placement : placements) {
+                placement.maison.inscrireNouvelEtudiant(placement.etudiant);
+                nbAppliques++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = nbAppliques - 1; i >= 0; i--) {
+                Placement placement = placements.get(i);
+                if (placement.etudiant.getMaisonResidence() == placement.maison) {
+                    placement.maison.deloger(placement.etudiant);
+                } else {
+                    placement.maison.RetirerCandidature(placement.etudiant);
+                }
+            }
+            throw e;
+        }
+    }
+}
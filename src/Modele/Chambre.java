@@ -6,9 +6,15 @@ import java.io.*;
 /**
  * Représente une chambre dans une maison étudiante de la CIUP.
  * <p>
- * Chaque chambre possède un identifiant unique, une capacité maximale,
- * un statut indiquant si elle est libre ou saturée, ainsi qu'une liste
- * d'étudiants qui y résident. La chambre est associée à une maison étudiante.
+ * Chaque chambre possède un identifiant unique, une capacité maximale
+ * et une liste d'étudiants qui y résident, dont se déduit son statut
+ * ({@link StatutChambre}). La chambre est associée à une maison étudiante,
+ * qu'elle tient informée de ses places libres et de sa capacité.
+ * </p>
+ * <p>
+ * L'ajout et le retrait d'étudiants se font sous le verrou de sa maison : le choix d'une
+ * chambre libre, la liste des logés et l'histogramme des nationalités de la maison changent
+ * ensemble, un verrou par chambre ne permettrait pas davantage de parallélisme.
  * </p>
  * @author Otman Benbouziane
  */
@@ -30,8 +36,8 @@ public class Chambre implements Serializable {
     /** Capacité maximale de la chambre */
     private int capacite;
 
-    /** Statut de la chambre : "libre" ou "saturé" */
-    private String statut;
+    /** Rang de la chambre dans la liste de sa maison, attribué par l'index des chambres libres (-1 si inconnu) */
+    private transient int rang = -1;
 
     /** UID de version pour la sérialisation */
     private static final long serialVersionUID = 1L;
@@ -41,8 +47,7 @@ public class Chambre implements Serializable {
     // --------------------------
 
     /**
-     * Construit une chambre avec la capacité, la maison et l'identifiant spécifiés.
-     * Le statut initial est "libre".
+     * Construit une chambre vide avec la capacité, la maison et l'identifiant spécifiés.
      *
      * @param capacite la capacité maximale de la chambre
      * @param maison   la maison étudiante à laquelle appartient la chambre
@@ -53,7 +58,6 @@ public class Chambre implements Serializable {
         this.capacite = capacite;
         this.listeEtudiante = new ArrayList<>();
         this.identifiant = id;
-        this.statut = "libre";
     }
 
     // --------------------------
@@ -76,6 +80,7 @@ public class Chambre implements Serializable {
      */
     public void setIdentifiant(int identifiant) {
         this.identifiant = identifiant;
+        signalerModification();
     }
 
     /**
@@ -94,6 +99,7 @@ public class Chambre implements Serializable {
      */
     public void setMaison(MaisonEtudiante maison) {
         this.maison = maison;
+        signalerModification();
     }
 
     /**
@@ -111,7 +117,11 @@ public class Chambre implements Serializable {
      * @param listeEtudiante nouvelle liste d'étudiants
      */
     public void setListeEtudiante(List<Etudiant> listeEtudiante) {
-        this.listeEtudiante = listeEtudiante;
+        synchronized (verrou()) {
+            this.listeEtudiante = listeEtudiante;
+            actualiseStatut();
+        }
+        signalerModification();
     }
 
     /**
@@ -129,25 +139,40 @@ public class Chambre implements Serializable {
      * @param capacite nouvelle capacité
      */
     public void setCapacite(int capacite) {
-        this.capacite = capacite;
+        synchronized (verrou()) {
+            int ecart = capacite - this.capacite;
+            this.capacite = capacite;
+            actualiser(ecart);
+        }
+        signalerModification();
     }
 
     /**
-     * Retourne le statut actuel de la chambre : "libre" ou "saturé".
+     * Retourne le statut actuel de la chambre, déduit de son occupation.
      * 
-     * @return statut de la chambre
+     * @return {@link StatutChambre#SATUREE} si la capacité est atteinte, sinon {@link StatutChambre#LIBRE}
      */
-    public String getStatut() {
-        return statut;
+    public StatutChambre getStatut() {
+        return estLibre() ? StatutChambre.LIBRE : StatutChambre.SATUREE;
     }
 
     /**
-     * Définit le statut de la chambre.
+     * Indique s'il reste au moins une place dans la chambre.
      * 
-     * @param statut nouveau statut ("libre" ou "saturé")
+     * @return true si la chambre est libre
      */
-    public void setStatut(String statut) {
-        this.statut = statut;
+    public boolean estLibre() {
+        return listeEtudiante.size() < capacite;
+    }
+
+    /** @return le rang de la chambre dans la liste de sa maison, tel qu'indexé (-1 si inconnu) */
+    int getRang() {
+        return rang;
+    }
+
+    /** @param rang le rang de la chambre dans la liste de sa maison */
+    void setRang(int rang) {
+        this.rang = rang;
     }
 
     // --------------------------
@@ -195,16 +220,19 @@ public class Chambre implements Serializable {
      * @throws IllegalStateException si la chambre est pleine ou si l'étudiant est déjà présent
      */
     public void ajouteEtudiant(Etudiant etudiant) {
-        if (listeEtudiante.contains(etudiant)) {
-            throw new IllegalStateException("Étudiant déjà présent dans cette chambre.");
-        }
-        if (capacite <= listeEtudiante.size()) {
-            throw new IllegalStateException("Capacité de la chambre insuffisante");
+        synchronized (verrou()) {
+            if (listeEtudiante.contains(etudiant)) {
+                throw new IllegalStateException("Étudiant déjà présent dans cette chambre.");
+            }
+            if (capacite <= listeEtudiante.size()) {
+                throw new IllegalStateException("Capacité de la chambre insuffisante");
+            }
+            listeEtudiante.add(etudiant);
+            etudiant.setMaisonResidence(this.maison);
+            etudiant.setChambre(this);
+            actualiseStatut();
+            signalerModification();
         }
-        listeEtudiante.add(etudiant);
-        etudiant.setMaisonResidence(this.maison);
-        etudiant.setChambre(this);
-        actualiseStatut();
     }
 
     /**
@@ -213,17 +241,53 @@ public class Chambre implements Serializable {
      * @param etudiant étudiant à retirer
      */
     public void retireEtudiant(Etudiant etudiant) {
-        if (listeEtudiante.contains(etudiant)) {
-            listeEtudiante.remove(etudiant);
-            actualiseStatut();
+        synchronized (verrou()) {
+            if (listeEtudiante.contains(etudiant)) {
+                listeEtudiante.remove(etudiant);
+                actualiseStatut();
+                signalerModification();
+            }
         }
     }
 
     /**
-     * Actualise le statut de la chambre en fonction du nombre d'étudiants :
-     * "saturé" si la capacité est atteinte, sinon "libre".
+     * Reporte le statut de la chambre dans l'index des chambres libres de sa maison.
+     * Appelée après chaque changement d'occupation ou de capacité, dont ceux faits
+     * directement sur la liste des étudiants.
      */
     public void actualiseStatut() {
-        this.statut = (listeEtudiante.size() == capacite) ? "saturé" : "libre";
+        actualiser(0);
+    }
+
+    /**
+     * Reporte le statut de la chambre et l'écart de sa capacité à sa maison.
+     *
+     * @param ecartCapacite l'écart entre la nouvelle capacité et l'ancienne
+     */
+    private void actualiser(int ecartCapacite) {
+        synchronized (verrou()) {
+            if (maison != null) {
+                maison.chambreActualisee(this, ecartCapacite);
+            }
+        }
+    }
+
+    /**
+     * Retourne le verrou des étudiants de la chambre : celui de sa maison, ou la chambre
+     * elle-même si elle n'est rattachée à aucune maison.
+     */
+    private Object verrou() {
+        return (maison != null) ? maison : this;
+    }
+
+    /**
+     * Signale au suivi de la CIUP que la chambre, et donc sa maison, a été modifiée.
+     * La capacité ou l'occupation de la maison ayant pu changer, sa charge est aussi signalée.
+     */
+    private void signalerModification() {
+        if (maison != null && maison.getCiup() != null) {
+            maison.getCiup().getSuiviModifications().chambreModifiee(this);
+            maison.getCiup().chargeModifiee(maison);
+        }
     }
 }
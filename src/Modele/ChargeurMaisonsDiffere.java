@@ -0,0 +1,284 @@
+package Modele;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reconstruction des maisons étudiantes d'une sauvegarde {@link CodecBinaireCiup}, à la demande.
+ * <p>
+ * {@link #assembler} crée la CIUP et chaque maison à partir de l'en-tête porté par la racine
+ * (champs descriptifs, nombre d'étudiants, de chambres et de places) : c'est tout ce qu'il faut
+ * pour afficher la liste des maisons. Le contenu d'une maison (chambres, étudiants, liste
+ * d'attente, nationalités, agenda) n'est reconstruit qu'au premier accès, à partir de sa section.
+ * Les sections peuvent être décodées en arrière-plan : elles sont fournies sous forme de
+ * {@link Future}, attendus seulement au moment de la reconstruction.
+ * </p>
+ * <p>
+ * Un étudiant présent dans plusieurs sections (logé dans une maison, en attente ou inscrit
+ * à une soirée dans une autre) n'est créé qu'une fois : les sections le désignent par son numéro
+ * dans la CIUP, si bien que deux homonymes restent distincts. Seules les sections antérieures
+ * aux numéros réunissent leurs étudiants par nom et prénom. Lorsqu'une section référence un étudiant
+ * logé dans une autre maison, cette maison est reconstruite à son tour, pour que l'étudiant
+ * soit toujours vu avec sa maison de résidence et sa chambre.
+ * </p>
+ * <p>
+ * Une maison se charge depuis ses méthodes synchronisées : le verrou du chargeur est donc pris
+ * sous celui d'une maison, et ne doit jamais prendre à son tour celui d'une maison, pas même
+ * d'une autre maison reconstruite en cascade. Le contenu est assemblé sans passer par les
+ * méthodes verrouillées des maisons et des chambres : l'index des chambres libres n'est
+ * construit qu'au premier besoin, sous le verrou de sa maison.
+ * </p>
+ * <p>
+ * Les étudiants mentionnés par chaque section (liste d'attente, inscrits aux soirées) sont relevés
+ * dans le {@link SuiviModifications} de la CIUP : à la reconstruction de la maison, ou pour toutes
+ * les maisons encore en attente au premier {@link #indexerReferences}, sans les reconstruire.
+ * </p>
+ *
+ * @version 1.0
+ * @see CodecBinaireCiup
+ * @see GestionSauvegarde
+ */
+class ChargeurMaisonsDiffere {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Sections des maisons non encore reconstruites, par identifiant */
+    private final Map<Integer, Future<CodecBinaireCiup.SectionMaison>> sections;
+
+    /** Maisons créées par {@link #assembler}, par identifiant */
+    private final Map<Integer, MaisonEtudiante> maisons = new HashMap<>();
+
+    /** Étudiants déjà créés, par numéro, pour partager une même instance entre les sections */
+    private final Map<Integer, Etudiant> parNumero = new HashMap<>();
+
+    /** Étudiants déjà créés, par nom et prénom, pour les sections antérieures aux numéros */
+    private final Map<Etudiant, Etudiant> parNom = new HashMap<>();
+
+    /** Étudiants créés par une section antérieure aux numéros, qui n'ont pas encore le leur */
+    private final Set<Etudiant> sansNumero = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** CIUP en cours de reconstruction */
+    private Ciup ciup;
+
+    /** Indique si les étudiants mentionnés par les sections restantes ont déjà été relevés */
+    private boolean referencesIndexees;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit un chargeur à partir des sections des maisons, éventuellement en cours de décodage.
+     *
+     * @param sections la section de chaque maison, par identifiant
+     */
+    ChargeurMaisonsDiffere(Map<Integer, ? extends Future<CodecBinaireCiup.SectionMaison>> sections) {
+        this(sections, false);
+    }
+
+    /**
+     * Construit un chargeur dont le dépôt a déjà relevé les étudiants mentionnés par chaque maison.
+     *
+     * @param sections la section de chaque maison, par identifiant
+     * @param referencesIndexees true si les références ont déjà été signalées au suivi des modifications
+     */
+    ChargeurMaisonsDiffere(Map<Integer, ? extends Future<CodecBinaireCiup.SectionMaison>> sections,
+            boolean referencesIndexees) {
+        this.sections = new HashMap<>(sections);
+        this.referencesIndexees = referencesIndexees;
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Crée la CIUP décrite par la racine, avec ses maisons réduites à leur en-tête.
+     * Une racine de version 2, sans en-têtes, est reconstruite entièrement.
+     *
+     * @param racine la racine décodée
+     * @return la CIUP, dont les maisons seront chargées au premier accès
+     */
+    synchronized Ciup assembler(CodecBinaireCiup.Racine racine) {
+        ciup = racine.ciup;
+        boolean complete = racine.champsMaisons != null;
+        for (int i = 0; i < racine.identifiants.length; i++) {
+            int identifiant = racine.identifiants[i];
+            MaisonEtudiante maison;
+            if (complete) {
+                int capacite = (racine.capacites != null) ? racine.capacites[i] : -1;
+                int nbAttente = (racine.nbAttente != null) ? racine.nbAttente[i] : -1;
+                String majorite = (racine.majorites != null) ? racine.majorites[i] : null;
+                maison = new MaisonEtudiante(ciup, identifiant, racine.champsMaisons[i], racine.nbEtudiants[i],
+                        racine.nbChambres[i], capacite, nbAttente, majorite, this);
+            } else {
+                CodecBinaireCiup.SectionMaison section = section(identifiant);
+                maison = new MaisonEtudiante(ciup, identifiant, section.champs,
+                        section.residents.length, section.capacites.length, -1, -1, null, this);
+            }
+            maisons.put(identifiant, maison);
+        }
+        ciup.setDernierIdentifiantMaison(racine.dernierIdentifiant);
+        ciup.setDernierIdentifiantEtudiant(racine.dernierIdentifiantEtudiant);
+        if (racine.candidatures != null) {
+            ciup.restaurerCandidatures(racine.candidatures);
+        }
+        if (!complete) {
+            materialiserTout();
+        }
+        return ciup;
+    }
+
+    /**
+     * Reconstruit le contenu d'une maison à partir de sa section, s'il ne l'est pas déjà.
+     *
+     * @param maison la maison à charger
+     * @throws UncheckedIOException si la section de la maison est illisible
+     */
+    synchronized void materialiser(MaisonEtudiante maison) {
+        if (maison.estChargee()) {
+            return;
+        }
+        CodecBinaireCiup.SectionMaison section = section(maison.getIdentifiant());
+        sections.remove(maison.getIdentifiant());
+        if (!referencesIndexees) {
+            ciup.getSuiviModifications().sectionLue(section);
+        }
+
+        // Étudiants, partagés avec les autres sections
+        Etudiant[] etudiants = new Etudiant[section.noms.length];
+        for (int e = 0; e < etudiants.length; e++) {
+            etudiants[e] = etudiant(section, e);
+        }
+
+        List<Chambre> chambres = new ArrayList<>(section.capacites.length);
+        for (int c = 0; c < section.capacites.length; c++) {
+            Chambre chambre = new Chambre(section.capacites[c], maison, section.identifiantsChambres[c]);
+            for (int occupant : section.occupants[c]) {
+                chambre.getListeEtudiante().add(etudiants[occupant]);
+                etudiants[occupant].setChambre(chambre);
+            }
+            chambres.add(chambre);
+        }
+
+        List<Etudiant> residents = new ArrayList<>(section.residents.length);
+        for (int resident : section.residents) {
+            residents.add(etudiants[resident]);
+            etudiants[resident].setMaisonResidence(maison);
+        }
+
+        List<Etudiant> attente = new ArrayList<>(section.attente.length);
+        for (int candidat : section.attente) {
+            attente.add(etudiants[candidat]);
+        }
+
+        List<Soiree> agenda = new ArrayList<>(section.nomsSoirees.length);
+        for (int s = 0; s < section.nomsSoirees.length; s++) {
+            Soiree soiree = new Soiree(section.nomsSoirees[s], section.descriptionsSoirees[s], section.datesSoirees[s]);
+            for (int inscrit : section.inscrits[s]) {
+                soiree.getListeInscrit().add(etudiants[inscrit]);
+            }
+            soiree.setMaison(maison);
+            agenda.add(soiree);
+        }
+
+        maison.restaurerContenu(chambres, residents, attente, section.nationalitesMaison, section.effectifs, agenda);
+
+        // Étudiants logés dans une autre maison : leur résidence et leur chambre doivent être connues
+        if (section.residences != null) {
+            for (int residence : section.residences) {
+                MaisonEtudiante autre = maisons.get(residence);
+                if (autre != null && autre != maison && !autre.estChargee()) {
+                    materialiser(autre);
+                }
+            }
+        }
+        if (sections.isEmpty()) {
+            parNumero.clear();
+            parNom.clear();
+            sansNumero.clear();
+        }
+    }
+
+    /**
+     * Retrouve ou crée le e-ième étudiant d'une section. Un étudiant numéroté est retrouvé par
+     * son numéro ; il ne reprend un étudiant de même nom que si celui-ci vient d'une section
+     * sans numéros. Un étudiant d'une section sans numéros est retrouvé par son nom et prénom.
+     */
+    private Etudiant etudiant(CodecBinaireCiup.SectionMaison section, int e) {
+        int numero = (section.numeros == null) ? 0 : section.numeros[e];
+        Etudiant existant = (numero != 0) ? parNumero.get(numero) : null;
+        if (existant != null) {
+            return existant;
+        }
+        Etudiant etudiant = Etudiant.restaurer(ciup, numero, section.noms[e], section.prenoms[e],
+                section.nationalites[e], maisons.get(section.souhaits[e]));
+        existant = parNom.putIfAbsent(etudiant, etudiant);
+        if (numero == 0) {
+            if (existant != null) {
+                return existant;
+            }
+            sansNumero.add(etudiant);
+            return etudiant;
+        }
+        if (existant != null && sansNumero.remove(existant) && existant.adopterIdentifiant(numero)) {
+            etudiant = existant;
+        }
+        parNumero.put(numero, etudiant);
+        return etudiant;
+    }
+
+    /**
+     * Relève, une seule fois, les étudiants mentionnés par les maisons encore à reconstruire,
+     * en attendant au besoin le décodage de leurs sections.
+     *
+     * @throws UncheckedIOException si une section est illisible
+     */
+    synchronized void indexerReferences() {
+        if (referencesIndexees) {
+            return;
+        }
+        for (int identifiant : sections.keySet()) {
+            ciup.getSuiviModifications().sectionLue(section(identifiant));
+        }
+        referencesIndexees = true;
+    }
+
+    /**
+     * Reconstruit toutes les maisons qui ne le sont pas encore.
+     */
+    synchronized void materialiserTout() {
+        for (MaisonEtudiante maison : maisons.values()) {
+            materialiser(maison);
+        }
+    }
+
+    /**
+     * Attend et retourne la section décodée d'une maison.
+     */
+    private CodecBinaireCiup.SectionMaison section(int identifiant) {
+        Future<CodecBinaireCiup.SectionMaison> section = sections.get(identifiant);
+        if (section == null) {
+            throw new IllegalStateException("Section manquante pour la maison " + identifiant);
+        }
+        try {
+            return section.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chargement de la maison " + identifiant + " interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw (UncheckedIOException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw new IllegalStateException("Section illisible pour la maison " + identifiant, cause);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package Modele;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
 import java.io.*;
 
 /**
@@ -22,6 +25,43 @@ public class Ciup implements Serializable {
     /** Liste des maisons étudiantes de la CIUP */
     private List<MaisonEtudiante> listeMaisonsEtudiantes;
 
+    /** Dernier identifiant attribué à une maison étudiante */
+    private int dernierIdentifiantMaison;
+
+    /** Dernier numéro attribué à un étudiant, incrémenté sans verrou */
+    private volatile int dernierIdentifiantEtudiant;
+
+    /** Attribution des numéros d'étudiants */
+    private static final AtomicIntegerFieldUpdater<Ciup> IDENTIFIANTS_ETUDIANTS =
+            AtomicIntegerFieldUpdater.newUpdater(Ciup.class, "dernierIdentifiantEtudiant");
+
+    /**
+     * Maisons étudiantes par nationalité normalisée, dans l'ordre de la CIUP
+     * (non sauvegardé, reconstruit au premier besoin)
+     */
+    private transient volatile Map<String, List<MaisonEtudiante>> maisonsParNationalite;
+
+    /** Maisons rangées par charge pour l'affectation équitable (non sauvegardé, construit au premier besoin) */
+    private transient volatile RepartitionEquitable repartition;
+
+    /**
+     * Promotion des listes d'attente à l'échelle de la CIUP (non sauvegardé avec la CIUP,
+     * créée au premier besoin ; ses candidatures sont sauvegardées dans la racine)
+     */
+    private transient volatile PromotionAttente promotions;
+
+    /** Candidatures lues dans la racine d'une sauvegarde, reprises à la création de la promotion */
+    private transient List<InstantaneCiup.InstantaneCandidature> candidaturesSauvegardees;
+
+    /**
+     * Nombres d'étudiants logés et de chambres de toutes les maisons, tenus à jour par les maisons
+     * (non sauvegardé, compté au premier besoin)
+     */
+    private transient volatile Effectifs effectifs;
+
+    /** Suivi des entités modifiées depuis le dernier point de contrôle (non sauvegardé) */
+    private transient volatile SuiviModifications suiviModifications;
+
     /** UID de version pour la sérialisation */
     private static final long serialVersionUID = 1L;
 
@@ -47,23 +87,83 @@ public class Ciup implements Serializable {
     //--------------------------
 
     /**
-     * Ajoute une maison étudiante à la CIUP si elle n'est pas déjà présente.
+     * Ajoute une maison étudiante à la CIUP si elle n'est pas déjà présente,
+     * et lui attribue un identifiant si elle n'en a pas encore.
      *
      * @param maison la maison étudiante à ajouter
      */
     public void ajouterMaison(MaisonEtudiante maison) {
         if (!listeMaisonsEtudiantes.contains(maison)) {
             listeMaisonsEtudiantes.add(maison);
+            if (maisonsParNationalite != null) {
+                indexer(maison);
+            }
+            getSuiviModifications().maisonAjoutee(maison);
+        }
+        if (maison.getIdentifiant() == 0) {
+            maison.setIdentifiant(++dernierIdentifiantMaison);
+        }
+        if (repartition != null) {
+            repartition.maisonAjoutee(maison);
+        }
+        Effectifs courants = effectifs;
+        if (courants != null) {
+            maison.rattacherEffectifs(courants);
+        }
+    }
+
+    /**
+     * Attribue un identifiant aux maisons qui n'en ont pas, comme celles
+     * d'une sauvegarde antérieure à l'introduction des identifiants.
+     */
+    void numeroterMaisons() {
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            dernierIdentifiantMaison = Math.max(dernierIdentifiantMaison, maison.getIdentifiant());
+        }
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            if (maison.getIdentifiant() == 0) {
+                maison.setIdentifiant(++dernierIdentifiantMaison);
+            }
         }
     }
 
+    /**
+     * Retrouve une maison étudiante à partir de son identifiant stable.
+     *
+     * @param identifiant l'identifiant de la maison
+     * @return la maison correspondante, ou null si aucune n'est trouvée
+     */
+    public MaisonEtudiante getMaisonParIdentifiant(int identifiant) {
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            if (maison.getIdentifiant() == identifiant) {
+                return maison;
+            }
+        }
+        return null;
+    }
+
     /**
      * Supprime une maison étudiante de la CIUP.
      *
      * @param maison la maison étudiante à supprimer
      */
     public void supprimerMaison(MaisonEtudiante maison) {
-        listeMaisonsEtudiantes.remove(maison);
+        if (listeMaisonsEtudiantes.remove(maison)) {
+            if (maisonsParNationalite != null) {
+                desindexer(maison, maison.getNationalite());
+            }
+            if (repartition != null) {
+                repartition.maisonSupprimee(maison);
+            }
+            if (promotions != null) {
+                promotions.attenteRemplacee(maison, Collections.emptyList());
+            }
+            Effectifs courants = effectifs;
+            if (courants != null) {
+                maison.retirerEffectifs(courants);
+            }
+            getSuiviModifications().maisonSupprimee(maison);
+        }
     }
 
     /**
@@ -74,52 +174,338 @@ public class Ciup implements Serializable {
      * @param etudiant l'étudiant à affecter
      */
     public void affecterMaisonNationale(Etudiant etudiant) {
-        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
-            if (maison.getNationalite() != null && maison.getNationalite().equals(etudiant.getNationalite())) {
-                maison.inscrireEtudiant(etudiant);
-                return;
-            }
+        MaisonEtudiante maison = getMaisonNationale(etudiant.getNationalite());
+        if (maison != null) {
+            maison.inscrireEtudiant(etudiant);
+            return;
         }
         affecterMaisonEquitablement(etudiant);
     }
 
     /**
-     * Calcule le pourcentage d'étudiants d'une nationalité donnée dans une maison.
+     * Retourne la première maison étudiante d'une nationalité, dans l'ordre de la CIUP.
+     * La comparaison ignore la casse, les accents et les espaces de bord
+     * (voir {@link #normaliserNationalite(String)}).
      *
-     * @param maison la maison concernée
-     * @param index l'index de la nationalité dans la liste des nationalités de la maison
-     * @return le pourcentage d'étudiants de cette nationalité dans la maison (0 si index invalide)
-     */
-    public double calculePourcentageNationaliteDansMaison(MaisonEtudiante maison, int index) {
-        int nbTotalEtudiantMaison = maison.getNbEtudiants();
-        if (index != -1 && nbTotalEtudiantMaison > 0) {
-            int nbEtudiantNationalite = maison.getListeNbEtudiantParNationalite().get(index);
-            return ((double) nbEtudiantNationalite * 100) / nbTotalEtudiantMaison;
+     * @param nationalite la nationalité recherchée
+     * @return la maison correspondante, ou null si aucune n'a cette nationalité
+     */
+    public MaisonEtudiante getMaisonNationale(String nationalite) {
+        List<MaisonEtudiante> maisons = getMaisonsParNationalite(nationalite);
+        return maisons.isEmpty() ? null : maisons.get(0);
+    }
+
+    /**
+     * Retourne les maisons étudiantes d'une nationalité, dans l'ordre de la CIUP.
+     * La recherche passe par un index tenu à jour par {@link #ajouterMaison}, {@link #supprimerMaison}
+     * et {@link MaisonEtudiante#setNationalite(String)} : son coût ne dépend pas du nombre de maisons.
+     *
+     * @param nationalite la nationalité recherchée
+     * @return la liste non modifiable des maisons correspondantes (vide si aucune)
+     */
+    public List<MaisonEtudiante> getMaisonsParNationalite(String nationalite) {
+        String cle = normaliserNationalite(nationalite);
+        List<MaisonEtudiante> maisons = (cle == null) ? null : getIndexNationalites().get(cle);
+        return (maisons == null) ? Collections.emptyList() : Collections.unmodifiableList(maisons);
+    }
+
+    /**
+     * Met une nationalité sous la forme utilisée par l'index : sans espaces de bord,
+     * sans accents et en minuscules.
+     *
+     * @param nationalite la nationalité à normaliser (peut être null)
+     * @return la nationalité normalisée, ou null si elle est absente ou vide
+     */
+    public static String normaliserNationalite(String nationalite) {
+        if (nationalite == null) {
+            return null;
+        }
+        String texte = java.text.Normalizer.normalize(nationalite.trim(), java.text.Normalizer.Form.NFD);
+        texte = texte.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        return texte.isEmpty() ? null : texte;
+    }
+
+    /**
+     * Met à jour l'index des nationalités après le changement de nationalité d'une maison.
+     *
+     * @param maison la maison modifiée
+     * @param ancienneNationalite sa nationalité avant la modification
+     */
+    void nationaliteModifiee(MaisonEtudiante maison, String ancienneNationalite) {
+        if (maisonsParNationalite == null) {
+            return;
+        }
+        desindexer(maison, ancienneNationalite);
+        String cle = normaliserNationalite(maison.getNationalite());
+        if (cle == null) {
+            return;
+        }
+        // Changement rare : la liste de la nouvelle nationalité est refaite pour garder l'ordre de la CIUP
+        List<MaisonEtudiante> maisons = new ArrayList<>();
+        for (MaisonEtudiante candidate : listeMaisonsEtudiantes) {
+            if (cle.equals(normaliserNationalite(candidate.getNationalite()))) {
+                maisons.add(candidate);
+            }
+        }
+        if (maisons.isEmpty()) {
+            maisonsParNationalite.remove(cle);
         } else {
-            return 0.00;
+            maisonsParNationalite.put(cle, maisons);
         }
     }
 
     /**
-     * Affecte un étudiant à une maison où sa nationalité est minoritaire (≤ 50%).
-     * Si aucune maison ne remplit cette condition, l'étudiant est affecté à la première maison.
+     * Retourne l'index des nationalités, construit au premier appel
+     * (et après le chargement d'une sauvegarde par sérialisation Java).
+     * L'index construit n'est publié qu'une fois complet : des inscriptions concurrentes
+     * peuvent le consulter.
+     */
+    private Map<String, List<MaisonEtudiante>> getIndexNationalites() {
+        Map<String, List<MaisonEtudiante>> index = maisonsParNationalite;
+        if (index == null) {
+            synchronized (this) {
+                index = maisonsParNationalite;
+                if (index == null) {
+                    index = new HashMap<>();
+                    for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+                        indexer(index, maison);
+                    }
+                    maisonsParNationalite = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Ajoute une maison, placée en dernier dans la CIUP, à l'index des nationalités.
+     */
+    private void indexer(MaisonEtudiante maison) {
+        indexer(maisonsParNationalite, maison);
+    }
+
+    private static void indexer(Map<String, List<MaisonEtudiante>> index, MaisonEtudiante maison) {
+        String cle = normaliserNationalite(maison.getNationalite());
+        if (cle != null) {
+            index.computeIfAbsent(cle, c -> new ArrayList<>(1)).add(maison);
+        }
+    }
+
+    /**
+     * Retire une maison de l'index des nationalités, sous une nationalité donnée.
+     */
+    private void desindexer(MaisonEtudiante maison, String nationalite) {
+        String cle = normaliserNationalite(nationalite);
+        List<MaisonEtudiante> maisons = (cle == null) ? null : maisonsParNationalite.get(cle);
+        if (maisons == null) {
+            return;
+        }
+        for (Iterator<MaisonEtudiante> it = maisons.iterator(); it.hasNext(); ) {
+            if (it.next() == maison) {
+                it.remove();
+                break;
+            }
+        }
+        if (maisons.isEmpty()) {
+            maisonsParNationalite.remove(cle);
+        }
+    }
+
+    /**
+     * Calcule le pourcentage d'étudiants d'une nationalité donnée dans une maison,
+     * en temps constant grâce à son {@link HistogrammeNationalites}.
+     *
+     * @param maison la maison concernée
+     * @param nationalite la nationalité recherchée
+     * @return le pourcentage d'étudiants de cette nationalité dans la maison (0 si elle est absente)
+     */
+    public double calculePourcentageNationaliteDansMaison(MaisonEtudiante maison, String nationalite) {
+        return maison.getHistogrammeNationalites().getPourcentage(nationalite);
+    }
+
+    /**
+     * Affecte un étudiant à la maison la moins chargée parmi celles où sa nationalité
+     * est minoritaire (≤ 50%). Si aucune de ces maisons n'a de place,
+     * l'étudiant est affecté à la maison la moins chargée de toutes.
      *
      * @param etudiant l'étudiant à affecter
      */
     public void affecterMaisonEquitablement(Etudiant etudiant) {
-        int indexParDefaut = 0;
-        for (int cpt = 0; cpt < listeMaisonsEtudiantes.size(); cpt++) {
-            MaisonEtudiante maison = listeMaisonsEtudiantes.get(cpt);
-            int index = maison.getListeNationalites().indexOf(etudiant.getNationalite());
+        MaisonEtudiante maison = choisirMaisonEquitable(etudiant.getNationalite());
+        if (maison != null) {
+            maison.inscrireEtudiant(etudiant);
+        }
+    }
+
+    /**
+     * Affecte en une fois une cohorte de candidats ({@link AffectationCohorte}) : toutes les places
+     * sont calculées avant d'être appliquées, en honorant d'abord les souhaits, puis les maisons
+     * nationales, puis la répartition équitable. Aucune inscription n'est conservée si l'une échoue.
+     * L'appelant enregistre la CIUP une fois la cohorte affectée.
+     *
+     * @param candidats les étudiants à affecter, ni logés ni en liste d'attente
+     *                  (voir {@link Etudiant#candidat})
+     * @return le bilan de l'affectation : places par étape, rejets et débit
+     */
+    public AffectationCohorte.Bilan affecterCohorte(Collection<Etudiant> candidats) {
+        return affecterCohorte(candidats, AffectationCohorte.Politique.COHORTE);
+    }
+
+    /**
+     * Affecte en une fois une cohorte de candidats selon la politique donnée ({@link AffectationCohorte}).
+     *
+     * @param candidats les étudiants à affecter, ni logés ni en liste d'attente
+     * @param politique la politique de calcul des places
+     * @return le bilan de l'affectation
+     */
+    public AffectationCohorte.Bilan affecterCohorte(Collection<Etudiant> candidats, AffectationCohorte.Politique politique) {
+        return new AffectationCohorte(this).affecter(candidats, politique, true);
+    }
 
-            double pourcentageComparaison = calculePourcentageNationaliteDansMaison(maison, index);
-            if (pourcentageComparaison <= 50.00) {
-                maison.inscrireEtudiant(etudiant);
-                return;
-            } else if (pourcentageComparaison > 50.00 && cpt == listeMaisonsEtudiantes.size() - 1) {
-                listeMaisonsEtudiantes.get(indexParDefaut).inscrireEtudiant(etudiant);
+    /**
+     * Calcule le bilan qu'aurait l'affectation d'une cohorte selon une politique, sans rien modifier.
+     * Les bilans de plusieurs politiques sur la même cohorte sont directement comparables.
+     *
+     * @param candidats les étudiants à affecter, ni logés ni en liste d'attente
+     * @param politique la politique de calcul des places
+     * @return le bilan prévu
+     */
+    public AffectationCohorte.Bilan simulerCohorte(Collection<Etudiant> candidats, AffectationCohorte.Politique politique) {
+        return new AffectationCohorte(this).affecter(candidats, politique, false);
+    }
+
+    /**
+     * Crée une simulation de l'état courant des maisons, où ouvrir ou fermer des maisons,
+     * changer leur capacité et rejouer des cohortes sans toucher aux données réelles
+     * ({@link SimulationCiup}). Doit être appelée sur le thread qui modifie le modèle.
+     *
+     * @return la simulation
+     */
+    public SimulationCiup simulation() {
+        return new SimulationCiup(this);
+    }
+
+    /**
+     * Choisit la maison d'une affectation équitable ({@link RepartitionEquitable}) :
+     * la maison ayant le plus de places disponibles parmi celles où la nationalité
+     * est minoritaire (≤ 50%), ou à défaut la moins chargée de toutes.
+     * Le choix se fait en temps logarithmique en le nombre de maisons.
+     *
+     * @param nationalite la nationalité de l'étudiant à affecter
+     * @return la maison choisie, ou null si la CIUP n'a aucune maison étudiante
+     */
+    MaisonEtudiante choisirMaisonEquitable(String nationalite) {
+        RepartitionEquitable courante = repartition;
+        if (courante == null) {
+            synchronized (this) {
+                courante = repartition;
+                if (courante == null) {
+                    courante = new RepartitionEquitable(listeMaisonsEtudiantes);
+                    repartition = courante;
+                }
             }
         }
+        return courante.choisir(nationalite);
+    }
+
+    /**
+     * Signale qu'une inscription, un départ ou une chambre d'une maison a changé sa charge.
+     * La maison sera replacée au prochain choix d'affectation équitable.
+     * Peut être appelée sous le verrou d'une maison, depuis n'importe quel thread.
+     *
+     * @param maison la maison modifiée
+     */
+    void chargeModifiee(MaisonEtudiante maison) {
+        RepartitionEquitable courante = repartition;
+        if (courante != null) {
+            courante.maisonModifiee(maison);
+        }
+    }
+
+    /**
+     * Retourne la promotion des listes d'attente ({@link PromotionAttente}), en la créant au besoin
+     * à partir des candidatures de la sauvegarde chargée et des listes d'attente des maisons chargées.
+     * Ne doit pas être appelée sous le verrou d'une maison.
+     *
+     * @return la promotion des listes d'attente de cette CIUP
+     */
+    PromotionAttente getPromotionAttente() {
+        PromotionAttente courante = promotions;
+        if (courante == null) {
+            synchronized (this) {
+                courante = promotions;
+                if (courante == null) {
+                    courante = new PromotionAttente();
+                    promotions = courante;
+                    courante.reinitialiser(listeMaisonsEtudiantes, candidaturesSauvegardees);
+                    candidaturesSauvegardees = null;
+                }
+            }
+        }
+        return courante;
+    }
+
+    /**
+     * Signale l'inscription d'un étudiant en liste d'attente d'une maison à la promotion,
+     * si elle a été créée. Peut être appelée sous le verrou d'une maison, depuis n'importe quel thread.
+     *
+     * @param maison la maison
+     * @param etudiant l'étudiant inscrit
+     */
+    void candidatureAjoutee(MaisonEtudiante maison, Etudiant etudiant) {
+        PromotionAttente courante = promotions;
+        if (courante != null) {
+            courante.candidatureAjoutee(maison, etudiant);
+        }
+    }
+
+    /**
+     * Signale le retrait d'un étudiant de la liste d'attente d'une maison à la promotion,
+     * si elle a été créée. Peut être appelée sous le verrou d'une maison, depuis n'importe quel thread.
+     *
+     * @param maison la maison
+     * @param etudiant l'étudiant retiré
+     */
+    void candidatureRetiree(MaisonEtudiante maison, Etudiant etudiant) {
+        PromotionAttente courante = promotions;
+        if (courante != null) {
+            courante.candidatureRetiree(maison, etudiant);
+        }
+    }
+
+    /**
+     * Signale le remplacement ou le chargement de la liste d'attente d'une maison à la promotion,
+     * si elle a été créée. Appelée sous le verrou de la maison ou pendant son chargement.
+     *
+     * @param maison la maison
+     * @param attente sa nouvelle liste d'attente, recopiée ici
+     * @return true si la promotion existait et a été prévenue
+     */
+    boolean attenteRemplacee(MaisonEtudiante maison, List<Etudiant> attente) {
+        PromotionAttente courante = promotions;
+        if (courante != null) {
+            courante.attenteRemplacee(maison, new ArrayList<>(attente));
+        }
+        return courante != null;
+    }
+
+    /**
+     * Ajoute un écouteur des promotions : il est appelé chaque fois qu'une chambre libérée est
+     * attribuée à un étudiant en liste d'attente, de cette maison ou d'une autre ({@link PromotionAttente}).
+     *
+     * @param ecouteur l'écouteur, appelé sur le thread qui a libéré la chambre
+     */
+    public void ajouterEcouteurPromotions(Consumer<PromotionAttente.Promotion> ecouteur) {
+        getPromotionAttente().ajouterEcouteur(ecouteur);
+    }
+
+    /**
+     * Retire un écouteur des promotions.
+     *
+     * @param ecouteur l'écouteur à retirer
+     */
+    public void retirerEcouteurPromotions(Consumer<PromotionAttente.Promotion> ecouteur) {
+        getPromotionAttente().retirerEcouteur(ecouteur);
     }
 
     /**
@@ -137,6 +523,90 @@ public class Ciup implements Serializable {
         return null;
     }
 
+    /**
+     * Recherche un étudiant logé ou en liste d'attente dans l'une des maisons étudiantes,
+     * à partir de son nom et de son prénom.
+     *
+     * @param nom le nom de l'étudiant
+     * @param prenom le prénom de l'étudiant
+     * @return l'étudiant correspondant, ou null si aucun n'est trouvé
+     */
+    public Etudiant rechercherEtudiant(String nom, String prenom) {
+        for (MaisonEtudiante maison : this.listeMaisonsEtudiantes) {
+            for (Etudiant etudiant : maison.getListeEtudiante()) {
+                if (Objects.equals(etudiant.getNom(), nom) && Objects.equals(etudiant.getPrenom(), prenom)) {
+                    return etudiant;
+                }
+            }
+            for (Etudiant etudiant : maison.getlisteAttente()) {
+                if (Objects.equals(etudiant.getNom(), nom) && Objects.equals(etudiant.getPrenom(), prenom)) {
+                    return etudiant;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recherche un étudiant logé ou en liste d'attente dans l'une des maisons étudiantes,
+     * à partir de son numéro dans la CIUP ({@link Etudiant#getIdentifiant()}). Les étudiants
+     * qui n'ont pas encore de numéro ne reçoivent pas le leur pendant la recherche.
+     *
+     * @param identifiant le numéro de l'étudiant
+     * @return l'étudiant correspondant, ou null si aucun n'est trouvé
+     */
+    public Etudiant rechercherEtudiant(int identifiant) {
+        for (MaisonEtudiante maison : this.listeMaisonsEtudiantes) {
+            for (Etudiant etudiant : maison.getListeEtudiante()) {
+                if (etudiant.porteIdentifiant(identifiant)) {
+                    return etudiant;
+                }
+            }
+            for (Etudiant etudiant : maison.getlisteAttente()) {
+                if (etudiant.porteIdentifiant(identifiant)) {
+                    return etudiant;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Prend un instantané figé de la CIUP, lisible ensuite depuis n'importe quel thread.
+     * Les maisons non modifiées depuis l'instantané précédent ne sont pas recopiées,
+     * et les maisons non encore chargées sont réduites à leur en-tête.
+     * Doit être appelée sur le thread qui modifie le modèle.
+     *
+     * @return l'instantané de la CIUP
+     */
+    public InstantaneCiup instantane() {
+        return instantane(false);
+    }
+
+    /**
+     * Prend un instantané figé et complet de la CIUP, en chargeant au besoin
+     * le contenu des maisons qui ne le sont pas encore.
+     * Doit être appelée sur le thread qui modifie le modèle.
+     *
+     * @return l'instantané complet de la CIUP
+     */
+    public InstantaneCiup instantaneComplet() {
+        return instantane(true);
+    }
+
+    /**
+     * Prend l'instantané de la CIUP, complet ou non.
+     */
+    private InstantaneCiup instantane(boolean complet) {
+        List<InstantaneMaison> maisons = new ArrayList<>(listeMaisonsEtudiantes.size());
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            maisons.add(maison.instantane(complet));
+        }
+        List<InstantaneCiup.InstantaneCandidature> candidatures = getPromotionAttente().instantane();
+        return new InstantaneCiup(maisonInternationale, dernierIdentifiantMaison, dernierIdentifiantEtudiant,
+                maisons, candidatures);
+    }
+
     //--------------------------
     //        ACCESSEURS
     //--------------------------
@@ -159,6 +629,7 @@ public class Ciup implements Serializable {
     public void setMaisonInternationale(MaisonInternationale maisonInternationale) {
         this.maisonInternationale = maisonInternationale;
         maisonInternationale.setCiup(this);
+        getSuiviModifications().maisonModifiee(maisonInternationale);
     }
 
     /**
@@ -177,27 +648,69 @@ public class Ciup implements Serializable {
      */
     public void setListeMaisonsEtudiantes(List<MaisonEtudiante> listeMaisonsEtudiantes) {
         this.listeMaisonsEtudiantes = listeMaisonsEtudiantes;
+        getSuiviModifications().toutModifie();
+        this.maisonsParNationalite = null;
+        this.repartition = null;
+        this.effectifs = null;
+        if (promotions != null) {
+            promotions.reinitialiser(listeMaisonsEtudiantes, null);
+        }
     }
 
     /**
-     * Calcule le nombre total d'étudiants dans toutes les maisons étudiantes.
+     * Retourne le nombre total d'étudiants logés dans les maisons étudiantes, en temps constant.
      *
      * @return le nombre total d'étudiants
      */
     public int getNbEtudiants() {
-        int nbEtudiants = 0;
-        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
-            nbEtudiants += maison.getNbEtudiants();
+        Effectifs courants = getEffectifs();
+        if (!courants.complets) {
+            return compterEtudiants();
         }
-        return nbEtudiants;
+        return courants.nbEtudiants.get();
     }
 
     /**
-     * Calcule le nombre total de chambres dans toutes les maisons étudiantes.
+     * Retourne le nombre total de chambres des maisons étudiantes, en temps constant.
      *
      * @return le nombre total de chambres
      */
     public int getNbChambres() {
+        Effectifs courants = getEffectifs();
+        if (!courants.complets) {
+            return compterChambres();
+        }
+        return courants.nbChambres.get();
+    }
+
+    /**
+     * Vérifie les effectifs tenus à jour par la CIUP et ses maisons en les recomptant entièrement :
+     * capacité et chambres libres de chaque maison chargée, nombres d'étudiants et de chambres
+     * de la CIUP. À appeler quand aucune modification n'est en cours.
+     *
+     * @throws IllegalStateException si un effectif diffère de son recomptage
+     */
+    public void verifierEffectifs() {
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            maison.verifierEffectifs();
+        }
+        int nbEtudiants = getNbEtudiants();
+        int nbChambres = getNbChambres();
+        if (nbEtudiants != compterEtudiants() || nbChambres != compterChambres()) {
+            throw new IllegalStateException("Effectifs de la CIUP incohérents : " + nbEtudiants + " étudiant(s) et "
+                    + nbChambres + " chambre(s) comptés, " + compterEtudiants() + " et " + compterChambres() + " recomptés");
+        }
+    }
+
+    private int compterEtudiants() {
+        int nbEtudiants = 0;
+        for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+            nbEtudiants += maison.getNbEtudiants();
+        }
+        return nbEtudiants;
+    }
+
+    private int compterChambres() {
         int nbChambres = 0;
         for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
             nbChambres += maison.getNbChambres();
@@ -205,6 +718,122 @@ public class Ciup implements Serializable {
         return nbChambres;
     }
 
+    /**
+     * Retourne les effectifs de la CIUP, en les comptant maison par maison s'ils n'existent pas encore.
+     * Ils sont publiés avant le comptage, fait hors du verrou de la CIUP, pour qu'aucun report
+     * d'une maison ne se perde ; jusqu'à la fin du comptage, les lecteurs recomptent eux-mêmes.
+     */
+    private Effectifs getEffectifs() {
+        Effectifs courants = effectifs;
+        if (courants == null) {
+            boolean aCompter = false;
+            synchronized (this) {
+                courants = effectifs;
+                if (courants == null) {
+                    courants = new Effectifs();
+                    effectifs = courants;
+                    aCompter = true;
+                }
+            }
+            if (aCompter) {
+                for (MaisonEtudiante maison : listeMaisonsEtudiantes) {
+                    maison.rattacherEffectifs(courants);
+                }
+                courants.complets = true;
+            }
+        }
+        return courants;
+    }
+
+    /**
+     * Signale qu'un effectif d'une maison a changé : la maison reporte l'écart aux effectifs
+     * de la CIUP, s'ils existent déjà et si elle y est rattachée. Appelée par la maison.
+     *
+     * @param maison la maison modifiée
+     */
+    void effectifsModifies(MaisonEtudiante maison) {
+        Effectifs courants = effectifs;
+        if (courants != null) {
+            maison.reporterEffectifs(courants);
+        }
+    }
+
+    /**
+     * Retourne le suivi des entités modifiées depuis le dernier point de contrôle.
+     * Les modificateurs du modèle y signalent leurs changements ; la sauvegarde
+     * et les autres composants intéressés y consomment l'ensemble des modifications.
+     *
+     * @return le suivi des modifications de cette CIUP
+     */
+    public SuiviModifications getSuiviModifications() {
+        SuiviModifications suivi = suiviModifications;
+        if (suivi == null) {
+            synchronized (this) {
+                suivi = suiviModifications;
+                if (suivi == null) {
+                    suivi = new SuiviModifications();
+                    suiviModifications = suivi;
+                }
+            }
+        }
+        return suivi;
+    }
+
+    /**
+     * Retourne le dernier identifiant attribué à une maison étudiante.
+     *
+     * @return le dernier identifiant attribué
+     */
+    int getDernierIdentifiantMaison() {
+        return dernierIdentifiantMaison;
+    }
+
+    /**
+     * Restaure le dernier identifiant attribué, lors du chargement d'une sauvegarde.
+     *
+     * @param dernierIdentifiantMaison le dernier identifiant attribué
+     */
+    void setDernierIdentifiantMaison(int dernierIdentifiantMaison) {
+        this.dernierIdentifiantMaison = dernierIdentifiantMaison;
+    }
+
+    /**
+     * Attribue un nouveau numéro d'étudiant. Ne prend aucun verrou : peut être appelée
+     * sous le verrou d'une maison.
+     *
+     * @return le numéro attribué
+     */
+    int nouvelIdentifiantEtudiant() {
+        return IDENTIFIANTS_ETUDIANTS.incrementAndGet(this);
+    }
+
+    /**
+     * Retourne le dernier numéro attribué à un étudiant.
+     *
+     * @return le dernier numéro attribué
+     */
+    int getDernierIdentifiantEtudiant() {
+        return dernierIdentifiantEtudiant;
+    }
+
+    /**
+     * Restaure le dernier numéro attribué à un étudiant, lors du chargement d'une sauvegarde.
+     *
+     * @param dernierIdentifiantEtudiant le dernier numéro attribué
+     */
+    void setDernierIdentifiantEtudiant(int dernierIdentifiantEtudiant) {
+        IDENTIFIANTS_ETUDIANTS.accumulateAndGet(this, dernierIdentifiantEtudiant, Math::max);
+    }
+
+    /**
+     * Reprend les candidatures lues dans la racine d'une sauvegarde, avant que la promotion soit créée.
+     *
+     * @param candidatures les candidatures, dans l'ordre d'arrivée
+     */
+    void restaurerCandidatures(List<InstantaneCiup.InstantaneCandidature> candidatures) {
+        this.candidaturesSauvegardees = candidatures;
+    }
+
     //--------------------------
     //           MAIN
     //--------------------------
@@ -218,4 +847,38 @@ public class Ciup implements Serializable {
         Factory fac = new Factory();
         fac.constructionCiup();
     }
+
+    /**
+     * Nombres d'étudiants logés et de chambres de toutes les maisons étudiantes. Chaque maison
+     * rattachée y reporte, sous son verrou, l'écart entre ses effectifs et ceux qu'elle a déjà
+     * reportés ; une maison retirée de la CIUP en est détachée.
+     *
+     * @see MaisonEtudiante#rattacherEffectifs
+     */
+    static final class Effectifs {
+
+        /** Nombre d'étudiants logés */
+        private final AtomicInteger nbEtudiants = new AtomicInteger();
+
+        /** Nombre de chambres */
+        private final AtomicInteger nbChambres = new AtomicInteger();
+
+        /** Faux tant que toutes les maisons n'ont pas été comptées */
+        private volatile boolean complets;
+
+        /**
+         * Ajoute des écarts aux effectifs.
+         *
+         * @param ecartEtudiants l'écart du nombre d'étudiants logés
+         * @param ecartChambres l'écart du nombre de chambres
+         */
+        void ajouter(int ecartEtudiants, int ecartChambres) {
+            if (ecartEtudiants != 0) {
+                nbEtudiants.addAndGet(ecartEtudiants);
+            }
+            if (ecartChambres != 0) {
+                nbChambres.addAndGet(ecartChambres);
+            }
+        }
+    }
 }
@@ -0,0 +1,784 @@
+package Modele;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Format binaire versionné de sauvegarde d'une {@link Ciup}, remplaçant la sérialisation Java.
+ * <p>
+ * Le format se découpe en une <b>racine</b> (maison internationale, identifiants des maisons
+ * étudiantes dans l'ordre, numéro de journal) et une <b>section par maison étudiante</b>.
+ * Chaque section est autonome : elle peut être écrite dans son propre fichier et n'être
+ * réécrite que lorsque sa maison est modifiée (voir {@link GestionSauvegarde}).
+ * </p>
+ * <p>
+ * Le fichier ne contient ni descripteurs de classes ni références croisées : dans une section,
+ * les entités sont rangées dans des tables et désignées par leur numéro, et les chaînes
+ * (nationalités, noms, descriptions...) ne sont écrites qu'une fois dans une table de chaînes.
+ * Les maisons sont désignées par leur identifiant stable et les étudiants par leur numéro dans la
+ * CIUP, le même dans toutes les sections qui les citent. Les entiers sont écrits sous forme variable
+ * (7 bits par octet). Toutes les références sont reconstruites par {@link ChargeurMaisonsDiffere}.
+ * </p>
+ * <p>
+ * Depuis la version 3, la racine porte aussi l'en-tête de chaque maison (champs descriptifs
+ * et effectifs), ce qui permet d'afficher la liste des maisons avant d'avoir lu leurs sections.
+ * Depuis la version 4, un résumé chiffré ({@link ResumeCiup}) suit le numéro de journal en tête
+ * de la racine : {@link #lireResume} le lit sans décoder le reste du fichier.
+ * Depuis la version 5, chaque étudiant d'une section porte son numéro dans la CIUP, et la racine
+ * le dernier numéro attribué ; auparavant, les étudiants de sections différentes n'étaient réunis
+ * que par leur nom et prénom, ce qui confondait les homonymes. Depuis la version 6, la racine se
+ * termine par les candidatures en liste d'attente dans leur ordre d'arrivée ({@link PromotionAttente}),
+ * pour que la promotion les connaisse sans lire les sections. Depuis la version 7, l'en-tête de
+ * chaque maison donne aussi la longueur de sa liste d'attente et sa nationalité majoritaire, qui
+ * suffisent à l'affectation équitable ({@link RepartitionEquitable}) sans lire la section.
+ * Les versions 2 à 6 restent lisibles.
+ * </p>
+ *
+ * @version 7.0
+ * @see GestionSauvegarde
+ */
+public class CodecBinaireCiup {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Signature en tête de la racine et de chaque section ("CIUP") */
+    public static final int MAGIQUE = 0x43495550;
+
+    /** Version courante du format */
+    public static final int VERSION = 7;
+
+    /** Plus ancienne version du format encore lisible */
+    private static final int VERSION_MINIMALE = 2;
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Contenu décodé de la racine d'une sauvegarde.
+     */
+    public static class Racine {
+        /** CIUP restaurée, avec sa maison internationale mais sans maison étudiante */
+        Ciup ciup;
+        /** Numéro de la dernière opération du journal incluse */
+        long numeroJournal;
+        /** Dernier identifiant attribué à une maison étudiante */
+        int dernierIdentifiant;
+        /** Dernier numéro attribué à un étudiant (0 avant la version 5) */
+        int dernierIdentifiantEtudiant;
+        /** Identifiants des maisons étudiantes, dans l'ordre de la CIUP */
+        int[] identifiants;
+        /** Version de la section de chaque maison, dans le même ordre */
+        int[] versions;
+        /** Champs descriptifs de chaque maison (null pour une racine de version 2) */
+        String[][] champsMaisons;
+        /** Nombre d'étudiants logés dans chaque maison */
+        int[] nbEtudiants;
+        /** Nombre de chambres de chaque maison */
+        int[] nbChambres;
+        /** Capacité de chaque maison (null avant la version 4) */
+        int[] capacites;
+        /** Longueur de la liste d'attente de chaque maison (null avant la version 7) */
+        int[] nbAttente;
+        /** Nationalité majoritaire de chaque maison, ou null (null avant la version 7) */
+        String[] majorites;
+        /** Résumé chiffré (null avant la version 4) */
+        ResumeCiup resume;
+        /** Candidatures en liste d'attente, dans l'ordre d'arrivée (null avant la version 6) */
+        List<InstantaneCiup.InstantaneCandidature> candidatures;
+
+        /**
+         * Retourne le numéro de la dernière opération du journal incluse.
+         *
+         * @return le numéro de journal
+         */
+        public long getNumeroJournal() {
+            return numeroJournal;
+        }
+
+        /**
+         * Retourne les identifiants des maisons étudiantes, dans l'ordre.
+         *
+         * @return les identifiants des maisons
+         */
+        public int[] getIdentifiants() {
+            return identifiants;
+        }
+
+        /**
+         * Retourne la version de la section de chaque maison, dans l'ordre des identifiants.
+         *
+         * @return les versions des sections
+         */
+        public int[] getVersions() {
+            return versions;
+        }
+    }
+
+    /**
+     * Contenu décodé d'une section de maison, avant reconstruction des objets du modèle.
+     * Le décodage d'une section ne touche à aucun objet partagé : plusieurs sections
+     * peuvent donc être décodées en parallèle.
+     */
+    public static class SectionMaison {
+        int identifiant;
+        String[] champs;
+        int[] identifiantsChambres;
+        int[] capacites;
+        /** Numéro de chaque étudiant dans la CIUP (null avant la version 5) */
+        int[] numeros;
+        String[] noms;
+        String[] prenoms;
+        String[] nationalites;
+        int[] souhaits;
+        /** Maison de résidence de chaque étudiant (0 : aucune ; null pour une section de version 2) */
+        int[] residences;
+        int[] residents;
+        int[][] occupants;
+        int[] attente;
+        String[] nationalitesMaison;
+        int[] effectifs;
+        String[] nomsSoirees;
+        String[] descriptionsSoirees;
+        LocalDateTime[] datesSoirees;
+        int[][] inscrits;
+
+        /**
+         * Retourne l'identifiant de la maison décrite par la section.
+         *
+         * @return l'identifiant de la maison
+         */
+        public int getIdentifiant() {
+            return identifiant;
+        }
+    }
+
+    // --------------------------
+    //       ECRITURE
+    // --------------------------
+
+    /**
+     * Écrit la racine d'une sauvegarde : résumé chiffré, maison internationale et liste des maisons
+     * étudiantes, chacune avec la version de sa section (utilisée pour nommer le fichier de la section)
+     * et ses champs descriptifs.
+     *
+     * @param ciup la CIUP à écrire
+     * @param numeroJournal numéro de la dernière opération du journal incluse dans cet état
+     * @param versions version de la section de chaque maison, dans l'ordre de la CIUP
+     * @param sortie le flux de destination (non fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrireRacine(Ciup ciup, long numeroJournal, int[] versions, OutputStream sortie) throws IOException {
+        ecrireRacine(ciup.instantane(), numeroJournal, versions, sortie);
+    }
+
+    /**
+     * Écrit la racine d'une sauvegarde à partir d'un instantané de la CIUP,
+     * éventuellement depuis un autre thread que celui du modèle.
+     *
+     * @param ciup l'instantané de la CIUP à écrire
+     * @param numeroJournal numéro de la dernière opération du journal incluse dans cet état
+     * @param versions version de la section de chaque maison, dans l'ordre de la CIUP
+     * @param sortie le flux de destination (non fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrireRacine(InstantaneCiup ciup, long numeroJournal, int[] versions, OutputStream sortie) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(sortie));
+        out.writeInt(MAGIQUE);
+        ecrireEntier(out, VERSION);
+        out.writeLong(numeroJournal);
+        ResumeCiup resume = ResumeCiup.calculer(ciup, numeroJournal);
+        ecrireEntier(out, resume.getNbMaisons());
+        for (ResumeCiup.ResumeMaison maison : resume.getMaisons()) {
+            ecrireEntier(out, maison.getIdentifiant());
+            ecrireTexte(out, maison.getNom());
+            ecrireEntier(out, maison.getNbEtudiants());
+            ecrireEntier(out, maison.getNbChambres());
+            ecrireEntier(out, maison.getCapacite());
+            ecrireEntier(out, maison.getNbAttente() + 1);
+        }
+        ecrireEntier(out, ciup.getDernierIdentifiantMaison());
+        ecrireEntier(out, ciup.getDernierIdentifiantEtudiant());
+        for (String champ : ciup.getChampsMaisonInternationale()) {
+            ecrireTexte(out, champ);
+        }
+        List<InstantaneMaison> maisons = ciup.getMaisons();
+        ecrireEntier(out, maisons.size());
+        for (int i = 0; i < maisons.size(); i++) {
+            InstantaneMaison maison = maisons.get(i);
+            ecrireEntier(out, maison.getIdentifiant());
+            ecrireEntier(out, versions[i]);
+            for (String champ : maison.getChamps()) {
+                ecrireTexte(out, champ);
+            }
+            ecrireTexte(out, maison.getMajorite());
+        }
+        ecrireCandidatures(out, ciup.getCandidatures());
+        out.flush();
+    }
+
+    /**
+     * Écrit les candidatures en liste d'attente dans leur ordre d'arrivée, précédées de la table
+     * des nationalités des candidats qui acceptent toute maison.
+     */
+    private static void ecrireCandidatures(DataOutputStream out, List<InstantaneCiup.InstantaneCandidature> candidatures)
+            throws IOException {
+        Map<String, Integer> classes = new HashMap<>();
+        List<String> tableClasses = new ArrayList<>();
+        for (InstantaneCiup.InstantaneCandidature candidature : candidatures) {
+            indexerChaine(candidature.getClasse(), classes, tableClasses);
+        }
+        ecrireEntier(out, tableClasses.size());
+        for (String classe : tableClasses) {
+            ecrireTexte(out, classe);
+        }
+        ecrireEntier(out, candidatures.size());
+        for (InstantaneCiup.InstantaneCandidature candidature : candidatures) {
+            ecrireEntier(out, candidature.getEtudiant());
+            ecrireChaine(out, candidature.getClasse(), classes);
+            ecrireEntier(out, candidature.getNbMaisons());
+            for (int i = 0; i < candidature.getNbMaisons(); i++) {
+                ecrireEntier(out, candidature.getMaison(i));
+            }
+        }
+    }
+
+    /**
+     * Écrit la section autonome d'une maison étudiante : chambres, étudiants référencés,
+     * résidents, liste d'attente, nationalités et agenda.
+     *
+     * @param maison la maison à écrire
+     * @param sortie le flux de destination (non fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrireMaison(MaisonEtudiante maison, OutputStream sortie) throws IOException {
+        ecrireMaison(maison.instantane(true), sortie);
+    }
+
+    /**
+     * Écrit la section autonome d'une maison étudiante à partir de son instantané,
+     * éventuellement depuis un autre thread que celui du modèle.
+     *
+     * @param maison l'instantané complet de la maison à écrire
+     * @param sortie le flux de destination (non fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si l'instantané se réduit à l'en-tête de la maison
+     */
+    public void ecrireMaison(InstantaneMaison maison, OutputStream sortie) throws IOException {
+        if (!maison.estComplet()) {
+            throw new IllegalArgumentException("Instantané sans contenu pour la maison " + maison.getIdentifiant());
+        }
+        // Premier passage : numérotation des étudiants et des chaînes de la section
+        Map<InstantaneMaison.InstantaneEtudiant, Integer> etudiants = new IdentityHashMap<>();
+        List<InstantaneMaison.InstantaneEtudiant> tableEtudiants = new ArrayList<>();
+        Map<String, Integer> chaines = new HashMap<>();
+        List<String> tableChaines = new ArrayList<>();
+
+        String[] champs = maison.getChamps();
+        for (String champ : champs) {
+            indexerChaine(champ, chaines, tableChaines);
+        }
+        for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getResidents()) {
+            indexerEtudiant(etudiant, etudiants, tableEtudiants, chaines, tableChaines);
+        }
+        for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+            for (InstantaneMaison.InstantaneEtudiant etudiant : chambre.getOccupants()) {
+                indexerEtudiant(etudiant, etudiants, tableEtudiants, chaines, tableChaines);
+            }
+        }
+        for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getAttente()) {
+            indexerEtudiant(etudiant, etudiants, tableEtudiants, chaines, tableChaines);
+        }
+        for (String nationalite : maison.getNationalites()) {
+            indexerChaine(nationalite, chaines, tableChaines);
+        }
+        for (InstantaneMaison.InstantaneSoiree soiree : maison.getAgenda()) {
+            indexerChaine(soiree.getNom(), chaines, tableChaines);
+            indexerChaine(soiree.getDescription(), chaines, tableChaines);
+            for (InstantaneMaison.InstantaneEtudiant etudiant : soiree.getInscrits()) {
+                indexerEtudiant(etudiant, etudiants, tableEtudiants, chaines, tableChaines);
+            }
+        }
+
+        // Second passage : écriture
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(sortie));
+        out.writeInt(MAGIQUE);
+        ecrireEntier(out, VERSION);
+        ecrireEntier(out, maison.getIdentifiant());
+
+        ecrireEntier(out, tableChaines.size());
+        for (String chaine : tableChaines) {
+            ecrireTexte(out, chaine);
+        }
+        for (String champ : champs) {
+            ecrireChaine(out, champ, chaines);
+        }
+
+        ecrireEntier(out, maison.getChambres().size());
+        for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+            ecrireEntier(out, chambre.getIdentifiant());
+            ecrireEntier(out, chambre.getCapacite());
+        }
+
+        ecrireEntier(out, tableEtudiants.size());
+        for (InstantaneMaison.InstantaneEtudiant etudiant : tableEtudiants) {
+            ecrireEntier(out, etudiant.getIdentifiant());
+            ecrireChaine(out, etudiant.getNom(), chaines);
+            ecrireChaine(out, etudiant.getPrenom(), chaines);
+            ecrireChaine(out, etudiant.getNationalite(), chaines);
+            ecrireEntier(out, etudiant.getSouhait());
+            ecrireEntier(out, etudiant.getResidence());
+        }
+
+        ecrireListe(out, maison.getResidents(), etudiants);
+        for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+            ecrireListe(out, chambre.getOccupants(), etudiants);
+        }
+        ecrireListe(out, maison.getAttente(), etudiants);
+
+        List<String> nationalites = maison.getNationalites();
+        ecrireEntier(out, nationalites.size());
+        for (int i = 0; i < nationalites.size(); i++) {
+            ecrireChaine(out, nationalites.get(i), chaines);
+            ecrireEntier(out, maison.getEffectif(i));
+        }
+
+        ecrireEntier(out, maison.getAgenda().size());
+        for (InstantaneMaison.InstantaneSoiree soiree : maison.getAgenda()) {
+            ecrireChaine(out, soiree.getNom(), chaines);
+            ecrireChaine(out, soiree.getDescription(), chaines);
+            out.writeLong(soiree.getDate().toEpochSecond(ZoneOffset.UTC));
+            ecrireEntier(out, soiree.getDate().getNano());
+            ecrireListe(out, soiree.getInscrits(), etudiants);
+        }
+        out.flush();
+    }
+
+    /**
+     * Écrit toute la CIUP dans un seul flux : la racine suivie de la section de chaque maison.
+     *
+     * @param ciup la CIUP à écrire
+     * @param numeroJournal numéro de la dernière opération du journal incluse dans cet état
+     * @param sortie le flux de destination (non fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(Ciup ciup, long numeroJournal, OutputStream sortie) throws IOException {
+        InstantaneCiup instantane = ciup.instantaneComplet();
+        ecrireRacine(instantane, numeroJournal, new int[instantane.getMaisons().size()], sortie);
+        for (InstantaneMaison maison : instantane.getMaisons()) {
+            ecrireMaison(maison, sortie);
+        }
+    }
+
+    // --------------------------
+    //       LECTURE
+    // --------------------------
+
+    /**
+     * Lit uniquement le résumé chiffré en tête de la racine d'une sauvegarde,
+     * sans décoder la suite du fichier.
+     *
+     * @param entree le flux source (non fermé)
+     * @return le résumé, ou null si la racine est antérieure à la version 4
+     * @throws IOException si le flux est illisible ou n'est pas au format attendu
+     */
+    public ResumeCiup lireResume(InputStream entree) throws IOException {
+        DataInputStream in = new DataInputStream(entree);
+        int version = verifierEnTete(in);
+        long numeroJournal = in.readLong();
+        return (version >= 4) ? lireResume(in, numeroJournal, version) : null;
+    }
+
+    /**
+     * Lit la racine d'une sauvegarde.
+     *
+     * @param entree le flux source (non fermé)
+     * @return la racine décodée
+     * @throws IOException si le flux est illisible ou n'est pas au format attendu
+     */
+    public Racine lireRacine(InputStream entree) throws IOException {
+        DataInputStream in = new DataInputStream(entree);
+        int version = verifierEnTete(in);
+        Racine racine = new Racine();
+        racine.numeroJournal = in.readLong();
+        if (version >= 4) {
+            racine.resume = lireResume(in, racine.numeroJournal, version);
+        }
+        racine.dernierIdentifiant = lireEntier(in);
+        if (version >= 5) {
+            racine.dernierIdentifiantEtudiant = lireEntier(in);
+        }
+
+        String[] champs = new String[6];
+        for (int i = 0; i < champs.length; i++) {
+            champs[i] = lireTexte(in);
+        }
+        MaisonInternationale internationale = new MaisonInternationale(champs[0], champs[1], champs[2], champs[3]);
+        internationale.setCheminImage(champs[4]);
+        internationale.setDescription(champs[5]);
+        racine.ciup = new Ciup(internationale);
+
+        int nbMaisons = lireEntier(in);
+        racine.identifiants = new int[nbMaisons];
+        racine.versions = new int[nbMaisons];
+        if (version >= 3) {
+            racine.champsMaisons = new String[nbMaisons][6];
+            racine.nbEtudiants = new int[nbMaisons];
+            racine.nbChambres = new int[nbMaisons];
+        }
+        if (version >= 4) {
+            racine.capacites = new int[nbMaisons];
+        }
+        if (version >= 7) {
+            racine.nbAttente = new int[nbMaisons];
+            racine.majorites = new String[nbMaisons];
+        }
+        for (int i = 0; i < nbMaisons; i++) {
+            racine.identifiants[i] = lireEntier(in);
+            racine.versions[i] = lireEntier(in);
+            if (version >= 3) {
+                for (int c = 0; c < 6; c++) {
+                    racine.champsMaisons[i][c] = lireTexte(in);
+                }
+            }
+            if (version >= 7) {
+                racine.nbAttente[i] = racine.resume.getMaisons().get(i).getNbAttente();
+                racine.majorites[i] = lireTexte(in);
+            }
+            if (version >= 4) {
+                ResumeCiup.ResumeMaison resume = racine.resume.getMaisons().get(i);
+                racine.nbEtudiants[i] = resume.getNbEtudiants();
+                racine.nbChambres[i] = resume.getNbChambres();
+                racine.capacites[i] = resume.getCapacite();
+            } else if (version == 3) {
+                racine.nbEtudiants[i] = lireEntier(in);
+                racine.nbChambres[i] = lireEntier(in);
+            }
+        }
+        if (version >= 6) {
+            racine.candidatures = lireCandidatures(in);
+        }
+        return racine;
+    }
+
+    /**
+     * Lit les candidatures écrites par {@link #ecrireCandidatures}.
+     */
+    private static List<InstantaneCiup.InstantaneCandidature> lireCandidatures(DataInputStream in) throws IOException {
+        String[] classes = new String[lireEntier(in) + 1];
+        for (int i = 1; i < classes.length; i++) {
+            classes[i] = lireTexte(in).intern();
+        }
+        int nbCandidatures = lireEntier(in);
+        List<InstantaneCiup.InstantaneCandidature> candidatures = new ArrayList<>(nbCandidatures);
+        for (int c = 0; c < nbCandidatures; c++) {
+            int etudiant = lireEntier(in);
+            String classe = classes[lireEntier(in)];
+            int[] maisons = new int[lireEntier(in)];
+            for (int i = 0; i < maisons.length; i++) {
+                maisons[i] = lireEntier(in);
+            }
+            candidatures.add(new InstantaneCiup.InstantaneCandidature(etudiant, classe, maisons));
+        }
+        return candidatures;
+    }
+
+    /**
+     * Lit le résumé chiffré qui suit le numéro de journal dans une racine de version 4.
+     */
+    private static ResumeCiup lireResume(DataInputStream in, long numeroJournal, int version) throws IOException {
+        int nbMaisons = lireEntier(in);
+        List<ResumeCiup.ResumeMaison> maisons = new ArrayList<>(nbMaisons);
+        for (int i = 0; i < nbMaisons; i++) {
+            int identifiant = lireEntier(in);
+            String nom = lireTexte(in);
+            int nbEtudiants = lireEntier(in);
+            int nbChambres = lireEntier(in);
+            int capacite = lireEntier(in);
+            int nbAttente = (version >= 7) ? lireEntier(in) - 1 : -1;
+            maisons.add(new ResumeCiup.ResumeMaison(identifiant, nom, nbEtudiants, nbChambres, capacite, nbAttente));
+        }
+        return new ResumeCiup(numeroJournal, maisons);
+    }
+
+    /**
+     * Décode la section d'une maison, sans créer d'objet du modèle.
+     *
+     * @param entree le flux source (non fermé)
+     * @return la section décodée
+     * @throws IOException si le flux est illisible ou n'est pas au format attendu
+     */
+    public SectionMaison lireMaison(InputStream entree) throws IOException {
+        DataInputStream in = new DataInputStream(entree);
+        int version = verifierEnTete(in);
+        SectionMaison section = new SectionMaison();
+        section.identifiant = lireEntier(in);
+
+        String[] chaines = new String[lireEntier(in) + 1];
+        for (int i = 1; i < chaines.length; i++) {
+            chaines[i] = lireTexte(in).intern();
+        }
+        section.champs = new String[6];
+        for (int i = 0; i < section.champs.length; i++) {
+            section.champs[i] = chaines[lireEntier(in)];
+        }
+
+        int nbChambres = lireEntier(in);
+        section.identifiantsChambres = new int[nbChambres];
+        section.capacites = new int[nbChambres];
+        for (int c = 0; c < nbChambres; c++) {
+            section.identifiantsChambres[c] = lireEntier(in);
+            section.capacites[c] = lireEntier(in);
+        }
+
+        int nbEtudiants = lireEntier(in);
+        section.noms = new String[nbEtudiants];
+        section.prenoms = new String[nbEtudiants];
+        section.nationalites = new String[nbEtudiants];
+        section.souhaits = new int[nbEtudiants];
+        section.residences = (version >= 3) ? new int[nbEtudiants] : null;
+        section.numeros = (version >= 5) ? new int[nbEtudiants] : null;
+        for (int e = 0; e < nbEtudiants; e++) {
+            if (version >= 5) {
+                section.numeros[e] = lireEntier(in);
+            }
+            section.noms[e] = chaines[lireEntier(in)];
+            section.prenoms[e] = chaines[lireEntier(in)];
+            section.nationalites[e] = chaines[lireEntier(in)];
+            section.souhaits[e] = lireEntier(in);
+            if (version >= 3) {
+                section.residences[e] = lireEntier(in);
+            }
+        }
+
+        section.residents = lireListe(in);
+        section.occupants = new int[nbChambres][];
+        for (int c = 0; c < nbChambres; c++) {
+            section.occupants[c] = lireListe(in);
+        }
+        section.attente = lireListe(in);
+
+        int nbNationalites = lireEntier(in);
+        section.nationalitesMaison = new String[nbNationalites];
+        section.effectifs = new int[nbNationalites];
+        for (int n = 0; n < nbNationalites; n++) {
+            section.nationalitesMaison[n] = chaines[lireEntier(in)];
+            section.effectifs[n] = lireEntier(in);
+        }
+
+        int nbSoirees = lireEntier(in);
+        section.nomsSoirees = new String[nbSoirees];
+        section.descriptionsSoirees = new String[nbSoirees];
+        section.datesSoirees = new LocalDateTime[nbSoirees];
+        section.inscrits = new int[nbSoirees][];
+        for (int s = 0; s < nbSoirees; s++) {
+            section.nomsSoirees[s] = chaines[lireEntier(in)];
+            section.descriptionsSoirees[s] = chaines[lireEntier(in)];
+            long secondes = in.readLong();
+            section.datesSoirees[s] = LocalDateTime.ofEpochSecond(secondes, lireEntier(in), ZoneOffset.UTC);
+            section.inscrits[s] = lireListe(in);
+        }
+        return section;
+    }
+
+    /**
+     * Reconstruit toute la CIUP à partir de sa racine et des sections de ses maisons :
+     * crée les maisons, les chambres et les étudiants, puis rétablit toutes les références.
+     * Un étudiant présent dans plusieurs sections (liste d'attente, soirée...) n'est créé qu'une fois.
+     *
+     * @param racine la racine décodée
+     * @param sections les sections décodées, dans un ordre quelconque
+     * @return la CIUP restaurée
+     * @throws IOException si une maison annoncée par la racine n'a pas de section
+     */
+    public Ciup assembler(Racine racine, Collection<SectionMaison> sections) throws IOException {
+        Map<Integer, Future<SectionMaison>> parIdentifiant = new HashMap<>();
+        for (SectionMaison section : sections) {
+            parIdentifiant.put(section.identifiant, CompletableFuture.completedFuture(section));
+        }
+        for (int identifiant : racine.identifiants) {
+            if (!parIdentifiant.containsKey(identifiant)) {
+                throw new IOException("Section manquante pour la maison " + identifiant);
+            }
+        }
+        ChargeurMaisonsDiffere chargeur = new ChargeurMaisonsDiffere(parIdentifiant);
+        Ciup ciup = chargeur.assembler(racine);
+        chargeur.materialiserTout();
+        return ciup;
+    }
+
+    /**
+     * Lit toute une CIUP écrite par {@link #ecrire} dans un seul flux.
+     *
+     * @param entree le flux source (non fermé)
+     * @return la CIUP restaurée
+     * @throws IOException si le flux est illisible ou n'est pas au format attendu
+     */
+    public Ciup lire(InputStream entree) throws IOException {
+        InputStream in = new BufferedInputStream(entree);
+        Racine racine = lireRacine(in);
+        List<SectionMaison> sections = new ArrayList<>();
+        for (int i = 0; i < racine.identifiants.length; i++) {
+            sections.add(lireMaison(in));
+        }
+        return assembler(racine, sections);
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Vérifie la signature et la version en tête d'une racine ou d'une section, et renvoie la version.
+     */
+    private static int verifierEnTete(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIQUE) {
+            throw new IOException("Fichier de sauvegarde binaire invalide");
+        }
+        int version = lireEntier(in);
+        if (version < VERSION_MINIMALE || version > VERSION) {
+            throw new IOException("Version de sauvegarde non prise en charge : " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Ajoute une chaîne à la table si elle n'y figure pas déjà (0 est réservé à null).
+     */
+    private static void indexerChaine(String chaine, Map<String, Integer> chaines, List<String> table) {
+        if (chaine != null && !chaines.containsKey(chaine)) {
+            table.add(chaine);
+            chaines.put(chaine, table.size());
+        }
+    }
+
+    /**
+     * Attribue un numéro à un étudiant s'il n'en a pas encore et indexe ses chaînes.
+     */
+    private static void indexerEtudiant(InstantaneMaison.InstantaneEtudiant etudiant,
+                                        Map<InstantaneMaison.InstantaneEtudiant, Integer> etudiants,
+                                        List<InstantaneMaison.InstantaneEtudiant> table,
+                                        Map<String, Integer> chaines, List<String> tableChaines) {
+        if (!etudiants.containsKey(etudiant)) {
+            etudiants.put(etudiant, table.size());
+            table.add(etudiant);
+            indexerChaine(etudiant.getNom(), chaines, tableChaines);
+            indexerChaine(etudiant.getPrenom(), chaines, tableChaines);
+            indexerChaine(etudiant.getNationalite(), chaines, tableChaines);
+        }
+    }
+
+    /**
+     * Écrit le numéro d'une chaîne de la table (0 pour null).
+     */
+    private static void ecrireChaine(DataOutputStream out, String chaine, Map<String, Integer> chaines) throws IOException {
+        ecrireEntier(out, chaine == null ? 0 : chaines.get(chaine));
+    }
+
+    /**
+     * Écrit une chaîne UTF-8 précédée de sa longueur + 1 (0 pour null).
+     */
+    private static void ecrireTexte(DataOutputStream out, String texte) throws IOException {
+        if (texte == null) {
+            ecrireEntier(out, 0);
+            return;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        ecrireEntier(out, octets.length + 1);
+        out.write(octets);
+    }
+
+    /**
+     * Lit une chaîne écrite par {@link #ecrireTexte}.
+     */
+    private static String lireTexte(DataInputStream in) throws IOException {
+        int longueur = lireEntier(in);
+        if (longueur == 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur - 1];
+        in.readFully(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Écrit une liste d'étudiants sous forme de numéros.
+     */
+    private static void ecrireListe(DataOutputStream out, List<InstantaneMaison.InstantaneEtudiant> liste,
+                                    Map<InstantaneMaison.InstantaneEtudiant, Integer> etudiants) throws IOException {
+        ecrireEntier(out, liste.size());
+        for (InstantaneMaison.InstantaneEtudiant etudiant : liste) {
+            ecrireEntier(out, etudiants.get(etudiant));
+        }
+    }
+
+    /**
+     * Lit une liste de numéros écrite par {@link #ecrireListe}.
+     */
+    private static int[] lireListe(DataInputStream in) throws IOException {
+        int[] liste = new int[lireEntier(in)];
+        for (int i = 0; i < liste.length; i++) {
+            liste[i] = lireEntier(in);
+        }
+        return liste;
+    }
+
+    /**
+     * Écrit un entier positif sur un nombre variable d'octets (7 bits utiles par octet).
+     *
+     * @param out le flux de sortie
+     * @param valeur l'entier positif à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void ecrireEntier(DataOutput out, int valeur) throws IOException {
+        while ((valeur & ~0x7F) != 0) {
+            out.writeByte((valeur & 0x7F) | 0x80);
+            valeur >>>= 7;
+        }
+        out.writeByte(valeur);
+    }
+
+    /**
+     * Lit un entier écrit par {@link #ecrireEntier}.
+     *
+     * @param in le flux d'entrée
+     * @return l'entier lu
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static int lireEntier(DataInput in) throws IOException {
+        int valeur = 0;
+        for (int decalage = 0; decalage < 32; decalage += 7) {
+            int octet = in.readUnsignedByte();
+            valeur |= (octet & 0x7F) << decalage;
+            if ((octet & 0x80) == 0) {
+                return valeur;
+            }
+        }
+        throw new IOException("Entier variable invalide");
+    }
+
+    // --------------------------
+    //       MAIN
+    // --------------------------
+
+    /**
+     * Convertit un fichier de sauvegarde par sérialisation Java vers le format binaire
+     * (racine et une section par maison, dans le répertoire de sauvegarde).
+     * Usage : {@code CodecBinaireCiup [ciup.ser]}.
+     *
+     * @param args fichier source (facultatif)
+     * @throws Exception en cas d'erreur de lecture ou d'écriture
+     */
+    public static void main(String[] args) throws Exception {
+        File source = new File(args.length > 0 ? args[0] : "ciup.ser");
+        GestionSauvegarde.convertirSauvegardeHistorique(source);
+        System.out.println(source + " (" + source.length() + " octets) converti au format binaire.");
+    }
+}
@@ -0,0 +1,438 @@
+package Modele;
+
+import java.io.*;
+import java.util.Locale;
+import java.util.zip.*;
+
+/**
+ * Compression des fichiers de sauvegarde ({@link GestionSauvegarde}).
+ * <p>
+ * Une compression s'applique à un fichier entier déjà encodé par {@link CodecBinaireCiup}.
+ * Le premier octet d'un fichier compressé désigne l'algorithme utilisé ; un fichier non compressé
+ * commence directement par la signature du format ({@link CodecBinaireCiup#MAGIQUE}, premier octet
+ * {@code 'C'}). Chaque fichier se décrit donc lui-même : {@link #decompresser(InputStream)} lit
+ * indifféremment les anciens fichiers et ceux écrits avec n'importe quelle compression, ce qui
+ * permet de changer de compression sans réécrire les maisons qui n'ont pas été modifiées.
+ * </p>
+ * <p>
+ * Compressions disponibles :
+ * <ul>
+ *   <li>{@link #aucune()} : fichier écrit tel quel ;</li>
+ *   <li>{@link #deflate(int)} et {@link #gzip(int)} : {@link Deflater}, au niveau choisi (1 à 9) ;</li>
+ *   <li>{@link #lz()} : compression LZ77 sans entropie, très rapide, qui suffit à factoriser
+ *       les chaînes répétées (nationalités, statuts, noms de maisons).</li>
+ * </ul>
+ * La compression de la sauvegarde est choisie par la propriété système {@value #PROPRIETE},
+ * par exemple {@code -Dciup.compression=deflate:6} (voir {@link #analyser(String)}).
+ * </p>
+ *
+ * @version 1.0
+ * @see GestionSauvegarde
+ */
+public abstract class CompressionSauvegarde {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Propriété système choisissant la compression de la sauvegarde */
+    public static final String PROPRIETE = "ciup.compression";
+
+    /** Niveau de compression Deflate utilisé par défaut */
+    public static final int NIVEAU_PAR_DEFAUT = 6;
+
+    /** Premier octet d'un fichier non compressé (premier octet de {@link CodecBinaireCiup#MAGIQUE}) */
+    private static final int OCTET_NON_COMPRESSE = CodecBinaireCiup.MAGIQUE >>> 24;
+
+    /** Marqueur d'un fichier compressé par Deflate (format zlib) */
+    private static final int MARQUEUR_DEFLATE = 1;
+
+    /** Marqueur d'un fichier compressé au format GZIP */
+    private static final int MARQUEUR_GZIP = 2;
+
+    /** Marqueur d'un fichier compressé par {@link #lz()} */
+    private static final int MARQUEUR_LZ = 3;
+
+    /** Nom de la compression, tel qu'accepté par {@link #analyser(String)} */
+    private final String nom;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    private CompressionSauvegarde(String nom) {
+        this.nom = nom;
+    }
+
+    // --------------------------
+    //       FABRIQUES
+    // --------------------------
+
+    /**
+     * Retourne la compression qui écrit les fichiers tels quels.
+     *
+     * @return l'absence de compression
+     */
+    public static CompressionSauvegarde aucune() {
+        return new Aucune();
+    }
+
+    /**
+     * Retourne la compression Deflate (format zlib) au niveau donné.
+     *
+     * @param niveau le niveau de compression, de 1 (rapide) à 9 (compact)
+     * @return la compression Deflate
+     * @throws IllegalArgumentException si le niveau est hors de l'intervalle 1 à 9
+     */
+    public static CompressionSauvegarde deflate(int niveau) {
+        return new Deflate(MARQUEUR_DEFLATE, "deflate", verifierNiveau(niveau));
+    }
+
+    /**
+     * Retourne la compression GZIP au niveau donné.
+     *
+     * @param niveau le niveau de compression, de 1 (rapide) à 9 (compact)
+     * @return la compression GZIP
+     * @throws IllegalArgumentException si le niveau est hors de l'intervalle 1 à 9
+     */
+    public static CompressionSauvegarde gzip(int niveau) {
+        return new Deflate(MARQUEUR_GZIP, "gzip", verifierNiveau(niveau));
+    }
+
+    /**
+     * Retourne la compression LZ77 rapide.
+     *
+     * @return la compression LZ
+     */
+    public static CompressionSauvegarde lz() {
+        return new Lz();
+    }
+
+    /**
+     * Construit une compression à partir de sa description : {@code aucune}, {@code lz},
+     * {@code deflate}, {@code gzip}, ces deux derniers éventuellement suivis d'un niveau
+     * ({@code deflate:1}, {@code gzip:9}).
+     *
+     * @param description la description de la compression
+     * @return la compression correspondante
+     * @throws IllegalArgumentException si la description est inconnue
+     */
+    public static CompressionSauvegarde analyser(String description) {
+        String texte = description.trim().toLowerCase(Locale.ROOT);
+        int separateur = texte.indexOf(':');
+        String algorithme = (separateur < 0) ? texte : texte.substring(0, separateur);
+        int niveau = NIVEAU_PAR_DEFAUT;
+        if (separateur >= 0) {
+            try {
+                niveau = Integer.parseInt(texte.substring(separateur + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Niveau de compression invalide : " + description, e);
+            }
+        }
+        switch (algorithme) {
+            case "aucune":
+            case "none":
+                return aucune();
+            case "deflate":
+                return deflate(niveau);
+            case "gzip":
+                return gzip(niveau);
+            case "lz":
+                return lz();
+            default:
+                throw new IllegalArgumentException("Compression inconnue : " + description);
+        }
+    }
+
+    /**
+     * Retourne la compression choisie par la propriété système {@value #PROPRIETE},
+     * ou l'absence de compression si elle n'est pas définie ou invalide.
+     *
+     * @return la compression configurée
+     */
+    public static CompressionSauvegarde depuisConfiguration() {
+        String description = System.getProperty(PROPRIETE);
+        if (description == null || description.isBlank()) {
+            return aucune();
+        }
+        try {
+            return analyser(description);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + " ; sauvegarde non compressée.");
+            return aucune();
+        }
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Retourne le nom de la compression, tel qu'accepté par {@link #analyser(String)}.
+     *
+     * @return le nom de la compression
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Compresse le contenu encodé d'un fichier de sauvegarde, précédé de son marqueur.
+     *
+     * @param octets le contenu encodé
+     * @return le contenu du fichier à écrire
+     * @throws IOException en cas d'erreur de compression
+     */
+    public abstract byte[] compresser(byte[] octets) throws IOException;
+
+    /**
+     * Ouvre la lecture d'un fichier de sauvegarde, compressé ou non : le flux renvoyé
+     * restitue le contenu encodé. La compression est reconnue à son premier octet.
+     *
+     * @param entree le contenu du fichier
+     * @return le flux du contenu décompressé
+     * @throws IOException si la compression du fichier est inconnue
+     */
+    public static InputStream decompresser(InputStream entree) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(entree, 1);
+        int marqueur = in.read();
+        switch (marqueur) {
+            case -1:
+                throw new EOFException("Fichier de sauvegarde vide");
+            case OCTET_NON_COMPRESSE:
+                in.unread(marqueur);
+                return in;
+            case MARQUEUR_DEFLATE:
+                return new InflaterInputStream(in);
+            case MARQUEUR_GZIP:
+                return new GZIPInputStream(in);
+            case MARQUEUR_LZ:
+                return new ByteArrayInputStream(Lz.decoder(in.readAllBytes()));
+            default:
+                throw new IOException("Compression de sauvegarde inconnue : " + marqueur);
+        }
+    }
+
+    /**
+     * Retourne le nom de la compression.
+     *
+     * @return le nom de la compression
+     */
+    @Override
+    public String toString() {
+        return nom;
+    }
+
+    /**
+     * Vérifie qu'un niveau de compression Deflate est compris entre 1 et 9.
+     */
+    private static int verifierNiveau(int niveau) {
+        if (niveau < Deflater.BEST_SPEED || niveau > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Niveau de compression hors de l'intervalle 1 à 9 : " + niveau);
+        }
+        return niveau;
+    }
+
+    // --------------------------
+    //       IMPLEMENTATIONS
+    // --------------------------
+
+    /**
+     * Fichiers écrits tels quels.
+     */
+    private static class Aucune extends CompressionSauvegarde {
+
+        private Aucune() {
+            super("aucune");
+        }
+
+        @Override
+        public byte[] compresser(byte[] octets) {
+            return octets;
+        }
+    }
+
+    /**
+     * Compression Deflate, au format zlib ou GZIP.
+     */
+    private static class Deflate extends CompressionSauvegarde {
+
+        /** Marqueur écrit en tête du fichier */
+        private final int marqueur;
+
+        /** Niveau de compression */
+        private final int niveau;
+
+        private Deflate(int marqueur, String algorithme, int niveau) {
+            super(algorithme + ":" + niveau);
+            this.marqueur = marqueur;
+            this.niveau = niveau;
+        }
+
+        @Override
+        public byte[] compresser(byte[] octets) throws IOException {
+            ByteArrayOutputStream tampon = new ByteArrayOutputStream(octets.length / 3 + 64);
+            tampon.write(marqueur);
+            Deflater deflater = new Deflater(niveau, marqueur == MARQUEUR_GZIP);
+            try {
+                if (marqueur == MARQUEUR_GZIP) {
+                    ecrireGzip(octets, tampon, deflater);
+                } else {
+                    try (DeflaterOutputStream out = new DeflaterOutputStream(tampon, deflater, 8192)) {
+                        out.write(octets);
+                    }
+                }
+            } finally {
+                deflater.end();
+            }
+            return tampon.toByteArray();
+        }
+
+        /**
+         * Écrit le format GZIP (en-tête, données Deflate brutes, CRC et taille) :
+         * {@link GZIPOutputStream} ne permet pas de choisir le niveau de compression.
+         */
+        private static void ecrireGzip(byte[] octets, OutputStream sortie, Deflater deflater) throws IOException {
+            sortie.write(new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+            DeflaterOutputStream out = new DeflaterOutputStream(sortie, deflater, 8192);
+            out.write(octets);
+            out.finish();
+            CRC32 crc = new CRC32();
+            crc.update(octets);
+            DataOutputStream fin = new DataOutputStream(sortie);
+            fin.writeInt(Integer.reverseBytes((int) crc.getValue()));
+            fin.writeInt(Integer.reverseBytes(octets.length));
+            fin.flush();
+        }
+    }
+
+    /**
+     * Compression LZ77 sans codage entropique, dans un format par séquences :
+     * <pre>
+     *   taille décompressée (entier variable)
+     *   séquence* : jeton, [longueur de littéraux], littéraux, [distance (2 octets), [longueur de copie]]
+     * </pre>
+     * Le jeton porte la longueur des littéraux (4 bits de poids fort) et la longueur de la copie
+     * moins {@link #COPIE_MINIMALE} (4 bits de poids faible) ; la valeur 15 annonce un complément
+     * en entier variable. La dernière séquence ne contient que des littéraux.
+     */
+    private static class Lz extends CompressionSauvegarde {
+
+        /** Longueur minimale d'une copie */
+        private static final int COPIE_MINIMALE = 4;
+
+        /** Distance maximale d'une copie */
+        private static final int DISTANCE_MAXIMALE = 0xFFFF;
+
+        /** Nombre de bits de la table de hachage des positions */
+        private static final int BITS_TABLE = 14;
+
+        private Lz() {
+            super("lz");
+        }
+
+        @Override
+        public byte[] compresser(byte[] octets) throws IOException {
+            ByteArrayOutputStream tampon = new ByteArrayOutputStream(octets.length / 2 + 64);
+            DataOutputStream out = new DataOutputStream(tampon);
+            out.write(MARQUEUR_LZ);
+            CodecBinaireCiup.ecrireEntier(out, octets.length);
+
+            int[] table = new int[1 << BITS_TABLE];
+            java.util.Arrays.fill(table, -1);
+            int debutLitteraux = 0;
+            int position = 0;
+            int limite = octets.length - COPIE_MINIMALE;
+            while (position <= limite) {
+                int cle = hacher(octets, position);
+                int candidat = table[cle];
+                table[cle] = position;
+                if (candidat >= 0 && position - candidat <= DISTANCE_MAXIMALE
+                        && lireQuatre(octets, candidat) == lireQuatre(octets, position)) {
+                    int longueur = COPIE_MINIMALE;
+                    while (position + longueur < octets.length
+                            && octets[candidat + longueur] == octets[position + longueur]) {
+                        longueur++;
+                    }
+                    ecrireSequence(out, octets, debutLitteraux, position - debutLitteraux,
+                            position - candidat, longueur);
+                    position += longueur;
+                    debutLitteraux = position;
+                } else {
+                    position++;
+                }
+            }
+            ecrireSequence(out, octets, debutLitteraux, octets.length - debutLitteraux, 0, 0);
+            out.flush();
+            return tampon.toByteArray();
+        }
+
+        /**
+         * Décode un contenu compressé (sans son marqueur).
+         */
+        private static byte[] decoder(byte[] compresse) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(compresse));
+            byte[] sortie = new byte[CodecBinaireCiup.lireEntier(in)];
+            int position = 0;
+            try {
+                while (position < sortie.length) {
+                    int jeton = in.readUnsignedByte();
+                    int litteraux = jeton >>> 4;
+                    if (litteraux == 15) {
+                        litteraux += CodecBinaireCiup.lireEntier(in);
+                    }
+                    in.readFully(sortie, position, litteraux);
+                    position += litteraux;
+                    if (position == sortie.length) {
+                        break;
+                    }
+                    int distance = in.readUnsignedShort();
+                    int longueur = jeton & 0x0F;
+                    if (longueur == 15) {
+                        longueur += CodecBinaireCiup.lireEntier(in);
+                    }
+                    longueur += COPIE_MINIMALE;
+                    if (distance == 0 || distance > position || position + longueur > sortie.length) {
+                        throw new IOException("Copie LZ invalide à la position " + position);
+                    }
+                    // Copie octet par octet : la source peut chevaucher la destination
+                    for (int i = 0; i < longueur; i++) {
+                        sortie[position + i] = sortie[position - distance + i];
+                    }
+                    position += longueur;
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Contenu LZ corrompu", e);
+            }
+            return sortie;
+        }
+
+        /**
+         * Écrit une séquence : littéraux, puis copie éventuelle (longueur nulle pour la dernière).
+         */
+        private static void ecrireSequence(DataOutputStream out, byte[] octets, int debut, int litteraux,
+                                           int distance, int longueur) throws IOException {
+            int copie = (longueur == 0) ? 0 : longueur - COPIE_MINIMALE;
+            out.write((Math.min(litteraux, 15) << 4) | Math.min(copie, 15));
+            if (litteraux >= 15) {
+                CodecBinaireCiup.ecrireEntier(out, litteraux - 15);
+            }
+            out.write(octets, debut, litteraux);
+            if (longueur > 0) {
+                out.writeShort(distance);
+                if (copie >= 15) {
+                    CodecBinaireCiup.ecrireEntier(out, copie - 15);
+                }
+            }
+        }
+
+        private static int lireQuatre(byte[] octets, int position) {
+            return (octets[position] & 0xFF) | (octets[position + 1] & 0xFF) << 8
+                    | (octets[position + 2] & 0xFF) << 16 | (octets[position + 3] & 0xFF) << 24;
+        }
+
+        private static int hacher(byte[] octets, int position) {
+            return (lireQuatre(octets, position) * 0x9E3779B1) >>> (32 - BITS_TABLE);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Modele;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Dépôt persistant de la CIUP : chargement, sauvegarde et recherches sur les maisons,
+ * chambres, étudiants et soirées, indépendamment du support de stockage.
+ * <p>
+ * Deux implémentations sont fournies :
+ * <ul>
+ *   <li>{@link DepotFichiers} : la sauvegarde historique par fichiers ({@link GestionSauvegarde}) ;</li>
+ *   <li>{@link DepotJdbc} : une base SQL embarquée (H2, SQLite...), sans serveur, une table par entité
+ *       et des index sur les colonnes recherchées.</li>
+ * </ul>
+ * Le dépôt utilisé par l'application est choisi par {@link Persistance}.
+ * </p>
+ * <p>
+ * Comme pour {@link GestionSauvegarde}, les méthodes qui lisent le modèle (sauvegardes, journalisation)
+ * doivent être appelées sur le thread qui le modifie ; l'écriture elle-même peut se faire en arrière-plan.
+ * </p>
+ *
+ * @version 1.0
+ * @see Persistance
+ */
+public interface DepotCiup {
+
+    /**
+     * Charge la CIUP enregistrée dans le dépôt. Le contenu des maisons peut n'être lu
+     * qu'au premier accès.
+     *
+     * @return la CIUP restaurée, ou {@code null} si le dépôt est vide ou illisible
+     */
+    Ciup charger();
+
+    /**
+     * Lit le résumé chiffré de la CIUP enregistrée, sans reconstruire le modèle.
+     *
+     * @return le résumé, ou {@code null} si le dépôt est vide ou illisible
+     */
+    ResumeCiup chargerResume();
+
+    /**
+     * Enregistre immédiatement l'état complet de la CIUP.
+     *
+     * @param ciup la CIUP à enregistrer
+     */
+    void sauvegarder(Ciup ciup);
+
+    /**
+     * Demande l'enregistrement de la CIUP sans bloquer l'appelant ; les demandes rapprochées
+     * sont regroupées et seules les maisons modifiées sont réécrites.
+     *
+     * @param ciup la CIUP à enregistrer
+     */
+    void demanderSauvegarde(Ciup ciup);
+
+    /**
+     * Consigne une opération déjà appliquée au modèle.
+     *
+     * @param ciup la CIUP modifiée
+     * @param operation l'opération effectuée
+     */
+    void journaliser(Ciup ciup, Operation operation);
+
+    /**
+     * Écrit sans attendre les enregistrements demandés qui ne l'ont pas encore été.
+     */
+    void vider();
+
+    /**
+     * Définit l'exécuteur du thread propriétaire du modèle, sur lequel les enregistrements
+     * de fond capturent l'état de la CIUP.
+     *
+     * @param executeur l'exécuteur du thread du modèle (par exemple {@code SwingUtilities::invokeLater})
+     */
+    void setExecuteurModele(Executor executeur);
+
+    /**
+     * Recherche les étudiants d'une nationalité, logés ou en attente.
+     *
+     * @param nationalite la nationalité recherchée
+     * @return les étudiants trouvés, chacun une seule fois
+     */
+    List<InstantaneMaison.InstantaneEtudiant> rechercherEtudiants(String nationalite);
+
+    /**
+     * Recherche les chambres d'une maison ayant un statut donné.
+     *
+     * @param identifiantMaison l'identifiant de la maison
+     * @param statut le statut recherché ("libre" ou "saturé")
+     * @return les chambres trouvées, avec leurs occupants
+     */
+    List<InstantaneMaison.InstantaneChambre> rechercherChambres(int identifiantMaison, String statut);
+
+    /**
+     * Recherche les soirées de toutes les maisons dont la date est comprise entre deux bornes incluses.
+     *
+     * @param debut la date de début
+     * @param fin la date de fin
+     * @return les soirées trouvées, par date croissante, avec leurs inscrits
+     */
+    List<InstantaneMaison.InstantaneSoiree> rechercherSoirees(LocalDateTime debut, LocalDateTime fin);
+}
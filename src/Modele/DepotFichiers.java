@@ -0,0 +1,127 @@
+package Modele;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * Dépôt historique de la CIUP, par fichiers : délègue à {@link GestionSauvegarde}
+ * (racine, un fichier par maison et journal des opérations).
+ * <p>
+ * Ce format n'offre aucun index : les recherches parcourent l'instantané complet
+ * de la dernière CIUP chargée ou enregistrée, et doivent donc être appelées
+ * sur le thread du modèle.
+ * </p>
+ *
+ * @version 1.0
+ * @see GestionSauvegarde
+ */
+public class DepotFichiers implements DepotCiup {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Dernière CIUP chargée ou enregistrée par ce dépôt, cible des recherches */
+    private Ciup ciup;
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    @Override
+    public Ciup charger() {
+        ciup = GestionSauvegarde.charger();
+        return ciup;
+    }
+
+    @Override
+    public ResumeCiup chargerResume() {
+        return GestionSauvegarde.chargerResume();
+    }
+
+    @Override
+    public void sauvegarder(Ciup ciup) {
+        this.ciup = ciup;
+        GestionSauvegarde.sauvegarder(ciup);
+    }
+
+    @Override
+    public void demanderSauvegarde(Ciup ciup) {
+        this.ciup = ciup;
+        GestionSauvegarde.demanderSauvegarde(ciup);
+    }
+
+    @Override
+    public void journaliser(Ciup ciup, Operation operation) {
+        this.ciup = ciup;
+        GestionSauvegarde.journaliser(ciup, operation);
+    }
+
+    @Override
+    public void vider() {
+        GestionSauvegarde.vider();
+    }
+
+    @Override
+    public void setExecuteurModele(Executor executeur) {
+        GestionSauvegarde.setExecuteurModele(executeur);
+    }
+
+    @Override
+    public List<InstantaneMaison.InstantaneEtudiant> rechercherEtudiants(String nationalite) {
+        List<InstantaneMaison.InstantaneEtudiant> resultat = new ArrayList<>();
+        Set<String> vus = new HashSet<>();
+        for (InstantaneMaison maison : instantane().getMaisons()) {
+            for (List<InstantaneMaison.InstantaneEtudiant> liste : Arrays.asList(maison.getResidents(), maison.getAttente())) {
+                for (InstantaneMaison.InstantaneEtudiant etudiant : liste) {
+                    if (Objects.equals(etudiant.getNationalite(), nationalite)
+                            && vus.add(etudiant.getNom() + '\u0000' + etudiant.getPrenom())) {
+                        resultat.add(etudiant);
+                    }
+                }
+            }
+        }
+        return resultat;
+    }
+
+    @Override
+    public List<InstantaneMaison.InstantaneChambre> rechercherChambres(int identifiantMaison, String statut) {
+        List<InstantaneMaison.InstantaneChambre> resultat = new ArrayList<>();
+        InstantaneMaison maison = instantane().getMaison(identifiantMaison);
+        if (maison != null) {
+            for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+                if (Objects.equals(chambre.getStatut(), statut)) {
+                    resultat.add(chambre);
+                }
+            }
+        }
+        return resultat;
+    }
+
+    @Override
+    public List<InstantaneMaison.InstantaneSoiree> rechercherSoirees(LocalDateTime debut, LocalDateTime fin) {
+        List<InstantaneMaison.InstantaneSoiree> resultat = new ArrayList<>();
+        for (InstantaneMaison maison : instantane().getMaisons()) {
+            for (InstantaneMaison.InstantaneSoiree soiree : maison.getAgenda()) {
+                if (!soiree.getDate().isBefore(debut) && !soiree.getDate().isAfter(fin)) {
+                    resultat.add(soiree);
+                }
+            }
+        }
+        resultat.sort(Comparator.comparing(InstantaneMaison.InstantaneSoiree::getDate));
+        return resultat;
+    }
+
+    /**
+     * Retourne l'instantané complet de la CIUP courante, chargée au besoin.
+     */
+    private InstantaneCiup instantane() {
+        Ciup courante = (ciup != null) ? ciup : charger();
+        if (courante == null) {
+            return new InstantaneCiup(new MaisonInternationale(null, null, null, null), 0, 0,
+                    Collections.emptyList(), Collections.emptyList());
+        }
+        return courante.instantaneComplet();
+    }
+}
@@ -0,0 +1,935 @@
+package Modele;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Dépôt de la CIUP dans une base SQL embarquée, accessible par JDBC et sans serveur
+ * (par exemple H2 : {@code jdbc:h2:./ciup-db}, ou SQLite : {@code jdbc:sqlite:ciup.db}).
+ * Le pilote JDBC doit être présent dans le classpath.
+ * <p>
+ * Chaque entité a sa table : {@code maison}, {@code chambre}, {@code etudiant}, {@code soiree},
+ * et les listes ordonnées des maisons ({@code resident}, {@code occupant}, {@code attente},
+ * {@code effectif}, {@code inscrit}). Comme dans les fichiers de {@link GestionSauvegarde},
+ * chaque maison possède ses lignes : un étudiant cité par plusieurs maisons (résidence,
+ * liste d'attente, soirée) y figure une fois par maison, avec son numéro dans la CIUP
+ * ({@link Etudiant#getIdentifiant()}) qui permet au chargement de les réunir. Les candidatures
+ * en liste d'attente sont rangées dans leur ordre d'arrivée ({@code candidature} et
+ * {@code candidature_maison}), pour que la promotion les connaisse sans charger leurs maisons.
+ * Les colonnes recherchées sont indexées : nationalité des étudiants et des maisons,
+ * maison de rattachement, statut des chambres et date des soirées.
+ * </p>
+ * <p>
+ * Un enregistrement ne réécrit que les maisons relevées comme modifiées par le
+ * {@link SuiviModifications}, dans une seule transaction, par lots d'insertions.
+ * Les enregistrements demandés sont regroupés par un {@link PlanificateurSauvegarde} :
+ * l'instantané est pris sur le thread du modèle, puis écrit en arrière-plan.
+ * Au chargement, le contenu d'une maison n'est lu dans la base qu'au premier accès.
+ * </p>
+ *
+ * @version 1.0
+ * @see DepotCiup
+ * @see Persistance
+ */
+public class DepotJdbc implements DepotCiup {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** URL de la base utilisée par défaut : base H2 dans un fichier du répertoire courant */
+    public static final String URL_PAR_DEFAUT = "jdbc:h2:./ciup-db";
+
+    /** Nombre de lignes insérées par lot */
+    private static final int TAILLE_LOT = 500;
+
+    /** Durée sans nouvelle demande avant l'écriture d'un enregistrement demandé, en millisecondes */
+    private static final long DELAI_REGROUPEMENT_MS = 500;
+
+    /** Délai maximal avant l'écriture d'un enregistrement demandé, en millisecondes */
+    private static final long DELAI_MAXIMAL_MS = 5000;
+
+    /** Tables contenant les lignes propres à une maison, vidées avant sa réécriture */
+    private static final String[] TABLES_CONTENU = {
+            "inscrit", "soiree", "effectif", "attente", "occupant", "resident", "etudiant", "chambre" };
+
+    /** Instructions de création du schéma, sans effet s'il existe déjà */
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS ciup (id INTEGER PRIMARY KEY, dernier_identifiant INTEGER NOT NULL,"
+                    + " dernier_etudiant INTEGER DEFAULT 0 NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS maison (id INTEGER PRIMARY KEY, rang INTEGER NOT NULL,"
+                    + " nom VARCHAR(255), nationalite VARCHAR(255), directeur VARCHAR(255), localisation VARCHAR(255),"
+                    + " image VARCHAR(1024), description VARCHAR(4000),"
+                    + " nb_etudiants INTEGER NOT NULL, nb_chambres INTEGER NOT NULL, capacite INTEGER NOT NULL,"
+                    + " nb_attente INTEGER DEFAULT -1 NOT NULL, majorite VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS chambre (maison_id INTEGER NOT NULL, rang INTEGER NOT NULL,"
+                    + " id INTEGER NOT NULL, capacite INTEGER NOT NULL, statut VARCHAR(16),"
+                    + " PRIMARY KEY (maison_id, rang))",
+            "CREATE TABLE IF NOT EXISTS etudiant (maison_id INTEGER NOT NULL, numero INTEGER NOT NULL,"
+                    + " identifiant INTEGER DEFAULT 0 NOT NULL, nom VARCHAR(255), prenom VARCHAR(255), nationalite VARCHAR(255),"
+                    + " souhait_id INTEGER NOT NULL, residence_id INTEGER NOT NULL, PRIMARY KEY (maison_id, numero))",
+            "CREATE TABLE IF NOT EXISTS resident (maison_id INTEGER NOT NULL, rang INTEGER NOT NULL,"
+                    + " etudiant INTEGER NOT NULL, PRIMARY KEY (maison_id, rang))",
+            "CREATE TABLE IF NOT EXISTS occupant (maison_id INTEGER NOT NULL, chambre_rang INTEGER NOT NULL,"
+                    + " rang INTEGER NOT NULL, etudiant INTEGER NOT NULL, PRIMARY KEY (maison_id, chambre_rang, rang))",
+            "CREATE TABLE IF NOT EXISTS attente (maison_id INTEGER NOT NULL, rang INTEGER NOT NULL,"
+                    + " etudiant INTEGER NOT NULL, PRIMARY KEY (maison_id, rang))",
+            "CREATE TABLE IF NOT EXISTS effectif (maison_id INTEGER NOT NULL, rang INTEGER NOT NULL,"
+                    + " nationalite VARCHAR(255), nombre INTEGER NOT NULL, PRIMARY KEY (maison_id, rang))",
+            "CREATE TABLE IF NOT EXISTS soiree (maison_id INTEGER NOT NULL, rang INTEGER NOT NULL,"
+                    + " nom VARCHAR(255), description VARCHAR(4000), date_soiree TIMESTAMP,"
+                    + " PRIMARY KEY (maison_id, rang))",
+            "CREATE TABLE IF NOT EXISTS inscrit (maison_id INTEGER NOT NULL, soiree_rang INTEGER NOT NULL,"
+                    + " rang INTEGER NOT NULL, etudiant INTEGER NOT NULL, PRIMARY KEY (maison_id, soiree_rang, rang))",
+            "CREATE TABLE IF NOT EXISTS candidature (rang INTEGER PRIMARY KEY, etudiant INTEGER NOT NULL,"
+                    + " classe VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS candidature_maison (rang INTEGER NOT NULL, position INTEGER NOT NULL,"
+                    + " maison_id INTEGER NOT NULL, PRIMARY KEY (rang, position))",
+            "CREATE INDEX IF NOT EXISTS idx_maison_nationalite ON maison (nationalite)",
+            "CREATE INDEX IF NOT EXISTS idx_etudiant_nationalite ON etudiant (nationalite)",
+            "CREATE INDEX IF NOT EXISTS idx_etudiant_residence ON etudiant (residence_id)",
+            "CREATE INDEX IF NOT EXISTS idx_chambre_statut ON chambre (maison_id, statut)",
+            "CREATE INDEX IF NOT EXISTS idx_soiree_date ON soiree (date_soiree)"
+    };
+
+    /**
+     * Colonnes ajoutées depuis la création du schéma (table, colonne, définition),
+     * ajoutées aux bases qui ne les ont pas encore
+     */
+    private static final String[][] COLONNES_AJOUTEES = {
+            { "ciup", "dernier_etudiant", "INTEGER DEFAULT 0 NOT NULL" },
+            { "etudiant", "identifiant", "INTEGER DEFAULT 0 NOT NULL" },
+            { "maison", "nb_attente", "INTEGER DEFAULT -1 NOT NULL" },
+            { "maison", "majorite", "VARCHAR(255)" }
+    };
+
+    /** URL JDBC de la base */
+    private final String url;
+
+    /** Utilisateur de la base (peut être null) */
+    private final String utilisateur;
+
+    /** Mot de passe de la base (peut être null) */
+    private final String motDePasse;
+
+    /** Planificateur regroupant les demandes d'enregistrement en écritures de fond */
+    private final PlanificateurSauvegarde planificateur =
+            new PlanificateurSauvegarde(DELAI_REGROUPEMENT_MS, DELAI_MAXIMAL_MS, this::capturer);
+
+    /** Dernière CIUP chargée ou enregistrée, cible des écritures de fond */
+    private volatile Ciup ciupCourant;
+
+    /** Identifiants des maisons présentes dans la base, d'après la dernière capture */
+    private final Set<Integer> maisonsEnBase = new HashSet<>();
+
+    /** Indique si le vidage à la fermeture de l'application est en place */
+    private boolean demarre;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Ouvre la base et crée son schéma s'il n'existe pas.
+     *
+     * @param url l'URL JDBC de la base
+     * @param utilisateur l'utilisateur (peut être null)
+     * @param motDePasse le mot de passe (peut être null)
+     * @throws SQLException si la base est inaccessible, par exemple faute de pilote
+     */
+    public DepotJdbc(String url, String utilisateur, String motDePasse) throws SQLException {
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.motDePasse = motDePasse;
+        try (Connection connexion = connecter(); Statement instruction = connexion.createStatement()) {
+            for (String creation : SCHEMA) {
+                instruction.execute(creation);
+            }
+            for (String[] colonne : COLONNES_AJOUTEES) {
+                ajouterColonne(connexion, colonne[0], colonne[1], colonne[2]);
+            }
+        }
+    }
+
+    /**
+     * Ajoute une colonne à une table créée par une version antérieure du schéma, si elle lui manque.
+     */
+    private static void ajouterColonne(Connection connexion, String table, String colonne, String definition)
+            throws SQLException {
+        try (Statement instruction = connexion.createStatement()) {
+            try {
+                instruction.executeQuery("SELECT " + colonne + " FROM " + table + " WHERE 1 = 0").close();
+            } catch (SQLException absente) {
+                instruction.execute("ALTER TABLE " + table + " ADD COLUMN " + colonne + " " + definition);
+            }
+        }
+    }
+
+    // --------------------------
+    //       CHARGEMENT
+    // --------------------------
+
+    @Override
+    public Ciup charger() {
+        planificateur.vider();
+        try (Connection connexion = connecter()) {
+            CodecBinaireCiup.Racine racine = lireRacine(connexion);
+            if (racine == null) {
+                System.out.println("Aucune CIUP enregistrée dans la base " + url + ".");
+                return null;
+            }
+            Map<Integer, SectionDifferee> sections = new HashMap<>();
+            for (int identifiant : racine.identifiants) {
+                sections.put(identifiant, new SectionDifferee(identifiant));
+            }
+            lireReferences(connexion, racine.ciup.getSuiviModifications());
+            Ciup ciup = new ChargeurMaisonsDiffere(sections, true).assembler(racine);
+            ciup.getSuiviModifications().reinitialiser();
+            synchronized (this) {
+                maisonsEnBase.clear();
+                for (int identifiant : racine.identifiants) {
+                    maisonsEnBase.add(identifiant);
+                }
+            }
+            ciupCourant = ciup;
+            return ciup;
+        } catch (SQLException | RuntimeException e) {
+            System.out.println("Lecture de la base " + url + " impossible : " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public ResumeCiup chargerResume() {
+        try (Connection connexion = connecter();
+             Statement instruction = connexion.createStatement();
+             ResultSet lignes = instruction.executeQuery(
+                     "SELECT id, nom, nb_etudiants, nb_chambres, capacite, nb_attente FROM maison"
+                             + " WHERE id > 0 ORDER BY rang")) {
+            List<ResumeCiup.ResumeMaison> maisons = new ArrayList<>();
+            while (lignes.next()) {
+                maisons.add(new ResumeCiup.ResumeMaison(lignes.getInt(1), lignes.getString(2),
+                        lignes.getInt(3), lignes.getInt(4), lignes.getInt(5), lignes.getInt(6)));
+            }
+            return new ResumeCiup(0, maisons);
+        } catch (SQLException e) {
+            System.out.println("Lecture de la base " + url + " impossible : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lit la CIUP, la maison internationale et l'en-tête des maisons étudiantes.
+     * Retourne null si la base ne contient encore aucune CIUP.
+     */
+    private CodecBinaireCiup.Racine lireRacine(Connection connexion) throws SQLException {
+        CodecBinaireCiup.Racine racine = new CodecBinaireCiup.Racine();
+        try (Statement instruction = connexion.createStatement()) {
+            try (ResultSet ligne = instruction.executeQuery(
+                    "SELECT dernier_identifiant, dernier_etudiant FROM ciup WHERE id = 1")) {
+                if (!ligne.next()) {
+                    return null;
+                }
+                racine.dernierIdentifiant = ligne.getInt(1);
+                racine.dernierIdentifiantEtudiant = ligne.getInt(2);
+            }
+            List<String[]> champs = new ArrayList<>();
+            List<int[]> entetes = new ArrayList<>();
+            List<String> majorites = new ArrayList<>();
+            try (ResultSet lignes = instruction.executeQuery("SELECT id, nom, nationalite, directeur, localisation,"
+                    + " image, description, nb_etudiants, nb_chambres, capacite, nb_attente, majorite"
+                    + " FROM maison ORDER BY rang")) {
+                while (lignes.next()) {
+                    String[] champsMaison = new String[6];
+                    for (int c = 0; c < champsMaison.length; c++) {
+                        champsMaison[c] = lignes.getString(c + 2);
+                    }
+                    int identifiant = lignes.getInt(1);
+                    if (identifiant == 0) {
+                        MaisonInternationale internationale = new MaisonInternationale(
+                                champsMaison[0], champsMaison[1], champsMaison[2], champsMaison[3]);
+                        internationale.setCheminImage(champsMaison[4]);
+                        internationale.setDescription(champsMaison[5]);
+                        racine.ciup = new Ciup(internationale);
+                    } else {
+                        champs.add(champsMaison);
+                        entetes.add(new int[] { identifiant, lignes.getInt(8), lignes.getInt(9), lignes.getInt(10),
+                                                lignes.getInt(11) });
+                        majorites.add(lignes.getString(12));
+                    }
+                }
+            }
+            if (racine.ciup == null) {
+                throw new SQLException("Maison internationale absente de la base");
+            }
+            int nbMaisons = entetes.size();
+            racine.identifiants = new int[nbMaisons];
+            racine.versions = new int[nbMaisons];
+            racine.champsMaisons = champs.toArray(new String[0][]);
+            racine.nbEtudiants = new int[nbMaisons];
+            racine.nbChambres = new int[nbMaisons];
+            racine.capacites = new int[nbMaisons];
+            racine.nbAttente = new int[nbMaisons];
+            racine.majorites = majorites.toArray(new String[0]);
+            for (int i = 0; i < nbMaisons; i++) {
+                racine.identifiants[i] = entetes.get(i)[0];
+                racine.nbEtudiants[i] = entetes.get(i)[1];
+                racine.nbChambres[i] = entetes.get(i)[2];
+                racine.capacites[i] = entetes.get(i)[3];
+                racine.nbAttente[i] = entetes.get(i)[4];
+            }
+            racine.candidatures = lireCandidatures(instruction);
+        }
+        return racine;
+    }
+
+    /**
+     * Relève en une requête les étudiants que chaque maison mentionne sans les loger
+     * (liste d'attente, inscrits aux soirées), sans lire le contenu des maisons.
+     */
+    private static void lireReferences(Connection connexion, SuiviModifications suivi) throws SQLException {
+        try (Statement instruction = connexion.createStatement();
+             ResultSet lignes = instruction.executeQuery(
+                     "SELECT identifiant, maison_id FROM etudiant WHERE residence_id <> maison_id")) {
+            while (lignes.next()) {
+                suivi.etudiantReference(lignes.getInt(1), lignes.getInt(2));
+            }
+        }
+    }
+
+    /**
+     * Lit les candidatures en liste d'attente, dans leur ordre d'arrivée.
+     */
+    private static List<InstantaneCiup.InstantaneCandidature> lireCandidatures(Statement instruction)
+            throws SQLException {
+        Map<Integer, List<Integer>> maisons = new HashMap<>();
+        try (ResultSet lignes = instruction.executeQuery(
+                "SELECT rang, maison_id FROM candidature_maison ORDER BY rang, position")) {
+            while (lignes.next()) {
+                maisons.computeIfAbsent(lignes.getInt(1), rang -> new ArrayList<>()).add(lignes.getInt(2));
+            }
+        }
+        List<InstantaneCiup.InstantaneCandidature> candidatures = new ArrayList<>();
+        try (ResultSet lignes = instruction.executeQuery(
+                "SELECT rang, etudiant, classe FROM candidature ORDER BY rang")) {
+            while (lignes.next()) {
+                List<Integer> identifiants = maisons.getOrDefault(lignes.getInt(1), Collections.emptyList());
+                int[] attentes = new int[identifiants.size()];
+                for (int i = 0; i < attentes.length; i++) {
+                    attentes[i] = identifiants.get(i);
+                }
+                candidatures.add(new InstantaneCiup.InstantaneCandidature(
+                        lignes.getInt(2), lignes.getString(3), attentes));
+            }
+        }
+        return candidatures;
+    }
+
+    /**
+     * Lit le contenu d'une maison sous la forme d'une section, reconstruite ensuite
+     * par le {@link ChargeurMaisonsDiffere}.
+     */
+    private CodecBinaireCiup.SectionMaison lireSection(int identifiant) throws SQLException {
+        CodecBinaireCiup.SectionMaison section = new CodecBinaireCiup.SectionMaison();
+        section.identifiant = identifiant;
+        try (Connection connexion = connecter()) {
+            try (ResultSet lignes = requete(connexion, "SELECT nom, nationalite, directeur, localisation, image,"
+                    + " description FROM maison WHERE id = ?", identifiant)) {
+                section.champs = new String[6];
+                if (lignes.next()) {
+                    for (int c = 0; c < section.champs.length; c++) {
+                        section.champs[c] = lignes.getString(c + 1);
+                    }
+                }
+            }
+
+            List<int[]> chambres = new ArrayList<>();
+            try (ResultSet lignes = requete(connexion,
+                    "SELECT id, capacite FROM chambre WHERE maison_id = ? ORDER BY rang", identifiant)) {
+                while (lignes.next()) {
+                    chambres.add(new int[] { lignes.getInt(1), lignes.getInt(2) });
+                }
+            }
+            section.identifiantsChambres = new int[chambres.size()];
+            section.capacites = new int[chambres.size()];
+            for (int c = 0; c < chambres.size(); c++) {
+                section.identifiantsChambres[c] = chambres.get(c)[0];
+                section.capacites[c] = chambres.get(c)[1];
+            }
+
+            List<String[]> etudiants = new ArrayList<>();
+            List<int[]> maisons = new ArrayList<>();
+            try (ResultSet lignes = requete(connexion, "SELECT nom, prenom, nationalite, souhait_id, residence_id,"
+                    + " identifiant FROM etudiant WHERE maison_id = ? ORDER BY numero", identifiant)) {
+                while (lignes.next()) {
+                    etudiants.add(new String[] { lignes.getString(1), lignes.getString(2), lignes.getString(3) });
+                    maisons.add(new int[] { lignes.getInt(4), lignes.getInt(5), lignes.getInt(6) });
+                }
+            }
+            int nbEtudiants = etudiants.size();
+            section.numeros = new int[nbEtudiants];
+            section.noms = new String[nbEtudiants];
+            section.prenoms = new String[nbEtudiants];
+            section.nationalites = new String[nbEtudiants];
+            section.souhaits = new int[nbEtudiants];
+            section.residences = new int[nbEtudiants];
+            for (int e = 0; e < nbEtudiants; e++) {
+                section.noms[e] = etudiants.get(e)[0];
+                section.prenoms[e] = etudiants.get(e)[1];
+                section.nationalites[e] = (etudiants.get(e)[2] == null) ? null : etudiants.get(e)[2].intern();
+                section.souhaits[e] = maisons.get(e)[0];
+                section.residences[e] = maisons.get(e)[1];
+                section.numeros[e] = maisons.get(e)[2];
+            }
+
+            section.residents = lireListe(connexion, "resident", identifiant);
+            section.attente = lireListe(connexion, "attente", identifiant);
+            section.occupants = lireListesImbriquees(connexion,
+                    "SELECT chambre_rang, etudiant FROM occupant WHERE maison_id = ? ORDER BY chambre_rang, rang",
+                    identifiant, chambres.size());
+
+            List<String> nationalites = new ArrayList<>();
+            List<Integer> effectifs = new ArrayList<>();
+            try (ResultSet lignes = requete(connexion,
+                    "SELECT nationalite, nombre FROM effectif WHERE maison_id = ? ORDER BY rang", identifiant)) {
+                while (lignes.next()) {
+                    nationalites.add(lignes.getString(1));
+                    effectifs.add(lignes.getInt(2));
+                }
+            }
+            section.nationalitesMaison = nationalites.toArray(new String[0]);
+            section.effectifs = effectifs.stream().mapToInt(Integer::intValue).toArray();
+
+            List<String> noms = new ArrayList<>();
+            List<String> descriptions = new ArrayList<>();
+            List<LocalDateTime> dates = new ArrayList<>();
+            try (ResultSet lignes = requete(connexion, "SELECT nom, description, date_soiree FROM soiree"
+                    + " WHERE maison_id = ? ORDER BY rang", identifiant)) {
+                while (lignes.next()) {
+                    noms.add(lignes.getString(1));
+                    descriptions.add(lignes.getString(2));
+                    Timestamp date = lignes.getTimestamp(3);
+                    dates.add(date == null ? null : date.toLocalDateTime());
+                }
+            }
+            section.nomsSoirees = noms.toArray(new String[0]);
+            section.descriptionsSoirees = descriptions.toArray(new String[0]);
+            section.datesSoirees = dates.toArray(new LocalDateTime[0]);
+            section.inscrits = lireListesImbriquees(connexion,
+                    "SELECT soiree_rang, etudiant FROM inscrit WHERE maison_id = ? ORDER BY soiree_rang, rang",
+                    identifiant, noms.size());
+        }
+        return section;
+    }
+
+    /**
+     * Lit une liste ordonnée de numéros d'étudiants propre à une maison.
+     */
+    private static int[] lireListe(Connection connexion, String table, int identifiant) throws SQLException {
+        List<Integer> liste = new ArrayList<>();
+        try (ResultSet lignes = requete(connexion,
+                "SELECT etudiant FROM " + table + " WHERE maison_id = ? ORDER BY rang", identifiant)) {
+            while (lignes.next()) {
+                liste.add(lignes.getInt(1));
+            }
+        }
+        return liste.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Lit les listes d'étudiants de chaque chambre ou de chaque soirée d'une maison.
+     */
+    private static int[][] lireListesImbriquees(Connection connexion, String sql, int identifiant, int nbListes)
+            throws SQLException {
+        List<List<Integer>> listes = new ArrayList<>(nbListes);
+        for (int i = 0; i < nbListes; i++) {
+            listes.add(new ArrayList<>());
+        }
+        try (ResultSet lignes = requete(connexion, sql, identifiant)) {
+            while (lignes.next()) {
+                listes.get(lignes.getInt(1)).add(lignes.getInt(2));
+            }
+        }
+        int[][] resultat = new int[nbListes][];
+        for (int i = 0; i < nbListes; i++) {
+            resultat[i] = listes.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return resultat;
+    }
+
+    // --------------------------
+    //       ENREGISTREMENT
+    // --------------------------
+
+    @Override
+    public void sauvegarder(Ciup ciup) {
+        ciupCourant = ciup;
+        ciup.getSuiviModifications().toutModifie();
+        capturer().run();
+    }
+
+    @Override
+    public void demanderSauvegarde(Ciup ciup) {
+        ciupCourant = ciup;
+        demarrer();
+        planificateur.demander();
+    }
+
+    /**
+     * Les modifications du modèle étant relevées par son suivi, une opération
+     * se traduit simplement par une demande d'enregistrement.
+     */
+    @Override
+    public void journaliser(Ciup ciup, Operation operation) {
+        demanderSauvegarde(ciup);
+    }
+
+    @Override
+    public void vider() {
+        planificateur.vider();
+    }
+
+    @Override
+    public void setExecuteurModele(Executor executeur) {
+        planificateur.setExecuteurModele(executeur);
+    }
+
+    /**
+     * Met en place, au premier besoin, l'écriture des enregistrements en attente à la fermeture.
+     */
+    private synchronized void demarrer() {
+        if (!demarre) {
+            demarre = true;
+            planificateur.installerVidageALaSortie();
+        }
+    }
+
+    /**
+     * Prend l'instantané de la CIUP courante et des maisons à réécrire, et renvoie leur écriture.
+     * Doit être appelée sur le thread du modèle ; l'écriture peut être exécutée ailleurs.
+     */
+    private synchronized Runnable capturer() {
+        Ciup ciup = ciupCourant;
+        if (ciup == null) {
+            return () -> { };
+        }
+        EnsembleModifications modifications = ciup.getSuiviModifications().extraire();
+        Set<Integer> aReecrire = GestionSauvegarde.maisonsReferencant(ciup, modifications.getEtudiants());
+        List<InstantaneMaison> maisons = new ArrayList<>();
+        Set<Integer> supprimees = new HashSet<>(maisonsEnBase);
+        for (MaisonEtudiante maison : ciup.getListeMaisonsEtudiantes()) {
+            int identifiant = maison.getIdentifiant();
+            supprimees.remove(identifiant);
+            if (!maisonsEnBase.contains(identifiant) || modifications.contient(maison) || aReecrire.contains(identifiant)) {
+                InstantaneMaison contenu = maison.instantane(true);
+                ciup.getSuiviModifications().maisonReecrite(contenu);
+                maisons.add(contenu);
+            }
+        }
+        InstantaneCiup instantane = ciup.instantane();
+        maisonsEnBase.clear();
+        for (InstantaneMaison maison : instantane.getMaisons()) {
+            maisonsEnBase.add(maison.getIdentifiant());
+        }
+        return () -> {
+            try {
+                ecrire(instantane, maisons, supprimees);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                ciup.getSuiviModifications().toutModifie();
+            }
+        };
+    }
+
+    /**
+     * Écrit, dans une seule transaction, l'en-tête de toutes les maisons
+     * et le contenu des maisons réécrites, puis retire les maisons supprimées.
+     */
+    private synchronized void ecrire(InstantaneCiup ciup, List<InstantaneMaison> maisons, Set<Integer> supprimees)
+            throws SQLException {
+        try (Connection connexion = connecter()) {
+            connexion.setAutoCommit(false);
+            try {
+                try (Statement instruction = connexion.createStatement()) {
+                    instruction.executeUpdate("DELETE FROM ciup");
+                    instruction.executeUpdate("DELETE FROM maison");
+                    instruction.executeUpdate("DELETE FROM candidature");
+                    instruction.executeUpdate("DELETE FROM candidature_maison");
+                }
+                try (PreparedStatement insertion = connexion.prepareStatement(
+                        "INSERT INTO ciup (id, dernier_identifiant, dernier_etudiant) VALUES (1, ?, ?)")) {
+                    insertion.setInt(1, ciup.getDernierIdentifiantMaison());
+                    insertion.setInt(2, ciup.getDernierIdentifiantEtudiant());
+                    insertion.executeUpdate();
+                }
+                ecrireEntetes(connexion, ciup);
+                ecrireCandidatures(connexion, ciup);
+
+                Set<Integer> aVider = new HashSet<>(supprimees);
+                for (InstantaneMaison maison : maisons) {
+                    aVider.add(maison.getIdentifiant());
+                }
+                for (String table : TABLES_CONTENU) {
+                    try (Lot lot = new Lot(connexion, "DELETE FROM " + table + " WHERE maison_id = ?")) {
+                        for (int identifiant : aVider) {
+                            lot.ajouter(identifiant);
+                        }
+                    }
+                }
+                ecrireContenu(connexion, maisons);
+                connexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Écrit la maison internationale (identifiant 0) et l'en-tête de chaque maison étudiante.
+     */
+    private static void ecrireEntetes(Connection connexion, InstantaneCiup ciup) throws SQLException {
+        String sql = "INSERT INTO maison (id, rang, nom, nationalite, directeur, localisation, image, description,"
+                + " nb_etudiants, nb_chambres, capacite, nb_attente, majorite)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Lot lot = new Lot(connexion, sql)) {
+            Object[] internationale = new Object[13];
+            internationale[0] = 0;
+            internationale[1] = -1;
+            System.arraycopy(ciup.getChampsMaisonInternationale(), 0, internationale, 2, 6);
+            internationale[8] = 0;
+            internationale[9] = 0;
+            internationale[10] = 0;
+            internationale[11] = 0;
+            lot.ajouter(internationale);
+            int rang = 0;
+            for (InstantaneMaison maison : ciup.getMaisons()) {
+                Object[] ligne = new Object[13];
+                ligne[0] = maison.getIdentifiant();
+                ligne[1] = rang++;
+                System.arraycopy(maison.getChamps(), 0, ligne, 2, 6);
+                ligne[8] = maison.getNbEtudiants();
+                ligne[9] = maison.getNbChambres();
+                ligne[10] = maison.getCapacite();
+                ligne[11] = maison.getNbAttente();
+                ligne[12] = maison.getMajorite();
+                lot.ajouter(ligne);
+            }
+        }
+    }
+
+    /**
+     * Écrit les candidatures en liste d'attente, numérotées dans leur ordre d'arrivée.
+     */
+    private static void ecrireCandidatures(Connection connexion, InstantaneCiup ciup) throws SQLException {
+        try (Lot candidatures = new Lot(connexion,
+                     "INSERT INTO candidature (rang, etudiant, classe) VALUES (?, ?, ?)");
+             Lot maisons = new Lot(connexion,
+                     "INSERT INTO candidature_maison (rang, position, maison_id) VALUES (?, ?, ?)")) {
+            int rang = 0;
+            for (InstantaneCiup.InstantaneCandidature candidature : ciup.getCandidatures()) {
+                candidatures.ajouter(rang, candidature.getEtudiant(), candidature.getClasse());
+                for (int position = 0; position < candidature.getNbMaisons(); position++) {
+                    maisons.ajouter(rang, position, candidature.getMaison(position));
+                }
+                rang++;
+            }
+        }
+    }
+
+    /**
+     * Écrit par lots les chambres, étudiants, listes et soirées des maisons réécrites.
+     * Les étudiants sont numérotés par maison, dans le même ordre que {@link CodecBinaireCiup}.
+     */
+    private static void ecrireContenu(Connection connexion, List<InstantaneMaison> maisons) throws SQLException {
+        try (Lot chambres = new Lot(connexion,
+                     "INSERT INTO chambre (maison_id, rang, id, capacite, statut) VALUES (?, ?, ?, ?, ?)");
+             Lot etudiants = new Lot(connexion, "INSERT INTO etudiant (maison_id, numero, identifiant, nom, prenom,"
+                     + " nationalite, souhait_id, residence_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             Lot residents = new Lot(connexion, "INSERT INTO resident (maison_id, rang, etudiant) VALUES (?, ?, ?)");
+             Lot occupants = new Lot(connexion,
+                     "INSERT INTO occupant (maison_id, chambre_rang, rang, etudiant) VALUES (?, ?, ?, ?)");
+             Lot attente = new Lot(connexion, "INSERT INTO attente (maison_id, rang, etudiant) VALUES (?, ?, ?)");
+             Lot effectifs = new Lot(connexion,
+                     "INSERT INTO effectif (maison_id, rang, nationalite, nombre) VALUES (?, ?, ?, ?)");
+             Lot soirees = new Lot(connexion,
+                     "INSERT INTO soiree (maison_id, rang, nom, description, date_soiree) VALUES (?, ?, ?, ?, ?)");
+             Lot inscrits = new Lot(connexion,
+                     "INSERT INTO inscrit (maison_id, soiree_rang, rang, etudiant) VALUES (?, ?, ?, ?)")) {
+            for (InstantaneMaison maison : maisons) {
+                int id = maison.getIdentifiant();
+                Map<InstantaneMaison.InstantaneEtudiant, Integer> numeros = new IdentityHashMap<>();
+                for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getResidents()) {
+                    numeroter(etudiant, numeros, etudiants, id);
+                }
+                for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+                    for (InstantaneMaison.InstantaneEtudiant etudiant : chambre.getOccupants()) {
+                        numeroter(etudiant, numeros, etudiants, id);
+                    }
+                }
+                for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getAttente()) {
+                    numeroter(etudiant, numeros, etudiants, id);
+                }
+                for (InstantaneMaison.InstantaneSoiree soiree : maison.getAgenda()) {
+                    for (InstantaneMaison.InstantaneEtudiant etudiant : soiree.getInscrits()) {
+                        numeroter(etudiant, numeros, etudiants, id);
+                    }
+                }
+
+                List<InstantaneMaison.InstantaneChambre> listeChambres = maison.getChambres();
+                for (int c = 0; c < listeChambres.size(); c++) {
+                    InstantaneMaison.InstantaneChambre chambre = listeChambres.get(c);
+                    chambres.ajouter(id, c, chambre.getIdentifiant(), chambre.getCapacite(), chambre.getStatut());
+                    List<InstantaneMaison.InstantaneEtudiant> liste = chambre.getOccupants();
+                    for (int r = 0; r < liste.size(); r++) {
+                        occupants.ajouter(id, c, r, numeros.get(liste.get(r)));
+                    }
+                }
+                for (int r = 0; r < maison.getResidents().size(); r++) {
+                    residents.ajouter(id, r, numeros.get(maison.getResidents().get(r)));
+                }
+                for (int r = 0; r < maison.getAttente().size(); r++) {
+                    attente.ajouter(id, r, numeros.get(maison.getAttente().get(r)));
+                }
+                for (int n = 0; n < maison.getNationalites().size(); n++) {
+                    effectifs.ajouter(id, n, maison.getNationalites().get(n), maison.getEffectif(n));
+                }
+                List<InstantaneMaison.InstantaneSoiree> agenda = maison.getAgenda();
+                for (int s = 0; s < agenda.size(); s++) {
+                    InstantaneMaison.InstantaneSoiree soiree = agenda.get(s);
+                    soirees.ajouter(id, s, soiree.getNom(), soiree.getDescription(),
+                            soiree.getDate() == null ? null : Timestamp.valueOf(soiree.getDate()));
+                    List<InstantaneMaison.InstantaneEtudiant> liste = soiree.getInscrits();
+                    for (int r = 0; r < liste.size(); r++) {
+                        inscrits.ajouter(id, s, r, numeros.get(liste.get(r)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Attribue un numéro à un étudiant de la maison s'il n'en a pas encore, et insère sa ligne.
+     */
+    private static void numeroter(InstantaneMaison.InstantaneEtudiant etudiant,
+                                  Map<InstantaneMaison.InstantaneEtudiant, Integer> numeros,
+                                  Lot etudiants, int maison) throws SQLException {
+        if (!numeros.containsKey(etudiant)) {
+            int numero = numeros.size();
+            numeros.put(etudiant, numero);
+            etudiants.ajouter(maison, numero, etudiant.getIdentifiant(), etudiant.getNom(), etudiant.getPrenom(),
+                    etudiant.getNationalite(), etudiant.getSouhait(), etudiant.getResidence());
+        }
+    }
+
+    // --------------------------
+    //       RECHERCHES
+    // --------------------------
+
+    /**
+     * {@inheritDoc}
+     * La recherche porte sur le dernier enregistrement écrit dans la base.
+     */
+    @Override
+    public List<InstantaneMaison.InstantaneEtudiant> rechercherEtudiants(String nationalite) {
+        Map<Object, InstantaneMaison.InstantaneEtudiant> etudiants = new LinkedHashMap<>();
+        try (Connection connexion = connecter();
+             PreparedStatement requete = connexion.prepareStatement("SELECT identifiant, nom, prenom, nationalite,"
+                     + " souhait_id, residence_id FROM etudiant WHERE nationalite = ? ORDER BY nom, prenom")) {
+            requete.setString(1, nationalite);
+            try (ResultSet lignes = requete.executeQuery()) {
+                while (lignes.next()) {
+                    InstantaneMaison.InstantaneEtudiant etudiant = lireEtudiant(lignes, 1);
+                    // Les homonymes se distinguent par leur numéro ; une base antérieure aux numéros n'a que les noms
+                    Object cle = (etudiant.getIdentifiant() != 0) ? (Object) etudiant.getIdentifiant()
+                            : etudiant.getNom() + '\u0000' + etudiant.getPrenom();
+                    InstantaneMaison.InstantaneEtudiant existant = etudiants.get(cle);
+                    // La section de la maison de résidence fait foi
+                    if (existant == null || (existant.getResidence() == 0 && etudiant.getResidence() != 0)) {
+                        etudiants.put(cle, etudiant);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Recherche dans la base " + url + " impossible : " + e.getMessage());
+        }
+        return new ArrayList<>(etudiants.values());
+    }
+
+    /**
+     * {@inheritDoc}
+     * La recherche porte sur le dernier enregistrement écrit dans la base.
+     */
+    @Override
+    public List<InstantaneMaison.InstantaneChambre> rechercherChambres(int identifiantMaison, String statut) {
+        List<InstantaneMaison.InstantaneChambre> resultat = new ArrayList<>();
+        String sql = "SELECT c.rang, c.id, c.capacite, c.statut, e.identifiant, e.nom, e.prenom, e.nationalite,"
+                + " e.souhait_id, e.residence_id FROM chambre c"
+                + " LEFT JOIN occupant o ON o.maison_id = c.maison_id AND o.chambre_rang = c.rang"
+                + " LEFT JOIN etudiant e ON e.maison_id = o.maison_id AND e.numero = o.etudiant"
+                + " WHERE c.maison_id = ? AND c.statut = ? ORDER BY c.rang, o.rang";
+        try (Connection connexion = connecter(); PreparedStatement requete = connexion.prepareStatement(sql)) {
+            requete.setInt(1, identifiantMaison);
+            requete.setString(2, statut);
+            try (ResultSet lignes = requete.executeQuery()) {
+                int rangCourant = -1;
+                int[] chambre = null;
+                String statutChambre = null;
+                List<InstantaneMaison.InstantaneEtudiant> occupants = new ArrayList<>();
+                while (lignes.next()) {
+                    if (lignes.getInt(1) != rangCourant) {
+                        if (chambre != null) {
+                            resultat.add(new InstantaneMaison.InstantaneChambre(chambre[0], chambre[1], statutChambre, occupants));
+                        }
+                        rangCourant = lignes.getInt(1);
+                        chambre = new int[] { lignes.getInt(2), lignes.getInt(3) };
+                        statutChambre = lignes.getString(4);
+                        occupants = new ArrayList<>();
+                    }
+                    if (lignes.getString(6) != null || lignes.getString(7) != null) {
+                        occupants.add(lireEtudiant(lignes, 5));
+                    }
+                }
+                if (chambre != null) {
+                    resultat.add(new InstantaneMaison.InstantaneChambre(chambre[0], chambre[1], statutChambre, occupants));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Recherche dans la base " + url + " impossible : " + e.getMessage());
+        }
+        return resultat;
+    }
+
+    /**
+     * {@inheritDoc}
+     * La recherche porte sur le dernier enregistrement écrit dans la base.
+     */
+    @Override
+    public List<InstantaneMaison.InstantaneSoiree> rechercherSoirees(LocalDateTime debut, LocalDateTime fin) {
+        List<InstantaneMaison.InstantaneSoiree> resultat = new ArrayList<>();
+        String sql = "SELECT s.maison_id, s.rang, s.nom, s.description, s.date_soiree, e.identifiant, e.nom,"
+                + " e.prenom, e.nationalite, e.souhait_id, e.residence_id FROM soiree s"
+                + " LEFT JOIN inscrit i ON i.maison_id = s.maison_id AND i.soiree_rang = s.rang"
+                + " LEFT JOIN etudiant e ON e.maison_id = i.maison_id AND e.numero = i.etudiant"
+                + " WHERE s.date_soiree BETWEEN ? AND ? ORDER BY s.date_soiree, s.maison_id, s.rang, i.rang";
+        try (Connection connexion = connecter(); PreparedStatement requete = connexion.prepareStatement(sql)) {
+            requete.setTimestamp(1, Timestamp.valueOf(debut));
+            requete.setTimestamp(2, Timestamp.valueOf(fin));
+            try (ResultSet lignes = requete.executeQuery()) {
+                long cleCourante = -1;
+                String[] soiree = null;
+                LocalDateTime date = null;
+                List<InstantaneMaison.InstantaneEtudiant> inscrits = new ArrayList<>();
+                while (lignes.next()) {
+                    long cle = ((long) lignes.getInt(1) << 32) | lignes.getInt(2);
+                    if (cle != cleCourante) {
+                        if (soiree != null) {
+                            resultat.add(new InstantaneMaison.InstantaneSoiree(soiree[0], soiree[1], date, inscrits));
+                        }
+                        cleCourante = cle;
+                        soiree = new String[] { lignes.getString(3), lignes.getString(4) };
+                        date = lignes.getTimestamp(5).toLocalDateTime();
+                        inscrits = new ArrayList<>();
+                    }
+                    if (lignes.getString(7) != null || lignes.getString(8) != null) {
+                        inscrits.add(lireEtudiant(lignes, 6));
+                    }
+                }
+                if (soiree != null) {
+                    resultat.add(new InstantaneMaison.InstantaneSoiree(soiree[0], soiree[1], date, inscrits));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Recherche dans la base " + url + " impossible : " + e.getMessage());
+        }
+        return resultat;
+    }
+
+    /**
+     * Lit un étudiant dans six colonnes consécutives : numéro, nom, prénom, nationalité, souhait, résidence.
+     */
+    private static InstantaneMaison.InstantaneEtudiant lireEtudiant(ResultSet lignes, int colonne) throws SQLException {
+        return new InstantaneMaison.InstantaneEtudiant(lignes.getInt(colonne), lignes.getString(colonne + 1),
+                lignes.getString(colonne + 2), lignes.getString(colonne + 3), lignes.getInt(colonne + 4),
+                lignes.getInt(colonne + 5));
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Ouvre une connexion à la base.
+     */
+    private Connection connecter() throws SQLException {
+        return DriverManager.getConnection(url, utilisateur, motDePasse);
+    }
+
+    /**
+     * Exécute une requête paramétrée par l'identifiant d'une maison.
+     * Le {@link ResultSet} renvoyé ferme la requête à sa fermeture.
+     */
+    private static ResultSet requete(Connection connexion, String sql, int identifiant) throws SQLException {
+        PreparedStatement requete = connexion.prepareStatement(sql);
+        requete.setInt(1, identifiant);
+        requete.closeOnCompletion();
+        return requete.executeQuery();
+    }
+
+    /**
+     * Instruction préparée exécutée par lots de {@value #TAILLE_LOT} lignes ;
+     * le dernier lot est exécuté à la fermeture.
+     */
+    private static class Lot implements AutoCloseable {
+
+        private final PreparedStatement instruction;
+        private int enAttente;
+
+        private Lot(Connection connexion, String sql) throws SQLException {
+            this.instruction = connexion.prepareStatement(sql);
+        }
+
+        private void ajouter(Object... valeurs) throws SQLException {
+            for (int i = 0; i < valeurs.length; i++) {
+                instruction.setObject(i + 1, valeurs[i]);
+            }
+            instruction.addBatch();
+            if (++enAttente == TAILLE_LOT) {
+                instruction.executeBatch();
+                enAttente = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (enAttente > 0) {
+                    instruction.executeBatch();
+                }
+            } finally {
+                instruction.close();
+            }
+        }
+    }
+
+    /**
+     * Lecture différée du contenu d'une maison : la requête n'est exécutée
+     * qu'à la première demande, par le thread qui reconstruit la maison.
+     */
+    private class SectionDifferee extends FutureTask<CodecBinaireCiup.SectionMaison> {
+
+        private SectionDifferee(int identifiant) {
+            super(() -> lireSection(identifiant));
+        }
+
+        @Override
+        public CodecBinaireCiup.SectionMaison get() throws InterruptedException, ExecutionException {
+            run();
+            return super.get();
+        }
+    }
+}
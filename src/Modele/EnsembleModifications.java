@@ -0,0 +1,170 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Ensemble des entités de la CIUP modifiées entre deux points de contrôle,
+ * tel que relevé par {@link SuiviModifications}.
+ * <p>
+ * Un ensemble est figé : il n'évolue plus une fois extrait, et peut donc être
+ * consulté librement par la sauvegarde ou par tout autre composant.
+ * Les entités sont comparées par identité (deux étudiants homonymes restent distincts).
+ * </p>
+ *
+ * @version 1.0
+ * @see SuiviModifications
+ */
+public class EnsembleModifications {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Ensemble vide, sans aucune modification */
+    public static final EnsembleModifications VIDE = new EnsembleModifications(false, false,
+            Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+            Collections.emptySet(), Collections.emptySet());
+
+    /** Indique si la racine a changé : maison internationale ou liste des maisons */
+    private final boolean racineModifiee;
+
+    /** Indique si tout l'état doit être considéré comme modifié */
+    private final boolean toutModifie;
+
+    /** Maisons étudiantes dont le contenu a changé */
+    private final Set<MaisonEtudiante> maisons;
+
+    /** Maisons étudiantes retirées de la CIUP */
+    private final Set<MaisonEtudiante> maisonsSupprimees;
+
+    /** Étudiants dont les informations propres (nom, prénom, nationalité, souhait) ont changé */
+    private final Set<Etudiant> etudiants;
+
+    /** Chambres dont la capacité ou les occupants ont changé */
+    private final Set<Chambre> chambres;
+
+    /** Soirées dont les informations ou les inscrits ont changé */
+    private final Set<Soiree> soirees;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit un ensemble de modifications à partir des relevés d'un suivi.
+     * Les ensembles transmis ne doivent plus être modifiés par la suite.
+     */
+    EnsembleModifications(boolean racineModifiee, boolean toutModifie, Set<MaisonEtudiante> maisons,
+                          Set<MaisonEtudiante> maisonsSupprimees, Set<Etudiant> etudiants,
+                          Set<Chambre> chambres, Set<Soiree> soirees) {
+        this.racineModifiee = racineModifiee;
+        this.toutModifie = toutModifie;
+        this.maisons = Collections.unmodifiableSet(maisons);
+        this.maisonsSupprimees = Collections.unmodifiableSet(maisonsSupprimees);
+        this.etudiants = Collections.unmodifiableSet(etudiants);
+        this.chambres = Collections.unmodifiableSet(chambres);
+        this.soirees = Collections.unmodifiableSet(soirees);
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Indique si aucune modification n'a été relevée.
+     *
+     * @return true si l'ensemble est vide
+     */
+    public boolean estVide() {
+        return !racineModifiee && !toutModifie && maisons.isEmpty() && maisonsSupprimees.isEmpty()
+                && etudiants.isEmpty() && chambres.isEmpty() && soirees.isEmpty();
+    }
+
+    /**
+     * Indique si la maison donnée a été modifiée, directement ou par l'une de ses chambres ou soirées.
+     *
+     * @param maison la maison à tester
+     * @return true si la maison est à réécrire
+     */
+    public boolean contient(MaisonEtudiante maison) {
+        return toutModifie || maisons.contains(maison);
+    }
+
+    /**
+     * Indique si la maison internationale ou la liste des maisons a changé.
+     *
+     * @return true si la racine a changé
+     */
+    public boolean isRacineModifiee() {
+        return racineModifiee || toutModifie;
+    }
+
+    /**
+     * Indique si l'ensemble de l'état doit être considéré comme modifié
+     * (liste des maisons remplacée, suivi réinitialisé...).
+     *
+     * @return true si tout est modifié
+     */
+    public boolean isToutModifie() {
+        return toutModifie;
+    }
+
+    /**
+     * Retourne les maisons étudiantes dont le contenu a changé.
+     *
+     * @return les maisons modifiées
+     */
+    public Set<MaisonEtudiante> getMaisons() {
+        return maisons;
+    }
+
+    /**
+     * Retourne les maisons étudiantes retirées de la CIUP.
+     *
+     * @return les maisons supprimées
+     */
+    public Set<MaisonEtudiante> getMaisonsSupprimees() {
+        return maisonsSupprimees;
+    }
+
+    /**
+     * Retourne les étudiants dont les informations propres ont changé.
+     * Leurs changements de maison ou de chambre sont relevés sur les maisons et chambres concernées.
+     *
+     * @return les étudiants modifiés
+     */
+    public Set<Etudiant> getEtudiants() {
+        return etudiants;
+    }
+
+    /**
+     * Retourne les chambres modifiées.
+     *
+     * @return les chambres modifiées
+     */
+    public Set<Chambre> getChambres() {
+        return chambres;
+    }
+
+    /**
+     * Retourne les soirées modifiées.
+     *
+     * @return les soirées modifiées
+     */
+    public Set<Soiree> getSoirees() {
+        return soirees;
+    }
+
+    /**
+     * Retourne une représentation textuelle résumant l'ensemble.
+     *
+     * @return le résumé des modifications
+     */
+    @Override
+    public String toString() {
+        return "EnsembleModifications[racine=" + isRacineModifiee() + ", tout=" + toutModifie
+                + ", maisons=" + maisons.size() + ", supprimees=" + maisonsSupprimees.size()
+                + ", etudiants=" + etudiants.size() + ", chambres=" + chambres.size()
+                + ", soirees=" + soirees.size() + "]";
+    }
+}
@@ -0,0 +1,137 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Charge d'une maison étudiante telle que la lit le calcul des places d'une cohorte :
+ * capacité, logés, liste d'attente et nationalités.
+ * <p>
+ * Un état ne change jamais une fois construit : une {@link SimulationCiup} et tous ses
+ * embranchements partagent ainsi l'état de chaque maison qu'ils n'ont pas modifiée, et
+ * en créent un nouveau pour chaque maison modifiée. Les états lus directement dans une
+ * maison de la CIUP ({@link #EtatMaison(MaisonEtudiante)}) ne servent qu'au cours d'une
+ * affectation, sur le thread du modèle.
+ * </p>
+ *
+ * @version 1.0
+ * @see AffectationCohorte
+ * @see SimulationCiup
+ */
+final class EtatMaison {
+
+    /** Maison décrite (réelle, ou projetée par une simulation) */
+    final MaisonEtudiante maison;
+
+    /** Nationalité de la maison */
+    final String nationalite;
+
+    /** Nombre de places */
+    final int capacite;
+
+    /** Nombre d'étudiants logés */
+    final int nbEtudiants;
+
+    /** Nombre d'étudiants en liste d'attente */
+    final int attente;
+
+    /** Nombre de logés par nationalité, jamais modifié à travers cet état */
+    final HistogrammeNationalites histogramme;
+
+    /** Contenu copié de la maison à la création de la simulation (null pour une maison projetée) */
+    final InstantaneMaison instantane;
+
+    /** Étudiants logés par les affectations simulées, en plus de ceux de l'instantané */
+    final List<Etudiant> loges;
+
+    /** Étudiants mis en liste d'attente par les affectations simulées, en plus de ceux de l'instantané */
+    final List<Etudiant> enAttente;
+
+    /**
+     * Lit l'état courant d'une maison de la CIUP, en partageant son histogramme.
+     * Doit être appelé sur le thread du modèle.
+     *
+     * @param maison la maison étudiante
+     */
+    EtatMaison(MaisonEtudiante maison) {
+        this(maison, maison.getNationalite(), maison.getCapaciteEtudiantsMax(), maison.getNbEtudiants(),
+                maison.getlisteAttente().size(), maison.getHistogrammeNationalites(), null,
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Construit l'état d'une maison à partir de son instantané complet.
+     *
+     * @param maison la maison étudiante
+     * @param instantane son instantané complet
+     */
+    EtatMaison(MaisonEtudiante maison, InstantaneMaison instantane) {
+        this(maison, instantane.getNationalite(), instantane.getCapacite(), instantane.getNbEtudiants(),
+                instantane.getAttente().size(), histogramme(instantane), instantane,
+                Collections.emptyList(), Collections.emptyList());
+    }
+
+    EtatMaison(MaisonEtudiante maison, String nationalite, int capacite, int nbEtudiants, int attente,
+               HistogrammeNationalites histogramme, InstantaneMaison instantane,
+               List<Etudiant> loges, List<Etudiant> enAttente) {
+        this.maison = maison;
+        this.nationalite = nationalite;
+        this.capacite = capacite;
+        this.nbEtudiants = nbEtudiants;
+        this.attente = attente;
+        this.histogramme = histogramme;
+        this.instantane = instantane;
+        this.loges = loges;
+        this.enAttente = enAttente;
+    }
+
+    /**
+     * Retourne le même état avec un autre nombre de places.
+     */
+    EtatMaison avecCapacite(int nouvelleCapacite) {
+        return new EtatMaison(maison, nationalite, nouvelleCapacite, nbEtudiants, attente, histogramme,
+                instantane, loges, enAttente);
+    }
+
+    /**
+     * Retourne l'état de la maison après de nouvelles inscriptions : les logés et inscrits en
+     * attente sont ajoutés à ceux de cet état, dont l'histogramme est recopié puis complété.
+     *
+     * @param nouveauxLoges les étudiants logés en plus
+     * @param nouveauxEnAttente les étudiants mis en liste d'attente en plus
+     * @return le nouvel état
+     */
+    EtatMaison avecInscriptions(List<Etudiant> nouveauxLoges, List<Etudiant> nouveauxEnAttente) {
+        HistogrammeNationalites copie = HistogrammeNationalites.restaurer(histogramme.tableauNationalites(),
+                histogramme.tableauEffectifs());
+        for (Etudiant etudiant : nouveauxLoges) {
+            copie.incrementer(etudiant.getNationalite());
+        }
+        return new EtatMaison(maison, nationalite, capacite, nbEtudiants + nouveauxLoges.size(),
+                attente + nouveauxEnAttente.size(), copie, instantane,
+                concatener(loges, nouveauxLoges), concatener(enAttente, nouveauxEnAttente));
+    }
+
+    /** @return le nombre de chambres libres */
+    int getLibres() {
+        return capacite - nbEtudiants;
+    }
+
+    private static HistogrammeNationalites histogramme(InstantaneMaison instantane) {
+        List<String> nationalites = instantane.getNationalites();
+        int[] effectifs = new int[nationalites.size()];
+        for (int rang = 0; rang < effectifs.length; rang++) {
+            effectifs[rang] = instantane.getEffectif(rang);
+        }
+        return HistogrammeNationalites.restaurer(nationalites.toArray(new String[0]), effectifs);
+    }
+
+    private static List<Etudiant> concatener(List<Etudiant> debut, List<Etudiant> fin) {
+        if (fin.isEmpty()) {
+            return debut;
+        }
+        List<Etudiant> liste = new ArrayList<>(debut.size() + fin.size());
+        liste.addAll(debut);
+        liste.addAll(fin);
+        return Collections.unmodifiableList(liste);
+    }
+}
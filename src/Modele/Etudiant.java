@@ -1,6 +1,7 @@
 package Modele;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.io.*;
 
 /**
@@ -15,7 +16,7 @@ public class Etudiant implements Serializable {
     //--------------------------
 
     /** Maison actuelle de résidence de l'étudiant */
-    private MaisonEtudiante maisonResidence;
+    private volatile MaisonEtudiante maisonResidence;
 
     /** Chambre attribuée à l'étudiant */
     private Chambre chambre;
@@ -35,6 +36,16 @@ public class Etudiant implements Serializable {
     /** Référence à la CIUP pour l'affectation automatique */
     private Ciup ciup;
 
+    /**
+     * Numéro de l'étudiant, unique dans la CIUP : il distingue les homonymes d'une sauvegarde
+     * à l'autre (0 tant qu'il n'en a pas reçu, par exemple s'il vient d'une ancienne sauvegarde)
+     */
+    private volatile int identifiant;
+
+    /** Attribution du numéro sans verrou, au premier besoin */
+    private static final AtomicIntegerFieldUpdater<Etudiant> IDENTIFIANT =
+            AtomicIntegerFieldUpdater.newUpdater(Etudiant.class, "identifiant");
+
     /** UID de version pour la sérialisation */
     private static final long serialVersionUID = 1L;
 
@@ -58,6 +69,7 @@ public class Etudiant implements Serializable {
         this.nationalite = nationalite;
         this.souhait = souhait;
         this.ciup = ciup;
+        this.identifiant = (ciup == null) ? 0 : ciup.nouvelIdentifiantEtudiant();
         if (this.souhait != null) {
             this.souhait.inscrireEtudiant(this);
         }
@@ -77,9 +89,81 @@ public class Etudiant implements Serializable {
         this.prenom = prenom;
         this.nationalite = nationalite;
         this.ciup = ciup;
+        this.identifiant = ciup.nouvelIdentifiantEtudiant();
         this.ciup.affecterMaisonNationale(this);
     }
 
+    /**
+     * Crée un candidat à une affectation groupée ({@link Ciup#affecterCohorte}),
+     * sans l'inscrire dans aucune maison : son souhait éventuel ne sera pris en compte
+     * que lors de l'affectation de sa cohorte.
+     *
+     * @param ciup        Référence à la CIUP pour accès aux maisons
+     * @param nom         Nom de l'étudiant
+     * @param prenom      Prénom de l'étudiant
+     * @param nationalite Nationalité de l'étudiant
+     * @param souhait     Maison souhaitée (peut être null)
+     * @return le candidat, sans maison ni candidature
+     */
+    public static Etudiant candidat(Ciup ciup, String nom, String prenom, String nationalite, MaisonEtudiante souhait) {
+        return restaurer(ciup, (ciup == null) ? 0 : ciup.nouvelIdentifiantEtudiant(), nom, prenom, nationalite, souhait);
+    }
+
+    /**
+     * Recrée un étudiant consigné dans le journal des opérations avec son numéro d'origine,
+     * puis l'inscrit comme l'avait fait son constructeur : à sa maison souhaitée, ou à défaut
+     * à une maison nationale.
+     *
+     * @param ciup        Référence à la CIUP pour accès aux maisons
+     * @param identifiant Numéro de l'étudiant dans la CIUP
+     * @param nom         Nom de l'étudiant
+     * @param prenom      Prénom de l'étudiant
+     * @param nationalite Nationalité de l'étudiant
+     * @param souhait     Maison souhaitée (peut être null)
+     * @return l'étudiant inscrit
+     */
+    static Etudiant reinscrire(Ciup ciup, int identifiant, String nom, String prenom, String nationalite,
+                               MaisonEtudiante souhait) {
+        ciup.setDernierIdentifiantEtudiant(identifiant);
+        Etudiant etudiant = restaurer(ciup, identifiant, nom, prenom, nationalite, souhait);
+        if (souhait != null) {
+            souhait.inscrireEtudiant(etudiant);
+        } else {
+            ciup.affecterMaisonNationale(etudiant);
+        }
+        return etudiant;
+    }
+
+    /**
+     * Constructeur vide, utilisé uniquement par {@link #restaurer}.
+     */
+    private Etudiant() {
+    }
+
+    /**
+     * Recrée un étudiant à partir d'une sauvegarde, sans l'affecter à une maison :
+     * sa maison de résidence et sa chambre sont rétablies par l'appelant.
+     *
+     * @param ciup        Référence à la CIUP pour accès aux maisons
+     * @param identifiant Numéro de l'étudiant dans la CIUP (0 s'il n'en a pas)
+     * @param nom         Nom de l'étudiant
+     * @param prenom      Prénom de l'étudiant
+     * @param nationalite Nationalité de l'étudiant
+     * @param souhait     Maison souhaitée (peut être null)
+     * @return l'étudiant recréé, sans maison ni chambre
+     */
+    static Etudiant restaurer(Ciup ciup, int identifiant, String nom, String prenom, String nationalite,
+                              MaisonEtudiante souhait) {
+        Etudiant etudiant = new Etudiant();
+        etudiant.ciup = ciup;
+        etudiant.identifiant = identifiant;
+        etudiant.nom = nom;
+        etudiant.prenom = prenom;
+        etudiant.nationalite = nationalite;
+        etudiant.souhait = souhait;
+        return etudiant;
+    }
+
     //--------------------------
     //      MÉTHODES OVERRIDES
     //--------------------------
@@ -144,6 +228,41 @@ public class Etudiant implements Serializable {
     //         ACCESSEURS
     //--------------------------
 
+    /**
+     * Obtient le numéro de l'étudiant, unique dans la CIUP. Un étudiant qui n'en a pas encore,
+     * venu d'une sauvegarde antérieure aux numéros, en reçoit un au premier appel.
+     *
+     * @return le numéro de l'étudiant, ou 0 s'il n'est rattaché à aucune CIUP
+     */
+    public int getIdentifiant() {
+        int numero = identifiant;
+        if (numero == 0 && ciup != null) {
+            IDENTIFIANT.compareAndSet(this, 0, ciup.nouvelIdentifiantEtudiant());
+            numero = identifiant;
+        }
+        return numero;
+    }
+
+    /**
+     * Donne à un étudiant sans numéro celui que lui attribue une sauvegarde.
+     *
+     * @param numero le numéro de l'étudiant dans la sauvegarde
+     * @return true si l'étudiant porte désormais ce numéro, false s'il en avait déjà un autre
+     */
+    boolean adopterIdentifiant(int numero) {
+        return IDENTIFIANT.compareAndSet(this, 0, numero) || identifiant == numero;
+    }
+
+    /**
+     * Indique si l'étudiant porte un numéro, sans lui en attribuer s'il n'en a pas encore.
+     *
+     * @param numero le numéro recherché
+     * @return true si c'est le numéro de l'étudiant
+     */
+    boolean porteIdentifiant(int numero) {
+        return numero != 0 && identifiant == numero;
+    }
+
     /**
      * Obtient la maison de résidence actuelle de l'étudiant.
      * 
@@ -158,10 +277,24 @@ public class Etudiant implements Serializable {
      * 
      * @param maisonResidence la maison de résidence à définir
      */
-    public void setMaisonResidence(MaisonEtudiante maisonResidence) {
+    public synchronized void setMaisonResidence(MaisonEtudiante maisonResidence) {
         this.maisonResidence = maisonResidence;
     }
 
+    /**
+     * Attribue une maison de résidence à l'étudiant s'il n'en a pas encore, en une seule
+     * opération : deux maisons qui tentent de le loger en même temps ne peuvent pas réussir toutes deux.
+     *
+     * @param maison la maison qui veut loger l'étudiant
+     * @return true si la maison lui a été attribuée (ou l'était déjà), false s'il est logé ailleurs
+     */
+    synchronized boolean reserverResidence(MaisonEtudiante maison) {
+        if (maisonResidence == null) {
+            maisonResidence = maison;
+        }
+        return maisonResidence == maison;
+    }
+
     /**
      * Obtient la chambre attribuée à l'étudiant.
      * 
@@ -196,6 +329,7 @@ public class Etudiant implements Serializable {
      */
     public void setNom(String nom) {
         this.nom = nom;
+        signalerModification();
     }
 
     /**
@@ -214,6 +348,7 @@ public class Etudiant implements Serializable {
      */
     public void setPrenom(String prenom) {
         this.prenom = prenom;
+        signalerModification();
     }
 
     /**
@@ -226,12 +361,17 @@ public class Etudiant implements Serializable {
     }
 
     /**
-     * Définit la nationalité de l'étudiant.
+     * Définit la nationalité de l'étudiant, et met à jour les effectifs de sa maison de résidence.
      * 
      * @param nationalite la nationalité à définir
      */
     public void setNationalite(String nationalite) {
+        String ancienne = this.nationalite;
         this.nationalite = nationalite;
+        if (maisonResidence != null && !Objects.equals(ancienne, nationalite)) {
+            maisonResidence.nationaliteEtudiantModifiee(ancienne, nationalite);
+        }
+        signalerModification();
     }
 
     /**
@@ -250,5 +390,20 @@ public class Etudiant implements Serializable {
      */
     public void setSouhait(MaisonEtudiante souhait) {
         this.souhait = souhait;
+        signalerModification();
+    }
+
+    //--------------------------
+    //   SUIVI DES MODIFICATIONS
+    //--------------------------
+
+    /**
+     * Signale au suivi de la CIUP que les informations propres de l'étudiant ont été modifiées.
+     * Ses changements de maison ou de chambre sont signalés par la maison et la chambre concernées.
+     */
+    private void signalerModification() {
+        if (ciup != null) {
+            ciup.getSuiviModifications().etudiantModifie(this);
+        }
     }
 }
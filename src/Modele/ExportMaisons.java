@@ -0,0 +1,457 @@
+package Modele;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Export en flux des maisons étudiantes : occupation des chambres, résidents et liste d'attente,
+ * au format CSV ou JSON Lines, par exemple pour les extractions nocturnes.
+ * <p>
+ * L'export lit un {@link InstantaneCiup} : il se prend sur le thread du modèle, puis l'écriture
+ * peut se faire ailleurs pendant que le modèle continue d'évoluer. Le texte est encodé en UTF-8
+ * directement dans un tampon d'octets de taille fixe, vidé dans le canal de sortie à mesure
+ * qu'il se remplit : aucune chaîne intermédiaire n'est construite, ni par enregistrement
+ * ni pour le fichier entier.
+ * </p>
+ * <p>
+ * En CSV, chaque ligne est un enregistrement typé par sa première colonne :
+ * {@code chambre} (capacité, statut, nombre d'occupants), {@code resident} (étudiant logé et sa chambre)
+ * ou {@code attente} (étudiant et son rang dans la liste d'attente). En JSON Lines, chaque ligne est
+ * un objet décrivant une maison, avec les tableaux {@code chambres}, {@code residents} et {@code attente}.
+ * </p>
+ * <p>
+ * Les maisons peuvent être filtrées par nom, et les étudiants (résidents et liste d'attente)
+ * par nationalité ; l'occupation des chambres n'est pas filtrée par nationalité.
+ * </p>
+ *
+ * @version 1.0
+ * @see InstantaneCiup
+ */
+public class ExportMaisons {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Format de sortie de l'export.
+     */
+    public enum Format {
+        /** Valeurs séparées par des virgules, un enregistrement typé par ligne */
+        CSV,
+        /** Un objet JSON par maison et par ligne */
+        JSONL;
+
+        /**
+         * Déduit le format de l'extension d'un nom de fichier ({@code .jsonl} ou {@code .json}, sinon CSV).
+         *
+         * @param nomFichier le nom du fichier
+         * @return le format correspondant
+         */
+        public static Format depuisExtension(String nomFichier) {
+            String nom = nomFichier.toLowerCase(Locale.ROOT);
+            return (nom.endsWith(".jsonl") || nom.endsWith(".json")) ? JSONL : CSV;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Taille du tampon d'octets vidé dans le canal */
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    /** En-tête des fichiers CSV */
+    private static final String ENTETE_CSV =
+            "type,maison_id,maison,chambre,capacite,statut,occupants,rang,nom,prenom,nationalite\n";
+
+    /** Format de sortie */
+    private final Format format;
+
+    /** Noms en minuscules des maisons exportées (null pour toutes) */
+    private Set<String> maisons;
+
+    /** Nationalités des étudiants exportés (null pour toutes) */
+    private Set<String> nationalites;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Prépare un export de toutes les maisons et de tous les étudiants.
+     *
+     * @param format le format de sortie
+     */
+    public ExportMaisons(Format format) {
+        this.format = format;
+    }
+
+    // --------------------------
+    //       FILTRES
+    // --------------------------
+
+    /**
+     * Restreint l'export à certaines maisons, désignées par leur nom (sans tenir compte de la casse).
+     *
+     * @param noms les noms des maisons à exporter, ou null pour toutes
+     */
+    public void setMaisons(Collection<String> noms) {
+        if (noms == null) {
+            this.maisons = null;
+            return;
+        }
+        this.maisons = new HashSet<>();
+        for (String nom : noms) {
+            this.maisons.add(nom.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Restreint les résidents et la liste d'attente exportés à certaines nationalités.
+     *
+     * @param nationalites les nationalités à exporter, ou null pour toutes
+     */
+    public void setNationalites(Collection<String> nationalites) {
+        this.nationalites = (nationalites == null) ? null : new HashSet<>(nationalites);
+    }
+
+    // --------------------------
+    //       EXPORT
+    // --------------------------
+
+    /**
+     * Exporte un instantané de la CIUP dans un fichier, remplacé s'il existe.
+     *
+     * @param ciup l'instantané complet de la CIUP ({@link Ciup#instantaneComplet()})
+     * @param fichier le fichier de sortie
+     * @return le nombre de lignes écrites, en-tête compris
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long exporter(InstantaneCiup ciup, Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return exporter(ciup, canal);
+        }
+    }
+
+    /**
+     * Exporte un instantané de la CIUP dans un canal, qui n'est pas fermé.
+     *
+     * @param ciup l'instantané complet de la CIUP ({@link Ciup#instantaneComplet()})
+     * @param canal le canal de sortie
+     * @return le nombre de lignes écrites, en-tête compris
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si le contenu d'une maison exportée n'a pas été copié
+     */
+    public long exporter(InstantaneCiup ciup, WritableByteChannel canal) throws IOException {
+        Sortie sortie = new Sortie(canal);
+        if (format == Format.CSV) {
+            sortie.texte(ENTETE_CSV);
+        }
+        for (InstantaneMaison maison : ciup.getMaisons()) {
+            if (maisons != null && (maison.getNom() == null || !maisons.contains(maison.getNom().toLowerCase(Locale.ROOT)))) {
+                continue;
+            }
+            if (!maison.estComplet()) {
+                throw new IllegalArgumentException("Contenu de la maison " + maison.getIdentifiant() + " absent de l'instantané");
+            }
+            if (format == Format.CSV) {
+                ecrireCsv(maison, sortie);
+            } else {
+                ecrireJson(maison, sortie);
+            }
+        }
+        sortie.vider();
+        return sortie.nbLignes;
+    }
+
+    /**
+     * Écrit les enregistrements CSV d'une maison.
+     */
+    private void ecrireCsv(InstantaneMaison maison, Sortie sortie) throws IOException {
+        Map<InstantaneMaison.InstantaneEtudiant, InstantaneMaison.InstantaneChambre> chambres = new IdentityHashMap<>();
+        for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+            debutCsv("chambre", maison, sortie);
+            sortie.entier(chambre.getIdentifiant()).caractere(',');
+            sortie.entier(chambre.getCapacite()).caractere(',');
+            sortie.csv(chambre.getStatut()).caractere(',');
+            sortie.entier(chambre.getOccupants().size()).texte(",,,,\n");
+            for (InstantaneMaison.InstantaneEtudiant occupant : chambre.getOccupants()) {
+                chambres.put(occupant, chambre);
+            }
+        }
+        for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getResidents()) {
+            if (retenu(etudiant)) {
+                debutCsv("resident", maison, sortie);
+                InstantaneMaison.InstantaneChambre chambre = chambres.get(etudiant);
+                if (chambre != null) {
+                    sortie.entier(chambre.getIdentifiant());
+                }
+                sortie.texte(",,,,,");
+                etudiantCsv(etudiant, sortie);
+            }
+        }
+        List<InstantaneMaison.InstantaneEtudiant> attente = maison.getAttente();
+        for (int rang = 0; rang < attente.size(); rang++) {
+            if (retenu(attente.get(rang))) {
+                debutCsv("attente", maison, sortie);
+                sortie.texte(",,,,").entier(rang + 1).caractere(',');
+                etudiantCsv(attente.get(rang), sortie);
+            }
+        }
+    }
+
+    /**
+     * Écrit le type, l'identifiant et le nom de la maison d'un enregistrement CSV.
+     */
+    private static void debutCsv(String type, InstantaneMaison maison, Sortie sortie) throws IOException {
+        sortie.texte(type).caractere(',').entier(maison.getIdentifiant()).caractere(',');
+        sortie.csv(maison.getNom()).caractere(',');
+    }
+
+    /**
+     * Écrit les colonnes d'un étudiant et termine l'enregistrement CSV.
+     */
+    private static void etudiantCsv(InstantaneMaison.InstantaneEtudiant etudiant, Sortie sortie) throws IOException {
+        sortie.csv(etudiant.getNom()).caractere(',');
+        sortie.csv(etudiant.getPrenom()).caractere(',');
+        sortie.csv(etudiant.getNationalite()).caractere('\n');
+    }
+
+    /**
+     * Écrit l'objet JSON d'une maison sur une ligne.
+     */
+    private void ecrireJson(InstantaneMaison maison, Sortie sortie) throws IOException {
+        sortie.texte("{\"id\":").entier(maison.getIdentifiant());
+        sortie.texte(",\"nom\":").json(maison.getNom());
+        sortie.texte(",\"nationalite\":").json(maison.getNationalite());
+        sortie.texte(",\"directeur\":").json(maison.getDirecteur());
+        sortie.texte(",\"localisation\":").json(maison.getLocalisation());
+        sortie.texte(",\"capacite\":").entier(maison.getCapacite());
+        sortie.texte(",\"nbEtudiants\":").entier(maison.getNbEtudiants());
+
+        Map<InstantaneMaison.InstantaneEtudiant, InstantaneMaison.InstantaneChambre> chambres = new IdentityHashMap<>();
+        sortie.texte(",\"chambres\":[");
+        boolean premier = true;
+        for (InstantaneMaison.InstantaneChambre chambre : maison.getChambres()) {
+            if (!premier) {
+                sortie.caractere(',');
+            }
+            premier = false;
+            sortie.texte("{\"id\":").entier(chambre.getIdentifiant());
+            sortie.texte(",\"capacite\":").entier(chambre.getCapacite());
+            sortie.texte(",\"statut\":").json(chambre.getStatut());
+            sortie.texte(",\"occupants\":").entier(chambre.getOccupants().size()).caractere('}');
+            for (InstantaneMaison.InstantaneEtudiant occupant : chambre.getOccupants()) {
+                chambres.put(occupant, chambre);
+            }
+        }
+
+        sortie.texte("],\"residents\":[");
+        premier = true;
+        for (InstantaneMaison.InstantaneEtudiant etudiant : maison.getResidents()) {
+            if (retenu(etudiant)) {
+                if (!premier) {
+                    sortie.caractere(',');
+                }
+                premier = false;
+                etudiantJson(etudiant, sortie);
+                InstantaneMaison.InstantaneChambre chambre = chambres.get(etudiant);
+                sortie.texte(",\"chambre\":");
+                if (chambre != null) {
+                    sortie.entier(chambre.getIdentifiant());
+                } else {
+                    sortie.texte("null");
+                }
+                sortie.caractere('}');
+            }
+        }
+
+        sortie.texte("],\"attente\":[");
+        premier = true;
+        List<InstantaneMaison.InstantaneEtudiant> attente = maison.getAttente();
+        for (int rang = 0; rang < attente.size(); rang++) {
+            if (retenu(attente.get(rang))) {
+                if (!premier) {
+                    sortie.caractere(',');
+                }
+                premier = false;
+                etudiantJson(attente.get(rang), sortie);
+                sortie.texte(",\"rang\":").entier(rang + 1).caractere('}');
+            }
+        }
+        sortie.texte("]}\n");
+    }
+
+    /**
+     * Écrit le début de l'objet JSON d'un étudiant, laissé ouvert pour ses derniers attributs.
+     */
+    private static void etudiantJson(InstantaneMaison.InstantaneEtudiant etudiant, Sortie sortie) throws IOException {
+        sortie.texte("{\"nom\":").json(etudiant.getNom());
+        sortie.texte(",\"prenom\":").json(etudiant.getPrenom());
+        sortie.texte(",\"nationalite\":").json(etudiant.getNationalite());
+    }
+
+    /**
+     * Indique si un étudiant passe le filtre de nationalité.
+     */
+    private boolean retenu(InstantaneMaison.InstantaneEtudiant etudiant) {
+        return nationalites == null || nationalites.contains(etudiant.getNationalite());
+    }
+
+    // --------------------------
+    //       SORTIE
+    // --------------------------
+
+    /**
+     * Tampon d'octets de taille fixe dans lequel le texte est encodé en UTF-8 caractère par caractère,
+     * et vidé dans le canal lorsqu'il est plein.
+     */
+    private static class Sortie {
+
+        private final WritableByteChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+        private long nbLignes;
+
+        private Sortie(WritableByteChannel canal) {
+            this.canal = canal;
+        }
+
+        /** Écrit un texte tel quel */
+        private Sortie texte(CharSequence texte) throws IOException {
+            for (int i = 0; i < texte.length(); i++) {
+                i = encoder(texte, i);
+            }
+            return this;
+        }
+
+        /** Écrit un caractère tel quel (hors moitié d'une paire de substitution) */
+        private Sortie caractere(char c) throws IOException {
+            if (c < 0x80) {
+                octet(c);
+                if (c == '\n') {
+                    nbLignes++;
+                }
+            } else if (c < 0x800) {
+                octet(0xC0 | (c >> 6));
+                octet(0x80 | (c & 0x3F));
+            } else {
+                octet(0xE0 | (c >> 12));
+                octet(0x80 | ((c >> 6) & 0x3F));
+                octet(0x80 | (c & 0x3F));
+            }
+            return this;
+        }
+
+        /** Écrit un entier en décimal, sans passer par une chaîne */
+        private Sortie entier(long valeur) throws IOException {
+            if (valeur < 0) {
+                if (valeur == Long.MIN_VALUE) {
+                    return texte(Long.toString(valeur));
+                }
+                octet('-');
+                valeur = -valeur;
+            }
+            long puissance = 1;
+            while (valeur / puissance >= 10) {
+                puissance *= 10;
+            }
+            for (; puissance > 0; puissance /= 10) {
+                octet((int) ('0' + (valeur / puissance) % 10));
+            }
+            return this;
+        }
+
+        /** Écrit un champ CSV, entre guillemets s'il contient une virgule, un guillemet ou un retour à la ligne */
+        private Sortie csv(String valeur) throws IOException {
+            if (valeur == null) {
+                return this;
+            }
+            boolean guillemets = false;
+            for (int i = 0; i < valeur.length() && !guillemets; i++) {
+                char c = valeur.charAt(i);
+                guillemets = (c == ',' || c == '"' || c == '\n' || c == '\r');
+            }
+            if (!guillemets) {
+                return texte(valeur);
+            }
+            octet('"');
+            for (int i = 0; i < valeur.length(); i++) {
+                if (valeur.charAt(i) == '"') {
+                    octet('"');
+                }
+                i = encoder(valeur, i);
+            }
+            octet('"');
+            return this;
+        }
+
+        /** Écrit une chaîne JSON échappée, ou null */
+        private Sortie json(String valeur) throws IOException {
+            if (valeur == null) {
+                return texte("null");
+            }
+            octet('"');
+            for (int i = 0; i < valeur.length(); i++) {
+                char c = valeur.charAt(i);
+                switch (c) {
+                    case '"': octet('\\'); octet('"'); break;
+                    case '\\': octet('\\'); octet('\\'); break;
+                    case '\n': octet('\\'); octet('n'); break;
+                    case '\r': octet('\\'); octet('r'); break;
+                    case '\t': octet('\\'); octet('t'); break;
+                    default:
+                        if (c < 0x20) {
+                            texte("\\u00");
+                            octet(Character.forDigit(c >> 4, 16));
+                            octet(Character.forDigit(c & 0xF, 16));
+                        } else {
+                            i = encoder(valeur, i);
+                        }
+                }
+            }
+            octet('"');
+            return this;
+        }
+
+        /**
+         * Encode le caractère d'indice i, avec le suivant s'ils forment une paire de substitution,
+         * et retourne l'indice du dernier caractère consommé.
+         */
+        private int encoder(CharSequence texte, int i) throws IOException {
+            char c = texte.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < texte.length() && Character.isLowSurrogate(texte.charAt(i + 1))) {
+                int point = Character.toCodePoint(c, texte.charAt(i + 1));
+                octet(0xF0 | (point >> 18));
+                octet(0x80 | ((point >> 12) & 0x3F));
+                octet(0x80 | ((point >> 6) & 0x3F));
+                octet(0x80 | (point & 0x3F));
+                return i + 1;
+            }
+            caractere(Character.isSurrogate(c) ? '?' : c);
+            return i;
+        }
+
+        private void octet(int valeur) throws IOException {
+            if (!tampon.hasRemaining()) {
+                vider();
+            }
+            tampon.put((byte) valeur);
+        }
+
+        /** Écrit dans le canal le contenu du tampon */
+        private void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            tampon.clear();
+        }
+    }
+}
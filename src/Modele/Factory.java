@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
  * Méthode principale disponible :
  * <ul>
  *   <li>{@link #constructionCiup()} : crée et retourne un objet Ciup initialisé.</li>
+ *   <li>{@link #genererCiup(int, int, long)} : crée une CIUP synthétique de taille choisie,
+ *   pour les mesures de performance.</li>
  * </ul>
  * Cette classe facilite la création d'un jeu de données cohérent pour
  * démarrer l'application ou les tests.
@@ -176,4 +178,76 @@ public class Factory {
 		return ciup;
 	}
 
+	/** Nationalités utilisées par {@link #genererCiup(int, int, long)} */
+	private static final String[] NATIONALITES_GENEREES = {
+			"Français", "Italien", "Britannique", "Japonais", "Allemand", "Américain", "Espagnol",
+			"Portugais", "Brésilien", "Marocain", "Libanais", "Chinois", "Indien", "Canadien",
+			"Suédois", "Grec", "Mexicain", "Vietnamien", "Norvégien", "Argentin"
+	};
+
+	/** Noms utilisés par {@link #genererCiup(int, int, long)} */
+	private static final String[] NOMS_GENERES = {
+			"Martin", "Bernard", "Rossi", "Smith", "Tanaka", "Müller", "Garcia", "Silva", "Dubois",
+			"Moreau", "Haddad", "Wang", "Sharma", "Tremblay", "Larsson", "Papadopoulos", "Lopez", "Nguyen"
+	};
+
+	/** Prénoms utilisés par {@link #genererCiup(int, int, long)} */
+	private static final String[] PRENOMS_GENERES = {
+			"Alice", "Hugo", "Giulia", "Oliver", "Yuki", "Lena", "Lucia", "Joao", "Camille",
+			"Louis", "Nour", "Mei", "Arjun", "Emma", "Erik", "Eleni", "Diego", "Linh"
+	};
+
+	/**
+	 * Construit une CIUP synthétique, reproductible pour une même graine, sans affichage :
+	 * des maisons étudiantes de chambres simples et doubles, des étudiants de nationalités variées
+	 * répartis selon leur souhait (les maisons pleines remplissent leur liste d'attente)
+	 * et quelques soirées par maison avec leurs inscrits.
+	 * Les capacités sont calculées pour loger environ 90 % des étudiants.
+	 *
+	 * @param nbMaisons nombre de maisons étudiantes
+	 * @param nbEtudiants nombre total d'étudiants
+	 * @param graine graine du générateur aléatoire
+	 * @return la CIUP générée
+	 */
+	public static Ciup genererCiup(int nbMaisons, int nbEtudiants, long graine) {
+		Random aleatoire = new Random(graine);
+		Ciup ciup = new Ciup(new MaisonInternationale("Maison internationale de la CIUP", "Française",
+				"M. Jean-Marc Sauvé", "17 Bd Jourdan, 75014 Paris"));
+
+		int placesParMaison = Math.max(1, (int) (nbEtudiants * 0.9 / nbMaisons));
+		List<MaisonEtudiante> maisons = new ArrayList<>(nbMaisons);
+		for (int m = 0; m < nbMaisons; m++) {
+			List<Integer> capacites = new ArrayList<>();
+			for (int places = 0; places < placesParMaison; ) {
+				int capacite = (aleatoire.nextInt(3) == 0 && places + 2 <= placesParMaison) ? 2 : 1;
+				capacites.add(capacite);
+				places += capacite;
+			}
+			String nationalite = NATIONALITES_GENEREES[m % NATIONALITES_GENEREES.length];
+			maisons.add(new MaisonEtudiante(ciup, "Maison " + nationalite + " n°" + (m + 1), "Directeur " + (m + 1),
+					nationalite, (m + 1) + " Bd Jourdan, 75014 Paris", capacites));
+		}
+
+		List<Etudiant> etudiants = new ArrayList<>(nbEtudiants);
+		for (int e = 0; e < nbEtudiants; e++) {
+			String nom = NOMS_GENERES[aleatoire.nextInt(NOMS_GENERES.length)] + "-" + e;
+			String prenom = PRENOMS_GENERES[aleatoire.nextInt(PRENOMS_GENERES.length)];
+			String nationalite = NATIONALITES_GENEREES[aleatoire.nextInt(NATIONALITES_GENEREES.length)];
+			etudiants.add(new Etudiant(ciup, nom, prenom, nationalite, maisons.get(aleatoire.nextInt(nbMaisons))));
+		}
+
+		LocalDateTime debut = LocalDateTime.of(2025, 9, 1, 20, 0);
+		for (MaisonEtudiante maison : maisons) {
+			for (int s = 0; s < 3; s++) {
+				Soiree soiree = new Soiree("Soirée " + (s + 1) + " - " + maison.getNom(),
+						"Soirée d'accueil et de rencontre", debut.plusDays(aleatoire.nextInt(300)));
+				maison.ajouterSoiree(soiree);
+				for (int i = 0; i < 10 && !etudiants.isEmpty(); i++) {
+					soiree.inscrireEtudiantSoiree(etudiants.get(aleatoire.nextInt(etudiants.size())));
+				}
+			}
+		}
+		return ciup;
+	}
+
 }
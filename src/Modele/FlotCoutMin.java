@@ -0,0 +1,152 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Flot maximal de coût minimal sur un graphe orienté à capacités entières.
+ * <p>
+ * La résolution procède par plus courts chemins successifs : à chaque étape, Dijkstra
+ * trouve un chemin augmentant de coût réduit minimal (les potentiels de Johnson gardent
+ * les coûts réduits positifs), et tout le flot que permet sa capacité résiduelle y est poussé.
+ * Les coûts des arcs ajoutés doivent être positifs ou nuls.
+ * </p>
+ *
+ * @version 1.0
+ * @see AffectationCohorte
+ */
+class FlotCoutMin {
+
+    /** Capacité tenant lieu d'infini */
+    static final int INFINI = Integer.MAX_VALUE / 2;
+
+    private final int nbSommets;
+
+    /** Premier arc sortant de chaque sommet (-1 si aucun) */
+    private final int[] premier;
+
+    // Arcs, rangés par paires : l'arc 2k et son arc résiduel 2k + 1
+    private int[] suivant = new int[16];
+    private int[] destination = new int[16];
+    private int[] capacite = new int[16];
+    private long[] cout = new long[16];
+    private int nbArcs;
+
+    /**
+     * Crée un graphe sans arc.
+     *
+     * @param nbSommets le nombre de sommets, numérotés à partir de 0
+     */
+    FlotCoutMin(int nbSommets) {
+        this.nbSommets = nbSommets;
+        this.premier = new int[nbSommets];
+        Arrays.fill(premier, -1);
+    }
+
+    /**
+     * Ajoute un arc.
+     *
+     * @param origine le sommet de départ
+     * @param arrivee le sommet d'arrivée
+     * @param capaciteArc la capacité, positive ou nulle
+     * @param coutUnitaire le coût d'une unité de flot, positif ou nul
+     * @return le numéro de l'arc, pour lire son flot après résolution
+     */
+    int ajouterArc(int origine, int arrivee, int capaciteArc, long coutUnitaire) {
+        if (nbArcs + 2 > destination.length) {
+            int taille = 2 * destination.length;
+            suivant = Arrays.copyOf(suivant, taille);
+            destination = Arrays.copyOf(destination, taille);
+            capacite = Arrays.copyOf(capacite, taille);
+            cout = Arrays.copyOf(cout, taille);
+        }
+        int arc = nbArcs;
+        brancher(arc, origine, arrivee, capaciteArc, coutUnitaire);
+        brancher(arc + 1, arrivee, origine, 0, -coutUnitaire);
+        nbArcs += 2;
+        return arc;
+    }
+
+    private void brancher(int arc, int origine, int arrivee, int capaciteArc, long coutUnitaire) {
+        destination[arc] = arrivee;
+        capacite[arc] = capaciteArc;
+        cout[arc] = coutUnitaire;
+        suivant[arc] = premier[origine];
+        premier[origine] = arc;
+    }
+
+    /**
+     * Retourne le flot passant par un arc, après résolution.
+     *
+     * @param arc le numéro rendu par {@link #ajouterArc}
+     * @return le flot de l'arc
+     */
+    int getFlot(int arc) {
+        return capacite[arc + 1];
+    }
+
+    /** @return le nombre d'arcs ajoutés */
+    int getNbArcs() {
+        return nbArcs / 2;
+    }
+
+    /**
+     * Pousse le flot maximal de la source au puits, au coût minimal.
+     *
+     * @param source le sommet source
+     * @param puits le sommet puits
+     * @return le flot total et son coût
+     */
+    long[] resoudre(int source, int puits) {
+        long[] potentiel = new long[nbSommets];
+        long[] distance = new long[nbSommets];
+        int[] arcArrivee = new int[nbSommets];
+        long flotTotal = 0;
+        long coutTotal = 0;
+        PriorityQueue<long[]> file = new PriorityQueue<>(Comparator.comparingLong(e -> e[0]));
+        while (true) {
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(arcArrivee, -1);
+            distance[source] = 0;
+            file.add(new long[] { 0, source });
+            while (!file.isEmpty()) {
+                long[] entree = file.poll();
+                int sommet = (int) entree[1];
+                if (entree[0] > distance[sommet]) {
+                    continue;
+                }
+                for (int arc = premier[sommet]; arc != -1; arc = suivant[arc]) {
+                    if (capacite[arc] == 0) {
+                        continue;
+                    }
+                    int voisin = destination[arc];
+                    long candidat = distance[sommet] + cout[arc] + potentiel[sommet] - potentiel[voisin];
+                    if (candidat < distance[voisin]) {
+                        distance[voisin] = candidat;
+                        arcArrivee[voisin] = arc;
+                        file.add(new long[] { candidat, voisin });
+                    }
+                }
+            }
+            if (distance[puits] == Long.MAX_VALUE) {
+                return new long[] { flotTotal, coutTotal };
+            }
+            for (int sommet = 0; sommet < nbSommets; sommet++) {
+                if (distance[sommet] != Long.MAX_VALUE) {
+                    potentiel[sommet] += distance[sommet];
+                }
+            }
+
+            int augmentation = INFINI;
+            for (int sommet = puits; sommet != source; sommet = destination[arcArrivee[sommet] ^ 1]) {
+                augmentation = Math.min(augmentation, capacite[arcArrivee[sommet]]);
+            }
+            for (int sommet = puits; sommet != source; sommet = destination[arcArrivee[sommet] ^ 1]) {
+                int arc = arcArrivee[sommet];
+                capacite[arc] -= augmentation;
+                capacite[arc ^ 1] += augmentation;
+                coutTotal += (long) augmentation * cout[arc];
+            }
+            flotTotal += augmentation;
+        }
+    }
+}
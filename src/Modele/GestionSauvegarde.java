@@ -1,50 +1,555 @@
 package Modele;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Classe abstraite pour la gestion de la sauvegarde et du chargement de l'état
- * de l'application CIUP (Cité Internationale Universitaire de Paris) à partir d'un fichier sérialisé.
+ * de l'application CIUP (Cité Internationale Universitaire de Paris) à partir de fichiers
+ * au format binaire {@link CodecBinaireCiup}.
+ * <p>
+ * La sauvegarde est découpée en une racine ({@code ciup.bin} : CIUP, maison internationale
+ * et liste des maisons) et un fichier par maison étudiante dans le répertoire {@code ciup-maisons}.
+ * Seules les maisons relevées comme modifiées par le {@link SuiviModifications} de la CIUP
+ * voient leur fichier réécrit, sous un nouveau numéro de version. Le remplacement atomique
+ * de la racine, qui référence ces versions, valide la sauvegarde ; les versions qui ne sont
+ * plus référencées sont ensuite supprimées.
+ * </p>
+ * <p>
+ * Au chargement, les fichiers sont projetés en mémoire ({@link FileChannel#map}) et seule la racine
+ * est lue : elle porte l'en-tête de chaque maison, ce qui suffit à l'écran d'accueil. Le contenu
+ * d'une maison n'est reconstruit qu'au premier accès ({@link ChargeurMaisonsDiffere}) ; d'ici là,
+ * les sections sont décodées en parallèle en arrière-plan.
+ * </p>
+ * <p>
+ * Les fichiers peuvent être compressés ({@link CompressionSauvegarde}), selon la propriété système
+ * {@value CompressionSauvegarde#PROPRIETE} ou {@link #setCompression}. Chaque fichier indique
+ * sa propre compression : une sauvegarde écrite avec une autre compression reste lisible, et seules
+ * les maisons réécrites adoptent la nouvelle.
+ * </p>
+ * <p>
+ * Les modifications courantes ne réécrivent aucun fichier : elles sont consignées
+ * dans un journal d'opérations ({@link JournalOperations}). Une tâche de fond écrit
+ * périodiquement une sauvegarde puis purge le journal. Au chargement, la dernière
+ * sauvegarde est restaurée et les opérations du journal sont rejouées.
+ * </p>
+ * <p>
+ * Les sauvegardes demandées par l'interface sont regroupées et écrites
+ * en arrière-plan par un {@link PlanificateurSauvegarde}, hors du thread Swing.
+ * Sur le thread du modèle, une sauvegarde se contente de prendre un instantané ({@link InstantaneCiup}),
+ * qui ne recopie que les maisons modifiées ; l'encodage, la compression et l'écriture se font
+ * ensuite en arrière-plan à partir de cet instantané, pendant que le modèle reste modifiable.
+ * </p>
  * @author Otman Benbouziane
  */
 public abstract class GestionSauvegarde {
-	
+
 	 // --------------------------
     //       ATTRIBUT
     // --------------------------
 
-    /** Nom du fichier utilisé pour la sauvegarde de l'objet Ciup */
-    private static final String FICHIER_SAUVEGARDE = "ciup.ser";
-    
+    /** Nom du fichier racine de la sauvegarde, au format {@link CodecBinaireCiup} */
+    static final String FICHIER_SAUVEGARDE = "ciup.bin";
+
+    /** Répertoire contenant un fichier par maison étudiante */
+    static final String REPERTOIRE_MAISONS = "ciup-maisons";
+
+    /** Nom de l'ancien fichier de sauvegarde par sérialisation Java, converti au premier chargement */
+    private static final String FICHIER_SAUVEGARDE_HISTORIQUE = "ciup.ser";
+
+    /** Nom du fichier du journal des opérations postérieures à la sauvegarde */
+    private static final String FICHIER_JOURNAL = "ciup.journal";
+
+    /** Intervalle entre deux compactages du journal, en secondes */
+    private static final long PERIODE_COMPACTAGE_SECONDES = 30;
+
+    /** Durée sans nouvelle demande avant l'écriture d'une sauvegarde demandée, en millisecondes */
+    private static final long DELAI_REGROUPEMENT_MS = 500;
+
+    /** Délai maximal avant l'écriture d'une sauvegarde demandée, en millisecondes */
+    private static final long DELAI_MAXIMAL_MS = 5000;
+
+    /** Journal des opérations */
+    private static final JournalOperations journal = new JournalOperations(new File(FICHIER_JOURNAL));
+
+    /**
+     * Planificateur regroupant les demandes de sauvegarde en écritures de fond.
+     * La capture est faite sur le thread qui modifie le modèle (le thread Swing dans l'application),
+     * pour ne jamais lire le modèle pendant qu'il est modifié.
+     */
+    private static final PlanificateurSauvegarde planificateur =
+            new PlanificateurSauvegarde(DELAI_REGROUPEMENT_MS, DELAI_MAXIMAL_MS, GestionSauvegarde::capturer);
+
+    /** Indique si le compactage périodique et le vidage à la sortie sont en place */
+    private static boolean demarre;
+
+    /** Dernière CIUP sauvegardée ou journalisée, cible des sauvegardes de fond */
+    private static volatile Ciup ciupCourant;
+
+    /** Version du fichier de chaque maison, référencée par la dernière racine capturée */
+    private static final Map<Integer, Integer> versionsMaisons = new HashMap<>();
+
+    /** Dernière version attribuée à un fichier de maison */
+    private static int derniereVersion;
+
+    /** Compression appliquée aux fichiers écrits */
+    private static volatile CompressionSauvegarde compression = CompressionSauvegarde.depuisConfiguration();
+
     // --------------------------
     //       METHODE
     // --------------------------
 
     /**
-     * Sauvegarde l'état de l'objet {@link Ciup} en le sérialisant dans un fichier.
+     * Sauvegarde immédiatement l'état de l'objet {@link Ciup} en réécrivant toutes ses maisons,
+     * puis purge le journal des opérations désormais incluses dans la sauvegarde.
+     * Pour les sauvegardes déclenchées par l'interface, préférer {@link #demanderSauvegarde(Ciup)}.
      *
      * @param ciup l'objet CIUP à sauvegarder
      */
     public static void sauvegarder(Ciup ciup) {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(FICHIER_SAUVEGARDE))) {
-            out.writeObject(ciup);
+        ciupCourant = ciup;
+        ciup.getSuiviModifications().toutModifie();
+        capturer().run();
+    }
+
+    /**
+     * Demande une sauvegarde de la CIUP sans bloquer l'appelant.
+     * Les demandes rapprochées sont regroupées en une seule écriture de fond,
+     * effectuée après une courte période sans nouvelle demande.
+     *
+     * @param ciup l'objet CIUP à sauvegarder
+     */
+    public static void demanderSauvegarde(Ciup ciup) {
+        ciupCourant = ciup;
+        demarrer();
+        planificateur.demander();
+    }
+
+    /**
+     * Écrit sans attendre les sauvegardes demandées qui ne l'ont pas encore été.
+     */
+    public static void vider() {
+        planificateur.vider();
+    }
+
+    /**
+     * Consigne une opération dans le journal, sans réécrire la sauvegarde.
+     * L'opération doit déjà avoir été appliquée au modèle, qui a relevé les maisons
+     * à réécrire à la prochaine sauvegarde.
+     * S'il n'existe encore aucune sauvegarde, elle est écrite à la place.
+     *
+     * @param ciup la CIUP modifiée
+     * @param operation l'opération effectuée
+     */
+    public static void journaliser(Ciup ciup, Operation operation) {
+        if (!new File(FICHIER_SAUVEGARDE).exists()) {
+            sauvegarder(ciup);
+            return;
+        }
+        ciupCourant = ciup;
+        try {
+            journal.ajouter(operation);
+            demarrer();
         } catch (IOException e) {
             e.printStackTrace();
+            sauvegarder(ciup);
         }
     }
 
     /**
-     * Charge un objet {@link Ciup} depuis un fichier de sauvegarde.
+     * Charge un objet {@link Ciup} depuis la sauvegarde, puis rejoue
+     * les opérations consignées dans le journal depuis cette sauvegarde.
+     * Seuls les en-têtes des maisons sont reconstruits immédiatement ; leurs fichiers, projetés
+     * en mémoire, sont décodés en parallèle sur le pool fork-join commun et leur contenu
+     * n'est reconstruit qu'au premier accès.
+     * Une ancienne sauvegarde par sérialisation Java est convertie au format binaire.
      * Si le fichier n'existe pas ou est illisible, retourne {@code null}.
      *
      * @return l'objet CIUP restauré, ou {@code null} en cas d'erreur
      */
     public static Ciup charger() {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(FICHIER_SAUVEGARDE))) {
-            return (Ciup) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        planificateur.vider();
+        try {
+            File historique = new File(FICHIER_SAUVEGARDE_HISTORIQUE);
+            if (!new File(FICHIER_SAUVEGARDE).exists() && historique.exists()) {
+                convertirSauvegardeHistorique(historique);
+            }
+
+            CodecBinaireCiup codec = new CodecBinaireCiup();
+            CodecBinaireCiup.Racine racine = codec.lireRacine(
+                    CompressionSauvegarde.decompresser(new FluxTampon(projeter(new File(FICHIER_SAUVEGARDE)))));
+
+            // Les fichiers sont projetés tout de suite : une version remplacée entre-temps reste lisible
+            int[] identifiants = racine.getIdentifiants();
+            int[] versions = racine.getVersions();
+            Map<Integer, ForkJoinTask<CodecBinaireCiup.SectionMaison>> sections = new HashMap<>();
+            for (int i = 0; i < identifiants.length; i++) {
+                ByteBuffer tampon = projeter(fichierMaison(identifiants[i], versions[i]));
+                sections.put(identifiants[i], ForkJoinPool.commonPool().submit(() -> lireMaison(tampon)));
+            }
+            Ciup ciup = new ChargeurMaisonsDiffere(sections).assembler(racine);
+            ciup.getSuiviModifications().reinitialiser();
+
+            synchronized (GestionSauvegarde.class) {
+                versionsMaisons.clear();
+                derniereVersion = 0;
+                for (int i = 0; i < identifiants.length; i++) {
+                    versionsMaisons.put(identifiants[i], versions[i]);
+                    derniereVersion = Math.max(derniereVersion, versions[i]);
+                }
+            }
+
+            int nbRejouees = journal.rejouer(ciup, racine.getNumeroJournal());
+            if (nbRejouees > 0) {
+                System.out.println(nbRejouees + " opération(s) rejouée(s) depuis le journal.");
+            }
+            ciupCourant = ciup;
+            return ciup;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
             System.out.println("Aucune sauvegarde trouvée ou erreur de lecture.");
             return null;
         }
     }
+
+    /**
+     * Lit uniquement le résumé chiffré de la sauvegarde (totaux et occupation de chaque maison),
+     * sans reconstruire le modèle ni rejouer le journal. Pour une sauvegarde antérieure au résumé,
+     * la CIUP est chargée puis résumée.
+     *
+     * @return le résumé de la dernière sauvegarde, ou {@code null} s'il n'existe aucune sauvegarde lisible
+     */
+    public static ResumeCiup chargerResume() {
+        File fichier = new File(FICHIER_SAUVEGARDE);
+        if (fichier.exists()) {
+            try (InputStream in = CompressionSauvegarde.decompresser(
+                    new BufferedInputStream(new FileInputStream(fichier)))) {
+                ResumeCiup resume = new CodecBinaireCiup().lireResume(in);
+                if (resume != null) {
+                    return resume;
+                }
+            } catch (IOException e) {
+                System.out.println("Résumé de la sauvegarde illisible : " + e.getMessage());
+            }
+        }
+        Ciup ciup = charger();
+        return (ciup == null) ? null : ResumeCiup.calculer(ciup, journal.getDernierNumero());
+    }
+
+    /**
+     * Convertit une sauvegarde par sérialisation Java ({@code ciup.ser}) au format binaire,
+     * maison par maison ({@link MigrationHistorique}), puis vérifie un échantillon de maisons relues.
+     * Le numéro de journal éventuellement écrit à la suite de l'objet est conservé,
+     * et le fichier source est laissé intact.
+     *
+     * @param source le fichier sérialisé à convertir
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws ClassNotFoundException si le fichier source contient des classes inconnues
+     */
+    public static void convertirSauvegardeHistorique(File source) throws IOException, ClassNotFoundException {
+        MigrationHistorique.Bilan bilan = new MigrationHistorique(source).migrer();
+        if (!bilan.estVerifie()) {
+            throw new IOException("Conversion de " + source + " non conforme : " + bilan.getMaisonsDivergentes());
+        }
+    }
+
+    /**
+     * Purge le journal jusqu'au numéro d'opération inclus dans une sauvegarde écrite
+     * hors de cette classe, comme une conversion de {@code ciup.ser}.
+     *
+     * @param numero le numéro de la dernière opération incluse
+     * @throws IOException en cas d'erreur d'écriture du journal
+     */
+    static synchronized void compacterJournal(long numero) throws IOException {
+        journal.compacter(numero);
+    }
+
+    /**
+     * Définit l'exécuteur du thread propriétaire du modèle, sur lequel les sauvegardes
+     * de fond capturent l'état de la CIUP.
+     *
+     * @param executeur l'exécuteur du thread du modèle (par exemple {@code SwingUtilities::invokeLater})
+     */
+    public static void setExecuteurModele(Executor executeur) {
+        planificateur.setExecuteurModele(executeur);
+    }
+
+    /**
+     * Définit la compression des fichiers écrits par les prochaines sauvegardes.
+     * Les fichiers existants restent lisibles quelle que soit leur compression.
+     *
+     * @param compression la compression à appliquer
+     */
+    public static void setCompression(CompressionSauvegarde compression) {
+        GestionSauvegarde.compression = Objects.requireNonNull(compression);
+    }
+
+    /**
+     * Retourne la compression appliquée aux fichiers écrits.
+     *
+     * @return la compression courante
+     */
+    public static CompressionSauvegarde getCompression() {
+        return compression;
+    }
+
+    /**
+     * Retourne le nombre de sauvegardes demandées depuis le démarrage.
+     *
+     * @return le nombre de sauvegardes demandées
+     */
+    public static long getNbSauvegardesDemandees() {
+        return planificateur.getNbDemandes();
+    }
+
+    /**
+     * Retourne le nombre de sauvegardes écrites en arrière-plan depuis le démarrage.
+     *
+     * @return le nombre de sauvegardes effectuées
+     */
+    public static long getNbSauvegardesEffectuees() {
+        return planificateur.getNbEcritures();
+    }
+
+    /**
+     * Met en place, au premier besoin, le compactage périodique du journal
+     * et l'écriture des sauvegardes en attente à la fermeture de l'application.
+     */
+    private static synchronized void demarrer() {
+        if (demarre) {
+            return;
+        }
+        demarre = true;
+        planificateur.installerVidageALaSortie();
+        planificateur.programmerPeriodiquement(() -> {
+            if (journal.getNbEnregistrements() > 0) {
+                planificateur.demander();
+            }
+        }, PERIODE_COMPACTAGE_SECONDES);
+    }
+
+    /**
+     * Capture l'état de la CIUP courante et renvoie l'écriture correspondante.
+     * Doit être appelée sur le thread du modèle ; l'écriture peut être exécutée ailleurs.
+     */
+    private static Runnable capturer() {
+        Ciup ciup = ciupCourant;
+        if (ciup == null) {
+            return () -> { };
+        }
+        Sauvegarde sauvegarde = capturer(ciup, journal.getDernierNumero());
+        return () -> {
+            try {
+                ecrireSauvegarde(sauvegarde);
+            } catch (IOException e) {
+                e.printStackTrace();
+                ciup.getSuiviModifications().toutModifie();
+            }
+        };
+    }
+
+    /**
+     * Prend l'instantané de la CIUP et de ses maisons modifiées depuis la dernière capture,
+     * en attribuant une nouvelle version aux maisons à réécrire.
+     */
+    private static synchronized Sauvegarde capturer(Ciup ciup, long numero) {
+        EnsembleModifications modifications = ciup.getSuiviModifications().extraire();
+        Set<Integer> aReecrire = maisonsReferencant(ciup, modifications.getEtudiants());
+        List<MaisonEtudiante> maisons = ciup.getListeMaisonsEtudiantes();
+        int[] versions = new int[maisons.size()];
+        Map<File, InstantaneMaison> fichiers = new LinkedHashMap<>();
+        Map<Integer, Integer> nouvellesVersions = new HashMap<>();
+
+        for (int i = 0; i < maisons.size(); i++) {
+            MaisonEtudiante maison = maisons.get(i);
+            int identifiant = maison.getIdentifiant();
+            Integer version = versionsMaisons.get(identifiant);
+            if (version == null || modifications.contient(maison) || aReecrire.contains(identifiant)
+                    || !fichierMaison(identifiant, version).exists()) {
+                version = ++derniereVersion;
+                InstantaneMaison contenu = maison.instantane(true);
+                ciup.getSuiviModifications().maisonReecrite(contenu);
+                fichiers.put(fichierMaison(identifiant, version), contenu);
+            }
+            versions[i] = version;
+            nouvellesVersions.put(identifiant, version);
+        }
+
+        InstantaneCiup instantane = ciup.instantane();
+
+        versionsMaisons.clear();
+        versionsMaisons.putAll(nouvellesVersions);
+
+        Set<String> references = new HashSet<>();
+        for (Map.Entry<Integer, Integer> entree : nouvellesVersions.entrySet()) {
+            references.add(fichierMaison(entree.getKey(), entree.getValue()).getName());
+        }
+        return new Sauvegarde(fichiers, instantane, versions, references, numero, compression);
+    }
+
+    /**
+     * Retourne les identifiants des maisons dont la sauvegarde mentionne l'un des étudiants donnés,
+     * en liste d'attente ou parmi les inscrits d'une soirée. Leur maison de résidence
+     * est déjà relevée par le suivi des modifications.
+     * <p>
+     * Les maisons sont retrouvées par l'index des références du {@link SuiviModifications} :
+     * les maisons non chargées y sont relevées depuis leur section, sans être chargées.
+     * </p>
+     */
+    static Set<Integer> maisonsReferencant(Ciup ciup, Set<Etudiant> etudiants) {
+        if (etudiants.isEmpty()) {
+            return Collections.emptySet();
+        }
+        for (MaisonEtudiante maison : ciup.getListeMaisonsEtudiantes()) {
+            maison.indexerReferences();
+        }
+        List<Integer> numeros = new ArrayList<>(etudiants.size());
+        for (Etudiant etudiant : etudiants) {
+            numeros.add(etudiant.getIdentifiant());
+        }
+        return ciup.getSuiviModifications().maisonsReferencant(numeros);
+    }
+
+    /**
+     * Encode, compresse et écrit les fichiers des maisons réécrites, remplace atomiquement la racine qui les référence,
+     * supprime les fichiers de maisons qui ne sont plus référencés, puis purge le journal
+     * jusqu'au numéro d'opération inclus dans cette sauvegarde.
+     */
+    private static synchronized void ecrireSauvegarde(Sauvegarde sauvegarde) throws IOException {
+        CodecBinaireCiup codec = new CodecBinaireCiup();
+        Files.createDirectories(Paths.get(REPERTOIRE_MAISONS));
+        for (Map.Entry<File, InstantaneMaison> fichier : sauvegarde.fichiers.entrySet()) {
+            ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+            codec.ecrireMaison(fichier.getValue(), tampon);
+            ecrireFichier(fichier.getKey().toPath(), sauvegarde.compression.compresser(tampon.toByteArray()));
+        }
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        codec.ecrireRacine(sauvegarde.racine, sauvegarde.numero, sauvegarde.versions, tampon);
+        ecrireFichier(Paths.get(FICHIER_SAUVEGARDE), sauvegarde.compression.compresser(tampon.toByteArray()));
+
+        File[] existants = new File(REPERTOIRE_MAISONS).listFiles();
+        if (existants != null) {
+            for (File existant : existants) {
+                if (!sauvegarde.references.contains(existant.getName())) {
+                    existant.delete();
+                }
+            }
+        }
+        journal.compacter(sauvegarde.numero);
+    }
+
+    /**
+     * Décode le fichier projeté d'une maison ; exécuté en arrière-plan au chargement.
+     */
+    private static CodecBinaireCiup.SectionMaison lireMaison(ByteBuffer tampon) {
+        try {
+            return new CodecBinaireCiup().lireMaison(CompressionSauvegarde.decompresser(new FluxTampon(tampon)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Projette un fichier en mémoire, en lecture seule.
+     */
+    private static ByteBuffer projeter(File fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+    }
+
+    /**
+     * Retourne le fichier contenant une version donnée d'une maison.
+     */
+    static File fichierMaison(int identifiant, int version) {
+        return new File(REPERTOIRE_MAISONS, "maison-" + identifiant + "-" + version + ".bin");
+    }
+
+    /**
+     * Écrit un fichier dans un fichier temporaire voisin, puis le renomme sur la cible.
+     */
+    static void ecrireFichier(Path cible, byte[] octets) throws IOException {
+        Path temporaire = cible.resolveSibling(cible.getFileName() + ".tmp");
+        Files.write(temporaire, octets);
+        try {
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaire, cible, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flux de lecture sur un tampon d'octets, comme un fichier projeté en mémoire.
+     */
+    private static class FluxTampon extends InputStream {
+
+        /** Tampon lu, avec sa propre position */
+        private final ByteBuffer tampon;
+
+        private FluxTampon(ByteBuffer tampon) {
+            this.tampon = tampon.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return tampon.hasRemaining() ? tampon.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] octets, int debut, int longueur) {
+            if (longueur == 0) {
+                return 0;
+            }
+            if (!tampon.hasRemaining()) {
+                return -1;
+            }
+            int lus = Math.min(longueur, tampon.remaining());
+            tampon.get(octets, debut, lus);
+            return lus;
+        }
+
+        @Override
+        public int available() {
+            return tampon.remaining();
+        }
+    }
+
+    /**
+     * État capturé d'une sauvegarde, prêt à être écrit sur disque.
+     */
+    private static class Sauvegarde {
+
+        /** Fichiers des maisons réécrites et l'instantané de leur maison */
+        private final Map<File, InstantaneMaison> fichiers;
+
+        /** Instantané de la CIUP, pour la racine */
+        private final InstantaneCiup racine;
+
+        /** Version du fichier de chaque maison, dans l'ordre de la CIUP */
+        private final int[] versions;
+
+        /** Noms des fichiers de maisons référencés par la racine */
+        private final Set<String> references;
+
+        /** Numéro de la dernière opération incluse */
+        private final long numero;
+
+        /** Compression à appliquer, fixée à la capture */
+        private final CompressionSauvegarde compression;
+
+        private Sauvegarde(Map<File, InstantaneMaison> fichiers, InstantaneCiup racine, int[] versions,
+                           Set<String> references, long numero, CompressionSauvegarde compression) {
+            this.fichiers = fichiers;
+            this.racine = racine;
+            this.versions = versions;
+            this.references = references;
+            this.numero = numero;
+            this.compression = compression;
+        }
+    }
 }
@@ -0,0 +1,329 @@
+package Modele;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nombre d'étudiants logés par nationalité dans une maison étudiante.
+ * <p>
+ * Chaque nationalité reçoit une fois pour toutes un identifiant entier, partagé par toutes
+ * les maisons ; les effectifs d'une maison sont des compteurs {@code int} rangés à cet indice.
+ * L'incrémentation, la décrémentation et la lecture d'un effectif ou d'un pourcentage
+ * se font donc en temps constant, sans recherche dans une liste ni entier emballé.
+ * </p>
+ * <p>
+ * Comme l'index des nationalités de la CIUP, l'histogramme ignore les accents, la casse et les
+ * espaces de bord ({@link Ciup#normaliserNationalite}) : « Français » et « francais » partagent un
+ * identifiant et un effectif, affiché sous la graphie rencontrée la première dans la maison.
+ * Chaque graphie garde son identifiant en cache, pour ne la normaliser qu'une fois.
+ * </p>
+ * <p>
+ * Les nationalités sont aussi retenues dans l'ordre de leur première apparition,
+ * qui est celui des sauvegardes. Une nationalité dont l'effectif retombe à zéro y reste.
+ * Les identifiants ne valent que pour l'exécution en cours : ils ne sont jamais sauvegardés.
+ * </p>
+ * <p>
+ * Les modifications sont réservées à {@link MaisonEtudiante}, sur le thread du modèle.
+ * </p>
+ *
+ * @version 1.0
+ * @see MaisonEtudiante#getHistogrammeNationalites()
+ */
+public class HistogrammeNationalites {
+
+    // --------------------------
+    //   IDENTIFIANTS PARTAGÉS
+    // --------------------------
+
+    /** Identifiant de chaque graphie rencontrée (la nationalité null ou vide a l'identifiant 0) */
+    private static final Map<String, Integer> IDENTIFIANTS = new ConcurrentHashMap<>();
+
+    /** Identifiant de chaque nationalité normalisée */
+    private static final Map<String, Integer> PAR_NATIONALITE_NORMALISEE = new HashMap<>();
+
+    /** Nombre d'identifiants attribués, celui de la nationalité null compris */
+    private static int nbIdentifiants = 1;
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Effectif de chaque nationalité, à l'indice de son identifiant */
+    private int[] effectifs = new int[0];
+
+    /** Rang de chaque nationalité dans {@link #ordre}, plus un (0 si absente) */
+    private int[] rangs = new int[0];
+
+    /** Graphie de chaque nationalité présente, la première rencontrée dans cet histogramme */
+    private String[] libelles = new String[0];
+
+    /** Identifiants des nationalités présentes, dans l'ordre de leur première apparition */
+    private int[] ordre = new int[4];
+
+    /** Nombre de nationalités présentes */
+    private int nbNationalites;
+
+    /** Nombre total d'étudiants comptés */
+    private int total;
+
+    // --------------------------
+    //      CONSTRUCTEURS
+    // --------------------------
+
+    /**
+     * Crée un histogramme vide.
+     */
+    HistogrammeNationalites() {
+    }
+
+    /**
+     * Compte les nationalités d'une liste d'étudiants.
+     *
+     * @param etudiants les étudiants logés
+     * @return l'histogramme correspondant
+     */
+    static HistogrammeNationalites compter(List<Etudiant> etudiants) {
+        HistogrammeNationalites histogramme = new HistogrammeNationalites();
+        for (Etudiant etudiant : etudiants) {
+            histogramme.incrementer(etudiant.getNationalite());
+        }
+        return histogramme;
+    }
+
+    /**
+     * Recrée un histogramme lu dans une sauvegarde.
+     *
+     * @param nationalites les nationalités, dans l'ordre de première apparition
+     * @param effectifs l'effectif de chacune
+     * @return l'histogramme correspondant
+     */
+    static HistogrammeNationalites restaurer(String[] nationalites, int[] effectifs) {
+        HistogrammeNationalites histogramme = new HistogrammeNationalites();
+        for (int i = 0; i < nationalites.length; i++) {
+            int id = histogramme.ajouter(nationalites[i]);
+            histogramme.effectifs[id] += effectifs[i];
+            histogramme.total += effectifs[i];
+        }
+        return histogramme;
+    }
+
+    // --------------------------
+    //       MODIFICATIONS
+    // --------------------------
+
+    /**
+     * Ajoute une nationalité avec un effectif nul, si elle n'est pas déjà présente.
+     *
+     * @param nationalite la nationalité
+     * @return son identifiant
+     */
+    int ajouter(String nationalite) {
+        int id = identifiant(nationalite);
+        if (id >= rangs.length) {
+            int taille = Math.max(id + 1, 2 * rangs.length);
+            effectifs = Arrays.copyOf(effectifs, taille);
+            rangs = Arrays.copyOf(rangs, taille);
+            libelles = Arrays.copyOf(libelles, taille);
+        }
+        if (rangs[id] == 0) {
+            libelles[id] = nationalite;
+            if (nbNationalites == ordre.length) {
+                ordre = Arrays.copyOf(ordre, 2 * ordre.length);
+            }
+            ordre[nbNationalites++] = id;
+            rangs[id] = nbNationalites;
+        }
+        return id;
+    }
+
+    /**
+     * Compte un étudiant de plus pour une nationalité.
+     *
+     * @param nationalite la nationalité de l'étudiant
+     */
+    void incrementer(String nationalite) {
+        int id = ajouter(nationalite);
+        effectifs[id]++;
+        total++;
+    }
+
+    /**
+     * Compte un étudiant de moins pour une nationalité. Sans effet si son effectif est nul.
+     *
+     * @param nationalite la nationalité de l'étudiant
+     */
+    void decrementer(String nationalite) {
+        Integer id = identifiantConnu(nationalite);
+        if (id != null && id < effectifs.length && effectifs[id] > 0) {
+            effectifs[id]--;
+            total--;
+        }
+    }
+
+    // --------------------------
+    //        CONSULTATION
+    // --------------------------
+
+    /**
+     * Retourne le nombre d'étudiants d'une nationalité.
+     *
+     * @param nationalite la nationalité
+     * @return son effectif, 0 si elle est absente
+     */
+    public int getEffectif(String nationalite) {
+        Integer id = identifiantConnu(nationalite);
+        return (id != null && id < effectifs.length) ? effectifs[id] : 0;
+    }
+
+    /**
+     * Retourne la part d'une nationalité parmi les étudiants comptés.
+     *
+     * @param nationalite la nationalité
+     * @return le pourcentage d'étudiants de cette nationalité (0 si aucun étudiant)
+     */
+    public double getPourcentage(String nationalite) {
+        return (total > 0) ? ((double) getEffectif(nationalite) * 100) / total : 0.00;
+    }
+
+    /**
+     * Retourne la nationalité représentant plus de la moitié des étudiants comptés.
+     *
+     * @return cette nationalité, ou null s'il n'y en a pas
+     */
+    public String getMajoritaire() {
+        for (int rang = 0; rang < nbNationalites; rang++) {
+            if (effectifs[ordre[rang]] * 2 > total) {
+                return libelles[ordre[rang]];
+            }
+        }
+        return null;
+    }
+
+    /** @return le nombre total d'étudiants comptés */
+    public int getTotal() {
+        return total;
+    }
+
+    /** @return le nombre de nationalités présentes */
+    public int getNbNationalites() {
+        return nbNationalites;
+    }
+
+    /**
+     * Retourne une nationalité selon son rang de première apparition.
+     *
+     * @param rang le rang, de 0 à {@link #getNbNationalites()} exclu
+     * @return la nationalité
+     */
+    public String getNationalite(int rang) {
+        return libelles[ordre[rang]];
+    }
+
+    /**
+     * Retourne l'effectif d'une nationalité selon son rang de première apparition.
+     *
+     * @param rang le rang, de 0 à {@link #getNbNationalites()} exclu
+     * @return l'effectif
+     */
+    public int getEffectifAuRang(int rang) {
+        return effectifs[ordre[rang]];
+    }
+
+    /**
+     * Retourne les nationalités présentes, dans l'ordre de leur première apparition.
+     *
+     * @return une copie de la liste des nationalités
+     */
+    public List<String> getNationalites() {
+        return Arrays.asList(tableauNationalites());
+    }
+
+    /**
+     * Retourne les nationalités présentes dans un tableau, pour les sauvegardes.
+     */
+    String[] tableauNationalites() {
+        String[] nationalites = new String[nbNationalites];
+        for (int rang = 0; rang < nbNationalites; rang++) {
+            nationalites[rang] = libelles[ordre[rang]];
+        }
+        return nationalites;
+    }
+
+    /**
+     * Retourne les effectifs dans l'ordre de {@link #tableauNationalites()}, pour les sauvegardes.
+     */
+    int[] tableauEffectifs() {
+        int[] tableau = new int[nbNationalites];
+        for (int rang = 0; rang < nbNationalites; rang++) {
+            tableau[rang] = effectifs[ordre[rang]];
+        }
+        return tableau;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder("HistogrammeNationalites[");
+        for (int rang = 0; rang < nbNationalites; rang++) {
+            if (rang > 0) {
+                texte.append(", ");
+            }
+            texte.append(getNationalite(rang)).append('=').append(getEffectifAuRang(rang));
+        }
+        return texte.append(']').toString();
+    }
+
+    // --------------------------
+    //   IDENTIFIANTS PARTAGÉS
+    // --------------------------
+
+    /** Clé d'une nationalité dans la table des identifiants, qui n'accepte pas null */
+    private static String cle(String nationalite) {
+        return (nationalite == null) ? "\u0000" : nationalite;
+    }
+
+    /**
+     * Retourne l'identifiant d'une nationalité, en lui en attribuant un à sa première rencontre.
+     */
+    private static int identifiant(String nationalite) {
+        Integer id = IDENTIFIANTS.get(cle(nationalite));
+        return (id != null) ? id : enregistrer(nationalite, true);
+    }
+
+    /**
+     * Retourne l'identifiant d'une nationalité déjà rencontrée, sous cette graphie ou une autre.
+     *
+     * @return l'identifiant, ou null si la nationalité n'a jamais été rencontrée
+     */
+    private static Integer identifiantConnu(String nationalite) {
+        Integer id = IDENTIFIANTS.get(cle(nationalite));
+        if (id != null) {
+            return id;
+        }
+        int connu = enregistrer(nationalite, false);
+        return (connu >= 0) ? connu : null;
+    }
+
+    /**
+     * Retrouve l'identifiant d'une graphie par sa nationalité normalisée et le met en cache,
+     * ou en attribue un nouveau si demandé.
+     *
+     * @return l'identifiant, ou -1 si la nationalité est inconnue et ne doit pas être ajoutée
+     */
+    private static synchronized int enregistrer(String nationalite, boolean ajouter) {
+        Integer id = IDENTIFIANTS.get(cle(nationalite));
+        if (id != null) {
+            return id;
+        }
+        String normalisee = Ciup.normaliserNationalite(nationalite);
+        id = (normalisee == null) ? Integer.valueOf(0) : PAR_NATIONALITE_NORMALISEE.get(normalisee);
+        if (id == null) {
+            if (!ajouter) {
+                return -1;
+            }
+            id = nbIdentifiants++;
+            PAR_NATIONALITE_NORMALISEE.put(normalisee, id);
+        }
+        IDENTIFIANTS.put(cle(nationalite), id);
+        return id;
+    }
+}
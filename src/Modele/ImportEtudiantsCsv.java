@@ -0,0 +1,466 @@
+package Modele;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Import en masse d'étudiants depuis un fichier CSV, par exemple les admissions de la rentrée.
+ * <p>
+ * Le fichier commence par une ligne d'en-tête nommant les colonnes {@code nom}, {@code prenom},
+ * {@code nationalite} et, facultativement, {@code souhait} (nom de la maison souhaitée),
+ * dans un ordre quelconque ; les accents et la casse des noms de colonnes sont ignorés.
+ * Le séparateur ({@code ,} ou {@code ;}) est déduit de l'en-tête. Les champs peuvent être
+ * entre guillemets, un guillemet y étant doublé.
+ * </p>
+ * <p>
+ * Le fichier est lu en flux, par lots de lignes : chaque lot est analysé et validé, puis ses
+ * étudiants sont affectés en une passe, sans passer par le constructeur d'{@link Etudiant}
+ * qui parcourt les maisons pour chaque étudiant. Les maisons sont indexées une seule fois
+ * par nom pour tout l'import, la maison nationale est trouvée par l'index de la CIUP
+ * ({@link Ciup#getMaisonNationale(String)}), et les étudiants, tous nouveaux, sont inscrits
+ * sans rechercher leur présence dans les listes d'attente. Seul le lot courant est gardé en mémoire,
+ * quelle que soit la taille du fichier. Une ligne est rejetée si un champ obligatoire manque,
+ * si la maison souhaitée n'existe pas, ou si l'étudiant (même nom et prénom) existe déjà
+ * dans la CIUP ou plus haut dans le fichier.
+ * </p>
+ * <p>
+ * L'import ne journalise pas les inscriptions une à une : la CIUP est enregistrée une seule
+ * fois à la fin par le dépôt fourni. Doit être appelé sur le thread qui modifie le modèle.
+ * </p>
+ *
+ * @version 1.0
+ * @see Rapport
+ */
+public class ImportEtudiantsCsv {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Bilan d'un import : lignes lues, étudiants importés, rejets et débit.
+     */
+    public static class Rapport {
+
+        /** Nombre maximal de rejets détaillés conservés */
+        public static final int MAX_REJETS_DETAILLES = 100;
+
+        private long nbLignes;
+        private long nbImportes;
+        private long nbLoges;
+        private long nbEnAttente;
+        private long nbRejets;
+        private final List<String> rejets = new ArrayList<>();
+        private long dureeImportNanos;
+        private long dureeEnregistrementNanos;
+
+        private Rapport() {
+        }
+
+        private void rejeter(long ligne, String motif) {
+            nbRejets++;
+            if (rejets.size() < MAX_REJETS_DETAILLES) {
+                rejets.add("ligne " + ligne + " : " + motif);
+            }
+        }
+
+        /** @return le nombre de lignes de données lues (hors en-tête et lignes vides) */
+        public long getNbLignes() {
+            return nbLignes;
+        }
+
+        /** @return le nombre d'étudiants créés */
+        public long getNbImportes() {
+            return nbImportes;
+        }
+
+        /** @return le nombre d'étudiants importés ayant obtenu une chambre */
+        public long getNbLoges() {
+            return nbLoges;
+        }
+
+        /** @return le nombre d'étudiants importés placés en liste d'attente */
+        public long getNbEnAttente() {
+            return nbEnAttente;
+        }
+
+        /** @return le nombre de lignes rejetées */
+        public long getNbRejets() {
+            return nbRejets;
+        }
+
+        /**
+         * Retourne le détail des premiers rejets (au plus {@value #MAX_REJETS_DETAILLES}),
+         * sous la forme "ligne n : motif".
+         *
+         * @return la liste non modifiable des rejets détaillés
+         */
+        public List<String> getRejets() {
+            return Collections.unmodifiableList(rejets);
+        }
+
+        /** @return la durée de lecture, validation et affectation, en millisecondes */
+        public double getDureeImportMs() {
+            return dureeImportNanos / 1e6;
+        }
+
+        /** @return la durée de l'enregistrement final, en millisecondes */
+        public double getDureeEnregistrementMs() {
+            return dureeEnregistrementNanos / 1e6;
+        }
+
+        /** @return le nombre de lignes traitées par seconde, hors enregistrement */
+        public double getLignesParSeconde() {
+            return (dureeImportNanos == 0) ? 0 : nbLignes * 1e9 / dureeImportNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            texte.append(nbLignes).append(" ligne(s) lue(s), ").append(nbImportes).append(" étudiant(s) importé(s) (")
+                    .append(nbLoges).append(" logé(s), ").append(nbEnAttente).append(" en attente), ")
+                    .append(nbRejets).append(" rejet(s)\n");
+            texte.append(String.format("import : %.1f ms (%.0f lignes/s), enregistrement : %.1f ms",
+                    getDureeImportMs(), getLignesParSeconde(), getDureeEnregistrementMs()));
+            for (String rejet : rejets) {
+                texte.append("\n  ").append(rejet);
+            }
+            if (nbRejets > rejets.size()) {
+                texte.append("\n  ... ").append(nbRejets - rejets.size()).append(" autre(s) rejet(s)");
+            }
+            return texte.toString();
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre de lignes lues par lot par défaut */
+    public static final int TAILLE_LOT_PAR_DEFAUT = 1000;
+
+    /** CIUP dans laquelle les étudiants sont importés */
+    private final Ciup ciup;
+
+    /** Nombre de lignes lues par lot */
+    private final int tailleLot;
+
+    /** Maisons par nom en minuscules, pour la colonne souhait */
+    private final Map<String, MaisonEtudiante> maisonsParNom = new HashMap<>();
+
+    /** Étudiants déjà présents ou importés, par nom et prénom */
+    private final Set<String> etudiantsConnus = new HashSet<>();
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Prépare un import dans une CIUP, avec des lots de {@value #TAILLE_LOT_PAR_DEFAUT} lignes.
+     *
+     * @param ciup la CIUP dans laquelle importer
+     */
+    public ImportEtudiantsCsv(Ciup ciup) {
+        this(ciup, TAILLE_LOT_PAR_DEFAUT);
+    }
+
+    /**
+     * Prépare un import dans une CIUP.
+     *
+     * @param ciup la CIUP dans laquelle importer
+     * @param tailleLot le nombre de lignes lues et affectées par lot
+     */
+    public ImportEtudiantsCsv(Ciup ciup, int tailleLot) {
+        if (tailleLot <= 0) {
+            throw new IllegalArgumentException("Taille de lot invalide : " + tailleLot);
+        }
+        this.ciup = ciup;
+        this.tailleLot = tailleLot;
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Importe un fichier CSV encodé en UTF-8, puis enregistre la CIUP par le dépôt.
+     *
+     * @param fichier le fichier à importer
+     * @param depot le dépôt par lequel enregistrer la CIUP à la fin (null pour ne pas enregistrer)
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture ou d'en-tête invalide
+     */
+    public Rapport importer(File fichier, DepotCiup depot) throws IOException {
+        try (Reader lecteur = new InputStreamReader(new FileInputStream(fichier), StandardCharsets.UTF_8)) {
+            return importer(lecteur, depot);
+        }
+    }
+
+    /**
+     * Importe des lignes CSV, puis enregistre la CIUP par le dépôt.
+     * Les lignes valides des lots déjà traités restent importées si une erreur de lecture survient.
+     *
+     * @param source le texte CSV, en-tête compris
+     * @param depot le dépôt par lequel enregistrer la CIUP à la fin (null pour ne pas enregistrer)
+     * @return le bilan de l'import
+     * @throws IOException en cas d'erreur de lecture ou d'en-tête invalide
+     */
+    public Rapport importer(Reader source, DepotCiup depot) throws IOException {
+        Rapport rapport = new Rapport();
+        long debut = System.nanoTime();
+        LecteurCsv lecteur = new LecteurCsv(new BufferedReader(source, 1 << 16));
+        int[] colonnes = lireEntete(lecteur);
+        indexerCiup();
+
+        List<String[]> lot = new ArrayList<>(tailleLot);
+        List<Long> numeros = new ArrayList<>(tailleLot);
+        String[] champs;
+        while ((champs = lecteur.lireLigne()) != null) {
+            if (champs.length == 1 && champs[0].trim().isEmpty()) {
+                continue;
+            }
+            rapport.nbLignes++;
+            lot.add(champs);
+            numeros.add(lecteur.getNumeroLigne());
+            if (lot.size() == tailleLot) {
+                traiterLot(lot, numeros, colonnes, rapport);
+                lot.clear();
+                numeros.clear();
+            }
+        }
+        traiterLot(lot, numeros, colonnes, rapport);
+        rapport.dureeImportNanos = System.nanoTime() - debut;
+
+        if (depot != null && rapport.nbImportes > 0) {
+            long debutEnregistrement = System.nanoTime();
+            depot.sauvegarder(ciup);
+            rapport.dureeEnregistrementNanos = System.nanoTime() - debutEnregistrement;
+        }
+        return rapport;
+    }
+
+    /**
+     * Lit l'en-tête et retourne la position des colonnes nom, prénom, nationalité et souhait
+     * (-1 pour une colonne souhait absente).
+     */
+    private static int[] lireEntete(LecteurCsv lecteur) throws IOException {
+        String[] entete = lecteur.lireEntete();
+        if (entete == null) {
+            throw new IOException("Fichier CSV vide : en-tête attendu");
+        }
+        int[] colonnes = { -1, -1, -1, -1 };
+        String[] noms = { "nom", "prenom", "nationalite", "souhait" };
+        for (int i = 0; i < entete.length; i++) {
+            String colonne = normaliser(entete[i]);
+            for (int c = 0; c < noms.length; c++) {
+                if (colonne.equals(noms[c]) && colonnes[c] == -1) {
+                    colonnes[c] = i;
+                }
+            }
+        }
+        for (int c = 0; c < 3; c++) {
+            if (colonnes[c] == -1) {
+                throw new IOException("Colonne \"" + noms[c] + "\" absente de l'en-tête CSV");
+            }
+        }
+        return colonnes;
+    }
+
+    /**
+     * Indexe les maisons par nom et les étudiants déjà présents.
+     */
+    private void indexerCiup() {
+        maisonsParNom.clear();
+        etudiantsConnus.clear();
+        for (MaisonEtudiante maison : ciup.getListeMaisonsEtudiantes()) {
+            if (maison.getNom() != null) {
+                maisonsParNom.putIfAbsent(maison.getNom().toLowerCase(Locale.ROOT), maison);
+            }
+            for (Etudiant etudiant : maison.getListeEtudiante()) {
+                etudiantsConnus.add(cle(etudiant.getNom(), etudiant.getPrenom()));
+            }
+            for (Etudiant etudiant : maison.getlisteAttente()) {
+                etudiantsConnus.add(cle(etudiant.getNom(), etudiant.getPrenom()));
+            }
+        }
+    }
+
+    /**
+     * Valide les lignes d'un lot, puis affecte ses étudiants en une passe.
+     */
+    private void traiterLot(List<String[]> lot, List<Long> numeros, int[] colonnes, Rapport rapport) {
+        List<Etudiant> valides = new ArrayList<>(lot.size());
+        List<Long> lignesValides = new ArrayList<>(lot.size());
+        for (int i = 0; i < lot.size(); i++) {
+            String[] champs = lot.get(i);
+            long numero = numeros.get(i);
+            String nom = champ(champs, colonnes[0]);
+            String prenom = champ(champs, colonnes[1]);
+            String nationalite = champ(champs, colonnes[2]);
+            String souhait = champ(champs, colonnes[3]);
+            if (nom.isEmpty() || prenom.isEmpty() || nationalite.isEmpty()) {
+                rapport.rejeter(numero, "nom, prénom et nationalité sont obligatoires");
+                continue;
+            }
+            MaisonEtudiante maisonSouhaitee = null;
+            if (!souhait.isEmpty()) {
+                maisonSouhaitee = maisonsParNom.get(souhait.toLowerCase(Locale.ROOT));
+                if (maisonSouhaitee == null) {
+                    rapport.rejeter(numero, "la maison souhaitée \"" + souhait + "\" n'existe pas");
+                    continue;
+                }
+            }
+            if (!etudiantsConnus.add(cle(nom, prenom))) {
+                rapport.rejeter(numero, "l'étudiant " + prenom + " " + nom + " existe déjà");
+                continue;
+            }
+            valides.add(Etudiant.candidat(ciup, nom, prenom, nationalite.intern(), maisonSouhaitee));
+            lignesValides.add(numero);
+        }
+
+        for (int i = 0; i < valides.size(); i++) {
+            Etudiant etudiant = valides.get(i);
+            MaisonEtudiante maison = etudiant.getSouhait();
+            if (maison == null) {
+                maison = ciup.getMaisonNationale(etudiant.getNationalite());
+            }
+            if (maison == null) {
+                maison = ciup.choisirMaisonEquitable(etudiant.getNationalite());
+            }
+            if (maison == null) {
+                rapport.rejeter(lignesValides.get(i), "aucune maison étudiante dans la CIUP");
+                continue;
+            }
+            maison.inscrireNouvelEtudiant(etudiant);
+            rapport.nbImportes++;
+            if (etudiant.getMaisonResidence() != null) {
+                rapport.nbLoges++;
+            } else {
+                rapport.nbEnAttente++;
+            }
+        }
+    }
+
+    /**
+     * Retourne un champ sans ses espaces de bord, ou une chaîne vide s'il est absent.
+     */
+    private static String champ(String[] champs, int colonne) {
+        return (colonne < 0 || colonne >= champs.length) ? "" : champs[colonne].trim();
+    }
+
+    /**
+     * Clé d'unicité d'un étudiant : ses nom et prénom, comme {@link Etudiant#equals(Object)}.
+     */
+    private static String cle(String nom, String prenom) {
+        return nom + '\u0000' + prenom;
+    }
+
+    /**
+     * Met un nom de colonne en minuscules, sans accents ni espaces.
+     */
+    private static String normaliser(String colonne) {
+        String texte = java.text.Normalizer.normalize(colonne.trim(), java.text.Normalizer.Form.NFD);
+        return texte.replaceAll("\\p{M}", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    // --------------------------
+    //       LECTURE CSV
+    // --------------------------
+
+    /**
+     * Découpe un flux CSV en lignes de champs, un enregistrement à la fois.
+     * Un champ entre guillemets peut contenir le séparateur, des guillemets doublés
+     * et des retours à la ligne.
+     */
+    private static class LecteurCsv {
+
+        private final BufferedReader lecteur;
+        private final StringBuilder champ = new StringBuilder();
+        private final List<String> champs = new ArrayList<>();
+        private char separateur = ',';
+        private long numeroLigne;
+        private long debutEnregistrement;
+
+        private LecteurCsv(BufferedReader lecteur) {
+            this.lecteur = lecteur;
+        }
+
+        /**
+         * Lit l'en-tête, en retire l'éventuelle marque d'ordre UTF-8 et en déduit le séparateur.
+         */
+        private String[] lireEntete() throws IOException {
+            lecteur.mark(1);
+            if (lecteur.read() != '\uFEFF') {
+                lecteur.reset();
+            }
+            lecteur.mark(1 << 15);
+            String premiere = lecteur.readLine();
+            if (premiere == null) {
+                return null;
+            }
+            lecteur.reset();
+            if (premiere.indexOf(';') >= 0 && premiere.indexOf(',') < 0) {
+                separateur = ';';
+            }
+            return lireLigne();
+        }
+
+        /**
+         * Lit l'enregistrement suivant, ou retourne null à la fin du flux.
+         */
+        private String[] lireLigne() throws IOException {
+            String ligne = lecteur.readLine();
+            if (ligne == null) {
+                return null;
+            }
+            numeroLigne++;
+            debutEnregistrement = numeroLigne;
+            champs.clear();
+            champ.setLength(0);
+            boolean entreGuillemets = false;
+            int i = 0;
+            while (true) {
+                if (i == ligne.length()) {
+                    if (!entreGuillemets) {
+                        break;
+                    }
+                    // Retour à la ligne dans un champ entre guillemets
+                    ligne = lecteur.readLine();
+                    if (ligne == null) {
+                        break;
+                    }
+                    numeroLigne++;
+                    champ.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = ligne.charAt(i++);
+                if (entreGuillemets) {
+                    if (c != '"') {
+                        champ.append(c);
+                    } else if (i < ligne.length() && ligne.charAt(i) == '"') {
+                        champ.append('"');
+                        i++;
+                    } else {
+                        entreGuillemets = false;
+                    }
+                } else if (c == '"') {
+                    entreGuillemets = true;
+                } else if (c == separateur) {
+                    champs.add(champ.toString());
+                    champ.setLength(0);
+                } else {
+                    champ.append(c);
+                }
+            }
+            champs.add(champ.toString());
+            return champs.toArray(new String[0]);
+        }
+
+        /** @return le numéro de la première ligne du dernier enregistrement lu */
+        private long getNumeroLigne() {
+            return debutEnregistrement;
+        }
+    }
+}
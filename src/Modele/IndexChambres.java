@@ -0,0 +1,189 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Index des chambres d'une maison étudiante : chambres libres, chambres libres rangées par
+ * casier, et nombre total de places.
+ * <p>
+ * Les chambres sont repérées par leur rang dans la liste de la maison. Une chambre libre est
+ * rangée dans le casier de ses places restantes, en distinguant les chambres entamées (déjà
+ * occupées par au moins un étudiant) des chambres vides : le casier {@code 2 * (restantes - 1)}
+ * pour une chambre entamée, le suivant pour une chambre vide. Chaque casier est un ensemble de
+ * bits et compte ses chambres, si bien que les stratégies ({@link StrategieChambre}) trouvent leur
+ * chambre en sautant les casiers vides, puis par un parcours des mots du premier casier non vide ;
+ * le nombre de casiers ne dépend que de la plus grande capacité, pas du nombre de chambres.
+ * </p>
+ * <p>
+ * L'index est tenu à jour par la maison, sous son verrou, à chaque changement d'occupation ou de
+ * capacité d'une chambre ({@link #actualiser}) ; il est reconstruit quand la liste des chambres change.
+ * </p>
+ *
+ * @version 1.0
+ * @see MaisonEtudiante#chercheChambreLibre()
+ */
+final class IndexChambres {
+
+    /** Chambres ayant au moins une place libre */
+    private final BitSet libres;
+
+    /** Chambres libres de chaque casier */
+    private final List<BitSet> casiers = new ArrayList<>();
+
+    /** Nombre de chambres de chaque casier */
+    private int[] nbParCasier = new int[0];
+
+    /** Casier de chaque chambre, -1 si elle n'est pas libre */
+    private final int[] casierDe;
+
+    /** Nombre total de places */
+    private int capacite;
+
+    /**
+     * Indexe les chambres d'une maison, et attribue à chacune son rang.
+     *
+     * @param chambres les chambres de la maison, dans leur ordre
+     */
+    IndexChambres(List<Chambre> chambres) {
+        libres = new BitSet(chambres.size());
+        casierDe = new int[chambres.size()];
+        Arrays.fill(casierDe, -1);
+        for (int rang = 0; rang < chambres.size(); rang++) {
+            Chambre chambre = chambres.get(rang);
+            chambre.setRang(rang);
+            capacite += chambre.getCapacite();
+            ranger(rang, chambre);
+        }
+    }
+
+    // --------------------------
+    //       CONSULTATION
+    // --------------------------
+
+    /** @return le nombre de chambres indexées */
+    int getNbChambres() {
+        return casierDe.length;
+    }
+
+    /** @return le nombre total de places */
+    int getCapacite() {
+        return capacite;
+    }
+
+    /** @return true si aucune chambre n'a de place libre */
+    boolean estPlein() {
+        return libres.isEmpty();
+    }
+
+    /**
+     * Retourne la première chambre libre dans l'ordre des chambres.
+     *
+     * @return son rang, ou -1 si aucune chambre n'est libre
+     */
+    int premiereLibre() {
+        return libres.nextSetBit(0);
+    }
+
+    /**
+     * Retourne la chambre libre ayant le moins de places restantes, la première dans l'ordre
+     * des chambres en cas d'égalité.
+     *
+     * @return son rang, ou -1 si aucune chambre n'est libre
+     */
+    int plusAjustee() {
+        for (int casier = 0; casier < nbParCasier.length; casier += 2) {
+            int entamee = premiere(casier);
+            int vide = premiere(casier + 1);
+            if (entamee >= 0 || vide >= 0) {
+                return (entamee < 0 || vide >= 0 && vide < entamee) ? vide : entamee;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne la chambre entamée ayant le moins de places restantes ou, s'il n'y en a pas,
+     * la chambre vide la plus petite ; la première dans l'ordre des chambres en cas d'égalité.
+     *
+     * @return son rang, ou -1 si aucune chambre n'est libre
+     */
+    int entameeDAbord() {
+        for (int debut = 0; debut < 2; debut++) {
+            for (int casier = debut; casier < nbParCasier.length; casier += 2) {
+                int rang = premiere(casier);
+                if (rang >= 0) {
+                    return rang;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // --------------------------
+    //       MODIFICATION
+    // --------------------------
+
+    /**
+     * Reporte l'occupation ou la capacité modifiée d'une chambre.
+     *
+     * @param rang le rang de la chambre
+     * @param chambre la chambre
+     * @param ecartCapacite l'écart entre sa nouvelle capacité et l'ancienne
+     */
+    void actualiser(int rang, Chambre chambre, int ecartCapacite) {
+        int ancien = casierDe[rang];
+        if (ancien >= 0) {
+            casiers.get(ancien).clear(rang);
+            nbParCasier[ancien]--;
+            casierDe[rang] = -1;
+        }
+        libres.clear(rang);
+        ranger(rang, chambre);
+        capacite += ecartCapacite;
+    }
+
+    /**
+     * Vérifie l'index en le comparant à celui des chambres données.
+     *
+     * @param chambres les chambres de la maison
+     * @param nomMaison le nom de la maison, pour le message d'erreur
+     * @throws IllegalStateException si l'index diffère de celui des chambres
+     */
+    void verifier(List<Chambre> chambres, String nomMaison) {
+        IndexChambres recompte = new IndexChambres(chambres);
+        if (!libres.equals(recompte.libres) || !Arrays.equals(casierDe, recompte.casierDe)) {
+            throw new IllegalStateException("Index des chambres libres incohérent dans " + nomMaison);
+        }
+        if (capacite != recompte.capacite) {
+            throw new IllegalStateException("Capacité incohérente dans " + nomMaison + " : " + capacite
+                    + " place(s) comptée(s), " + recompte.capacite + " recomptée(s)");
+        }
+    }
+
+    private void ranger(int rang, Chambre chambre) {
+        int occupants = chambre.getListeEtudiante().size();
+        int restantes = chambre.getCapacite() - occupants;
+        if (restantes <= 0) {
+            return;
+        }
+        int casier = 2 * (restantes - 1) + ((occupants > 0) ? 0 : 1);
+        while (casiers.size() <= casier) {
+            casiers.add(new BitSet(casierDe.length));
+        }
+        if (nbParCasier.length <= casier) {
+            nbParCasier = Arrays.copyOf(nbParCasier, casiers.size() + (casiers.size() & 1));
+        }
+        casiers.get(casier).set(rang);
+        nbParCasier[casier]++;
+        casierDe[rang] = casier;
+        libres.set(rang);
+    }
+
+    /** @return la première chambre d'un casier, ou -1 s'il est vide ou n'existe pas */
+    private int premiere(int casier) {
+        if (casier >= nbParCasier.length || nbParCasier[casier] == 0) {
+            return -1;
+        }
+        return casiers.get(casier).nextSetBit(0);
+    }
+}
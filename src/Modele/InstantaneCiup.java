@@ -0,0 +1,191 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Copie figée de la CIUP : maison internationale et instantané de chaque maison étudiante.
+ * <p>
+ * Un instantané se prend sur le thread du modèle ({@link Ciup#instantane()}), puis se lit
+ * librement ailleurs : la sauvegarde de fond et les exports l'encodent pendant que le modèle
+ * continue d'accepter inscriptions, retraits et soirées, sans verrou ni copie profonde.
+ * Les maisons non modifiées depuis l'instantané précédent partagent leur {@link InstantaneMaison}
+ * avec lui : la prise d'un instantané ne coûte que la copie des maisons modifiées.
+ * </p>
+ *
+ * @version 1.0
+ * @see InstantaneMaison
+ */
+public final class InstantaneCiup {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Copie figée d'une candidature en liste d'attente, telle que la promotion la range.
+     */
+    public static final class InstantaneCandidature {
+
+        /** Numéro de l'étudiant dans la CIUP */
+        private final int etudiant;
+
+        /** Nationalité normalisée si le candidat accepte toute maison, null s'il a un souhait */
+        private final String classe;
+
+        /** Identifiants des maisons dont il est en liste d'attente */
+        private final int[] maisons;
+
+        /**
+         * Construit la copie d'une candidature à partir de ses valeurs.
+         */
+        InstantaneCandidature(int etudiant, String classe, int[] maisons) {
+            this.etudiant = etudiant;
+            this.classe = classe;
+            this.maisons = maisons;
+        }
+
+        /** @return le numéro de l'étudiant dans la CIUP */
+        public int getEtudiant() {
+            return etudiant;
+        }
+
+        /** @return la nationalité normalisée du candidat s'il accepte toute maison, ou null */
+        public String getClasse() {
+            return classe;
+        }
+
+        /** @return les identifiants des maisons dont il est en liste d'attente */
+        public int[] getMaisons() {
+            return maisons.clone();
+        }
+
+        /** @return le nombre de maisons dont il est en liste d'attente */
+        int getNbMaisons() {
+            return maisons.length;
+        }
+
+        /** @return l'identifiant de la i-ème maison dont il est en liste d'attente */
+        int getMaison(int i) {
+            return maisons[i];
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Champs descriptifs de la maison internationale */
+    private final String[] champsMaisonInternationale;
+
+    /** Dernier identifiant attribué à une maison étudiante */
+    private final int dernierIdentifiantMaison;
+
+    /** Dernier numéro attribué à un étudiant */
+    private final int dernierIdentifiantEtudiant;
+
+    /** Instantané de chaque maison étudiante, dans l'ordre de la CIUP */
+    private final List<InstantaneMaison> maisons;
+
+    /** Candidatures en liste d'attente, dans l'ordre d'arrivée ({@link PromotionAttente}) */
+    private final List<InstantaneCandidature> candidatures;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit l'instantané d'une CIUP à partir de ceux de ses maisons.
+     */
+    InstantaneCiup(Maison maisonInternationale, int dernierIdentifiantMaison, int dernierIdentifiantEtudiant,
+                   List<InstantaneMaison> maisons, List<InstantaneCandidature> candidatures) {
+        this.champsMaisonInternationale = new String[] { maisonInternationale.getNom(),
+                maisonInternationale.getNationalite(), maisonInternationale.getDirecteur(),
+                maisonInternationale.getLocalisation(), maisonInternationale.getCheminImage(),
+                maisonInternationale.getDescription() };
+        this.dernierIdentifiantMaison = dernierIdentifiantMaison;
+        this.dernierIdentifiantEtudiant = dernierIdentifiantEtudiant;
+        this.maisons = Collections.unmodifiableList(new ArrayList<>(maisons));
+        this.candidatures = Collections.unmodifiableList(new ArrayList<>(candidatures));
+    }
+
+    // --------------------------
+    //       ACCESSEURS
+    // --------------------------
+
+    /**
+     * Retourne l'instantané de chaque maison étudiante, dans l'ordre de la CIUP.
+     *
+     * @return la liste non modifiable des maisons
+     */
+    public List<InstantaneMaison> getMaisons() {
+        return maisons;
+    }
+
+    /**
+     * Retourne les candidatures en liste d'attente, dans l'ordre d'arrivée.
+     *
+     * @return la liste non modifiable des candidatures
+     */
+    public List<InstantaneCandidature> getCandidatures() {
+        return candidatures;
+    }
+
+    /**
+     * Retourne l'instantané d'une maison étudiante à partir de son identifiant.
+     *
+     * @param identifiant l'identifiant de la maison
+     * @return l'instantané de la maison, ou null s'il n'existe pas
+     */
+    public InstantaneMaison getMaison(int identifiant) {
+        for (InstantaneMaison maison : maisons) {
+            if (maison.getIdentifiant() == identifiant) {
+                return maison;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne le nom de la maison internationale.
+     *
+     * @return le nom de la maison internationale
+     */
+    public String getNomMaisonInternationale() {
+        return champsMaisonInternationale[0];
+    }
+
+    /**
+     * Indique si le contenu de toutes les maisons a été copié.
+     *
+     * @return true si aucune maison ne se réduit à son en-tête
+     */
+    public boolean estComplet() {
+        for (InstantaneMaison maison : maisons) {
+            if (!maison.estComplet()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne les champs descriptifs de la maison internationale, dans l'ordre du format de sauvegarde.
+     */
+    String[] getChampsMaisonInternationale() {
+        return champsMaisonInternationale.clone();
+    }
+
+    /**
+     * Retourne le dernier identifiant attribué à une maison étudiante.
+     */
+    int getDernierIdentifiantMaison() {
+        return dernierIdentifiantMaison;
+    }
+
+    /**
+     * Retourne le dernier numéro attribué à un étudiant.
+     */
+    int getDernierIdentifiantEtudiant() {
+        return dernierIdentifiantEtudiant;
+    }
+}
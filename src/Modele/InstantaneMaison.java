@@ -0,0 +1,451 @@
+package Modele;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Copie figée d'une maison étudiante, prise sur le thread du modèle et lisible ensuite
+ * depuis n'importe quel thread (sauvegarde de fond, export).
+ * <p>
+ * Un instantané ne référence aucun objet du modèle : chambres, étudiants et soirées y sont
+ * recopiés dans des valeurs immuables. Un même étudiant, cité par exemple dans la liste des
+ * résidents et dans sa chambre, y est représenté par une seule instance d'{@link InstantaneEtudiant}.
+ * </p>
+ * <p>
+ * Chaque maison conserve son dernier instantané, réutilisé tant qu'elle n'est pas modifiée :
+ * toute modification signalée au {@link SuiviModifications} l'invalide, ainsi que la modification
+ * des informations propres d'un étudiant (qui peut figurer dans la liste d'attente ou les inscrits
+ * d'une autre maison). Un instantané de la CIUP ({@link InstantaneCiup}) ne recopie donc que
+ * les maisons modifiées depuis le précédent.
+ * </p>
+ * <p>
+ * L'instantané d'une maison non encore chargée peut se réduire à son en-tête
+ * (voir {@link #estComplet()}) : le prendre ne force pas son chargement.
+ * </p>
+ *
+ * @version 1.0
+ * @see InstantaneCiup
+ */
+public final class InstantaneMaison {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Copie figée d'un étudiant.
+     */
+    public static final class InstantaneEtudiant {
+
+        /** Numéro de l'étudiant dans la CIUP (0 si inconnu) */
+        private final int identifiant;
+        private final String nom;
+        private final String prenom;
+        private final String nationalite;
+
+        /** Identifiant de la maison souhaitée (0 si aucune) */
+        private final int souhait;
+
+        /** Identifiant de la maison de résidence (0 si aucune) */
+        private final int residence;
+
+        private InstantaneEtudiant(Etudiant etudiant) {
+            this(etudiant.getIdentifiant(), etudiant.getNom(), etudiant.getPrenom(), etudiant.getNationalite(),
+                    (etudiant.getSouhait() == null) ? 0 : etudiant.getSouhait().getIdentifiant(),
+                    (etudiant.getMaisonResidence() == null) ? 0 : etudiant.getMaisonResidence().getIdentifiant());
+        }
+
+        /**
+         * Construit la copie d'un étudiant à partir de ses valeurs, lues par exemple dans un dépôt.
+         */
+        InstantaneEtudiant(int identifiant, String nom, String prenom, String nationalite, int souhait, int residence) {
+            this.identifiant = identifiant;
+            this.nom = nom;
+            this.prenom = prenom;
+            this.nationalite = nationalite;
+            this.souhait = souhait;
+            this.residence = residence;
+        }
+
+        /** @return le numéro de l'étudiant dans la CIUP, ou 0 s'il est inconnu */
+        public int getIdentifiant() {
+            return identifiant;
+        }
+
+        /** @return le nom de l'étudiant */
+        public String getNom() {
+            return nom;
+        }
+
+        /** @return le prénom de l'étudiant */
+        public String getPrenom() {
+            return prenom;
+        }
+
+        /** @return la nationalité de l'étudiant */
+        public String getNationalite() {
+            return nationalite;
+        }
+
+        /** @return l'identifiant de la maison souhaitée, ou 0 */
+        public int getSouhait() {
+            return souhait;
+        }
+
+        /** @return l'identifiant de la maison de résidence, ou 0 */
+        public int getResidence() {
+            return residence;
+        }
+    }
+
+    /**
+     * Copie figée d'une chambre et de ses occupants.
+     */
+    public static final class InstantaneChambre {
+
+        private final int identifiant;
+        private final int capacite;
+        private final String statut;
+        private final List<InstantaneEtudiant> occupants;
+
+        private InstantaneChambre(Chambre chambre, List<InstantaneEtudiant> occupants) {
+            this(chambre.getIdentifiant(), chambre.getCapacite(), chambre.getStatut().getLibelle(), occupants);
+        }
+
+        /**
+         * Construit la copie d'une chambre à partir de ses valeurs, lues par exemple dans un dépôt.
+         */
+        InstantaneChambre(int identifiant, int capacite, String statut, List<InstantaneEtudiant> occupants) {
+            this.identifiant = identifiant;
+            this.capacite = capacite;
+            this.statut = statut;
+            this.occupants = Collections.unmodifiableList(occupants);
+        }
+
+        /** @return l'identifiant de la chambre */
+        public int getIdentifiant() {
+            return identifiant;
+        }
+
+        /** @return la capacité de la chambre */
+        public int getCapacite() {
+            return capacite;
+        }
+
+        /** @return le statut de la chambre ("libre" ou "saturé") */
+        public String getStatut() {
+            return statut;
+        }
+
+        /** @return la liste non modifiable des occupants */
+        public List<InstantaneEtudiant> getOccupants() {
+            return occupants;
+        }
+    }
+
+    /**
+     * Copie figée d'une soirée et de ses inscrits.
+     */
+    public static final class InstantaneSoiree {
+
+        private final String nom;
+        private final String description;
+        private final LocalDateTime date;
+        private final List<InstantaneEtudiant> inscrits;
+
+        private InstantaneSoiree(Soiree soiree, List<InstantaneEtudiant> inscrits) {
+            this(soiree.getNomSoiree(), soiree.getDescriptionSoiree(), soiree.getDateSoiree(), inscrits);
+        }
+
+        /**
+         * Construit la copie d'une soirée à partir de ses valeurs, lues par exemple dans un dépôt.
+         */
+        InstantaneSoiree(String nom, String description, LocalDateTime date, List<InstantaneEtudiant> inscrits) {
+            this.nom = nom;
+            this.description = description;
+            this.date = date;
+            this.inscrits = Collections.unmodifiableList(inscrits);
+        }
+
+        /** @return le nom de la soirée */
+        public String getNom() {
+            return nom;
+        }
+
+        /** @return la description de la soirée */
+        public String getDescription() {
+            return description;
+        }
+
+        /** @return la date de la soirée */
+        public LocalDateTime getDate() {
+            return date;
+        }
+
+        /** @return la liste non modifiable des inscrits */
+        public List<InstantaneEtudiant> getInscrits() {
+            return inscrits;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Identifiant stable de la maison */
+    private final int identifiant;
+
+    /** Champs descriptifs : nom, nationalité, directeur, localisation, image, description */
+    private final String[] champs;
+
+    /** Nombre d'étudiants logés */
+    private final int nbEtudiants;
+
+    /** Nombre de chambres */
+    private final int nbChambres;
+
+    /** Nombre de places (-1 si inconnu, pour un en-tête d'une ancienne sauvegarde) */
+    private final int capacite;
+
+    /** Longueur de la liste d'attente (-1 si inconnue, pour un en-tête d'une ancienne sauvegarde) */
+    private final int nbAttente;
+
+    /** Nationalité majoritaire des logés, ou null */
+    private final String majorite;
+
+    /** Révision des étudiants du suivi au moment de la copie */
+    private final long revisionEtudiants;
+
+    /** Indique si le contenu a été copié */
+    private final boolean complet;
+
+    private final List<InstantaneChambre> chambres;
+    private final List<InstantaneEtudiant> residents;
+    private final List<InstantaneEtudiant> attente;
+    private final List<String> nationalites;
+    private final int[] effectifs;
+    private final List<InstantaneSoiree> agenda;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Copie une maison. Le contenu n'est copié que si la maison est chargée.
+     * Doit être appelé sur le thread du modèle.
+     *
+     * @param maison la maison à copier
+     * @param revisionEtudiants la révision des étudiants du suivi de la CIUP
+     */
+    InstantaneMaison(MaisonEtudiante maison, long revisionEtudiants) {
+        this.identifiant = maison.getIdentifiant();
+        this.champs = new String[] { maison.getNom(), maison.getNationalite(), maison.getDirecteur(),
+                maison.getLocalisation(), maison.getCheminImage(), maison.getDescription() };
+        this.revisionEtudiants = revisionEtudiants;
+        this.complet = maison.estChargee();
+        this.nbEtudiants = maison.getNbEtudiants();
+        this.nbChambres = maison.getNbChambres();
+        if (!complet) {
+            this.capacite = maison.getCapaciteEtudiantsMax();
+            this.nbAttente = maison.getNbAttente();
+            this.majorite = maison.getNationaliteMajoritaire();
+            this.chambres = Collections.emptyList();
+            this.residents = Collections.emptyList();
+            this.attente = Collections.emptyList();
+            this.nationalites = Collections.emptyList();
+            this.effectifs = new int[0];
+            this.agenda = Collections.emptyList();
+            return;
+        }
+
+        Map<Etudiant, InstantaneEtudiant> copies = new IdentityHashMap<>();
+        List<InstantaneChambre> listeChambres = new ArrayList<>(maison.getListeChambres().size());
+        int places = 0;
+        for (Chambre chambre : maison.getListeChambres()) {
+            listeChambres.add(new InstantaneChambre(chambre, copier(chambre.getListeEtudiante(), copies)));
+            places += chambre.getCapacite();
+        }
+        List<InstantaneSoiree> listeSoirees = new ArrayList<>(maison.getAgenda().size());
+        for (Soiree soiree : maison.getAgenda()) {
+            listeSoirees.add(new InstantaneSoiree(soiree, copier(soiree.getListeInscrit(), copies)));
+        }
+        this.capacite = places;
+        this.chambres = Collections.unmodifiableList(listeChambres);
+        this.residents = copier(maison.getListeEtudiante(), copies);
+        this.attente = copier(maison.getlisteAttente(), copies);
+        HistogrammeNationalites histogramme = maison.getHistogrammeNationalites();
+        this.nationalites = Collections.unmodifiableList(Arrays.asList(histogramme.tableauNationalites()));
+        this.effectifs = histogramme.tableauEffectifs();
+        this.nbAttente = attente.size();
+        this.majorite = histogramme.getMajoritaire();
+        this.agenda = Collections.unmodifiableList(listeSoirees);
+    }
+
+    /**
+     * Réduit l'instantané d'une maison à son en-tête.
+     */
+    private InstantaneMaison(InstantaneMaison maison) {
+        this.identifiant = maison.identifiant;
+        this.champs = maison.champs;
+        this.nbEtudiants = maison.nbEtudiants;
+        this.nbChambres = maison.nbChambres;
+        this.capacite = maison.capacite;
+        this.nbAttente = maison.nbAttente;
+        this.majorite = maison.majorite;
+        this.revisionEtudiants = maison.revisionEtudiants;
+        this.complet = false;
+        this.chambres = Collections.emptyList();
+        this.residents = Collections.emptyList();
+        this.attente = Collections.emptyList();
+        this.nationalites = Collections.emptyList();
+        this.effectifs = new int[0];
+        this.agenda = Collections.emptyList();
+    }
+
+    /**
+     * Copie une liste d'étudiants, en réutilisant la copie d'un étudiant déjà rencontré.
+     */
+    private static List<InstantaneEtudiant> copier(List<Etudiant> etudiants,
+                                                   Map<Etudiant, InstantaneEtudiant> copies) {
+        if (etudiants.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<InstantaneEtudiant> liste = new ArrayList<>(etudiants.size());
+        for (Etudiant etudiant : etudiants) {
+            liste.add(copies.computeIfAbsent(etudiant, InstantaneEtudiant::new));
+        }
+        return Collections.unmodifiableList(liste);
+    }
+
+    // --------------------------
+    //       ACCESSEURS
+    // --------------------------
+
+    /**
+     * Indique si le contenu de la maison (chambres, étudiants, liste d'attente, nationalités,
+     * agenda) a été copié. Sinon, l'instantané se réduit à l'en-tête d'une maison non chargée
+     * et les listes de contenu sont vides.
+     *
+     * @return true si le contenu est présent
+     */
+    public boolean estComplet() {
+        return complet;
+    }
+
+    /** @return l'identifiant stable de la maison */
+    public int getIdentifiant() {
+        return identifiant;
+    }
+
+    /** @return le nom de la maison */
+    public String getNom() {
+        return champs[0];
+    }
+
+    /** @return la nationalité de la maison */
+    public String getNationalite() {
+        return champs[1];
+    }
+
+    /** @return le directeur de la maison */
+    public String getDirecteur() {
+        return champs[2];
+    }
+
+    /** @return la localisation de la maison */
+    public String getLocalisation() {
+        return champs[3];
+    }
+
+    /** @return le chemin de l'image de la maison */
+    public String getCheminImage() {
+        return champs[4];
+    }
+
+    /** @return la description de la maison */
+    public String getDescription() {
+        return champs[5];
+    }
+
+    /** @return le nombre d'étudiants logés */
+    public int getNbEtudiants() {
+        return nbEtudiants;
+    }
+
+    /** @return le nombre de chambres */
+    public int getNbChambres() {
+        return nbChambres;
+    }
+
+    /** @return le nombre de places, ou -1 s'il est inconnu */
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /** @return la longueur de la liste d'attente, ou -1 si elle est inconnue */
+    public int getNbAttente() {
+        return nbAttente;
+    }
+
+    /** @return la nationalité de plus de la moitié des logés, ou null */
+    public String getMajorite() {
+        return majorite;
+    }
+
+    /** @return la liste non modifiable des chambres */
+    public List<InstantaneChambre> getChambres() {
+        return chambres;
+    }
+
+    /** @return la liste non modifiable des étudiants logés */
+    public List<InstantaneEtudiant> getResidents() {
+        return residents;
+    }
+
+    /** @return la liste d'attente, non modifiable */
+    public List<InstantaneEtudiant> getAttente() {
+        return attente;
+    }
+
+    /** @return la liste non modifiable des nationalités représentées */
+    public List<String> getNationalites() {
+        return nationalites;
+    }
+
+    /**
+     * Retourne le nombre d'étudiants d'une nationalité.
+     *
+     * @param rang le rang de la nationalité dans {@link #getNationalites()}
+     * @return son effectif
+     */
+    public int getEffectif(int rang) {
+        return effectifs[rang];
+    }
+
+    /** @return la liste non modifiable des soirées */
+    public List<InstantaneSoiree> getAgenda() {
+        return agenda;
+    }
+
+    /**
+     * Retourne l'en-tête seul de cet instantané (champs et effectifs), sans son contenu :
+     * il suffit pour écrire la racine d'une sauvegarde et ne retient aucun étudiant.
+     */
+    InstantaneMaison entete() {
+        return complet ? new InstantaneMaison(this) : this;
+    }
+
+    /**
+     * Retourne les champs descriptifs, dans l'ordre du format de sauvegarde.
+     */
+    String[] getChamps() {
+        return champs.clone();
+    }
+
+    /**
+     * Retourne la révision des étudiants au moment de la copie.
+     */
+    long getRevisionEtudiants() {
+        return revisionEtudiants;
+    }
+}
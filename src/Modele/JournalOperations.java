@@ -0,0 +1,229 @@
+package Modele;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Journal des opérations de la CIUP, écrit en ajout seul à la suite de la dernière sauvegarde complète.
+ * <p>
+ * Chaque modification du modèle y est consignée sous la forme d'un petit enregistrement
+ * numéroté, ce qui évite de réécrire tout le fichier de sauvegarde à chaque action.
+ * Au chargement, les opérations postérieures à la sauvegarde complète sont rejouées.
+ * </p>
+ * <p>
+ * Format d'un enregistrement : longueur (int), somme de contrôle CRC32 (int), puis
+ * numéro d'opération (long) suivi de l'{@link Operation}, qui porte la version de son format.
+ * Un enregistrement incomplet ou corrompu en fin de fichier (écriture interrompue) est ignoré,
+ * ainsi que tout ce qui suit.
+ * </p>
+ *
+ * @version 1.0
+ * @see Operation
+ * @see GestionSauvegarde
+ */
+public class JournalOperations {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Fichier du journal */
+    private final File fichier;
+
+    /** Flux d'ajout ouvert sur le journal, ou {@code null} s'il est fermé */
+    private DataOutputStream sortie;
+
+    /** Numéro de la dernière opération consignée */
+    private long dernierNumero;
+
+    /** Nombre d'enregistrements présents dans le fichier */
+    private int nbEnregistrements;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit un journal associé au fichier donné.
+     *
+     * @param fichier le fichier du journal
+     */
+    public JournalOperations(File fichier) {
+        this.fichier = fichier;
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Ajoute une opération à la fin du journal.
+     *
+     * @param operation l'opération à consigner
+     * @return le numéro attribué à l'opération
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public synchronized long ajouter(Operation operation) throws IOException {
+        if (sortie == null) {
+            sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichier, true)));
+        }
+        long numero = dernierNumero + 1;
+        ecrireEnregistrement(sortie, numero, operation);
+        sortie.flush();
+        dernierNumero = numero;
+        nbEnregistrements++;
+        return numero;
+    }
+
+    /**
+     * Rejoue sur la CIUP toutes les opérations du journal dont le numéro est strictement
+     * supérieur à celui déjà contenu dans la sauvegarde complète.
+     *
+     * @param ciup la CIUP restaurée depuis la sauvegarde complète
+     * @param numeroSauvegarde numéro de la dernière opération incluse dans la sauvegarde
+     * @return le nombre d'opérations rejouées
+     */
+    public synchronized int rejouer(Ciup ciup, long numeroSauvegarde) {
+        fermer();
+        dernierNumero = numeroSauvegarde;
+        nbEnregistrements = 0;
+        int nbRejouees = 0;
+        for (Map.Entry<Long, Operation> entree : lireEnregistrements().entrySet()) {
+            nbEnregistrements++;
+            if (entree.getKey() <= numeroSauvegarde) {
+                continue;
+            }
+            try {
+                entree.getValue().appliquer(ciup);
+                nbRejouees++;
+            } catch (RuntimeException e) {
+                System.out.println("Opération " + entree.getKey() + " du journal ignorée : " + e.getMessage());
+            }
+            dernierNumero = entree.getKey();
+        }
+        return nbRejouees;
+    }
+
+    /**
+     * Retire du journal les opérations déjà incluses dans une sauvegarde complète.
+     * Les opérations consignées pendant l'écriture de cette sauvegarde sont conservées.
+     *
+     * @param numeroSauvegarde numéro de la dernière opération incluse dans la sauvegarde
+     * @throws IOException en cas d'erreur de réécriture du journal
+     */
+    public synchronized void compacter(long numeroSauvegarde) throws IOException {
+        fermer();
+        if (numeroSauvegarde >= dernierNumero) {
+            new FileOutputStream(fichier).close();
+            nbEnregistrements = 0;
+            return;
+        }
+
+        File temporaire = new File(fichier.getPath() + ".tmp");
+        int conserves = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaire)))) {
+            for (Map.Entry<Long, Operation> entree : lireEnregistrements().entrySet()) {
+                if (entree.getKey() > numeroSauvegarde) {
+                    ecrireEnregistrement(out, entree.getKey(), entree.getValue());
+                    conserves++;
+                }
+            }
+        }
+        if (!fichier.delete() || !temporaire.renameTo(fichier)) {
+            throw new IOException("Impossible de remplacer le journal " + fichier);
+        }
+        nbEnregistrements = conserves;
+    }
+
+    /**
+     * Ferme le flux d'ajout s'il est ouvert.
+     */
+    public synchronized void fermer() {
+        if (sortie != null) {
+            try {
+                sortie.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            sortie = null;
+        }
+    }
+
+    /**
+     * Retourne le numéro de la dernière opération consignée.
+     *
+     * @return le numéro de la dernière opération
+     */
+    public synchronized long getDernierNumero() {
+        return dernierNumero;
+    }
+
+    /**
+     * Retourne le nombre d'enregistrements présents dans le journal.
+     *
+     * @return le nombre d'enregistrements
+     */
+    public synchronized int getNbEnregistrements() {
+        return nbEnregistrements;
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Écrit un enregistrement encadré par sa longueur et sa somme de contrôle.
+     */
+    private static void ecrireEnregistrement(DataOutputStream out, long numero, Operation operation) throws IOException {
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream(128);
+        DataOutputStream contenu = new DataOutputStream(tampon);
+        contenu.writeLong(numero);
+        operation.ecrire(contenu);
+        contenu.flush();
+
+        byte[] octets = tampon.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(octets);
+        out.writeInt(octets.length);
+        out.writeInt((int) crc.getValue());
+        out.write(octets);
+    }
+
+    /**
+     * Lit tous les enregistrements valides du journal, dans l'ordre.
+     * La lecture s'arrête au premier enregistrement tronqué ou corrompu.
+     */
+    private LinkedHashMap<Long, Operation> lireEnregistrements() {
+        LinkedHashMap<Long, Operation> operations = new LinkedHashMap<>();
+        if (!fichier.exists()) {
+            return operations;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fichier)))) {
+            while (true) {
+                int longueur = in.readInt();
+                int attendu = in.readInt();
+                if (longueur <= 0) {
+                    break;
+                }
+                byte[] octets = new byte[longueur];
+                in.readFully(octets);
+
+                CRC32 crc = new CRC32();
+                crc.update(octets);
+                if ((int) crc.getValue() != attendu) {
+                    System.out.println("Fin du journal corrompue, enregistrements suivants ignorés.");
+                    break;
+                }
+                DataInputStream contenu = new DataInputStream(new ByteArrayInputStream(octets));
+                long numero = contenu.readLong();
+                operations.put(numero, Operation.lire(contenu));
+            }
+        } catch (EOFException e) {
+            // Fin du journal (éventuellement tronquée par une écriture interrompue)
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return operations;
+    }
+}
@@ -0,0 +1,358 @@
+package Modele;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Liste d'attente d'une maison étudiante : les candidats dans l'ordre où ils seront appelés.
+ * <p>
+ * Les étudiants sont rangés dans un tableau de cases, dans l'ordre de la liste ; un retrait
+ * vide sa case au lieu de décaler les suivantes. Une table associe chaque étudiant à sa case,
+ * et un arbre de Fenwick compte les cases occupées : l'appartenance est en temps constant,
+ * l'ajout en fin de liste, le retrait d'un étudiant ou de la tête, le rang d'un étudiant
+ * ({@link #indexOf}) et l'accès par rang ({@link #get}) en temps logarithmique. Les cases
+ * vides sont récupérées quand le tableau est plein, en temps amorti constant.
+ * </p>
+ * <p>
+ * Les étudiants sont repérés par identité, et non par {@link Etudiant#equals} qui compare
+ * des noms modifiables : un même étudiant ne peut figurer qu'une fois dans la liste.
+ * L'insertion au milieu de la liste recopie toute la liste ; le tri ({@link #sort}) la reconstruit.
+ * Comme les autres listes d'une maison, elle n'est à modifier que sous le verrou de la maison.
+ * </p>
+ *
+ * @version 1.0
+ * @see MaisonEtudiante#getlisteAttente()
+ */
+final class ListeAttente extends AbstractList<Etudiant> implements RandomAccess, Serializable {
+
+    /** Nombre minimal de cases */
+    private static final int CAPACITE_INITIALE = 8;
+
+    /** Étudiants rangés dans l'ordre de la liste, null pour une case vidée */
+    private transient Etudiant[] cases;
+
+    /** Arbre de Fenwick du nombre de cases occupées, indicé à partir de 1 */
+    private transient int[] arbre;
+
+    /** Case de chaque étudiant de la liste */
+    private transient Map<Etudiant, Integer> positions;
+
+    /** Première case occupée (égale à {@link #fin} si la liste est vide) */
+    private transient int debut;
+
+    /** Nombre de cases utilisées, occupées ou vidées */
+    private transient int fin;
+
+    /** Nombre d'étudiants dans la liste */
+    private transient int taille;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Crée une liste d'attente vide.
+     */
+    ListeAttente() {
+        reconstruire(new Etudiant[0], 0);
+    }
+
+    /**
+     * Crée une liste d'attente contenant les étudiants donnés, dans leur ordre.
+     * Un étudiant présent plusieurs fois n'est gardé qu'à sa première place.
+     *
+     * @param etudiants les étudiants en attente
+     */
+    ListeAttente(Collection<Etudiant> etudiants) {
+        Etudiant[] tableau = etudiants.toArray(new Etudiant[0]);
+        reconstruire(tableau, tableau.length);
+    }
+
+    // --------------------------
+    //       CONSULTATION
+    // --------------------------
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean contains(Object etudiant) {
+        return positions.containsKey(etudiant);
+    }
+
+    @Override
+    public Etudiant get(int rang) {
+        Objects.checkIndex(rang, taille);
+        return cases[caseAuRang(rang)];
+    }
+
+    /**
+     * Retourne le rang d'un étudiant dans la liste, en temps logarithmique.
+     *
+     * @param etudiant l'étudiant cherché
+     * @return son rang à partir de 0, ou -1 s'il n'est pas dans la liste
+     */
+    @Override
+    public int indexOf(Object etudiant) {
+        Integer position = positions.get(etudiant);
+        return (position == null) ? -1 : compterJusqua(position) - 1;
+    }
+
+    @Override
+    public int lastIndexOf(Object etudiant) {
+        return indexOf(etudiant);
+    }
+
+    // --------------------------
+    //       MODIFICATION
+    // --------------------------
+
+    /**
+     * Ajoute un étudiant en fin de liste.
+     *
+     * @param etudiant l'étudiant à ajouter
+     * @return true
+     * @throws IllegalArgumentException si l'étudiant est déjà dans la liste
+     */
+    @Override
+    public boolean add(Etudiant etudiant) {
+        verifierAbsent(etudiant);
+        if (fin == cases.length) {
+            reconstruire(toArray(new Etudiant[0]), taille);
+        }
+        int position = fin++;
+        cases[position] = etudiant;
+        positions.put(etudiant, position);
+        ajouterALArbre(position, 1);
+        taille++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Insère un étudiant à un rang donné ; hors de la fin de liste, toute la liste est recopiée.
+     *
+     * @throws IllegalArgumentException si l'étudiant est déjà dans la liste
+     */
+    @Override
+    public void add(int rang, Etudiant etudiant) {
+        if (rang == taille) {
+            add(etudiant);
+            return;
+        }
+        Objects.checkIndex(rang, taille);
+        verifierAbsent(etudiant);
+        Etudiant[] tableau = new Etudiant[taille + 1];
+        int i = 0;
+        for (Etudiant present : this) {
+            if (i == rang) {
+                tableau[i++] = etudiant;
+            }
+            tableau[i++] = present;
+        }
+        reconstruire(tableau, tableau.length);
+        modCount++;
+    }
+
+    @Override
+    public Etudiant set(int rang, Etudiant etudiant) {
+        Objects.checkIndex(rang, taille);
+        int position = caseAuRang(rang);
+        Etudiant ancien = cases[position];
+        if (ancien != etudiant) {
+            verifierAbsent(etudiant);
+            positions.remove(ancien);
+            positions.put(etudiant, position);
+            cases[position] = etudiant;
+        }
+        return ancien;
+    }
+
+    @Override
+    public Etudiant remove(int rang) {
+        Objects.checkIndex(rang, taille);
+        int position = caseAuRang(rang);
+        Etudiant etudiant = cases[position];
+        positions.remove(etudiant);
+        vider(position);
+        return etudiant;
+    }
+
+    @Override
+    public boolean remove(Object etudiant) {
+        Integer position = positions.remove(etudiant);
+        if (position == null) {
+            return false;
+        }
+        vider(position);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        reconstruire(new Etudiant[0], 0);
+        modCount++;
+    }
+
+    /**
+     * Trie la liste en la reconstruisant, plutôt qu'en replaçant les étudiants un à un.
+     */
+    @Override
+    public void sort(Comparator<? super Etudiant> ordre) {
+        Etudiant[] tableau = toArray(new Etudiant[0]);
+        Arrays.sort(tableau, ordre);
+        reconstruire(tableau, tableau.length);
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Etudiant> iterator() {
+        return new Iterator<Etudiant>() {
+            private int suivante = debut;
+            private int derniere = -1;
+            private int modificationsAttendues = modCount;
+
+            @Override
+            public boolean hasNext() {
+                while (suivante < fin && cases[suivante] == null) {
+                    suivante++;
+                }
+                return suivante < fin;
+            }
+
+            @Override
+            public Etudiant next() {
+                if (modificationsAttendues != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                derniere = suivante++;
+                return cases[derniere];
+            }
+
+            @Override
+            public void remove() {
+                if (derniere < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modificationsAttendues != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                positions.remove(cases[derniere]);
+                vider(derniere);
+                derniere = -1;
+                modificationsAttendues = modCount;
+            }
+        };
+    }
+
+    // --------------------------
+    //       CASES ET ARBRE
+    // --------------------------
+
+    private void verifierAbsent(Etudiant etudiant) {
+        if (positions.containsKey(etudiant)) {
+            throw new IllegalArgumentException("Étudiant déjà présent dans la liste d'attente.");
+        }
+    }
+
+    /** Vide une case occupée, dont l'étudiant a déjà été retiré de la table des positions. */
+    private void vider(int position) {
+        cases[position] = null;
+        ajouterALArbre(position, -1);
+        taille--;
+        modCount++;
+        if (taille == 0) {
+            // Toutes les cases sont vides : l'arbre ne compte plus que des zéros
+            debut = 0;
+            fin = 0;
+        } else {
+            while (cases[debut] == null) {
+                debut++;
+            }
+        }
+    }
+
+    /**
+     * Range les étudiants dans des cases neuves, au moins deux fois plus nombreuses,
+     * et recalcule l'arbre en temps linéaire.
+     */
+    private void reconstruire(Etudiant[] etudiants, int nombre) {
+        cases = new Etudiant[Math.max(CAPACITE_INITIALE, 2 * nombre)];
+        positions = new IdentityHashMap<>(Math.max(CAPACITE_INITIALE, nombre));
+        arbre = new int[cases.length + 1];
+        fin = 0;
+        for (int i = 0; i < nombre; i++) {
+            Etudiant etudiant = etudiants[i];
+            if (etudiant != null && !positions.containsKey(etudiant)) {
+                positions.put(etudiant, fin);
+                cases[fin] = etudiant;
+                arbre[fin + 1] = 1;
+                fin++;
+            }
+        }
+        for (int i = 1; i < arbre.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < arbre.length) {
+                arbre[parent] += arbre[i];
+            }
+        }
+        taille = fin;
+        debut = 0;
+    }
+
+    private void ajouterALArbre(int position, int delta) {
+        for (int i = position + 1; i < arbre.length; i += i & -i) {
+            arbre[i] += delta;
+        }
+    }
+
+    /** @return le nombre de cases occupées jusqu'à la case donnée incluse */
+    private int compterJusqua(int position) {
+        int nombre = 0;
+        for (int i = position + 1; i > 0; i -= i & -i) {
+            nombre += arbre[i];
+        }
+        return nombre;
+    }
+
+    /** @return la case du rang donné, valide, par une descente dans l'arbre (immédiate pour la tête) */
+    private int caseAuRang(int rang) {
+        if (rang == 0) {
+            return debut;
+        }
+        int position = 0;
+        int reste = rang + 1;
+        for (int pas = Integer.highestOneBit(arbre.length - 1); pas > 0; pas >>= 1) {
+            int suivante = position + pas;
+            if (suivante < arbre.length && arbre[suivante] < reste) {
+                position = suivante;
+                reste -= arbre[suivante];
+            }
+        }
+        return position;
+    }
+
+    // --------------------------
+    //       SÉRIALISATION
+    // --------------------------
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(taille);
+        for (Etudiant etudiant : this) {
+            out.writeObject(etudiant);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Etudiant[] etudiants = new Etudiant[in.readInt()];
+        for (int i = 0; i < etudiants.length; i++) {
+            etudiants[i] = (Etudiant) in.readObject();
+        }
+        reconstruire(etudiants, etudiants.length);
+    }
+}
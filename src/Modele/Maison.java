@@ -129,6 +129,7 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setNom(String nom) {
 		this.nom = nom;
+		signalerModification();
 	}
 
 	/**
@@ -138,6 +139,7 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setNationalite(String nationalite) {
 		this.nationalite = nationalite;
+		signalerModification();
 	}
 
 	/**
@@ -147,6 +149,7 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setDirecteur(String directeur) {
 		this.directeur = directeur;
+		signalerModification();
 	}
 
 	/**
@@ -156,6 +159,7 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setLocalisation(String localisation) {
 		this.localisation = localisation;
+		signalerModification();
 	}
 	
 	/**
@@ -174,6 +178,7 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setCheminImage(String cheminImage) {
 		this.cheminImage = cheminImage;
+		signalerModification();
 	}
 	
 	/**
@@ -183,5 +188,22 @@ public abstract class Maison implements Serializable {
 	 */
 	public void setDescription(String description) {
 		this.description = description;
+		signalerModification();
+	}
+	
+	
+	//==========================================================================
+	//                      SUIVI DES MODIFICATIONS
+	//==========================================================================
+	
+	
+	/**
+	 * Signale au suivi de la CIUP que cette maison a été modifiée.
+	 * Sans CIUP rattachée (maison en cours de construction), rien n'est signalé.
+	 */
+	protected void signalerModification() {
+		if (ciup != null) {
+			ciup.getSuiviModifications().maisonModifiee(this);
+		}
 	}
 }
@@ -8,6 +8,14 @@ import java.io.*;
  * Classe représentant une maison étudiante au sein d'une CIUP (Cité Internationale Universitaire de Paris).
  * Une maison étudiante contient des chambres, héberge des étudiants et organise des soirées.
  * Elle gère également une liste d'attente pour les étudiants en cas de saturation.
+ * <p>
+ * Les inscriptions, retraits et transferts d'étudiants peuvent être faits depuis plusieurs
+ * threads : ils se font sous le verrou de la maison (son moniteur), que prennent aussi
+ * les opérations de ses chambres. Deux maisons différentes ne se disputent donc jamais
+ * un verrou ; un transfert prend les verrous des deux maisons dans l'ordre de leurs
+ * identifiants. Les listes retournées par les accesseurs ne sont à parcourir que sur le thread
+ * du modèle, ou sous le verrou de la maison.
+ * </p>
  * 
  * @author Otman Benbouziane
  * @version 1.0
@@ -19,8 +27,8 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	//                              ATTRIBUTS
 	//==========================================================================
 	
-	/** Référence vers la CIUP à laquelle appartient cette maison */
-	private Ciup ciup;
+	/** Identifiant stable de la maison au sein de la CIUP, attribué à son ajout */
+	private int identifiant;
 	
 	/** Liste des étudiants actuellement logés dans cette maison */
 	private List<Etudiant> listeEtudiante;
@@ -28,20 +36,62 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	/** Liste des chambres disponibles dans cette maison */
 	private List<Chambre> listeChambres;
 	
-	/** Liste d'attente des étudiants candidats à l'hébergement */
+	/**
+	 * Liste d'attente des étudiants candidats à l'hébergement, toujours une {@link ListeAttente}
+	 * (déclarée comme une liste pour relire les sauvegardes sérialisées antérieures)
+	 */
 	private List<Etudiant> listeAttente;
 	
-	/** Liste des nationalités représentées dans cette maison */
-	private List<String> listeNationalites;
+	/** Agenda des soirées organisées par la maison */
+	private List<Soiree> agendaSoiree;
+	
+	/** Chargeur du contenu de la maison, tant qu'il n'a pas été lu (null une fois chargé) */
+	private transient volatile ChargeurMaisonsDiffere chargeur;
 	
-	/** Nombre de nationalités différentes présentes */
-	private int nbListeNationalites;
+	/** Nombre d'étudiants logés, lu dans l'en-tête de la sauvegarde tant que le contenu n'est pas chargé */
+	private transient int nbEtudiantsDiffere;
 	
-	/** Liste du nombre d'étudiants par nationalité */
-	private ArrayList<Integer> listeNbEtudiantParNationalite;
+	/** Nombre de chambres, lu dans l'en-tête de la sauvegarde tant que le contenu n'est pas chargé */
+	private transient int nbChambresDiffere;
 	
-	/** Agenda des soirées organisées par la maison */
-	private List<Soiree> agendaSoiree;
+	/** Nombre de places, lu dans l'en-tête de la sauvegarde tant que le contenu n'est pas chargé (-1 si inconnu) */
+	private transient int capaciteDiffere;
+	
+	/** Longueur de la liste d'attente, lue dans l'en-tête de la sauvegarde tant que le contenu n'est pas chargé (-1 si inconnue) */
+	private transient int nbAttenteDiffere;
+	
+	/** Nationalité majoritaire des logés, lue dans l'en-tête de la sauvegarde avec {@link #nbAttenteDiffere} */
+	private transient String majoriteDiffere;
+	
+	/**
+	 * Nombre d'étudiants logés par nationalité (non sérialisé : recompté à partir
+	 * des logés au premier accès après une désérialisation)
+	 */
+	private transient HistogrammeNationalites histogrammeNationalites;
+	
+	/**
+	 * Chambres libres et nombre de places, les chambres étant repérées par leur rang dans la liste
+	 * (non sérialisé : construit au premier besoin, puis tenu à jour par les chambres)
+	 */
+	private transient IndexChambres indexChambres;
+	
+	/**
+	 * Stratégie de choix de la chambre des étudiants logés (réglage d'exécution, non sauvegardé ;
+	 * null pour {@link StrategieChambre#PREMIERE_LIBRE})
+	 */
+	private transient volatile StrategieChambre strategieChambre;
+	
+	/** Effectifs de la CIUP auxquels la maison a reporté les siens (null si aucun) */
+	private transient Ciup.Effectifs effectifsReportes;
+	
+	/** Nombre d'étudiants logés déjà reporté aux effectifs de la CIUP */
+	private transient int nbEtudiantsReportes;
+	
+	/** Nombre de chambres déjà reporté aux effectifs de la CIUP */
+	private transient int nbChambresReportes;
+	
+	/** Dernier instantané de la maison, réutilisé tant qu'elle n'est pas modifiée (null si invalidé) */
+	private transient volatile InstantaneMaison instantane;
 	
 	/** Identifiant de version pour la sérialisation */
 	private static final long serialVersionUID = 1L;
@@ -71,10 +121,8 @@ public class MaisonEtudiante extends Maison implements Serializable {
 		this.listeEtudiante = new ArrayList<Etudiant>();
 		this.listeChambres = new ArrayList<Chambre>();
 		this.setListeChambresParCapacite(capaciteChambre);
-		this.listeAttente = new ArrayList<Etudiant>();
-		this.listeNationalites = new ArrayList<String>();
-		this.nbListeNationalites = 0;
-		this.listeNbEtudiantParNationalite = new ArrayList<Integer>();
+		this.listeAttente = new ListeAttente();
+		this.histogrammeNationalites = new HistogrammeNationalites();
 		this.agendaSoiree = new ArrayList<Soiree>();
 		this.cheminImage = "contenuVues/images/default_image.png";
 	}
@@ -89,14 +137,46 @@ public class MaisonEtudiante extends Maison implements Serializable {
 		this.listeEtudiante = new ArrayList<Etudiant>();
 		this.listeChambres = new ArrayList<Chambre>();
 		this.setListeChambresParCapacite(capaciteChambre);
-		this.listeAttente = new ArrayList<Etudiant>();
-		this.listeNationalites = new ArrayList<String>();
-		this.nbListeNationalites = 0;
-		this.listeNbEtudiantParNationalite = new ArrayList<Integer>();
+		this.listeAttente = new ListeAttente();
+		this.histogrammeNationalites = new HistogrammeNationalites();
 		this.agendaSoiree = new ArrayList<Soiree>();
 		this.cheminImage = cheminImage;
 	}
 	
+	/**
+	 * Crée une maison réduite à son en-tête, lu dans la racine d'une sauvegarde.
+	 * Son contenu (chambres, étudiants, liste d'attente, nationalités, agenda) sera
+	 * lu par le chargeur au premier accès ; d'ici là, les effectifs sont ceux de l'en-tête.
+	 * 
+	 * @param ciup La CIUP à laquelle rattacher cette maison
+	 * @param identifiant L'identifiant stable de la maison
+	 * @param champs Nom, nationalité, directeur, localisation, image et description
+	 * @param nbEtudiants Le nombre d'étudiants logés
+	 * @param nbChambres Le nombre de chambres
+	 * @param capacite Le nombre de places, ou -1 s'il n'est pas connu
+	 * @param nbAttente La longueur de la liste d'attente, ou -1 si elle n'est pas connue
+	 * @param majorite La nationalité de plus de la moitié des logés, ou null
+	 * @param chargeur Le chargeur qui lira le contenu de la maison
+	 */
+	MaisonEtudiante(Ciup ciup, int identifiant, String[] champs, int nbEtudiants, int nbChambres, int capacite,
+			int nbAttente, String majorite, ChargeurMaisonsDiffere chargeur) {
+		this.ciup = ciup;
+		this.identifiant = identifiant;
+		this.nom = champs[0];
+		this.nationalite = champs[1];
+		this.directeur = champs[2];
+		this.localisation = champs[3];
+		this.cheminImage = champs[4];
+		this.description = champs[5];
+		this.nbEtudiantsDiffere = nbEtudiants;
+		this.nbChambresDiffere = nbChambres;
+		this.capaciteDiffere = capacite;
+		this.nbAttenteDiffere = nbAttente;
+		this.majoriteDiffere = majorite;
+		this.chargeur = chargeur;
+		this.ciup.ajouterMaison(this);
+	}
+	
 	//==========================================================================
 	//                        GESTION DES SOIRÉES
 	//==========================================================================
@@ -108,6 +188,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @param soiree La soirée à ajouter à l'agenda
 	 */
 	public void ajouterSoiree(Soiree soiree) {
+		materialiser();
 		int index = 0;
 		while (index < this.agendaSoiree.size()) {
 			LocalDateTime dateExistante = this.agendaSoiree.get(index).getDateSoiree();
@@ -127,6 +208,11 @@ public class MaisonEtudiante extends Maison implements Serializable {
 		}
 
 		this.agendaSoiree.add(index, soiree);
+		soiree.setMaison(this);
+		for (Etudiant inscrit : soiree.getListeInscrit()) {
+			referencerEtudiant(inscrit);
+		}
+		signalerModification();
 	}
 	
 	/**
@@ -135,8 +221,10 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @param soiree La soirée à retirer de l'agenda
 	 */
 	public void retirerSoiree(Soiree soiree) {
+		materialiser();
 		if (this.agendaSoiree.contains(soiree)) {
 			this.agendaSoiree.remove(soiree);
+			signalerModification();
 		}
 	}
 	
@@ -145,26 +233,51 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	//==========================================================================
 	
 	/**
-	 * Ajoute une nouvelle nationalité à la liste si elle n'existe pas déjà.
+	 * Ajoute une nouvelle nationalité à l'histogramme si elle n'existe pas déjà.
 	 * Initialise le compteur d'étudiants pour cette nationalité à 0.
 	 * 
 	 * @param nationalite La nationalité à ajouter
 	 */
 	public void ajouterNationalite(String nationalite) {
-		if (!listeNationalites.contains(nationalite)) {
-			listeNationalites.add(nationalite);
-			this.nbListeNationalites+=1;
-			this.listeNbEtudiantParNationalite.add(0);
+		HistogrammeNationalites histogramme = getHistogrammeNationalites();
+		int nbNationalites = histogramme.getNbNationalites();
+		histogramme.ajouter(nationalite);
+		if (histogramme.getNbNationalites() != nbNationalites) {
+			signalerModification();
 		}
 	}
 	
 	/**
-	 * Incrémente le nombre d'étudiants d'une nationalité donnée.
+	 * Incrémente le nombre d'étudiants d'une nationalité donnée, en l'ajoutant au besoin.
 	 * 
-	 * @param index L'indice de la nationalité dans la liste
+	 * @param nationalite La nationalité de l'étudiant
 	 */
-	public void incrementerNombreEtudiant(int index) {
-		listeNbEtudiantParNationalite.set(index,listeNbEtudiantParNationalite.get(index) + 1);
+	public synchronized void incrementerNombreEtudiant(String nationalite) {
+		getHistogrammeNationalites().incrementer(nationalite);
+		signalerModification();
+	}
+	
+	/**
+	 * Décrémente le nombre d'étudiants d'une nationalité donnée.
+	 * 
+	 * @param nationalite La nationalité de l'étudiant
+	 */
+	public synchronized void decrementerNombreEtudiant(String nationalite) {
+		getHistogrammeNationalites().decrementer(nationalite);
+		signalerModification();
+	}
+	
+	/**
+	 * Reporte sur l'histogramme le changement de nationalité d'un étudiant logé ici.
+	 * 
+	 * @param ancienne La nationalité précédente de l'étudiant
+	 * @param nouvelle Sa nouvelle nationalité
+	 */
+	synchronized void nationaliteEtudiantModifiee(String ancienne, String nouvelle) {
+		HistogrammeNationalites histogramme = getHistogrammeNationalites();
+		histogramme.decrementer(ancienne);
+		histogramme.incrementer(nouvelle);
+		signalerModification();
 	}
 	
 	//==========================================================================
@@ -178,58 +291,241 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @param etudiant L'étudiant à inscrire
 	 */
-	public void inscrireEtudiant(Etudiant etudiant) {
+	public synchronized void inscrireEtudiant(Etudiant etudiant) {
+		materialiser();
 	    // Déjà logé ailleurs
 	    if (etudiant.getMaisonResidence() != null) return;
 
 	    // Déjà en liste d'attente ici : inutile de continuer
 	    if (this.getlisteAttente().contains(etudiant)) return;
 
+	    // Sinon, ajout en liste d'attente si pas déjà présent
+	    if (!loger(etudiant)) {
+	        ajouterCandidatureMaison(etudiant);
+	    }
+	}
+	
+	/**
+	 * Inscrit un étudiant qui vient d'être créé, sans rechercher sa présence
+	 * en liste d'attente : l'appelant garantit qu'il n'est inscrit nulle part.
+	 * Utilisé par les imports en masse, pour lesquels cette recherche rendrait
+	 * le coût quadratique en la taille de la liste d'attente.
+	 * 
+	 * @param etudiant L'étudiant à inscrire, sans maison ni candidature
+	 */
+	synchronized void inscrireNouvelEtudiant(Etudiant etudiant) {
+		materialiser();
+		if (!loger(etudiant)) {
+			listeAttente.add(etudiant);
+			referencerEtudiant(etudiant);
+			signalerModification();
+			signalerCandidature(etudiant, true);
+		}
+	}
+	
+	/**
+	 * Loge un étudiant dans la première chambre libre, s'il reste de la place.
+	 * Appelé sous le verrou de la maison.
+	 * 
+	 * @param etudiant L'étudiant à loger
+	 * @return true si l'étudiant a été logé, ici ou, entre-temps, par un autre thread dans une autre maison
+	 */
+	private boolean loger(Etudiant etudiant) {
 	    // S'il reste de la place
 	    if (this.getCapaciteEtudiantsMax() > listeEtudiante.size()) {
 	        Chambre chambreLibre = this.chercheChambreLibre();
 	        if (chambreLibre != null) {
+	            if (!etudiant.reserverResidence(this)) {
+	                return true;
+	            }
 	            listeEtudiante.add(etudiant);
 	            etudiant.setMaisonResidence(this);
 	            chambreLibre.ajouteEtudiant(etudiant);
-	            this.ajouterNationalite(etudiant.getNationalite());
-	            incrementerNombreEtudiant(this.nbListeNationalites - 1);
-	            return;
+	            incrementerNombreEtudiant(etudiant.getNationalite());
+	            return true;
 	        }
 	    }
-
-	    // Sinon, ajout en liste d'attente si pas déjà présent
-	    ajouterCandidatureMaison(etudiant);
+	    return false;
 	}
 	
 	/**
 	 * Retire un étudiant de la maison.
 	 * <p>
-	 * S'il est inscrit, il est retiré de sa chambre et de la liste, 
-	 * puis remplacé par un étudiant de la liste d'attente si possible.
-	 * Sinon, sa candidature est simplement retirée.
+	 * S'il est inscrit, il est retiré de sa chambre et de la liste, puis remplacé par le
+	 * candidat éligible arrivé le premier, en liste d'attente de cette maison ou d'une autre
+	 * ({@link PromotionAttente}). Sinon, sa candidature est simplement retirée.
 	 *
 	 * @param etudiant l'étudiant à retirer.
+	 * @return les promotions qui ont pourvu la place libérée, à consigner dans le journal
+	 *         ({@link Operation#retrait(Ciup, MaisonEtudiante, Etudiant, List)})
 	 */
-	public void retirerEtudiant(Etudiant etudiant) {
-	    if (listeEtudiante.contains(etudiant)) {
-	        Chambre chambre = this.retrouverChambre(etudiant.getChambre());
-	        if (chambre != null) {
-	            chambre.retireEtudiant(etudiant);
-	            chambre.actualiseStatut();
-	            etudiant.setChambre(null);
-	        }
+	public List<PromotionAttente.Promotion> retirerEtudiant(Etudiant etudiant) {
+		PromotionAttente promotions = (ciup == null) ? null : ciup.getPromotionAttente();
+		List<PromotionAttente.Promotion> promues;
+		synchronized (this) {
+			materialiser();
+			if (!listeEtudiante.contains(etudiant)) {
+				this.RetirerCandidature(etudiant);
+				return Collections.emptyList();
+			}
+			deloger(etudiant);
+			promues = pourvoirPlaces(promotions);
+		}
+		terminerPromotions(promotions, promues);
+		return promues;
+	}
+	
+	/**
+	 * Rejoue un retrait consigné dans le journal avec les promotions qu'il avait entraînées.
+	 * Les promus sont logés tels quels, sans consulter la promotion de la CIUP : le rejeu ne
+	 * dépend pas de l'état des listes d'attente, ni de l'ordre d'arrivée des candidats.
+	 * 
+	 * @param etudiant l'étudiant retiré
+	 * @param promus les étudiants promus, dans l'ordre où ils l'ont été
+	 * @param attentes pour chaque promu, les maisons dont il était en liste d'attente
+	 */
+	void rejouerRetrait(Etudiant etudiant, List<Etudiant> promus, List<List<MaisonEtudiante>> attentes) {
+		synchronized (this) {
+			materialiser();
+			if (!listeEtudiante.contains(etudiant)) {
+				this.RetirerCandidature(etudiant);
+				return;
+			}
+			deloger(etudiant);
+			for (Etudiant promu : promus) {
+				this.RetirerCandidature(promu);
+				loger(promu);
+			}
+		}
+		for (int i = 0; i < promus.size(); i++) {
+			for (MaisonEtudiante attente : attentes.get(i)) {
+				if (attente != this) {
+					attente.RetirerCandidature(promus.get(i));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Retire un étudiant logé de sa chambre et de la liste des logés,
+	 * sans faire entrer d'étudiant de la liste d'attente.
+	 * 
+	 * @param etudiant L'étudiant logé dans cette maison
+	 */
+	synchronized void deloger(Etudiant etudiant) {
+		materialiser();
+		Chambre chambre = this.retrouverChambre(etudiant.getChambre());
+		if (chambre != null) {
+			chambre.retireEtudiant(etudiant);
+			chambre.actualiseStatut();
+			etudiant.setChambre(null);
+		}
 
-	        listeEtudiante.remove(etudiant);
-	        etudiant.setMaisonResidence(null);
-	        if (listeAttente.size() > 0) {
-	        	Etudiant etu = listeAttente.get(0);
-	        	this.listeAttente.remove(etu);
-	        	this.inscrireEtudiant(etu);
-	        }
-	    } else {
-	        this.RetirerCandidature(etudiant);
-	    }
+		listeEtudiante.remove(etudiant);
+		etudiant.setMaisonResidence(null);
+		decrementerNombreEtudiant(etudiant.getNationalite());
+	}
+	
+	/**
+	 * Transfère un étudiant logé dans cette maison vers une chambre libre d'une autre maison.
+	 * Sa place est reprise par le premier de la liste d'attente, comme pour un retrait.
+	 * Les verrous des deux maisons sont pris dans l'ordre de leurs identifiants, si bien que
+	 * deux transferts croisés ne peuvent pas s'interbloquer.
+	 * 
+	 * @param etudiant L'étudiant à transférer
+	 * @param destination La maison qui doit le loger
+	 * @return true si l'étudiant a été transféré, false s'il n'est pas logé ici
+	 *         ou si la destination n'a plus de chambre libre
+	 */
+	public boolean transfererEtudiant(Etudiant etudiant, MaisonEtudiante destination) {
+		if (destination == this) {
+			return false;
+		}
+		PromotionAttente promotions = (ciup == null) ? null : ciup.getPromotionAttente();
+		List<PromotionAttente.Promotion> promues;
+		boolean ordre = (this.identifiant != destination.identifiant)
+				? this.identifiant < destination.identifiant
+				: System.identityHashCode(this) < System.identityHashCode(destination);
+		MaisonEtudiante premiere = ordre ? this : destination;
+		MaisonEtudiante seconde = ordre ? destination : this;
+		synchronized (premiere) {
+			synchronized (seconde) {
+				materialiser();
+				destination.materialiser();
+				if (etudiant.getMaisonResidence() != this || !listeEtudiante.contains(etudiant)
+						|| destination.getNbEtudiants() >= destination.getCapaciteEtudiantsMax()
+						|| !destination.trouveChambreLibre()) {
+					return false;
+				}
+				deloger(etudiant);
+				destination.RetirerCandidature(etudiant);
+				destination.loger(etudiant);
+				promues = pourvoirPlaces(promotions);
+			}
+		}
+		terminerPromotions(promotions, promues);
+		return true;
+	}
+	
+	/**
+	 * Loge des candidats en liste d'attente tant qu'il reste une chambre libre, chacun choisi
+	 * par la promotion de la CIUP, ou à défaut le premier de la liste d'attente de cette maison.
+	 * Appelée sous le verrou de la maison ; les promus sont retirés de la liste d'attente de
+	 * cette maison, {@link #terminerPromotions} les retire ensuite des autres.
+	 * 
+	 * @param promotions la promotion de la CIUP, ou null si la maison n'est rattachée à aucune CIUP
+	 * @return les promotions effectuées
+	 */
+	private List<PromotionAttente.Promotion> pourvoirPlaces(PromotionAttente promotions) {
+		if (promotions == null) {
+			if (listeAttente.size() > 0 && listeEtudiante.size() < getCapaciteEtudiantsMax()) {
+				inscrireEtudiant(listeAttente.remove(0));
+			}
+			return Collections.emptyList();
+		}
+		List<PromotionAttente.Promotion> promues = new ArrayList<>(1);
+		while (listeEtudiante.size() < getCapaciteEtudiantsMax() && trouveChambreLibre()) {
+			PromotionAttente.Promotion promotion = promotions.promouvoir(this, getHistogrammeNationalites().getMajoritaire());
+			if (promotion == null) {
+				break;
+			}
+			if (promotion.estACharger()) {
+				// Candidat d'une sauvegarde, en attente dans des maisons non chargées : leur
+				// chargement le rattache à la promotion, qui le choisit alors de nouveau
+				for (MaisonEtudiante attente : promotion.getAttentes()) {
+					attente.materialiser();
+				}
+				continue;
+			}
+			Etudiant promu = promotion.getEtudiant();
+			if (!loger(promu) || promu.getMaisonResidence() != this) {
+				continue;
+			}
+			if (listeAttente.remove(promu)) {
+				signalerModification();
+			}
+			promues.add(promotion);
+		}
+		return promues;
+	}
+	
+	/**
+	 * Retire les étudiants promus des listes d'attente des autres maisons, puis prévient les
+	 * écouteurs des promotions. Appelée hors du verrou de la maison, pour ne prendre les verrous
+	 * des autres maisons qu'un à la fois.
+	 */
+	private void terminerPromotions(PromotionAttente promotions, List<PromotionAttente.Promotion> promues) {
+		if (promues.isEmpty()) {
+			return;
+		}
+		for (PromotionAttente.Promotion promotion : promues) {
+			for (MaisonEtudiante attente : promotion.getAttentes()) {
+				if (attente != promotion.getMaison()) {
+					attente.RetirerCandidature(promotion.getEtudiant());
+				}
+			}
+		}
+		promotions.publier(promues);
 	}
 	
 	/**
@@ -237,7 +533,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @param ordreCroissant true pour un tri croissant, false pour décroissant
 	 */
-	public void trierEtudiants(boolean ordreCroissant) {
+	public synchronized void trierEtudiants(boolean ordreCroissant) {
 	    Comparator<Etudiant> comparateur = Comparator.comparing(Etudiant::getNom)
 	                                                  .thenComparing(Etudiant::getPrenom);
 	    if (!ordreCroissant) {
@@ -246,6 +542,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 
 	    Collections.sort(this.getListeEtudiante(), comparateur);
 	    Collections.sort(this.getlisteAttente(), comparateur);
+	    signalerModification();
 	}
 	
 	//==========================================================================
@@ -258,9 +555,13 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @param etudiant L'étudiant à ajouter en liste d'attente
 	 * @throws IllegalStateException Si l'étudiant est déjà en liste d'attente
 	 */
-	public void ajouterCandidatureMaison(Etudiant etudiant) {
+	public synchronized void ajouterCandidatureMaison(Etudiant etudiant) {
+		materialiser();
 		if (!listeAttente.contains(etudiant)) {
-			listeAttente.add(etudiant);	
+			listeAttente.add(etudiant);
+			referencerEtudiant(etudiant);
+			signalerModification();
+			signalerCandidature(etudiant, true);
 		} else {
 			throw new IllegalStateException("Étudiant déjà présent dans la liste d'attente.");
 		}
@@ -271,9 +572,37 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @param etudiant L'étudiant à retirer de la liste d'attente
 	 */
-	public void RetirerCandidature (Etudiant etudiant) {
-		if (this.listeAttente.contains(etudiant)) {
-			this.listeAttente.remove(etudiant);
+	public synchronized void RetirerCandidature (Etudiant etudiant) {
+		materialiser();
+		if (this.listeAttente.remove(etudiant)) {
+			signalerModification();
+			signalerCandidature(etudiant, false);
+		}
+	}
+	
+	/**
+	 * Signale à la promotion de la CIUP l'inscription ou le retrait d'un étudiant de la liste d'attente.
+	 */
+	private void signalerCandidature(Etudiant etudiant, boolean ajoutee) {
+		if (ciup == null) {
+			return;
+		}
+		if (ajoutee) {
+			ciup.candidatureAjoutee(this, etudiant);
+		} else {
+			ciup.candidatureRetiree(this, etudiant);
+		}
+	}
+	
+	/**
+	 * Transmet la liste d'attente de la maison à une promotion qui vient d'être créée ou réinitialisée,
+	 * si le contenu de la maison est chargé ; sinon, elle le sera à son chargement.
+	 * 
+	 * @param promotions la promotion de la CIUP
+	 */
+	synchronized void annoncerAttente(PromotionAttente promotions) {
+		if (estChargee()) {
+			promotions.attenteRemplacee(this, new ArrayList<>(listeAttente));
 		}
 	}
 	
@@ -282,20 +611,18 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	//==========================================================================
 	
 	/**
-	 * Cherche et retourne la première chambre libre disponible.
+	 * Cherche et retourne la chambre libre où loger un étudiant, choisie par la stratégie
+	 * de la maison ({@link #getStrategieChambre()}) dans l'index des chambres.
 	 * 
-	 * @return La première chambre libre trouvée
+	 * @return La chambre libre choisie
 	 * @throws IllegalStateException Si aucune chambre libre n'est disponible
 	 */
-	public Chambre chercheChambreLibre() {
-		int numChambre = 0;
-		while (numChambre < this.listeChambres.size()) {
-			if (listeChambres.get(numChambre).getStatut().equals("libre")) {
-				return listeChambres.get(numChambre);
-			}
-			numChambre++;
+	public synchronized Chambre chercheChambreLibre() {
+		int rang = getStrategieChambre().choisir(indexerChambres());
+		if (rang < 0) {
+			throw new IllegalStateException("Aucune chambre libre disponible");
 		}
-		throw new IllegalStateException("Aucune chambre libre disponible");
+		return listeChambres.get(rang);
 	}
 
 	/**
@@ -303,17 +630,48 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @return true si une chambre libre existe, false sinon
 	 */
-	public boolean trouveChambreLibre() {
-		int numChambre = 0;
-		while (numChambre < this.listeChambres.size()) {
-		if ("libre".equals(listeChambres.get(numChambre).getStatut())) {
-				return true;
-			}
-			else {
-				numChambre++;
+	public synchronized boolean trouveChambreLibre() {
+		return !indexerChambres().estPlein();
+	}
+	
+	/**
+	 * Retourne l'index des chambres, en le construisant s'il n'existe pas encore ou si la liste
+	 * des chambres a changé de taille depuis ; le nombre de chambres est alors reporté aux
+	 * effectifs de la CIUP. Appelée sous le verrou de la maison.
+	 */
+	private IndexChambres indexerChambres() {
+		materialiser();
+		IndexChambres index = indexChambres;
+		if (index == null || index.getNbChambres() != listeChambres.size()) {
+			index = new IndexChambres(listeChambres);
+			indexChambres = index;
+			if (ciup != null) {
+				// La liste des chambres a pu être modifiée directement
+				ciup.effectifsModifies(this);
 			}
 		}
-		return false;
+		return index;
+	}
+	
+	/**
+	 * Reporte dans l'index des chambres l'occupation ou la capacité modifiée d'une chambre.
+	 * Appelée par la chambre, sous le verrou de la maison. L'index est oublié si la chambre
+	 * n'est plus à son rang, par exemple après une modification directe de la liste des chambres.
+	 * 
+	 * @param chambre La chambre modifiée
+	 * @param ecartCapacite L'écart entre la nouvelle capacité de la chambre et l'ancienne
+	 */
+	void chambreActualisee(Chambre chambre, int ecartCapacite) {
+		IndexChambres index = indexChambres;
+		if (index == null) {
+			return;
+		}
+		int rang = chambre.getRang();
+		if (rang < 0 || rang >= index.getNbChambres() || rang >= listeChambres.size() || listeChambres.get(rang) != chambre) {
+			indexChambres = null;
+			return;
+		}
+		index.actualiser(rang, chambre, ecartCapacite);
 	}
 	
 	/**
@@ -323,6 +681,11 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return La chambre correspondante dans la liste, ou la chambre passée en paramètre si non trouvée
 	 */
 	public Chambre retrouverChambre (Chambre chmb) {
+		materialiser();
+		int rang = chmb.getRang();
+		if (rang >= 0 && rang < listeChambres.size() && listeChambres.get(rang) == chmb) {
+			return chmb;
+		}
 		Chambre chambre = chmb;
 		for (int i = 0; i < this.listeChambres.size(); i++) {
 			if (chmb.equals(this.listeChambres.get(i))) {
@@ -342,6 +705,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 			Chambre chmb = new Chambre(listeCapacite.get(cpt), this, cpt);
 			this.listeChambres.add(chmb);
 		}
+		signalerModification();
 	}
 	
 	//==========================================================================
@@ -353,33 +717,108 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @return true si la maison est saturée, false sinon
 	 */
-	public boolean estSaturé() {
+	public synchronized boolean estSaturé() {
+		materialiser();
 		return this.listeEtudiante.size() == this.getCapaciteEtudiantsMax();
 	}
 	
 	/**
-	 * Calcule la capacité maximale d'étudiants que peut accueillir la maison.
+	 * Retourne la capacité maximale d'étudiants que peut accueillir la maison, tenue à jour
+	 * par les chambres : elle n'est recomptée que si la liste des chambres a changé.
 	 * 
 	 * @return Le nombre maximum d'étudiants pouvant être logés
 	 */
-	public int getCapaciteEtudiantsMax() {
-		int capacite = 0;
-		for (int cpt = 0; cpt < this.listeChambres.size(); cpt++) {
-			capacite += listeChambres.get(cpt).getCapacite();
+	public synchronized int getCapaciteEtudiantsMax() {
+		if (chargeur != null && capaciteDiffere >= 0) {
+			return capaciteDiffere;
+		}
+		return indexerChambres().getCapacite();
+	}
+	
+	/**
+	 * Rattache la maison aux effectifs de la CIUP, qui reçoivent alors ses effectifs entiers
+	 * (étudiants logés, chambres), puis les écarts reportés par {@link #reporterEffectifs}.
+	 * 
+	 * @param effectifs Les effectifs courants de la CIUP
+	 */
+	synchronized void rattacherEffectifs(Ciup.Effectifs effectifs) {
+		if (effectifsReportes != effectifs) {
+			effectifsReportes = effectifs;
+			nbEtudiantsReportes = 0;
+			nbChambresReportes = 0;
+		}
+		reporterEffectifs(effectifs);
+	}
+	
+	/**
+	 * Reporte aux effectifs de la CIUP l'écart entre les effectifs de la maison et ceux qu'elle
+	 * leur a déjà reportés, si elle y est rattachée.
+	 * 
+	 * @param effectifs Les effectifs courants de la CIUP
+	 */
+	synchronized void reporterEffectifs(Ciup.Effectifs effectifs) {
+		if (effectifsReportes != effectifs
+				|| chargeur == null && (listeEtudiante == null || listeChambres == null)) {
+			// Maison détachée, ou en cours de construction : ses chambres la signaleront
+			return;
+		}
+		int nbEtudiants = getNbEtudiants();
+		int nbChambres = getNbChambres();
+		effectifs.ajouter(nbEtudiants - nbEtudiantsReportes, nbChambres - nbChambresReportes);
+		nbEtudiantsReportes = nbEtudiants;
+		nbChambresReportes = nbChambres;
+	}
+	
+	/**
+	 * Retire des effectifs de la CIUP ceux que la maison leur a reportés, quand elle quitte la CIUP.
+	 * 
+	 * @param effectifs Les effectifs courants de la CIUP
+	 */
+	synchronized void retirerEffectifs(Ciup.Effectifs effectifs) {
+		if (effectifsReportes == effectifs) {
+			effectifs.ajouter(-nbEtudiantsReportes, -nbChambresReportes);
 		}
-		return capacite;
+		effectifsReportes = null;
+		nbEtudiantsReportes = 0;
+		nbChambresReportes = 0;
+	}
+	
+	/**
+	 * Vérifie le nombre de places et l'index des chambres en les recomptant, si la maison
+	 * est chargée. À appeler quand aucune modification n'est en cours.
+	 * 
+	 * @throws IllegalStateException si le nombre de places ou l'index diffère de son recomptage
+	 */
+	synchronized void verifierEffectifs() {
+		if (estChargee() && indexChambres != null && indexChambres.getNbChambres() == listeChambres.size()) {
+			indexChambres.verifier(listeChambres, nom);
+		}
+		// Sinon rien n'est tenu à jour : le prochain accès recomptera
 	}
 	
 	//==========================================================================
 	//                       ACCESSEURS ET GETTERS
 	//==========================================================================
 	
+	/**
+	 * Retourne l'identifiant stable de la maison au sein de la CIUP.
+	 * Contrairement au nom ou à la position dans la liste, il ne change jamais.
+	 * 
+	 * @return L'identifiant de la maison
+	 */
+	public int getIdentifiant() {
+		return identifiant;
+	}
+	
 	/**
 	 * Retourne le nombre d'étudiants actuellement logés dans la maison.
 	 * 
 	 * @return Le nombre d'étudiants logés
 	 */
-	public int getNbEtudiants() {
+	public synchronized int getNbEtudiants() {
+		if (chargeur != null) {
+			return nbEtudiantsDiffere;
+		}
 		return listeEtudiante.size();
 	}
 	
@@ -389,6 +828,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return La liste des étudiants
 	 */
 	public List<Etudiant> getListeEtudiante() {
+		materialiser();
 		return listeEtudiante;
 	}
 
@@ -398,6 +838,7 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return La liste des chambres
 	 */
 	public List<Chambre> getListeChambres() {
+		materialiser();
 		return listeChambres;
 	}
 
@@ -407,25 +848,69 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return La liste d'attente
 	 */
 	public List<Etudiant> getlisteAttente() {
+		materialiser();
 		return listeAttente;
 	}
+	
+	/**
+	 * Retourne la longueur de la liste d'attente, sans charger la maison si l'en-tête de sa
+	 * sauvegarde la donne.
+	 * 
+	 * @return Le nombre d'étudiants en liste d'attente
+	 */
+	public synchronized int getNbAttente() {
+		if (chargeur != null && nbAttenteDiffere >= 0) {
+			return nbAttenteDiffere;
+		}
+		materialiser();
+		return listeAttente.size();
+	}
+
+	/**
+	 * Retourne le rang d'un étudiant dans la liste d'attente, en temps logarithmique.
+	 * 
+	 * @param etudiant L'étudiant cherché
+	 * @return Son rang à partir de 1, ou 0 s'il n'est pas en liste d'attente
+	 */
+	public synchronized int getRangAttente(Etudiant etudiant) {
+		materialiser();
+		return listeAttente.indexOf(etudiant) + 1;
+	}
 
 	/**
 	 * Retourne la liste des nationalités représentées dans la maison.
 	 * 
-	 * @return La liste des nationalités
+	 * @return Une copie de la liste des nationalités, dans l'ordre de leur arrivée
 	 */
 	public List<String> getListeNationalites() {
-		return listeNationalites;
+		return getHistogrammeNationalites().getNationalites();
 	}
 
 	/**
-	 * Retourne la liste du nombre d'étudiants par nationalité.
+	 * Retourne le nombre d'étudiants logés par nationalité.
+	 * Il est recompté à partir des logés si la maison vient d'une désérialisation.
 	 * 
-	 * @return La liste des effectifs par nationalité
+	 * @return L'histogramme des nationalités, à ne pas conserver au-delà du thread du modèle
 	 */
-	public ArrayList<Integer> getListeNbEtudiantParNationalite() {
-		return listeNbEtudiantParNationalite;
+	public synchronized HistogrammeNationalites getHistogrammeNationalites() {
+		materialiser();
+		if (histogrammeNationalites == null) {
+			histogrammeNationalites = HistogrammeNationalites.compter(listeEtudiante);
+		}
+		return histogrammeNationalites;
+	}
+	
+	/**
+	 * Retourne la nationalité de plus de la moitié des logés, sans charger la maison si
+	 * l'en-tête de sa sauvegarde la donne.
+	 * 
+	 * @return La nationalité majoritaire, ou null s'il n'y en a pas
+	 */
+	public synchronized String getNationaliteMajoritaire() {
+		if (chargeur != null && nbAttenteDiffere >= 0) {
+			return majoriteDiffere;
+		}
+		return getHistogrammeNationalites().getMajoritaire();
 	}
 
 	/**
@@ -434,15 +919,29 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return Le nombre de chambres
 	 */
 	public int getNbChambres() {
+		if (chargeur != null) {
+			return nbChambresDiffere;
+		}
 		return listeChambres.size();
 	}
 	
+	/**
+	 * Retourne la stratégie de choix de la chambre des étudiants logés.
+	 * 
+	 * @return La stratégie de la maison, {@link StrategieChambre#PREMIERE_LIBRE} par défaut
+	 */
+	public StrategieChambre getStrategieChambre() {
+		StrategieChambre strategie = strategieChambre;
+		return (strategie == null) ? StrategieChambre.PREMIERE_LIBRE : strategie;
+	}
+	
 	/**
 	 * Retourne l'agenda des soirées de la maison.
 	 * 
 	 * @return La liste des soirées programmées
 	 */
 	public List<Soiree> getAgenda() {
+		materialiser();
 		return this.agendaSoiree;
 	}
 	
@@ -451,12 +950,74 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	//==========================================================================
 
 	/**
-	 * Définit la liste des étudiants logés dans la maison.
+	 * Définit la nationalité de la maison, et met à jour l'index des nationalités de la CIUP.
+	 * 
+	 * @param nationalite La nouvelle nationalité de la maison
+	 */
+	@Override
+	public void setNationalite(String nationalite) {
+		String ancienne = getNationalite();
+		super.setNationalite(nationalite);
+		if (ciup != null) {
+			ciup.nationaliteModifiee(this, ancienne);
+		}
+	}
+
+	/**
+	 * Signale la modification au suivi de la CIUP, ainsi qu'à sa répartition équitable
+	 * et à ses effectifs puisque la charge ou les nationalités de la maison ont pu changer.
+	 */
+	@Override
+	protected void signalerModification() {
+		super.signalerModification();
+		if (ciup != null) {
+			ciup.chargeModifiee(this);
+			ciup.effectifsModifies(this);
+		}
+	}
+
+	/**
+	 * Signale au suivi des modifications que la maison mentionne un étudiant,
+	 * en liste d'attente ou parmi les inscrits d'une soirée.
+	 * 
+	 * @param etudiant L'étudiant mentionné
+	 */
+	void referencerEtudiant(Etudiant etudiant) {
+		if (ciup != null) {
+			ciup.getSuiviModifications().etudiantReference(etudiant.getIdentifiant(), getIdentifiant());
+		}
+	}
+
+	/**
+	 * Relève dans le suivi des modifications les étudiants mentionnés par la section
+	 * de la maison, si elle n'est pas encore chargée, sans la charger.
+	 */
+	void indexerReferences() {
+		ChargeurMaisonsDiffere enAttente = chargeur;
+		if (enAttente != null) {
+			enAttente.indexerReferences();
+		}
+	}
+
+	/**
+	 * Définit l'identifiant stable de la maison (attribué par la CIUP ou restauré d'une sauvegarde).
+	 * 
+	 * @param identifiant Le nouvel identifiant
+	 */
+	void setIdentifiant(int identifiant) {
+		this.identifiant = identifiant;
+	}
+
+	/**
+	 * Définit la liste des étudiants logés dans la maison, et recompte leurs nationalités.
 	 * 
 	 * @param listeEtudiante La nouvelle liste d'étudiants
 	 */
 	public void setListeEtudiante(List<Etudiant> listeEtudiante) {
+		materialiser();
 		this.listeEtudiante = listeEtudiante;
+		this.histogrammeNationalites = HistogrammeNationalites.compter(listeEtudiante);
+		signalerModification();
 	}
 
 	/**
@@ -464,35 +1025,131 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * 
 	 * @param listeChambres La nouvelle liste de chambres
 	 */
-	public void setListeChambres(List<Chambre> listeChambres) {
+	public synchronized void setListeChambres(List<Chambre> listeChambres) {
+		materialiser();
 		this.listeChambres = listeChambres;
+		this.indexChambres = null;
+		signalerModification();
 	}
 
 	/**
-	 * Définit la liste d'attente des étudiants candidats.
+	 * Définit la stratégie de choix de la chambre des prochains étudiants logés ;
+	 * les étudiants déjà logés gardent leur chambre.
 	 * 
-	 * @param listeAttente La nouvelle liste d'attente
+	 * @param strategieChambre La nouvelle stratégie
 	 */
-	public void setlisteAttente(List<Etudiant> listeAttente) {
-		this.listeAttente = listeAttente;
+	public void setStrategieChambre(StrategieChambre strategieChambre) {
+		this.strategieChambre = Objects.requireNonNull(strategieChambre);
 	}
 
 	/**
-	 * Définit la liste des nationalités représentées.
+	 * Définit la liste d'attente des étudiants candidats.
 	 * 
-	 * @param listeNationalites La nouvelle liste de nationalités
+	 * @param listeAttente La nouvelle liste d'attente, recopiée dans une {@link ListeAttente}
 	 */
-	public void setListeNationalites(List<String> listeNationalites) {
-		this.listeNationalites = listeNationalites;
+	public synchronized void setlisteAttente(List<Etudiant> listeAttente) {
+		materialiser();
+		this.listeAttente = new ListeAttente(listeAttente);
+		for (Etudiant etudiant : this.listeAttente) {
+			referencerEtudiant(etudiant);
+		}
+		signalerModification();
+		if (ciup != null) {
+			ciup.attenteRemplacee(this, this.listeAttente);
+		}
 	}
 
+	
+	//==========================================================================
+	//                        CHARGEMENT DIFFÉRÉ
+	//==========================================================================
+	
 	/**
-	 * Définit la liste du nombre d'étudiants par nationalité.
+	 * Indique si le contenu de la maison a été chargé.
 	 * 
-	 * @param listeNbEtudiantParNationalite La nouvelle liste des effectifs
+	 * @return true si le contenu est en mémoire, false si seul l'en-tête l'est
+	 */
+	public boolean estChargee() {
+		return chargeur == null;
+	}
+	
+	/**
+	 * Charge le contenu de la maison s'il ne l'est pas encore.
+	 * Appelée par toute méthode qui accède au contenu.
+	 */
+	void materialiser() {
+		ChargeurMaisonsDiffere enAttente = chargeur;
+		if (enAttente != null) {
+			enAttente.materialiser(this);
+		}
+	}
+	
+	/**
+	 * Installe le contenu lu dans une sauvegarde, sans le signaler au suivi des modifications,
+	 * et marque la maison comme chargée.
+	 */
+	void restaurerContenu(List<Chambre> chambres, List<Etudiant> residents, List<Etudiant> attente,
+			String[] nationalites, int[] effectifs, List<Soiree> agenda) {
+		this.listeChambres = chambres;
+		this.indexChambres = null;
+		this.listeEtudiante = residents;
+		this.listeAttente = new ListeAttente(attente);
+		this.histogrammeNationalites = HistogrammeNationalites.restaurer(nationalites, effectifs);
+		this.agendaSoiree = agenda;
+		// Avant la publication : une maison vue chargée a déjà signalé sa liste à la promotion
+		boolean signalee = ciup != null && ciup.attenteRemplacee(this, attente);
+		// En dernier : le contenu est publié aux autres threads par l'écriture du chargeur
+		this.chargeur = null;
+		// Après la publication : si la promotion est créée en même temps, l'un des deux annonce la liste
+		if (ciup != null && !signalee) {
+			ciup.attenteRemplacee(this, attente);
+		}
+	}
+	
+	/**
+	 * Relit une maison sérialisée, en convertissant la liste d'attente des sauvegardes
+	 * antérieures à {@link ListeAttente}.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (listeAttente != null && !(listeAttente instanceof ListeAttente)) {
+			listeAttente = new ListeAttente(listeAttente);
+		}
+	}
+	
+	//==========================================================================
+	//                             INSTANTANÉ
+	//==========================================================================
+	
+	/**
+	 * Retourne l'instantané de la maison, en réutilisant le précédent s'il est toujours valide.
+	 * Doit être appelée sur le thread du modèle.
+	 * 
+	 * @param complet true pour charger au besoin le contenu et le copier,
+	 *                false pour se contenter de l'en-tête d'une maison non chargée
+	 * @return l'instantané de la maison
+	 */
+	synchronized InstantaneMaison instantane(boolean complet) {
+		if (complet) {
+			materialiser();
+		}
+		long revision = (ciup == null) ? 0 : ciup.getSuiviModifications().getRevisionEtudiants();
+		InstantaneMaison courant = instantane;
+		if (courant == null || courant.getRevisionEtudiants() != revision || (complet && !courant.estComplet())) {
+			courant = new InstantaneMaison(this, revision);
+			if (ciup != null) {
+				instantane = courant;
+			}
+		}
+		return courant;
+	}
+	
+	/**
+	 * Oublie le dernier instantané : le prochain sera recopié depuis la maison.
+	 * Appelée par le {@link SuiviModifications} à chaque modification signalée.
 	 */
-	public void setListeNbEtudiantParNationalite(ArrayList<Integer> listeNbEtudiantParNationalite) {
-		this.listeNbEtudiantParNationalite = listeNbEtudiantParNationalite;
+	void invaliderInstantane() {
+		instantane = null;
 	}
 	
 	//==========================================================================
@@ -506,16 +1163,19 @@ public class MaisonEtudiante extends Maison implements Serializable {
 	 * @return Une chaîne de caractères décrivant la maison étudiante
 	 */
 	public String toString() {
-		String s = "";
-		s += "Nom : " + this.nom + ", nationalité : " + this.nationalite + ", directeur : " + this.directeur + ", localisation : " + this.localisation + "\n\nListe des étudiants :\n";
+		materialiser();
+		StringBuilder s = new StringBuilder();
+		s.append("Nom : ").append(this.nom).append(", nationalité : ").append(this.nationalite)
+				.append(", directeur : ").append(this.directeur).append(", localisation : ").append(this.localisation)
+				.append("\n\nListe des étudiants :\n");
 		for (Etudiant etudiant: listeEtudiante) {
-			s += etudiant.getNom() + "\n";
+			s.append(etudiant.getNom()).append('\n');
 		}
-		s += "\nListe d'attente :\n";
+		s.append("\nListe d'attente :\n");
 		for (Etudiant etudiant: listeAttente) {
-			s += etudiant.getNom() + "\n";
+			s.append(etudiant.getNom()).append('\n');
 		}
-		return s;
+		return s.toString();
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,361 @@
+package Modele;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Migration d'une ancienne sauvegarde par sérialisation Java ({@code ciup.ser})
+ * vers le format de {@link GestionSauvegarde} : une racine et un fichier par maison.
+ * <p>
+ * La sérialisation Java ne permet pas de lire une partie du graphe : la CIUP est désérialisée
+ * en une fois. La migration évite en revanche d'en faire une seconde copie complète : les maisons
+ * sont copiées, encodées, compressées et écrites une par une, puis leur contenu (chambres,
+ * résidents, liste d'attente, nationalités, agenda) est détaché du graphe pour que le ramasse-miettes
+ * puisse le libérer. Seuls l'en-tête de chaque maison et l'instantané des maisons de l'échantillon
+ * sont conservés jusqu'à l'écriture de la racine, en dernier.
+ * </p>
+ * <p>
+ * Une fois la racine écrite, les maisons de l'échantillon (au plus {@value #TAILLE_ECHANTILLON},
+ * réparties dans la CIUP) sont relues depuis les fichiers produits et comparées, encodage contre
+ * encodage, à leur instantané avant écriture. Si une maison diffère, la racine est supprimée :
+ * la sauvegarde historique reste la seule valide et sera de nouveau convertie au prochain chargement.
+ * Le fichier source n'est jamais modifié, et la CIUP désérialisée ne doit plus être utilisée
+ * après la migration.
+ * </p>
+ *
+ * @version 1.0
+ * @see GestionSauvegarde#convertirSauvegardeHistorique(File)
+ */
+public class MigrationHistorique {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Suivi de l'avancement d'une migration, notifié après l'écriture de chaque maison.
+     */
+    public interface Progression {
+
+        /**
+         * Signale qu'une maison vient d'être écrite.
+         *
+         * @param nbEcrites le nombre de maisons écrites jusqu'ici
+         * @param nbMaisons le nombre total de maisons
+         * @param nom le nom de la maison écrite
+         * @param octets le nombre d'octets écrits jusqu'ici
+         */
+        void maisonEcrite(int nbEcrites, int nbMaisons, String nom, long octets);
+    }
+
+    /**
+     * Bilan d'une migration : entités converties, octets lus et écrits, résultat de la vérification.
+     */
+    public static class Bilan {
+
+        private int nbMaisons;
+        private long nbChambres;
+        private long nbEtudiants;
+        private long nbEnAttente;
+        private long nbSoirees;
+        private long octetsLus;
+        private long octetsEcrits;
+        private long dureeNanos;
+        private int nbVerifiees;
+        private final List<String> maisonsDivergentes = new ArrayList<>();
+
+        private Bilan() {
+        }
+
+        /** @return le nombre de maisons étudiantes converties */
+        public int getNbMaisons() {
+            return nbMaisons;
+        }
+
+        /** @return le nombre de chambres converties */
+        public long getNbChambres() {
+            return nbChambres;
+        }
+
+        /** @return le nombre d'étudiants logés convertis */
+        public long getNbEtudiants() {
+            return nbEtudiants;
+        }
+
+        /** @return le nombre d'inscriptions en liste d'attente converties */
+        public long getNbEnAttente() {
+            return nbEnAttente;
+        }
+
+        /** @return le nombre de soirées converties */
+        public long getNbSoirees() {
+            return nbSoirees;
+        }
+
+        /** @return la taille du fichier source, en octets */
+        public long getOctetsLus() {
+            return octetsLus;
+        }
+
+        /** @return la taille totale des fichiers écrits, en octets */
+        public long getOctetsEcrits() {
+            return octetsEcrits;
+        }
+
+        /** @return la durée de la migration, vérification comprise, en millisecondes */
+        public double getDureeMs() {
+            return dureeNanos / 1e6;
+        }
+
+        /** @return le nombre de maisons relues et comparées */
+        public int getNbVerifiees() {
+            return nbVerifiees;
+        }
+
+        /** @return les noms des maisons relues différentes de l'original */
+        public List<String> getMaisonsDivergentes() {
+            return Collections.unmodifiableList(maisonsDivergentes);
+        }
+
+        /** @return true si toutes les maisons relues sont identiques à l'original */
+        public boolean estVerifie() {
+            return maisonsDivergentes.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d maison(s), %d chambre(s), %d étudiant(s) logé(s), %d en attente, %d soirée(s) ;"
+                            + " %d octets lus, %d octets écrits en %.1f ms ; %d maison(s) vérifiée(s), %s",
+                    nbMaisons, nbChambres, nbEtudiants, nbEnAttente, nbSoirees, octetsLus, octetsEcrits,
+                    getDureeMs(), nbVerifiees,
+                    estVerifie() ? "aucune divergence" : "divergences : " + maisonsDivergentes);
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre maximal de maisons relues pour vérifier la migration */
+    public static final int TAILLE_ECHANTILLON = 16;
+
+    /** Version des fichiers de maisons écrits par la migration */
+    private static final int VERSION_FICHIERS = 1;
+
+    /** Fichier sérialisé à convertir */
+    private final File source;
+
+    /** Suivi de l'avancement (peut être null) */
+    private Progression progression;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Prépare la migration d'une sauvegarde sérialisée.
+     *
+     * @param source le fichier {@code ciup.ser} à convertir
+     */
+    public MigrationHistorique(File source) {
+        this.source = source;
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Définit le suivi de l'avancement, notifié après l'écriture de chaque maison.
+     *
+     * @param progression le suivi, ou null pour aucun
+     */
+    public void setProgression(Progression progression) {
+        this.progression = progression;
+    }
+
+    /**
+     * Convertit la sauvegarde, puis vérifie un échantillon de maisons relues.
+     *
+     * @return le bilan de la migration
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     * @throws ClassNotFoundException si le fichier source contient des classes inconnues
+     */
+    public Bilan migrer() throws IOException, ClassNotFoundException {
+        Bilan bilan = new Bilan();
+        long debut = System.nanoTime();
+        bilan.octetsLus = source.length();
+
+        Ciup ciup;
+        long numero;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            ciup = (Ciup) in.readObject();
+            try {
+                numero = in.readLong();
+            } catch (EOFException e) {
+                // Sauvegarde antérieure au journal : aucune opération incluse
+                numero = 0;
+            }
+        }
+        List<MaisonEtudiante> maisons = ciup.getListeMaisonsEtudiantes();
+        for (MaisonEtudiante maison : maisons) {
+            maison.setCiup(ciup);
+            for (Soiree soiree : maison.getAgenda()) {
+                soiree.setMaison(maison);
+            }
+        }
+        ciup.numeroterMaisons();
+
+        synchronized (GestionSauvegarde.class) {
+            Map<Integer, InstantaneMaison> echantillon = ecrireMaisons(ciup, numero, bilan);
+            verifier(echantillon, bilan);
+            if (!bilan.estVerifie()) {
+                new File(GestionSauvegarde.FICHIER_SAUVEGARDE).delete();
+            }
+        }
+        bilan.dureeNanos = System.nanoTime() - debut;
+        return bilan;
+    }
+
+    /**
+     * Écrit chaque maison puis la racine, en détachant le contenu de chaque maison écrite,
+     * et retourne l'instantané des maisons de l'échantillon.
+     */
+    private Map<Integer, InstantaneMaison> ecrireMaisons(Ciup ciup, long numero, Bilan bilan) throws IOException {
+        CodecBinaireCiup codec = new CodecBinaireCiup();
+        CompressionSauvegarde compression = GestionSauvegarde.getCompression();
+        new File(GestionSauvegarde.REPERTOIRE_MAISONS).mkdirs();
+
+        List<MaisonEtudiante> maisons = ciup.getListeMaisonsEtudiantes();
+        int nbMaisons = maisons.size();
+        int pas = Math.max(1, nbMaisons / TAILLE_ECHANTILLON);
+        List<InstantaneMaison> entetes = new ArrayList<>(nbMaisons);
+        Map<Integer, InstantaneMaison> echantillon = new LinkedHashMap<>();
+        Set<String> references = new HashSet<>();
+        int[] versions = new int[nbMaisons];
+        // Avant de détacher les maisons : leurs listes d'attente donnent les candidatures de la racine
+        List<InstantaneCiup.InstantaneCandidature> candidatures = ciup.getPromotionAttente().instantane();
+
+        for (int i = 0; i < nbMaisons; i++) {
+            MaisonEtudiante maison = maisons.get(i);
+            InstantaneMaison instantane = maison.instantane(true);
+            ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+            codec.ecrireMaison(instantane, tampon);
+            byte[] octets = compression.compresser(tampon.toByteArray());
+            File fichier = GestionSauvegarde.fichierMaison(instantane.getIdentifiant(), VERSION_FICHIERS);
+            GestionSauvegarde.ecrireFichier(fichier.toPath(), octets);
+            references.add(fichier.getName());
+            versions[i] = VERSION_FICHIERS;
+
+            bilan.nbMaisons++;
+            bilan.nbChambres += instantane.getNbChambres();
+            bilan.nbEtudiants += instantane.getNbEtudiants();
+            bilan.nbEnAttente += instantane.getAttente().size();
+            bilan.nbSoirees += instantane.getAgenda().size();
+            bilan.octetsEcrits += octets.length;
+
+            entetes.add(instantane.entete());
+            if (i % pas == 0 && echantillon.size() < TAILLE_ECHANTILLON) {
+                echantillon.put(instantane.getIdentifiant(), instantane);
+            }
+            detacher(maison);
+            if (progression != null) {
+                progression.maisonEcrite(i + 1, nbMaisons, instantane.getNom(), bilan.octetsEcrits);
+            }
+        }
+
+        InstantaneCiup racine = new InstantaneCiup(ciup.getMaisonInternationale(), ciup.getDernierIdentifiantMaison(),
+                ciup.getDernierIdentifiantEtudiant(), entetes, candidatures);
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        codec.ecrireRacine(racine, numero, versions, tampon);
+        byte[] octets = compression.compresser(tampon.toByteArray());
+        GestionSauvegarde.ecrireFichier(new File(GestionSauvegarde.FICHIER_SAUVEGARDE).toPath(), octets);
+        bilan.octetsEcrits += octets.length;
+
+        File[] existants = new File(GestionSauvegarde.REPERTOIRE_MAISONS).listFiles();
+        if (existants != null) {
+            for (File existant : existants) {
+                if (!references.contains(existant.getName())) {
+                    existant.delete();
+                }
+            }
+        }
+        GestionSauvegarde.compacterJournal(numero);
+        return echantillon;
+    }
+
+    /**
+     * Détache le contenu d'une maison écrite, pour que le ramasse-miettes puisse libérer
+     * ses chambres, ses soirées et les étudiants qu'aucune autre maison ne référence.
+     */
+    private static void detacher(MaisonEtudiante maison) {
+        maison.setListeChambres(new ArrayList<>());
+        maison.setListeEtudiante(new ArrayList<>());
+        maison.setlisteAttente(new ArrayList<>());
+        maison.getAgenda().clear();
+    }
+
+    /**
+     * Relit les maisons de l'échantillon depuis les fichiers écrits et compare leur encodage
+     * à celui de leur instantané avant écriture.
+     */
+    private static void verifier(Map<Integer, InstantaneMaison> echantillon, Bilan bilan) throws IOException {
+        CodecBinaireCiup codec = new CodecBinaireCiup();
+        CodecBinaireCiup.Racine racine;
+        try (InputStream in = CompressionSauvegarde.decompresser(new BufferedInputStream(
+                new FileInputStream(GestionSauvegarde.FICHIER_SAUVEGARDE)))) {
+            racine = codec.lireRacine(in);
+        }
+        if (racine.getIdentifiants().length != bilan.nbMaisons) {
+            bilan.maisonsDivergentes.add("racine : " + racine.getIdentifiants().length + " maison(s) relue(s)");
+            return;
+        }
+        Map<Integer, SectionRelue> sections = new HashMap<>();
+        for (int i = 0; i < racine.getIdentifiants().length; i++) {
+            File fichier = GestionSauvegarde.fichierMaison(racine.getIdentifiants()[i], racine.getVersions()[i]);
+            sections.put(racine.getIdentifiants()[i], new SectionRelue(fichier));
+        }
+        Ciup relue = new ChargeurMaisonsDiffere(sections).assembler(racine);
+
+        for (InstantaneMaison original : echantillon.values()) {
+            MaisonEtudiante maison = relue.getMaisonParIdentifiant(original.getIdentifiant());
+            bilan.nbVerifiees++;
+            if (maison == null || !Arrays.equals(encoder(original), encoder(maison.instantane(true)))) {
+                bilan.maisonsDivergentes.add(original.getNom());
+            }
+        }
+    }
+
+    /**
+     * Encode la section d'une maison, pour comparer deux instantanés.
+     */
+    private static byte[] encoder(InstantaneMaison maison) throws IOException {
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        new CodecBinaireCiup().ecrireMaison(maison, tampon);
+        return tampon.toByteArray();
+    }
+
+    /**
+     * Lecture différée du fichier d'une maison, exécutée seulement si la vérification
+     * reconstruit cette maison.
+     */
+    private static class SectionRelue extends FutureTask<CodecBinaireCiup.SectionMaison> {
+
+        private SectionRelue(File fichier) {
+            super(() -> {
+                try (InputStream in = CompressionSauvegarde.decompresser(
+                        new BufferedInputStream(new FileInputStream(fichier)))) {
+                    return new CodecBinaireCiup().lireMaison(in);
+                }
+            });
+        }
+
+        @Override
+        public CodecBinaireCiup.SectionMaison get() throws InterruptedException, ExecutionException {
+            run();
+            return super.get();
+        }
+    }
+}
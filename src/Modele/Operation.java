@@ -0,0 +1,477 @@
+package Modele;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Représente une opération élémentaire effectuée sur la CIUP et consignée dans le
+ * journal des opérations ({@link JournalOperations}).
+ * <p>
+ * Une opération ne contient que les informations nécessaires pour être rejouée
+ * sur un état de la CIUP : les maisons sont désignées par leur position dans la liste
+ * des maisons étudiantes (-1 pour la maison internationale) et les étudiants par
+ * leur numéro dans la CIUP ({@link Etudiant#getIdentifiant()}), qui distingue les homonymes.
+ * Leur nom et prénom sont aussi consignés : les opérations des journaux antérieurs à la
+ * version 2 du format, qui n'ont pas les numéros, retrouvent les étudiants par leur nom.
+ * </p>
+ * <p>
+ * Un retrait consigne aussi les candidats promus à la place libérée : le rejeu les loge sans
+ * refaire le choix de la promotion, qui dépend des listes d'attente de toutes les maisons.
+ * Les retraits des journaux antérieurs, sans promotions, sont rejoués avec une promotion.
+ * </p>
+ *
+ * @version 1.0
+ * @see JournalOperations
+ * @see GestionSauvegarde
+ */
+public class Operation {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Types d'opérations pouvant être consignées dans le journal.
+     */
+    public enum TypeOperation {
+        /** Création d'un étudiant et affectation automatique à une maison */
+        INSCRIPTION,
+        /** Retrait d'un étudiant (logé ou en liste d'attente) d'une maison */
+        RETRAIT,
+        /** Ajout d'une soirée à l'agenda d'une maison */
+        AJOUT_SOIREE,
+        /** Retrait d'une soirée de l'agenda d'une maison */
+        RETRAIT_SOIREE,
+        /** Modification des informations descriptives d'une maison */
+        MODIFICATION_MAISON,
+        /** Création d'une nouvelle maison étudiante */
+        AJOUT_MAISON,
+        /** Suppression d'une maison étudiante */
+        SUPPRESSION_MAISON
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Type de l'opération */
+    private final TypeOperation type;
+
+    /** Position de la maison concernée dans la CIUP (-1 pour la maison internationale) */
+    private final int maison;
+
+    /** Valeurs textuelles de l'opération (noms, descriptions, dates...) */
+    private final String[] textes;
+
+    /** Valeurs entières de l'opération (capacités des chambres, maison souhaitée...) */
+    private final int[] entiers;
+
+    /** Numéros des étudiants cités, dans l'ordre de leurs noms (vide avant la version 2) */
+    private final int[] etudiants;
+
+    /** Version courante du format d'une opération */
+    private static final int FORMAT = 2;
+
+    /**
+     * Marque d'un format versionné, écrite avant le type : les opérations de la version 1
+     * commencent directement par le type, dont le rang est inférieur
+     */
+    private static final int MARQUE_FORMAT = 0x80;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit une opération à partir de ses composantes brutes.
+     *
+     * @param type le type de l'opération
+     * @param maison la position de la maison concernée
+     * @param textes les valeurs textuelles
+     * @param entiers les valeurs entières
+     * @param etudiants les numéros des étudiants cités
+     */
+    private Operation(TypeOperation type, int maison, String[] textes, int[] entiers, int[] etudiants) {
+        this.type = type;
+        this.maison = maison;
+        this.textes = textes;
+        this.entiers = entiers;
+        this.etudiants = etudiants;
+    }
+
+    // --------------------------
+    //       FABRIQUES
+    // --------------------------
+
+    /**
+     * Crée l'opération correspondant à la création d'un étudiant.
+     *
+     * @param ciup la CIUP dans laquelle l'étudiant a été créé
+     * @param etudiant l'étudiant créé
+     * @return l'opération d'inscription
+     */
+    public static Operation inscription(Ciup ciup, Etudiant etudiant) {
+        int souhait = etudiant.getSouhait() == null ? -1 : indexMaison(ciup, etudiant.getSouhait());
+        return new Operation(TypeOperation.INSCRIPTION, -1,
+                new String[] { etudiant.getNom(), etudiant.getPrenom(), etudiant.getNationalite() },
+                new int[] { souhait }, new int[] { etudiant.getIdentifiant() });
+    }
+
+    /**
+     * Crée l'opération correspondant au retrait d'un étudiant d'une maison.
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison dont l'étudiant est retiré
+     * @param etudiant l'étudiant retiré
+     * @return l'opération de retrait
+     */
+    public static Operation retrait(Ciup ciup, MaisonEtudiante maison, Etudiant etudiant) {
+        return new Operation(TypeOperation.RETRAIT, indexMaison(ciup, maison),
+                new String[] { etudiant.getNom(), etudiant.getPrenom() }, new int[0],
+                new int[] { etudiant.getIdentifiant() });
+    }
+
+    /**
+     * Crée l'opération correspondant au retrait d'un étudiant d'une maison, avec les promotions
+     * qui ont pourvu sa place. Les textes donnent le nom et le prénom du retiré puis de chaque
+     * promu ; les entiers, le nombre de promus puis, pour chacun, le nombre de maisons dont il
+     * était en liste d'attente suivi de leurs positions. Les numéros des étudiants suivent l'ordre des noms.
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison dont l'étudiant est retiré
+     * @param etudiant l'étudiant retiré
+     * @param promues les promotions retournées par {@link MaisonEtudiante#retirerEtudiant}
+     * @return l'opération de retrait
+     */
+    public static Operation retrait(Ciup ciup, MaisonEtudiante maison, Etudiant etudiant,
+                                    List<PromotionAttente.Promotion> promues) {
+        List<String> textes = new ArrayList<>();
+        textes.add(etudiant.getNom());
+        textes.add(etudiant.getPrenom());
+        List<Integer> entiers = new ArrayList<>();
+        entiers.add(promues.size());
+        int[] numeros = new int[1 + promues.size()];
+        numeros[0] = etudiant.getIdentifiant();
+        int rang = 1;
+        for (PromotionAttente.Promotion promotion : promues) {
+            textes.add(promotion.getEtudiant().getNom());
+            textes.add(promotion.getEtudiant().getPrenom());
+            numeros[rang++] = promotion.getEtudiant().getIdentifiant();
+            // Les maisons supprimées entre-temps n'ont plus de position
+            List<Integer> positions = new ArrayList<>();
+            for (MaisonEtudiante attente : promotion.getAttentes()) {
+                int position = indexMaison(ciup, attente);
+                if (position >= 0) {
+                    positions.add(position);
+                }
+            }
+            entiers.add(positions.size());
+            entiers.addAll(positions);
+        }
+        int[] valeurs = new int[entiers.size()];
+        for (int i = 0; i < valeurs.length; i++) {
+            valeurs[i] = entiers.get(i);
+        }
+        return new Operation(TypeOperation.RETRAIT, indexMaison(ciup, maison),
+                textes.toArray(new String[0]), valeurs, numeros);
+    }
+
+    /**
+     * Crée l'opération correspondant à l'ajout d'une soirée et de ses inscrits.
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison organisatrice
+     * @param soiree la soirée ajoutée
+     * @return l'opération d'ajout de soirée
+     */
+    public static Operation ajoutSoiree(Ciup ciup, MaisonEtudiante maison, Soiree soiree) {
+        List<String> textes = new ArrayList<>();
+        textes.add(soiree.getNomSoiree());
+        textes.add(soiree.getDescriptionSoiree());
+        textes.add(soiree.getDateSoiree().toString());
+        List<Etudiant> inscrits = soiree.getListeInscrit();
+        int[] numeros = new int[inscrits.size()];
+        for (int i = 0; i < numeros.length; i++) {
+            textes.add(inscrits.get(i).getNom());
+            textes.add(inscrits.get(i).getPrenom());
+            numeros[i] = inscrits.get(i).getIdentifiant();
+        }
+        return new Operation(TypeOperation.AJOUT_SOIREE, indexMaison(ciup, maison),
+                textes.toArray(new String[0]), new int[0], numeros);
+    }
+
+    /**
+     * Crée l'opération correspondant au retrait d'une soirée.
+     * Une maison n'ayant qu'une soirée par date, la date suffit à l'identifier.
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison organisatrice
+     * @param soiree la soirée retirée
+     * @return l'opération de retrait de soirée
+     */
+    public static Operation retraitSoiree(Ciup ciup, MaisonEtudiante maison, Soiree soiree) {
+        return new Operation(TypeOperation.RETRAIT_SOIREE, indexMaison(ciup, maison),
+                new String[] { soiree.getDateSoiree().toString() }, new int[0], new int[0]);
+    }
+
+    /**
+     * Crée l'opération recopiant les informations descriptives d'une maison
+     * (nom, description, nationalité, directeur et image).
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison modifiée
+     * @return l'opération de modification de maison
+     */
+    public static Operation modificationMaison(Ciup ciup, Maison maison) {
+        int index = (maison instanceof MaisonEtudiante) ? indexMaison(ciup, (MaisonEtudiante) maison) : -1;
+        return new Operation(TypeOperation.MODIFICATION_MAISON, index,
+                new String[] { maison.getNom(), maison.getDescription(), maison.getNationalite(),
+                               maison.getDirecteur(), maison.getCheminImage() },
+                new int[0], new int[0]);
+    }
+
+    /**
+     * Crée l'opération correspondant à la création d'une maison étudiante.
+     *
+     * @param ciup la CIUP à laquelle la maison a été ajoutée
+     * @param maison la maison créée
+     * @return l'opération d'ajout de maison
+     */
+    public static Operation ajoutMaison(Ciup ciup, MaisonEtudiante maison) {
+        List<Chambre> chambres = maison.getListeChambres();
+        int[] capacites = new int[chambres.size()];
+        for (int i = 0; i < capacites.length; i++) {
+            capacites[i] = chambres.get(i).getCapacite();
+        }
+        return new Operation(TypeOperation.AJOUT_MAISON, indexMaison(ciup, maison),
+                new String[] { maison.getNom(), maison.getDirecteur(), maison.getNationalite(),
+                               maison.getLocalisation(), maison.getCheminImage() },
+                capacites, new int[0]);
+    }
+
+    /**
+     * Crée l'opération correspondant à la suppression d'une maison étudiante.
+     * Doit être créée avant la suppression effective, tant que la maison a encore une position.
+     *
+     * @param ciup la CIUP concernée
+     * @param maison la maison supprimée
+     * @return l'opération de suppression de maison
+     */
+    public static Operation suppressionMaison(Ciup ciup, MaisonEtudiante maison) {
+        return new Operation(TypeOperation.SUPPRESSION_MAISON, indexMaison(ciup, maison), new String[0], new int[0],
+                new int[0]);
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Rejoue l'opération sur la CIUP donnée, en passant par les mêmes méthodes
+     * du modèle que l'action utilisateur d'origine.
+     *
+     * @param ciup la CIUP sur laquelle rejouer l'opération
+     * @throws IllegalStateException si une maison ou un étudiant référencé est introuvable
+     */
+    public void appliquer(Ciup ciup) {
+        switch (type) {
+            case INSCRIPTION:
+                if (etudiants.length > 0) {
+                    // Le numéro d'origine, que citent les opérations suivantes
+                    Etudiant.reinscrire(ciup, etudiants[0], textes[0], textes[1], textes[2],
+                            (entiers[0] >= 0) ? maison(ciup, entiers[0]) : null);
+                } else if (entiers[0] >= 0) {
+                    new Etudiant(ciup, textes[0], textes[1], textes[2], maison(ciup, entiers[0]));
+                } else {
+                    new Etudiant(ciup, textes[0], textes[1], textes[2]);
+                }
+                break;
+
+            case RETRAIT:
+                if (entiers.length == 0) {
+                    maison(ciup, maison).retirerEtudiant(etudiant(ciup, 0));
+                    break;
+                }
+                List<Etudiant> promus = new ArrayList<>(entiers[0]);
+                List<List<MaisonEtudiante>> attentes = new ArrayList<>(entiers[0]);
+                for (int i = 0, position = 1; i < entiers[0]; i++) {
+                    promus.add(etudiant(ciup, 1 + i));
+                    List<MaisonEtudiante> maisons = new ArrayList<>(entiers[position]);
+                    for (int j = 0; j < entiers[position]; j++) {
+                        maisons.add(maison(ciup, entiers[position + 1 + j]));
+                    }
+                    attentes.add(maisons);
+                    position += 1 + entiers[position];
+                }
+                maison(ciup, maison).rejouerRetrait(etudiant(ciup, 0), promus, attentes);
+                break;
+
+            case AJOUT_SOIREE:
+                Soiree soiree = new Soiree(textes[0], textes[1], LocalDateTime.parse(textes[2]));
+                maison(ciup, maison).ajouterSoiree(soiree);
+                for (int i = 0; 4 + 2 * i < textes.length; i++) {
+                    soiree.inscrireEtudiantSoiree(etudiant(ciup, i, 3 + 2 * i));
+                }
+                break;
+
+            case RETRAIT_SOIREE:
+                LocalDateTime date = LocalDateTime.parse(textes[0]);
+                MaisonEtudiante organisatrice = maison(ciup, maison);
+                for (Soiree s : new ArrayList<>(organisatrice.getAgenda())) {
+                    if (s.getDateSoiree().equals(date)) {
+                        organisatrice.retirerSoiree(s);
+                    }
+                }
+                break;
+
+            case MODIFICATION_MAISON:
+                Maison modifiee = (maison == -1) ? ciup.getMaisonInternationale() : maison(ciup, maison);
+                modifiee.setNom(textes[0]);
+                modifiee.setDescription(textes[1]);
+                modifiee.setNationalite(textes[2]);
+                modifiee.setDirecteur(textes[3]);
+                modifiee.setCheminImage(textes[4]);
+                break;
+
+            case AJOUT_MAISON:
+                List<Integer> capacites = new ArrayList<>(entiers.length);
+                for (int capacite : entiers) {
+                    capacites.add(capacite);
+                }
+                new MaisonEtudiante(ciup, textes[0], textes[1], textes[2], textes[3], capacites, textes[4]);
+                break;
+
+            case SUPPRESSION_MAISON:
+                ciup.supprimerMaison(maison(ciup, maison));
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Écrit l'opération sur un flux binaire.
+     *
+     * @param out le flux de sortie
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(DataOutputStream out) throws IOException {
+        out.writeByte(MARQUE_FORMAT | FORMAT);
+        out.writeByte(type.ordinal());
+        out.writeInt(maison);
+        out.writeInt(textes.length);
+        for (String texte : textes) {
+            out.writeBoolean(texte != null);
+            if (texte != null) {
+                out.writeUTF(texte);
+            }
+        }
+        out.writeInt(entiers.length);
+        for (int entier : entiers) {
+            out.writeInt(entier);
+        }
+        out.writeInt(etudiants.length);
+        for (int numero : etudiants) {
+            out.writeInt(numero);
+        }
+    }
+
+    /**
+     * Lit une opération écrite par {@link #ecrire(DataOutputStream)}.
+     *
+     * @param in le flux d'entrée
+     * @return l'opération lue
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static Operation lire(DataInputStream in) throws IOException {
+        int premier = in.readUnsignedByte();
+        int format = (premier >= MARQUE_FORMAT) ? premier - MARQUE_FORMAT : 1;
+        if (format > FORMAT) {
+            throw new IOException("Format d'opération inconnu : " + format);
+        }
+        TypeOperation type = TypeOperation.values()[(format >= 2) ? in.readUnsignedByte() : premier];
+        int maison = in.readInt();
+        String[] textes = new String[in.readInt()];
+        for (int i = 0; i < textes.length; i++) {
+            textes[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        int[] entiers = new int[in.readInt()];
+        for (int i = 0; i < entiers.length; i++) {
+            entiers[i] = in.readInt();
+        }
+        int[] etudiants = new int[(format >= 2) ? in.readInt() : 0];
+        for (int i = 0; i < etudiants.length; i++) {
+            etudiants[i] = in.readInt();
+        }
+        return new Operation(type, maison, textes, entiers, etudiants);
+    }
+
+    /**
+     * Retourne le type de l'opération.
+     *
+     * @return le type de l'opération
+     */
+    public TypeOperation getType() {
+        return type;
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Retourne la position d'une maison étudiante dans la CIUP.
+     */
+    private static int indexMaison(Ciup ciup, MaisonEtudiante maison) {
+        return ciup.getListeMaisonsEtudiantes().indexOf(maison);
+    }
+
+    /**
+     * Retrouve une maison étudiante à partir de sa position.
+     */
+    private static MaisonEtudiante maison(Ciup ciup, int index) {
+        if (index < 0 || index >= ciup.getListeMaisonsEtudiantes().size()) {
+            throw new IllegalStateException("Maison introuvable à la position " + index);
+        }
+        return ciup.getListeMaisonsEtudiantes().get(index);
+    }
+
+    /**
+     * Retrouve un étudiant cité, dont le nom est en tête des textes.
+     */
+    private Etudiant etudiant(Ciup ciup, int rang) {
+        return etudiant(ciup, rang, 2 * rang);
+    }
+
+    /**
+     * Retrouve un étudiant cité par son numéro, ou par son nom et prénom dans une opération
+     * antérieure aux numéros.
+     *
+     * @param rang le rang de l'étudiant parmi les étudiants cités
+     * @param texte la position de son nom dans les textes, suivi de son prénom
+     */
+    private Etudiant etudiant(Ciup ciup, int rang, int texte) {
+        if (etudiants.length == 0) {
+            return etudiant(ciup, textes[texte], textes[texte + 1]);
+        }
+        Etudiant etudiant = ciup.rechercherEtudiant(etudiants[rang]);
+        if (etudiant == null) {
+            throw new IllegalStateException("Étudiant introuvable : n° " + etudiants[rang]
+                    + " (" + textes[texte] + " " + textes[texte + 1] + ")");
+        }
+        return etudiant;
+    }
+
+    /**
+     * Retrouve un étudiant logé ou en attente à partir de son nom et prénom.
+     */
+    private static Etudiant etudiant(Ciup ciup, String nom, String prenom) {
+        Etudiant etudiant = ciup.rechercherEtudiant(nom, prenom);
+        if (etudiant == null) {
+            throw new IllegalStateException("Étudiant introuvable : " + nom + " " + prenom);
+        }
+        return etudiant;
+    }
+}
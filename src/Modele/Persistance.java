@@ -0,0 +1,81 @@
+package Modele;
+
+import java.sql.SQLException;
+
+/**
+ * Point d'accès au dépôt de la CIUP utilisé par l'application.
+ * <p>
+ * Le dépôt est choisi au premier accès par la propriété système {@value #PROPRIETE} :
+ * {@code fichiers} (par défaut) pour la sauvegarde historique par fichiers, ou {@code jdbc}
+ * pour une base SQL embarquée dont l'URL est donnée par {@value #PROPRIETE_URL}
+ * (par défaut {@value DepotJdbc#URL_PAR_DEFAUT}), et les identifiants par
+ * {@value #PROPRIETE_UTILISATEUR} et {@value #PROPRIETE_MOT_DE_PASSE}.
+ * Si la base est inaccessible (pilote absent du classpath par exemple),
+ * l'application revient à la sauvegarde par fichiers.
+ * </p>
+ *
+ * @version 1.0
+ * @see DepotCiup
+ */
+public final class Persistance {
+
+    /** Propriété système choisissant le dépôt : "fichiers" ou "jdbc" */
+    public static final String PROPRIETE = "ciup.depot";
+
+    /** Propriété système donnant l'URL JDBC de la base */
+    public static final String PROPRIETE_URL = "ciup.depot.url";
+
+    /** Propriété système donnant l'utilisateur de la base */
+    public static final String PROPRIETE_UTILISATEUR = "ciup.depot.utilisateur";
+
+    /** Propriété système donnant le mot de passe de la base */
+    public static final String PROPRIETE_MOT_DE_PASSE = "ciup.depot.motdepasse";
+
+    /** Dépôt utilisé, choisi au premier accès */
+    private static DepotCiup depot;
+
+    private Persistance() {
+    }
+
+    /**
+     * Retourne le dépôt utilisé par l'application, en le créant au premier appel
+     * d'après la configuration.
+     *
+     * @return le dépôt de la CIUP
+     */
+    public static synchronized DepotCiup getDepot() {
+        if (depot == null) {
+            depot = depuisConfiguration();
+        }
+        return depot;
+    }
+
+    /**
+     * Remplace le dépôt utilisé par l'application.
+     *
+     * @param nouveauDepot le nouveau dépôt
+     */
+    public static synchronized void setDepot(DepotCiup nouveauDepot) {
+        depot = nouveauDepot;
+    }
+
+    /**
+     * Crée le dépôt désigné par les propriétés système.
+     */
+    private static DepotCiup depuisConfiguration() {
+        String choix = System.getProperty(PROPRIETE, "fichiers").trim();
+        if (choix.equalsIgnoreCase("jdbc")) {
+            String url = System.getProperty(PROPRIETE_URL, DepotJdbc.URL_PAR_DEFAUT);
+            try {
+                return new DepotJdbc(url, System.getProperty(PROPRIETE_UTILISATEUR),
+                        System.getProperty(PROPRIETE_MOT_DE_PASSE));
+            } catch (SQLException e) {
+                System.out.println("Base " + url + " inaccessible (" + e.getMessage()
+                        + "), retour à la sauvegarde par fichiers.");
+            }
+        } else if (!choix.equalsIgnoreCase("fichiers")) {
+            System.out.println("Dépôt inconnu : " + choix + ", utilisation de la sauvegarde par fichiers.");
+        }
+        return new DepotFichiers();
+    }
+}
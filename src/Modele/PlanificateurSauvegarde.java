@@ -0,0 +1,269 @@
+package Modele;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Planificateur regroupant les demandes de sauvegarde en une seule écriture de fond.
+ * <p>
+ * Chaque demande marque le modèle comme modifié et repousse l'écriture jusqu'à
+ * la fin d'une courte période sans nouvelle demande. Une rafale de demandes ne
+ * provoque ainsi qu'une seule écriture, effectuée hors du thread Swing. Un délai
+ * maximal garantit qu'une activité continue finit tout de même par être sauvegardée.
+ * </p>
+ * <p>
+ * L'écriture se déroule en deux temps : la capture de l'état est exécutée par
+ * l'exécuteur du modèle (le thread qui le modifie), puis l'écriture sur disque
+ * de l'état capturé est exécutée par le thread de fond du planificateur. Le modèle
+ * reste marqué comme modifié tant que la capture confiée à son exécuteur n'a pas commencé :
+ * un vidage entre-temps la fait lui-même, ou attend la fin d'une capture commencée.
+ * </p>
+ *
+ * @version 1.0
+ * @see GestionSauvegarde
+ */
+public class PlanificateurSauvegarde {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Durée sans nouvelle demande avant l'écriture, en millisecondes */
+    private final long delaiRegroupement;
+
+    /** Délai maximal entre la première demande non satisfaite et l'écriture, en millisecondes */
+    private final long delaiMaximal;
+
+    /** Capture de l'état à sauvegarder ; renvoie l'écriture à effectuer en arrière-plan */
+    private final Supplier<Runnable> capture;
+
+    /** Exécuteur du thread propriétaire du modèle, sur lequel la capture est faite */
+    private volatile Executor executeurModele;
+
+    /** Thread de fond effectuant les écritures */
+    private final ScheduledExecutorService executeur;
+
+    /** Écriture programmée en attente, ou {@code null} */
+    private ScheduledFuture<?> ecritureProgrammee;
+
+    /** Instant de la première demande non encore satisfaite, en nanosecondes */
+    private long debutRafale;
+
+    /** Indique si le modèle a été modifié depuis la dernière capture */
+    private boolean modifie;
+
+    /** Indique si une capture a été confiée à l'exécuteur du modèle sans avoir encore commencé */
+    private boolean capturePostee;
+
+    /** Indique si une capture confiée à l'exécuteur du modèle est en cours */
+    private boolean captureEnCours;
+
+    /** Nombre de sauvegardes demandées */
+    private final AtomicLong nbDemandes = new AtomicLong();
+
+    /** Nombre de sauvegardes réellement écrites */
+    private final AtomicLong nbEcritures = new AtomicLong();
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit un planificateur de sauvegarde.
+     *
+     * @param delaiRegroupement durée sans nouvelle demande avant l'écriture, en millisecondes
+     * @param delaiMaximal délai maximal avant l'écriture d'une rafale continue, en millisecondes
+     * @param capture capture de l'état, renvoyant l'écriture à effectuer en arrière-plan
+     */
+    public PlanificateurSauvegarde(long delaiRegroupement, long delaiMaximal, Supplier<Runnable> capture) {
+        this.delaiRegroupement = delaiRegroupement;
+        this.delaiMaximal = delaiMaximal;
+        this.capture = capture;
+        this.executeurModele = Runnable::run;
+        this.executeur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "planificateur-sauvegarde");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // --------------------------
+    //       METHODES
+    // --------------------------
+
+    /**
+     * Signale que le modèle a été modifié et programme une écriture
+     * à l'issue de la période de regroupement.
+     */
+    public synchronized void demander() {
+        nbDemandes.incrementAndGet();
+        long maintenant = System.nanoTime();
+        if (!modifie) {
+            modifie = true;
+            debutRafale = maintenant;
+        }
+        if (ecritureProgrammee != null) {
+            ecritureProgrammee.cancel(false);
+        }
+        long restant = delaiMaximal - TimeUnit.NANOSECONDS.toMillis(maintenant - debutRafale);
+        long delai = Math.max(0, Math.min(delaiRegroupement, restant));
+        ecritureProgrammee = executeur.schedule(this::declencher, delai, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Écrit immédiatement, sur le thread appelant, les modifications en attente,
+     * après avoir attendu la fin de la capture et de l'écriture de fond éventuellement en cours.
+     * Une capture confiée à l'exécuteur du modèle mais pas encore commencée est faite ici.
+     * Utilisé avant un rechargement et à la fermeture de l'application.
+     */
+    public void vider() {
+        boolean aEcrire;
+        synchronized (this) {
+            if (ecritureProgrammee != null) {
+                ecritureProgrammee.cancel(false);
+                ecritureProgrammee = null;
+            }
+            capturePostee = false;
+            attendreCaptureEnCours();
+            aEcrire = modifie;
+            modifie = false;
+        }
+        attendreEcrituresEnCours();
+        if (aEcrire) {
+            capture.get().run();
+            nbEcritures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Enregistre un crochet d'arrêt de la JVM qui vide les modifications en attente.
+     */
+    public void installerVidageALaSortie() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::vider, "vidage-sauvegarde"));
+    }
+
+    /**
+     * Exécute périodiquement une tâche sur le thread de fond du planificateur.
+     *
+     * @param tache la tâche à exécuter
+     * @param periode la période, en secondes
+     */
+    public void programmerPeriodiquement(Runnable tache, long periode) {
+        executeur.scheduleWithFixedDelay(tache, periode, periode, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Définit l'exécuteur du thread propriétaire du modèle.
+     *
+     * @param executeurModele l'exécuteur sur lequel capturer l'état
+     */
+    public void setExecuteurModele(Executor executeurModele) {
+        this.executeurModele = executeurModele;
+    }
+
+    /**
+     * Retourne le nombre de sauvegardes demandées depuis le démarrage.
+     *
+     * @return le nombre de demandes
+     */
+    public long getNbDemandes() {
+        return nbDemandes.get();
+    }
+
+    /**
+     * Retourne le nombre de sauvegardes effectivement écrites depuis le démarrage.
+     *
+     * @return le nombre d'écritures
+     */
+    public long getNbEcritures() {
+        return nbEcritures.get();
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Fin de la période de regroupement : capture l'état sur le thread du modèle,
+     * puis confie l'écriture au thread de fond.
+     */
+    private void declencher() {
+        synchronized (this) {
+            if (!modifie || capturePostee) {
+                return;
+            }
+            capturePostee = true;
+            ecritureProgrammee = null;
+        }
+        executeurModele.execute(this::capturerPuisEcrire);
+    }
+
+    /**
+     * Capture l'état sur le thread du modèle, sauf si un vidage l'a fait entre-temps,
+     * puis confie l'écriture au thread de fond.
+     */
+    private void capturerPuisEcrire() {
+        synchronized (this) {
+            if (!capturePostee) {
+                return;
+            }
+            capturePostee = false;
+            captureEnCours = true;
+            modifie = false;
+        }
+        boolean capturee = false;
+        try {
+            Runnable ecriture = capture.get();
+            capturee = true;
+            executeur.execute(() -> {
+                ecriture.run();
+                nbEcritures.incrementAndGet();
+            });
+        } finally {
+            synchronized (this) {
+                captureEnCours = false;
+                if (!capturee) {
+                    modifie = true;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Attend, sous le verrou du planificateur, la fin de la capture en cours sur le thread du modèle.
+     */
+    private void attendreCaptureEnCours() {
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (captureEnCours) {
+            long restant = fin - System.nanoTime();
+            if (restant <= 0) {
+                System.out.println("Capture non terminée");
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, restant);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attend que les tâches déjà soumises au thread de fond soient terminées.
+     */
+    private void attendreEcrituresEnCours() {
+        if (executeur.isShutdown()) {
+            return;
+        }
+        try {
+            executeur.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            System.out.println("Écriture de fond non terminée : " + e);
+        }
+    }
+}
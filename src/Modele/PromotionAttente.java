@@ -0,0 +1,512 @@
+package Modele;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Promotion des étudiants en liste d'attente, à l'échelle de la CIUP : quand une chambre se libère
+ * dans une maison, elle revient au candidat éligible arrivé le premier, qu'il attende dans cette
+ * maison ou dans une autre.
+ * <p>
+ * Un candidat est éligible dans les maisons dont il est en liste d'attente. S'il n'a pas exprimé
+ * de souhait, il a été inscrit par l'affectation nationale ou équitable et accepte toute maison :
+ * il est aussi éligible ailleurs, sauf dans une maison où sa nationalité est majoritaire
+ * (plus de 50% des logés), comme pour {@link RepartitionEquitable}.
+ * </p>
+ * <p>
+ * Chaque candidat reçoit un rang d'arrivée à sa première inscription en liste d'attente. Les
+ * candidats d'une maison forment un {@link TasIndexe} ordonné par arrivée ; les candidats sans
+ * souhait forment en outre un tas par nationalité, et un dernier tas ordonne ces nationalités
+ * par leur premier candidat. Le meilleur candidat d'une maison est donc le premier entre la tête
+ * de son tas et celle de la première nationalité autre que sa majoritaire, et le retirer de tous
+ * ses tas est logarithmique.
+ * </p>
+ * <p>
+ * Les maisons signalent les changements de leur liste d'attente sans prendre de verrou : ils sont
+ * déposés dans une file concurrente et appliqués au choix suivant, sous le verrou de la promotion.
+ * Une promotion est choisie sous le verrou de la maison qui a une chambre libre, toujours dans
+ * l'ordre maison puis promotion ; la promotion ne prend jamais le verrou d'une maison.
+ * </p>
+ * <p>
+ * Les candidatures sont désignées par le numéro de l'étudiant dans la CIUP et sauvegardées dans la
+ * racine, dans l'ordre d'arrivée ({@link #instantane}). Après un chargement, elles sont restaurées
+ * avant même que le contenu de leurs maisons soit lu : un candidat d'une maison non chargée
+ * concourt à son rang, et sa maison n'est chargée que s'il est choisi ({@link Promotion#estACharger}).
+ * </p>
+ *
+ * @version 1.0
+ * @see MaisonEtudiante#retirerEtudiant(Etudiant)
+ * @see Ciup#ajouterEcouteurPromotions(Consumer)
+ */
+public class PromotionAttente {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Événement émis à chaque promotion : un étudiant en liste d'attente a été logé dans une maison.
+     */
+    public static final class Promotion {
+
+        private final Etudiant etudiant;
+        private final MaisonEtudiante maison;
+        private final List<MaisonEtudiante> attentes;
+
+        private Promotion(Etudiant etudiant, MaisonEtudiante maison, List<MaisonEtudiante> attentes) {
+            this.etudiant = etudiant;
+            this.maison = maison;
+            this.attentes = Collections.unmodifiableList(attentes);
+        }
+
+        /** @return l'étudiant promu */
+        public Etudiant getEtudiant() {
+            return etudiant;
+        }
+
+        /** @return la maison qui le loge */
+        public MaisonEtudiante getMaison() {
+            return maison;
+        }
+
+        /** @return les maisons dont il était en liste d'attente, et dont il a été retiré */
+        public List<MaisonEtudiante> getAttentes() {
+            return attentes;
+        }
+
+        /** @return true s'il n'était pas en liste d'attente de la maison qui le loge */
+        public boolean estVenuDAilleurs() {
+            return !attentes.contains(maison);
+        }
+
+        /**
+         * Indique que le candidat choisi attend dans des maisons dont le contenu n'est pas encore
+         * chargé : il faut les charger, puis choisir à nouveau. Une telle promotion n'est jamais publiée.
+         *
+         * @return true si l'étudiant n'est pas encore connu, seulement ses maisons ({@link #getAttentes()})
+         */
+        boolean estACharger() {
+            return etudiant == null;
+        }
+
+        @Override
+        public String toString() {
+            return "Promotion[etudiant=" + etudiant.getPrenom() + " " + etudiant.getNom()
+                    + ", maison=" + maison.getNom() + ", ailleurs=" + estVenuDAilleurs() + "]";
+        }
+    }
+
+    /** Candidat en liste d'attente d'une ou plusieurs maisons */
+    private static final class Candidature {
+        /** Numéro de l'étudiant dans la CIUP */
+        final int numero;
+
+        /** L'étudiant, null tant qu'aucune de ses maisons n'est chargée */
+        Etudiant etudiant;
+
+        /** Rang d'arrivée, croissant */
+        final long arrivee;
+
+        /** Nationalité normalisée si le candidat accepte toute maison, null s'il a un souhait */
+        final String classe;
+
+        /** Maisons dont il est en liste d'attente */
+        final List<MaisonEtudiante> maisons = new ArrayList<>(1);
+
+        Candidature(int numero, Etudiant etudiant, long arrivee, String classe) {
+            this.numero = numero;
+            this.etudiant = etudiant;
+            this.arrivee = arrivee;
+            this.classe = classe;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Nombre de signalements en file au-delà duquel ils sont appliqués sans attendre un choix */
+    private static final int SIGNALEMENTS_MAX = 4096;
+
+    /** Classe des candidats sans nationalité */
+    private static final String SANS_NATIONALITE = "";
+
+    /** Ordre des candidats : le premier arrivé d'abord */
+    private static final Comparator<Candidature> ORDRE = Comparator.comparingLong(c -> c.arrivee);
+
+    /** Candidature de chaque étudiant en liste d'attente, par numéro d'étudiant */
+    private final Map<Integer, Candidature> candidatures = new HashMap<>();
+
+    /** Candidats de chaque maison, dans l'ordre d'arrivée */
+    private final Map<MaisonEtudiante, TasIndexe<Candidature>> parMaison = new IdentityHashMap<>();
+
+    /** Candidats acceptant toute maison, par nationalité normalisée */
+    private final Map<String, TasIndexe<Candidature>> ouvertes = new HashMap<>();
+
+    /** Nationalités ayant des candidats acceptant toute maison, ordonnées par leur premier candidat */
+    private final TasIndexe<TasIndexe<Candidature>> tetes = new TasIndexe<>((a, b) -> ORDRE.compare(a.tete(), b.tete()));
+
+    /** Nationalité normalisée de chaque nationalité rencontrée, pour ne la normaliser qu'une fois */
+    private final Map<String, String> classes = new HashMap<>();
+
+    /** Dernier rang d'arrivée attribué */
+    private long derniereArrivee;
+
+    /** Changements des listes d'attente pas encore appliqués, signalés depuis n'importe quel thread */
+    private final Queue<Runnable> signalements = new ConcurrentLinkedQueue<>();
+
+    /** Nombre de changements en file */
+    private final AtomicInteger nbSignalements = new AtomicInteger();
+
+    /** Écouteurs des promotions */
+    private final List<Consumer<Promotion>> ecouteurs = new CopyOnWriteArrayList<>();
+
+    // --------------------------
+    //       SIGNALEMENTS
+    // --------------------------
+
+    /**
+     * Oublie toutes les candidatures, restaure au besoin celles d'une sauvegarde, puis relit
+     * les listes d'attente des maisons chargées. Ne doit pas être appelée sous le verrou d'une maison.
+     *
+     * @param maisons les maisons étudiantes de la CIUP
+     * @param sauvegardees les candidatures lues dans la racine d'une sauvegarde, dans l'ordre
+     *                     d'arrivée, ou null
+     */
+    void reinitialiser(List<MaisonEtudiante> maisons, List<InstantaneCiup.InstantaneCandidature> sauvegardees) {
+        signaler(this::vider);
+        if (sauvegardees != null) {
+            List<MaisonEtudiante> copie = new ArrayList<>(maisons);
+            signaler(() -> restaurer(copie, sauvegardees));
+        }
+        for (MaisonEtudiante maison : maisons) {
+            maison.annoncerAttente(this);
+        }
+    }
+
+    /**
+     * Signale l'inscription d'un étudiant en liste d'attente d'une maison. Ne prend aucun verrou.
+     *
+     * @param maison la maison
+     * @param etudiant l'étudiant inscrit
+     */
+    void candidatureAjoutee(MaisonEtudiante maison, Etudiant etudiant) {
+        signaler(() -> ajouter(maison, etudiant));
+    }
+
+    /**
+     * Signale le retrait d'un étudiant de la liste d'attente d'une maison. Ne prend aucun verrou.
+     *
+     * @param maison la maison
+     * @param etudiant l'étudiant retiré
+     */
+    void candidatureRetiree(MaisonEtudiante maison, Etudiant etudiant) {
+        signaler(() -> retirer(maison, etudiant));
+    }
+
+    /**
+     * Signale qu'une liste d'attente a été remplacée ou chargée. Ne prend aucun verrou.
+     *
+     * @param maison la maison
+     * @param attente une copie de sa nouvelle liste d'attente (vide pour une maison supprimée)
+     */
+    void attenteRemplacee(MaisonEtudiante maison, List<Etudiant> attente) {
+        signaler(() -> remplacer(maison, attente));
+    }
+
+    private void signaler(Runnable signalement) {
+        signalements.add(signalement);
+        if (nbSignalements.incrementAndGet() > SIGNALEMENTS_MAX) {
+            synchronized (this) {
+                appliquer();
+            }
+        }
+    }
+
+    // --------------------------
+    //       PROMOTIONS
+    // --------------------------
+
+    /**
+     * Choisit l'étudiant à loger dans une chambre libre d'une maison et oublie sa candidature :
+     * le premier arrivé parmi ses candidats et ceux qui acceptent toute maison sans que leur
+     * nationalité y soit majoritaire. Les candidats logés entre-temps ailleurs sont écartés.
+     * Appelée sous le verrou de la maison, qui loge l'étudiant et le retire de ses listes d'attente.
+     *
+     * @param maison la maison qui a une chambre libre
+     * @param nationaliteMajoritaire la nationalité de plus de la moitié de ses logés, ou null
+     * @return la promotion à effectuer, ou null si aucun candidat n'est éligible
+     */
+    synchronized Promotion promouvoir(MaisonEtudiante maison, String nationaliteMajoritaire) {
+        appliquer();
+        String majorite = (nationaliteMajoritaire == null) ? null : classe(nationaliteMajoritaire);
+        TasIndexe<Candidature> exclue = (majorite == null) ? null : ouvertes.get(majorite);
+        while (true) {
+            TasIndexe<Candidature> propres = parMaison.get(maison);
+            Candidature meilleure = (propres == null) ? null : propres.tete();
+            TasIndexe<Candidature> nationalite = tetes.premierSauf(exclue);
+            Candidature ouverte = (nationalite == null) ? null : nationalite.tete();
+            if (ouverte != null && (meilleure == null || ouverte.arrivee < meilleure.arrivee)) {
+                meilleure = ouverte;
+            }
+            if (meilleure == null) {
+                return null;
+            }
+            if (meilleure.etudiant == null) {
+                if (!sontChargees(meilleure.maisons)) {
+                    return new Promotion(null, maison, new ArrayList<>(meilleure.maisons));
+                }
+                // Ses maisons sont chargées : leurs listes, signalées avant leur publication, ont
+                // toutes été appliquées ; s'il n'y figure pas, sa candidature sauvegardée est périmée
+                appliquer();
+                if (meilleure.etudiant == null && candidatures.get(meilleure.numero) == meilleure) {
+                    oublier(meilleure);
+                }
+                continue;
+            }
+            oublier(meilleure);
+            if (meilleure.etudiant.getMaisonResidence() == null) {
+                return new Promotion(meilleure.etudiant, maison, meilleure.maisons);
+            }
+        }
+    }
+
+    /**
+     * Transmet des promotions effectuées aux écouteurs. Appelée hors de tout verrou de maison.
+     *
+     * @param promotions les promotions, dans l'ordre où elles ont été faites
+     */
+    void publier(List<Promotion> promotions) {
+        for (Promotion promotion : promotions) {
+            for (Consumer<Promotion> ecouteur : ecouteurs) {
+                ecouteur.accept(promotion);
+            }
+        }
+    }
+
+    /**
+     * Ajoute un écouteur des promotions. Il est appelé sur le thread qui a libéré la chambre,
+     * une fois l'étudiant logé et retiré de ses listes d'attente.
+     *
+     * @param ecouteur l'écouteur
+     */
+    void ajouterEcouteur(Consumer<Promotion> ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Retire un écouteur des promotions.
+     *
+     * @param ecouteur l'écouteur
+     */
+    void retirerEcouteur(Consumer<Promotion> ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Retourne le nombre de candidats en liste d'attente d'au moins une maison.
+     *
+     * @return le nombre de candidats
+     */
+    synchronized int getNbCandidats() {
+        appliquer();
+        return candidatures.size();
+    }
+
+    /**
+     * Copie les candidatures, dans l'ordre d'arrivée, pour les sauvegarder avec la racine.
+     * Seul leur ordre est conservé : les rangs sont renumérotés au chargement.
+     *
+     * @return les candidatures, la première arrivée en tête
+     */
+    synchronized List<InstantaneCiup.InstantaneCandidature> instantane() {
+        appliquer();
+        List<Candidature> ordonnees = new ArrayList<>(candidatures.values());
+        ordonnees.sort(ORDRE);
+        List<InstantaneCiup.InstantaneCandidature> copie = new ArrayList<>(ordonnees.size());
+        for (Candidature candidature : ordonnees) {
+            int[] maisons = new int[candidature.maisons.size()];
+            for (int i = 0; i < maisons.length; i++) {
+                maisons[i] = candidature.maisons.get(i).getIdentifiant();
+            }
+            copie.add(new InstantaneCiup.InstantaneCandidature(candidature.numero, candidature.classe, maisons));
+        }
+        return copie;
+    }
+
+    // --------------------------
+    //       CANDIDATURES
+    // --------------------------
+
+    private void appliquer() {
+        Runnable signalement;
+        while ((signalement = signalements.poll()) != null) {
+            nbSignalements.decrementAndGet();
+            signalement.run();
+        }
+    }
+
+    private void ajouter(MaisonEtudiante maison, Etudiant etudiant) {
+        int numero = etudiant.getIdentifiant();
+        Candidature candidature = candidatures.get(numero);
+        if (candidature == null) {
+            String classe = (etudiant.getSouhait() == null) ? classe(etudiant.getNationalite()) : null;
+            candidature = new Candidature(numero, etudiant, ++derniereArrivee, classe);
+            enregistrer(candidature);
+        } else {
+            // Candidature restaurée d'une sauvegarde : l'étudiant est connu au chargement de sa maison
+            candidature.etudiant = etudiant;
+        }
+        ajouterAMaison(maison, candidature);
+    }
+
+    /** Enregistre une nouvelle candidature, sans maison. */
+    private void enregistrer(Candidature candidature) {
+        candidatures.put(candidature.numero, candidature);
+        if (candidature.classe != null) {
+            TasIndexe<Candidature> tas = ouvertes.computeIfAbsent(candidature.classe, c -> new TasIndexe<>(ORDRE));
+            boolean nouveau = tas.estVide();
+            tas.ajouter(candidature);
+            if (nouveau) {
+                tetes.ajouter(tas);
+            } else {
+                tetes.actualiser(tas);
+            }
+        }
+    }
+
+    private void ajouterAMaison(MaisonEtudiante maison, Candidature candidature) {
+        if (!candidature.maisons.contains(maison)) {
+            candidature.maisons.add(maison);
+            parMaison.computeIfAbsent(maison, m -> new TasIndexe<>(ORDRE)).ajouter(candidature);
+        }
+    }
+
+    /**
+     * Restaure les candidatures d'une sauvegarde, rangées dans l'ordre d'arrivée, sans leurs étudiants.
+     * Les candidatures déjà connues gardent leur rang ; celles dont aucune maison n'existe plus sont ignorées.
+     */
+    private void restaurer(List<MaisonEtudiante> maisons, List<InstantaneCiup.InstantaneCandidature> sauvegardees) {
+        Map<Integer, MaisonEtudiante> parIdentifiant = new HashMap<>();
+        for (MaisonEtudiante maison : maisons) {
+            parIdentifiant.put(maison.getIdentifiant(), maison);
+        }
+        for (InstantaneCiup.InstantaneCandidature sauvegardee : sauvegardees) {
+            if (candidatures.containsKey(sauvegardee.getEtudiant())) {
+                continue;
+            }
+            Candidature candidature = null;
+            for (int i = 0; i < sauvegardee.getNbMaisons(); i++) {
+                MaisonEtudiante maison = parIdentifiant.get(sauvegardee.getMaison(i));
+                if (maison != null) {
+                    if (candidature == null) {
+                        candidature = new Candidature(sauvegardee.getEtudiant(), null, ++derniereArrivee,
+                                sauvegardee.getClasse());
+                        enregistrer(candidature);
+                    }
+                    ajouterAMaison(maison, candidature);
+                }
+            }
+        }
+    }
+
+    private void retirer(MaisonEtudiante maison, Etudiant etudiant) {
+        Candidature candidature = candidatures.get(etudiant.getIdentifiant());
+        if (candidature == null || !candidature.maisons.remove(maison)) {
+            return;
+        }
+        retirerDeMaison(maison, candidature);
+        if (candidature.maisons.isEmpty()) {
+            oublier(candidature);
+        }
+    }
+
+    /**
+     * Remplace les candidats d'une maison par ceux de sa liste d'attente. Les candidats qui y restent
+     * gardent leur rang d'arrivée, les nouveaux sont rangés dans l'ordre de la liste.
+     */
+    private void remplacer(MaisonEtudiante maison, List<Etudiant> attente) {
+        Set<Integer> candidats = new HashSet<>();
+        for (Etudiant etudiant : attente) {
+            if (etudiant.getMaisonResidence() == null) {
+                candidats.add(etudiant.getIdentifiant());
+            }
+        }
+        TasIndexe<Candidature> anciens = parMaison.get(maison);
+        if (anciens != null) {
+            for (Candidature candidature : new ArrayList<>(anciens.elements())) {
+                if (!candidats.contains(candidature.numero)) {
+                    candidature.maisons.remove(maison);
+                    retirerDeMaison(maison, candidature);
+                    if (candidature.maisons.isEmpty()) {
+                        oublier(candidature);
+                    }
+                }
+            }
+        }
+        for (Etudiant etudiant : attente) {
+            if (etudiant.getMaisonResidence() == null) {
+                ajouter(maison, etudiant);
+            }
+        }
+    }
+
+    private void vider() {
+        candidatures.clear();
+        parMaison.clear();
+        ouvertes.clear();
+        while (!tetes.estVide()) {
+            tetes.retirer(tetes.tete());
+        }
+    }
+
+    /** Retire une candidature de tous ses tas. */
+    private void oublier(Candidature candidature) {
+        candidatures.remove(candidature.numero);
+        for (MaisonEtudiante maison : candidature.maisons) {
+            retirerDeMaison(maison, candidature);
+        }
+        if (candidature.classe != null) {
+            TasIndexe<Candidature> tas = ouvertes.get(candidature.classe);
+            tas.retirer(candidature);
+            if (tas.estVide()) {
+                tetes.retirer(tas);
+                ouvertes.remove(candidature.classe);
+            } else {
+                tetes.actualiser(tas);
+            }
+        }
+    }
+
+    private void retirerDeMaison(MaisonEtudiante maison, Candidature candidature) {
+        TasIndexe<Candidature> tas = parMaison.get(maison);
+        if (tas != null) {
+            tas.retirer(candidature);
+            if (tas.estVide()) {
+                parMaison.remove(maison);
+            }
+        }
+    }
+
+    private static boolean sontChargees(List<MaisonEtudiante> maisons) {
+        for (MaisonEtudiante maison : maisons) {
+            if (!maison.estChargee()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String classe(String nationalite) {
+        if (nationalite == null) {
+            return SANS_NATIONALITE;
+        }
+        return classes.computeIfAbsent(nationalite, n -> {
+            String cle = Ciup.normaliserNationalite(n);
+            return (cle == null) ? SANS_NATIONALITE : cle;
+        });
+    }
+}
@@ -0,0 +1,221 @@
+package Modele;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Choix de la maison d'une affectation équitable, tenu à jour au fil des inscriptions.
+ * <p>
+ * Une maison est éligible pour une nationalité si celle-ci n'y est pas majoritaire
+ * (au plus 50% des logés). Parmi les maisons éligibles, la moins chargée est choisie :
+ * celle qui a le plus de places disponibles (capacité moins logés et inscrits en attente),
+ * puis le plus petit identifiant. Si aucune maison éligible n'a de place,
+ * la maison la moins chargée de toutes est choisie.
+ * </p>
+ * <p>
+ * Comme une maison a au plus une nationalité majoritaire, les maisons sont réparties
+ * en classes selon cette nationalité (ou l'absence de majorité), chaque classe étant un
+ * {@link TasIndexe} ordonné par charge. Un second tas ordonne les classes par leur
+ * meilleure maison : la meilleure maison éligible pour une nationalité est la tête
+ * de la première classe autre que la sienne, obtenue en temps constant.
+ * </p>
+ * <p>
+ * Les maisons modifiées sont signalées par {@link Ciup} et replacées au choix suivant,
+ * chacune en temps logarithmique, ce qui regroupe les multiples signalements d'une
+ * même inscription.
+ * </p>
+ * <p>
+ * Les choix sont exclusifs les uns des autres ; les signalements, faits sous le verrou
+ * de la maison inscrivant un étudiant, n'en prennent aucun autre : ils sont déposés dans
+ * un ensemble concurrent. Un choix lit la charge de chaque maison à replacer sous le
+ * verrou de celle-ci, toujours dans l'ordre répartition puis maison.
+ * </p>
+ *
+ * @version 1.0
+ * @see Ciup#affecterMaisonEquitablement(Etudiant)
+ */
+class RepartitionEquitable {
+
+    /** Classe des maisons sans nationalité majoritaire */
+    private static final String SANS_MAJORITE = "";
+
+    /** Charge d'une maison, telle que rangée dans les tas */
+    private static final class Charge {
+        /** Places disponibles : capacité moins logés et inscrits en attente */
+        int disponibles;
+
+        /** Nationalité majoritaire normalisée, ou {@link #SANS_MAJORITE} */
+        String majorite;
+    }
+
+    /** Charge de chaque maison rangée */
+    private final Map<MaisonEtudiante, Charge> charges = new IdentityHashMap<>();
+
+    /** Ordre des maisons : la moins chargée d'abord */
+    private final Comparator<MaisonEtudiante> ordreMaisons = (a, b) -> {
+        int comparaison = Integer.compare(charges.get(b).disponibles, charges.get(a).disponibles);
+        return (comparaison != 0) ? comparaison : Integer.compare(a.getIdentifiant(), b.getIdentifiant());
+    };
+
+    /** Maisons de chaque classe de nationalité majoritaire */
+    private final Map<String, TasIndexe<MaisonEtudiante>> classes = new HashMap<>();
+
+    /** Classes non vides, ordonnées par leur meilleure maison */
+    private final TasIndexe<TasIndexe<MaisonEtudiante>> tetes = new TasIndexe<>(
+            (a, b) -> ordreMaisons.compare(a.tete(), b.tete()));
+
+    /** Maisons modifiées depuis le dernier choix, signalées depuis n'importe quel thread */
+    private final Set<MaisonEtudiante> aReplacer = ConcurrentHashMap.newKeySet();
+
+    /** Maisons ajoutées depuis le dernier choix, pas encore rangées */
+    private final Set<MaisonEtudiante> ajoutees = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Crée une répartition vide, dont les maisons sont rangées par {@link #placer}
+     * selon une charge prévue plutôt que lue dans la maison.
+     */
+    RepartitionEquitable() {
+    }
+
+    /**
+     * Range les maisons données.
+     *
+     * @param maisons les maisons étudiantes de la CIUP
+     */
+    RepartitionEquitable(List<MaisonEtudiante> maisons) {
+        for (MaisonEtudiante maison : maisons) {
+            replacer(maison);
+        }
+    }
+
+    /**
+     * Signale qu'une maison a été ajoutée à la CIUP ; elle sera rangée au prochain choix.
+     *
+     * @param maison la maison ajoutée
+     */
+    synchronized void maisonAjoutee(MaisonEtudiante maison) {
+        ajoutees.add(maison);
+        aReplacer.add(maison);
+    }
+
+    /**
+     * Signale qu'une maison a été modifiée ; elle sera replacée au prochain choix.
+     * Une maison qui n'est pas rangée, comme une maison retirée de la CIUP, sera ignorée.
+     * Ne prend aucun verrou.
+     *
+     * @param maison la maison modifiée
+     */
+    void maisonModifiee(MaisonEtudiante maison) {
+        aReplacer.add(maison);
+    }
+
+    /**
+     * Retire une maison supprimée de la CIUP.
+     *
+     * @param maison la maison supprimée
+     */
+    synchronized void maisonSupprimee(MaisonEtudiante maison) {
+        ajoutees.remove(maison);
+        aReplacer.remove(maison);
+        Charge charge = charges.remove(maison);
+        if (charge != null) {
+            retirerDeClasse(maison, charge.majorite);
+        }
+    }
+
+    /**
+     * Choisit la maison où affecter un étudiant de la nationalité donnée.
+     *
+     * @param nationalite la nationalité de l'étudiant
+     * @return la maison choisie, ou null si aucune maison n'est rangée
+     */
+    synchronized MaisonEtudiante choisir(String nationalite) {
+        for (Iterator<MaisonEtudiante> it = aReplacer.iterator(); it.hasNext(); ) {
+            MaisonEtudiante maison = it.next();
+            it.remove();
+            if (charges.containsKey(maison) || ajoutees.remove(maison)) {
+                replacer(maison);
+            }
+        }
+        String cle = (nationalite == null) ? null : Ciup.normaliserNationalite(nationalite);
+        TasIndexe<MaisonEtudiante> majoritaires = (cle == null) ? null : classes.get(cle);
+        TasIndexe<MaisonEtudiante> classeEligible = tetes.premierSauf(majoritaires);
+        MaisonEtudiante eligible = (classeEligible == null) ? null : classeEligible.tete();
+        if (eligible != null && charges.get(eligible).disponibles > 0) {
+            return eligible;
+        }
+        MaisonEtudiante majoritaire = (majoritaires == null) ? null : majoritaires.tete();
+        if (eligible == null || (majoritaire != null && ordreMaisons.compare(majoritaire, eligible) < 0)) {
+            return majoritaire;
+        }
+        return eligible;
+    }
+
+    /**
+     * Recalcule la charge d'une maison et la replace dans les tas.
+     * Le calcul parcourt les nationalités de la maison ; le replacement est logarithmique.
+     * Une maison non chargée est rangée d'après l'en-tête de sa sauvegarde, sans être chargée.
+     */
+    private void replacer(MaisonEtudiante maison) {
+        int disponibles;
+        String majorite;
+        synchronized (maison) {
+            disponibles = maison.getCapaciteEtudiantsMax() - maison.getNbEtudiants() - maison.getNbAttente();
+            majorite = maison.getNationaliteMajoritaire();
+        }
+        placer(maison, disponibles, majorite);
+    }
+
+    /**
+     * Range ou replace une maison selon une charge donnée, en temps logarithmique.
+     *
+     * @param maison la maison
+     * @param disponibles ses places disponibles (capacité moins logés et inscrits en attente)
+     * @param nationaliteMajoritaire la nationalité de plus de la moitié de ses logés, ou null
+     */
+    synchronized void placer(MaisonEtudiante maison, int disponibles, String nationaliteMajoritaire) {
+        String majorite = Ciup.normaliserNationalite(nationaliteMajoritaire);
+        if (majorite == null) {
+            majorite = SANS_MAJORITE;
+        }
+        Charge charge = charges.get(maison);
+        if (charge == null) {
+            charge = new Charge();
+            charge.disponibles = disponibles;
+            charge.majorite = majorite;
+            charges.put(maison, charge);
+            ajouterAClasse(maison, majorite);
+        } else if (!charge.majorite.equals(majorite)) {
+            retirerDeClasse(maison, charge.majorite);
+            charge.disponibles = disponibles;
+            charge.majorite = majorite;
+            ajouterAClasse(maison, majorite);
+        } else if (charge.disponibles != disponibles) {
+            charge.disponibles = disponibles;
+            TasIndexe<MaisonEtudiante> tas = classes.get(majorite);
+            tas.actualiser(maison);
+            tetes.actualiser(tas);
+        }
+    }
+
+    private void ajouterAClasse(MaisonEtudiante maison, String classe) {
+        TasIndexe<MaisonEtudiante> tas = classes.get(classe);
+        if (tas == null) {
+            tas = new TasIndexe<>(ordreMaisons);
+            classes.put(classe, tas);
+        }
+        tas.ajouter(maison);
+        tetes.ajouter(tas);
+    }
+
+    private void retirerDeClasse(MaisonEtudiante maison, String classe) {
+        TasIndexe<MaisonEtudiante> tas = classes.get(classe);
+        tas.retirer(maison);
+        if (tas.estVide()) {
+            tetes.retirer(tas);
+            classes.remove(classe);
+        } else {
+            tetes.actualiser(tas);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Résumé chiffré de la CIUP : totaux et occupation de chaque maison étudiante.
+ * <p>
+ * Le résumé est écrit en tête de la racine de la sauvegarde ({@link CodecBinaireCiup}),
+ * ce qui permet de le lire sans reconstruire le modèle ({@link GestionSauvegarde#chargerResume()}),
+ * par exemple pour afficher les totaux de l'écran d'accueil avant la fin du chargement.
+ * Il reflète l'état de la dernière sauvegarde : les opérations consignées dans le journal
+ * après celle-ci (numéro supérieur à {@link #getNumeroJournal()}) n'y figurent pas.
+ * </p>
+ *
+ * @version 1.0
+ * @see GestionSauvegarde
+ */
+public class ResumeCiup {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Occupation d'une maison étudiante.
+     */
+    public static class ResumeMaison {
+
+        /** Identifiant stable de la maison */
+        private final int identifiant;
+
+        /** Nom de la maison */
+        private final String nom;
+
+        /** Nombre d'étudiants logés */
+        private final int nbEtudiants;
+
+        /** Nombre de chambres */
+        private final int nbChambres;
+
+        /** Nombre maximal d'étudiants pouvant être logés */
+        private final int capacite;
+
+        /** Nombre d'étudiants en liste d'attente (-1 si inconnu) */
+        private final int nbAttente;
+
+        /**
+         * Construit le résumé d'une maison.
+         *
+         * @param identifiant l'identifiant de la maison
+         * @param nom le nom de la maison
+         * @param nbEtudiants le nombre d'étudiants logés
+         * @param nbChambres le nombre de chambres
+         * @param capacite le nombre maximal d'étudiants
+         * @param nbAttente le nombre d'étudiants en liste d'attente, ou -1 s'il est inconnu
+         */
+        public ResumeMaison(int identifiant, String nom, int nbEtudiants, int nbChambres, int capacite, int nbAttente) {
+            this.identifiant = identifiant;
+            this.nom = nom;
+            this.nbEtudiants = nbEtudiants;
+            this.nbChambres = nbChambres;
+            this.capacite = capacite;
+            this.nbAttente = nbAttente;
+        }
+
+        /**
+         * Retourne l'identifiant de la maison.
+         *
+         * @return l'identifiant de la maison
+         */
+        public int getIdentifiant() {
+            return identifiant;
+        }
+
+        /**
+         * Retourne le nom de la maison.
+         *
+         * @return le nom de la maison
+         */
+        public String getNom() {
+            return nom;
+        }
+
+        /**
+         * Retourne le nombre d'étudiants logés.
+         *
+         * @return le nombre d'étudiants
+         */
+        public int getNbEtudiants() {
+            return nbEtudiants;
+        }
+
+        /**
+         * Retourne le nombre de chambres.
+         *
+         * @return le nombre de chambres
+         */
+        public int getNbChambres() {
+            return nbChambres;
+        }
+
+        /**
+         * Retourne le nombre maximal d'étudiants pouvant être logés.
+         *
+         * @return la capacité de la maison
+         */
+        public int getCapacite() {
+            return capacite;
+        }
+
+        /**
+         * Retourne le nombre d'étudiants en liste d'attente.
+         *
+         * @return la longueur de la liste d'attente, ou -1 si elle est inconnue
+         */
+        public int getNbAttente() {
+            return nbAttente;
+        }
+
+        /**
+         * Retourne le taux d'occupation de la maison, en pourcentage.
+         *
+         * @return le taux d'occupation (0 pour une maison sans capacité)
+         */
+        public double getTauxOccupation() {
+            return capacite == 0 ? 0.0 : nbEtudiants * 100.0 / capacite;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Numéro de la dernière opération du journal prise en compte */
+    private final long numeroJournal;
+
+    /** Occupation de chaque maison, dans l'ordre de la CIUP */
+    private final List<ResumeMaison> maisons;
+
+    /** Nombre total d'étudiants logés */
+    private final int nbEtudiants;
+
+    /** Nombre total de chambres */
+    private final int nbChambres;
+
+    /** Nombre total de places */
+    private final int capacite;
+
+    // --------------------------
+    //       CONSTRUCTEUR
+    // --------------------------
+
+    /**
+     * Construit un résumé à partir de l'occupation de chaque maison.
+     *
+     * @param numeroJournal numéro de la dernière opération du journal prise en compte
+     * @param maisons l'occupation de chaque maison, dans l'ordre de la CIUP
+     */
+    public ResumeCiup(long numeroJournal, List<ResumeMaison> maisons) {
+        this.numeroJournal = numeroJournal;
+        this.maisons = Collections.unmodifiableList(new ArrayList<>(maisons));
+        int etudiants = 0;
+        int chambres = 0;
+        int places = 0;
+        for (ResumeMaison maison : maisons) {
+            etudiants += maison.getNbEtudiants();
+            chambres += maison.getNbChambres();
+            places += maison.getCapacite();
+        }
+        this.nbEtudiants = etudiants;
+        this.nbChambres = chambres;
+        this.capacite = places;
+    }
+
+    /**
+     * Calcule le résumé d'une CIUP en mémoire. Les maisons non encore chargées
+     * sont résumées à partir de leur en-tête, sans être chargées.
+     *
+     * @param ciup la CIUP à résumer
+     * @param numeroJournal numéro de la dernière opération du journal prise en compte
+     * @return le résumé de la CIUP
+     */
+    public static ResumeCiup calculer(Ciup ciup, long numeroJournal) {
+        List<ResumeMaison> maisons = new ArrayList<>();
+        for (MaisonEtudiante maison : ciup.getListeMaisonsEtudiantes()) {
+            maisons.add(new ResumeMaison(maison.getIdentifiant(), maison.getNom(), maison.getNbEtudiants(),
+                    maison.getNbChambres(), maison.getCapaciteEtudiantsMax(), maison.getNbAttente()));
+        }
+        return new ResumeCiup(numeroJournal, maisons);
+    }
+
+    /**
+     * Calcule le résumé d'un instantané de la CIUP.
+     *
+     * @param ciup l'instantané à résumer
+     * @param numeroJournal numéro de la dernière opération du journal prise en compte
+     * @return le résumé de la CIUP
+     */
+    public static ResumeCiup calculer(InstantaneCiup ciup, long numeroJournal) {
+        List<ResumeMaison> maisons = new ArrayList<>();
+        for (InstantaneMaison maison : ciup.getMaisons()) {
+            maisons.add(new ResumeMaison(maison.getIdentifiant(), maison.getNom(), maison.getNbEtudiants(),
+                    maison.getNbChambres(), maison.getCapacite(), maison.getNbAttente()));
+        }
+        return new ResumeCiup(numeroJournal, maisons);
+    }
+
+    // --------------------------
+    //       ACCESSEURS
+    // --------------------------
+
+    /**
+     * Retourne le numéro de la dernière opération du journal prise en compte.
+     *
+     * @return le numéro de journal
+     */
+    public long getNumeroJournal() {
+        return numeroJournal;
+    }
+
+    /**
+     * Retourne l'occupation de chaque maison étudiante, dans l'ordre de la CIUP.
+     *
+     * @return la liste non modifiable des résumés de maisons
+     */
+    public List<ResumeMaison> getMaisons() {
+        return maisons;
+    }
+
+    /**
+     * Retourne le nombre de maisons étudiantes.
+     *
+     * @return le nombre de maisons
+     */
+    public int getNbMaisons() {
+        return maisons.size();
+    }
+
+    /**
+     * Retourne le nombre total d'étudiants logés.
+     *
+     * @return le nombre d'étudiants
+     */
+    public int getNbEtudiants() {
+        return nbEtudiants;
+    }
+
+    /**
+     * Retourne le nombre total de chambres.
+     *
+     * @return le nombre de chambres
+     */
+    public int getNbChambres() {
+        return nbChambres;
+    }
+
+    /**
+     * Retourne le nombre total de places.
+     *
+     * @return la capacité totale
+     */
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Retourne le taux d'occupation global, en pourcentage.
+     *
+     * @return le taux d'occupation (0 sans aucune place)
+     */
+    public double getTauxOccupation() {
+        return capacite == 0 ? 0.0 : nbEtudiants * 100.0 / capacite;
+    }
+
+    /**
+     * Retourne une représentation textuelle du résumé.
+     *
+     * @return le résumé sous forme de texte
+     */
+    @Override
+    public String toString() {
+        return "ResumeCiup[maisons=" + getNbMaisons() + ", etudiants=" + nbEtudiants
+                + ", chambres=" + nbChambres + ", capacite=" + capacite + "]";
+    }
+}
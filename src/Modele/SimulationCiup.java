@@ -0,0 +1,513 @@
+package Modele;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Simulation d'affectations sur une copie de l'état des maisons de la CIUP, pour mesurer
+ * l'effet d'une ouverture ou d'une fermeture de maison, ou d'un changement de capacité,
+ * sans toucher aux données réelles.
+ * <p>
+ * Une simulation se crée sur le thread du modèle ({@link Ciup#simulation()}) à partir de
+ * l'instantané complet de la CIUP, qui ne recopie que les maisons modifiées depuis le
+ * précédent. Chaque maison y est décrite par un {@link EtatMaison} immuable ;
+ * {@link #embrancher()} crée une simulation indépendante qui partage ces états et ne
+ * recopie que la table des maisons. Un scénario ({@link #ouvrirMaison}, {@link #fermerMaison},
+ * {@link #modifierCapacite}, {@link #affecter}) remplace l'état des seules maisons qu'il modifie.
+ * </p>
+ * <p>
+ * Une simulation n'est pas partagée entre threads, mais ses embranchements peuvent être
+ * utilisés chacun sur son propre thread : {@link #simulerScenarios} rejoue ainsi plusieurs
+ * scénarios en parallèle et compare leurs résultats à celui de la simulation d'origine.
+ * Les candidats rejoués ne sont jamais modifiés.
+ * </p>
+ *
+ * @version 1.0
+ * @see AffectationCohorte
+ */
+public final class SimulationCiup {
+
+    // --------------------------
+    //       TYPES
+    // --------------------------
+
+    /**
+     * Différence entre l'état des maisons de deux simulations.
+     */
+    public static final class Ecart {
+
+        private int ecartLoges;
+        private int ecartAttente;
+        private int ecartCapacite;
+        private final List<MaisonEtudiante> maisonsOuvertes = new ArrayList<>();
+        private final List<MaisonEtudiante> maisonsFermees = new ArrayList<>();
+        private final Map<MaisonEtudiante, Integer> ecartsLogesParMaison = new LinkedHashMap<>();
+        private final Map<MaisonEtudiante, Integer> ecartsAttenteParMaison = new LinkedHashMap<>();
+
+        private Ecart() {
+        }
+
+        /** @return le nombre de logés en plus (négatif : en moins) */
+        public int getEcartLoges() {
+            return ecartLoges;
+        }
+
+        /** @return le nombre d'inscrits en liste d'attente en plus (négatif : en moins) */
+        public int getEcartAttente() {
+            return ecartAttente;
+        }
+
+        /** @return le nombre de places en plus (négatif : en moins) */
+        public int getEcartCapacite() {
+            return ecartCapacite;
+        }
+
+        /** @return le nombre de lits vides en plus (négatif : en moins) */
+        public int getEcartLitsVides() {
+            return ecartCapacite - ecartLoges;
+        }
+
+        /** @return les maisons absentes de la référence, non modifiable */
+        public List<MaisonEtudiante> getMaisonsOuvertes() {
+            return Collections.unmodifiableList(maisonsOuvertes);
+        }
+
+        /** @return les maisons de la référence absentes de la simulation, non modifiable */
+        public List<MaisonEtudiante> getMaisonsFermees() {
+            return Collections.unmodifiableList(maisonsFermees);
+        }
+
+        /**
+         * Retourne l'écart de logés de chaque maison dont l'occupation diffère.
+         *
+         * @return la table non modifiable des écarts non nuls
+         */
+        public Map<MaisonEtudiante, Integer> getEcartsLogesParMaison() {
+            return Collections.unmodifiableMap(ecartsLogesParMaison);
+        }
+
+        /**
+         * Retourne l'écart de liste d'attente de chaque maison dont la liste diffère.
+         *
+         * @return la table non modifiable des écarts non nuls
+         */
+        public Map<MaisonEtudiante, Integer> getEcartsAttenteParMaison() {
+            return Collections.unmodifiableMap(ecartsAttenteParMaison);
+        }
+
+        private void comparer(MaisonEtudiante maison, int loges, int attente) {
+            if (loges != 0) {
+                ecartsLogesParMaison.put(maison, loges);
+            }
+            if (attente != 0) {
+                ecartsAttenteParMaison.put(maison, attente);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            texte.append(String.format("%+d logé(s), %+d en attente, %+d place(s), %+d lit(s) vide(s)",
+                    ecartLoges, ecartAttente, ecartCapacite, getEcartLitsVides()));
+            for (MaisonEtudiante maison : maisonsOuvertes) {
+                texte.append("\n  ouverte : ").append(maison.getNom());
+            }
+            for (MaisonEtudiante maison : maisonsFermees) {
+                texte.append("\n  fermée : ").append(maison.getNom());
+            }
+            Set<MaisonEtudiante> maisons = new LinkedHashSet<>(ecartsLogesParMaison.keySet());
+            maisons.addAll(ecartsAttenteParMaison.keySet());
+            for (MaisonEtudiante maison : maisons) {
+                texte.append(String.format("%n  %s : %+d logé(s), %+d en attente", maison.getNom(),
+                        ecartsLogesParMaison.getOrDefault(maison, 0), ecartsAttenteParMaison.getOrDefault(maison, 0)));
+            }
+            return texte.toString();
+        }
+    }
+
+    /**
+     * Résultat d'un scénario rejoué par {@link #simulerScenarios}.
+     */
+    public static final class Resultat {
+
+        private final String nom;
+        private final SimulationCiup simulation;
+        private final AffectationCohorte.Bilan bilan;
+        private final Ecart ecart;
+
+        private Resultat(String nom, SimulationCiup simulation, AffectationCohorte.Bilan bilan, Ecart ecart) {
+            this.nom = nom;
+            this.simulation = simulation;
+            this.bilan = bilan;
+            this.ecart = ecart;
+        }
+
+        /** @return le nom du scénario */
+        public String getNom() {
+            return nom;
+        }
+
+        /** @return la simulation du scénario, après l'affectation de la cohorte */
+        public SimulationCiup getSimulation() {
+            return simulation;
+        }
+
+        /** @return le bilan de l'affectation de la cohorte dans le scénario */
+        public AffectationCohorte.Bilan getBilan() {
+            return bilan;
+        }
+
+        /** @return l'écart avec la simulation de référence, après la même cohorte */
+        public Ecart getEcart() {
+            return ecart;
+        }
+
+        @Override
+        public String toString() {
+            return "Scénario " + nom + "\n" + bilan + "\nÉcart avec la référence : " + ecart;
+        }
+    }
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** CIUP simulée */
+    private final Ciup ciup;
+
+    /** État de chaque maison, dans l'ordre de la CIUP ; les états sont partagés entre embranchements */
+    private final LinkedHashMap<MaisonEtudiante, EtatMaison> etats;
+
+    /** Étudiants des maisons fermées, à reloger à la prochaine affectation */
+    private final List<Etudiant> deplaces;
+
+    /** Dernier identifiant attribué à une maison, projetée comprise */
+    private int dernierIdentifiantMaison;
+
+    /** Première maison de chaque nationalité normalisée (null si à recalculer) */
+    private Map<String, MaisonEtudiante> maisonsNationales;
+
+    // --------------------------
+    //      CONSTRUCTEURS
+    // --------------------------
+
+    /**
+     * Crée la simulation de l'état courant d'une CIUP. Doit être appelé sur le thread du modèle.
+     *
+     * @param ciup la CIUP à simuler
+     */
+    SimulationCiup(Ciup ciup) {
+        this.ciup = ciup;
+        this.etats = new LinkedHashMap<>();
+        this.deplaces = new ArrayList<>();
+        InstantaneCiup instantane = ciup.instantaneComplet();
+        List<MaisonEtudiante> maisons = ciup.getListeMaisonsEtudiantes();
+        for (int i = 0; i < maisons.size(); i++) {
+            etats.put(maisons.get(i), new EtatMaison(maisons.get(i), instantane.getMaisons().get(i)));
+        }
+        this.dernierIdentifiantMaison = instantane.getDernierIdentifiantMaison();
+    }
+
+    private SimulationCiup(SimulationCiup origine) {
+        this.ciup = origine.ciup;
+        this.etats = new LinkedHashMap<>(origine.etats);
+        this.deplaces = new ArrayList<>(origine.deplaces);
+        this.dernierIdentifiantMaison = origine.dernierIdentifiantMaison;
+        this.maisonsNationales = origine.maisonsNationales;
+    }
+
+    // --------------------------
+    //       SCÉNARIOS
+    // --------------------------
+
+    /**
+     * Crée une simulation indépendante, partant de l'état de celle-ci. Seule la table
+     * des maisons est recopiée : l'état de chaque maison est partagé jusqu'à sa modification.
+     *
+     * @return la nouvelle simulation
+     */
+    public SimulationCiup embrancher() {
+        return new SimulationCiup(this);
+    }
+
+    /**
+     * Ouvre une maison projetée, vide. Elle est rattachée à une CIUP de brouillon et
+     * n'apparaît jamais dans la CIUP réelle ; elle peut être souhaitée par les candidats
+     * des affectations suivantes.
+     *
+     * @param nom le nom de la maison
+     * @param nationalite la nationalité de la maison
+     * @param capacitesChambres la capacité de chacune de ses chambres
+     * @return la maison projetée
+     */
+    public MaisonEtudiante ouvrirMaison(String nom, String nationalite, List<Integer> capacitesChambres) {
+        Ciup brouillon = new Ciup(new MaisonInternationale("Brouillon", null, null, null));
+        MaisonEtudiante maison = new MaisonEtudiante(brouillon, nom, null, nationalite, null, capacitesChambres);
+        maison.setIdentifiant(++dernierIdentifiantMaison);
+        etats.put(maison, new EtatMaison(maison, nationalite, maison.getCapaciteEtudiantsMax(), 0, 0,
+                new HistogrammeNationalites(), null, Collections.emptyList(), Collections.emptyList()));
+        maisonsNationales = null;
+        return maison;
+    }
+
+    /**
+     * Ferme une maison. Ses logés et inscrits en attente, sans souhait, seront relogés
+     * en tête de la prochaine affectation.
+     *
+     * @param maison la maison à fermer
+     * @throws IllegalArgumentException si la maison ne fait pas partie de la simulation
+     */
+    public void fermerMaison(MaisonEtudiante maison) {
+        EtatMaison etat = etats.remove(verifier(maison));
+        if (etat.instantane != null) {
+            for (List<InstantaneMaison.InstantaneEtudiant> liste : Arrays.asList(etat.instantane.getResidents(),
+                    etat.instantane.getAttente())) {
+                for (InstantaneMaison.InstantaneEtudiant etudiant : liste) {
+                    deplaces.add(Etudiant.candidat(ciup, etudiant.getNom(), etudiant.getPrenom(), etudiant.getNationalite(), null));
+                }
+            }
+        }
+        for (List<Etudiant> liste : Arrays.asList(etat.loges, etat.enAttente)) {
+            for (Etudiant etudiant : liste) {
+                deplaces.add(Etudiant.candidat(ciup, etudiant.getNom(), etudiant.getPrenom(), etudiant.getNationalite(), null));
+            }
+        }
+        maisonsNationales = null;
+    }
+
+    /**
+     * Change le nombre de places d'une maison, comme l'ajout, la fermeture ou le
+     * redimensionnement de chambres.
+     *
+     * @param maison la maison modifiée
+     * @param capacite son nouveau nombre de places
+     * @throws IllegalArgumentException si la maison ne fait pas partie de la simulation,
+     *         ou si la capacité est inférieure au nombre de logés
+     */
+    public void modifierCapacite(MaisonEtudiante maison, int capacite) {
+        EtatMaison etat = etats.get(verifier(maison));
+        if (capacite < etat.nbEtudiants) {
+            throw new IllegalArgumentException(maison.getNom() + " loge " + etat.nbEtudiants
+                    + " étudiant(s) : sa capacité ne peut descendre à " + capacite);
+        }
+        etats.put(maison, etat.avecCapacite(capacite));
+    }
+
+    /**
+     * Affecte une cohorte dans les maisons simulées, précédée des étudiants des maisons fermées.
+     * Les candidats souhaitant une maison fermée sont affectés comme s'ils n'avaient pas de souhait.
+     *
+     * @param candidats les étudiants à affecter, ni logés ni en liste d'attente
+     * @param politique la politique de calcul des places
+     * @return le bilan de l'affectation
+     */
+    public AffectationCohorte.Bilan affecter(Collection<Etudiant> candidats, AffectationCohorte.Politique politique) {
+        Collection<Etudiant> cohorte = candidats;
+        if (!deplaces.isEmpty()) {
+            List<Etudiant> avecDeplaces = new ArrayList<>(deplaces.size() + candidats.size());
+            avecDeplaces.addAll(deplaces);
+            avecDeplaces.addAll(candidats);
+            deplaces.clear();
+            cohorte = avecDeplaces;
+        }
+        AffectationCohorte affectation = new AffectationCohorte(this);
+        AffectationCohorte.Bilan bilan = affectation.affecter(cohorte, politique, false);
+        etats.putAll(affectation.etatsPrevus());
+        return bilan;
+    }
+
+    /**
+     * Rejoue une cohorte sur la simulation et sur un embranchement par scénario, en parallèle,
+     * et compare chaque scénario à la référence.
+     *
+     * @param candidats la cohorte, affectée dans chaque embranchement
+     * @param politique la politique de calcul des places
+     * @param scenarios les modifications de chaque scénario, appliquées à son embranchement avant la cohorte
+     * @return le résultat de chaque scénario, dans l'ordre reçu
+     * @throws RuntimeException si un scénario échoue
+     */
+    public Map<String, Resultat> simulerScenarios(Collection<Etudiant> candidats, AffectationCohorte.Politique politique,
+                                                  Map<String, Consumer<SimulationCiup>> scenarios) {
+        int nbThreads = Math.max(1, Math.min(scenarios.size() + 1, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executeur = Executors.newFixedThreadPool(nbThreads, r -> {
+            Thread thread = new Thread(r, "simulation-ciup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            SimulationCiup reference = embrancher();
+            Future<?> affectationReference = executeur.submit(() -> reference.affecter(candidats, politique));
+            Map<String, Future<Resultat>> enCours = new LinkedHashMap<>();
+            for (Map.Entry<String, Consumer<SimulationCiup>> scenario : scenarios.entrySet()) {
+                SimulationCiup simulation = embrancher();
+                enCours.put(scenario.getKey(), executeur.submit(() -> {
+                    scenario.getValue().accept(simulation);
+                    AffectationCohorte.Bilan bilan = simulation.affecter(candidats, politique);
+                    return new Resultat(scenario.getKey(), simulation, bilan, null);
+                }));
+            }
+            attendre(affectationReference);
+            Map<String, Resultat> resultats = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Resultat>> scenario : enCours.entrySet()) {
+                Resultat resultat = attendre(scenario.getValue());
+                resultats.put(scenario.getKey(), new Resultat(resultat.nom, resultat.simulation, resultat.bilan,
+                        resultat.simulation.comparer(reference)));
+            }
+            return resultats;
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+
+    private static <T> T attendre(Future<T> tache) {
+        try {
+            return tache.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrompue", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Échec d'un scénario", cause);
+        }
+    }
+
+    // --------------------------
+    //       RÉSULTATS
+    // --------------------------
+
+    /**
+     * Compare l'état des maisons de cette simulation à celui d'une simulation de référence.
+     *
+     * @param reference la simulation de référence
+     * @return l'écart de cette simulation avec la référence
+     */
+    public Ecart comparer(SimulationCiup reference) {
+        Ecart ecart = new Ecart();
+        for (Map.Entry<MaisonEtudiante, EtatMaison> entree : etats.entrySet()) {
+            EtatMaison etat = entree.getValue();
+            EtatMaison avant = reference.etats.get(entree.getKey());
+            if (avant == null) {
+                ecart.maisonsOuvertes.add(entree.getKey());
+                ecart.comparer(entree.getKey(), etat.nbEtudiants, etat.attente);
+            } else if (avant != etat) {
+                ecart.comparer(entree.getKey(), etat.nbEtudiants - avant.nbEtudiants, etat.attente - avant.attente);
+            }
+        }
+        for (Map.Entry<MaisonEtudiante, EtatMaison> entree : reference.etats.entrySet()) {
+            if (!etats.containsKey(entree.getKey())) {
+                ecart.maisonsFermees.add(entree.getKey());
+                ecart.comparer(entree.getKey(), -entree.getValue().nbEtudiants, -entree.getValue().attente);
+            }
+        }
+        ecart.ecartLoges = getNbEtudiants() - reference.getNbEtudiants();
+        ecart.ecartAttente = getNbEnAttente() - reference.getNbEnAttente();
+        ecart.ecartCapacite = getCapacite() - reference.getCapacite();
+        return ecart;
+    }
+
+    /** @return le nombre d'étudiants logés dans les maisons simulées */
+    public int getNbEtudiants() {
+        int total = 0;
+        for (EtatMaison etat : etats.values()) {
+            total += etat.nbEtudiants;
+        }
+        return total;
+    }
+
+    /** @return le nombre d'étudiants en liste d'attente dans les maisons simulées */
+    public int getNbEnAttente() {
+        int total = 0;
+        for (EtatMaison etat : etats.values()) {
+            total += etat.attente;
+        }
+        return total;
+    }
+
+    /** @return le nombre de places des maisons simulées */
+    public int getCapacite() {
+        int total = 0;
+        for (EtatMaison etat : etats.values()) {
+            total += etat.capacite;
+        }
+        return total;
+    }
+
+    /** @return le nombre d'étudiants des maisons fermées, pas encore relogés */
+    public int getNbDeplaces() {
+        return deplaces.size();
+    }
+
+    /** @return les maisons simulées, dans l'ordre de la CIUP puis des ouvertures */
+    public List<MaisonEtudiante> getMaisons() {
+        return Collections.unmodifiableList(new ArrayList<>(etats.keySet()));
+    }
+
+    /**
+     * Retourne le nombre d'étudiants logés dans une maison simulée.
+     *
+     * @param maison la maison
+     * @return son nombre de logés
+     * @throws IllegalArgumentException si la maison ne fait pas partie de la simulation
+     */
+    public int getNbEtudiants(MaisonEtudiante maison) {
+        return etats.get(verifier(maison)).nbEtudiants;
+    }
+
+    /**
+     * Retourne la longueur de la liste d'attente d'une maison simulée.
+     *
+     * @param maison la maison
+     * @return son nombre d'inscrits en attente
+     * @throws IllegalArgumentException si la maison ne fait pas partie de la simulation
+     */
+    public int getNbEnAttente(MaisonEtudiante maison) {
+        return etats.get(verifier(maison)).attente;
+    }
+
+    // --------------------------
+    //    ACCÈS DE L'AFFECTATION
+    // --------------------------
+
+    /** @return la CIUP simulée */
+    Ciup getCiup() {
+        return ciup;
+    }
+
+    /** @return l'état de chaque maison simulée, dans l'ordre */
+    Collection<EtatMaison> getEtats() {
+        return etats.values();
+    }
+
+    /**
+     * Retourne la première maison simulée d'une nationalité, comme {@link Ciup#getMaisonNationale}.
+     *
+     * @param nationalite la nationalité recherchée
+     * @return la maison correspondante, ou null
+     */
+    MaisonEtudiante getMaisonNationale(String nationalite) {
+        if (maisonsNationales == null) {
+            Map<String, MaisonEtudiante> index = new HashMap<>();
+            for (EtatMaison etat : etats.values()) {
+                String cle = Ciup.normaliserNationalite(etat.nationalite);
+                if (cle != null) {
+                    index.putIfAbsent(cle, etat.maison);
+                }
+            }
+            maisonsNationales = index;
+        }
+        String cle = Ciup.normaliserNationalite(nationalite);
+        return (cle == null) ? null : maisonsNationales.get(cle);
+    }
+
+    private MaisonEtudiante verifier(MaisonEtudiante maison) {
+        if (!etats.containsKey(maison)) {
+            throw new IllegalArgumentException("La maison " + ((maison == null) ? null : maison.getNom())
+                    + " ne fait pas partie de la simulation");
+        }
+        return maison;
+    }
+}
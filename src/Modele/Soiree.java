@@ -35,6 +35,9 @@ public class Soiree implements Serializable {
     /** Liste des étudiants inscrits à la soirée */
     private List<Etudiant> listeInscrit;
 
+    /** Maison étudiante organisant la soirée, renseignée à son ajout dans l'agenda */
+    private MaisonEtudiante maison;
+
     /** Version de sérialisation */
     private static final long serialVersionUID = 1L;
 
@@ -67,6 +70,10 @@ public class Soiree implements Serializable {
      */
     public void inscrireEtudiantSoiree(Etudiant etudiant) {
         listeInscrit.add(etudiant);
+        if (maison != null) {
+            maison.referencerEtudiant(etudiant);
+        }
+        signalerModification();
     }
 
     // ----------------------------------------------------------------
@@ -89,6 +96,7 @@ public class Soiree implements Serializable {
      */
     public void setNomSoiree(String nom) {
         this.nomSoiree = nom;
+        signalerModification();
     }
 
     /**
@@ -107,6 +115,7 @@ public class Soiree implements Serializable {
      */
     public void setDescriptionSoiree(String description) {
         this.descriptionSoiree = description;
+        signalerModification();
     }
 
     /**
@@ -125,6 +134,7 @@ public class Soiree implements Serializable {
      */
     public void setDateSoiree(LocalDateTime date) {
         this.dateSoiree = date;
+        signalerModification();
     }
 
     /**
@@ -143,6 +153,12 @@ public class Soiree implements Serializable {
      */
     public void setListeInscrit(List<Etudiant> listeInscrit) {
         this.listeInscrit = listeInscrit;
+        if (maison != null) {
+            for (Etudiant etudiant : listeInscrit) {
+                maison.referencerEtudiant(etudiant);
+            }
+        }
+        signalerModification();
     }
 
     /**
@@ -154,6 +170,24 @@ public class Soiree implements Serializable {
         return listeInscrit;
     }
 
+    /**
+     * Retourne la maison étudiante organisant la soirée.
+     * 
+     * @return la maison organisatrice, ou null si la soirée n'est dans aucun agenda
+     */
+    public MaisonEtudiante getMaison() {
+        return maison;
+    }
+
+    /**
+     * Définit la maison étudiante organisant la soirée.
+     * 
+     * @param maison la maison organisatrice
+     */
+    void setMaison(MaisonEtudiante maison) {
+        this.maison = maison;
+    }
+
     /**
      * Retourne le formateur de date utilisé pour l'affichage (yyyy-MM-dd).
      * 
@@ -187,4 +221,17 @@ public class Soiree implements Serializable {
                ", descriptionSoiree=" + descriptionSoiree + 
                ", dateSoiree=" + dateSoiree.format(FORMATTER_1) + "]";
     }
-}
\ No newline at end of file
+
+    // ----------------------------------------------------------------
+    // Suivi des modifications
+    // ----------------------------------------------------------------
+
+    /**
+     * Signale au suivi de la CIUP que la soirée, et donc sa maison, a été modifiée.
+     */
+    private void signalerModification() {
+        if (maison != null && maison.getCiup() != null) {
+            maison.getCiup().getSuiviModifications().soireeModifiee(this);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package Modele;
+
+/**
+ * Statut d'une chambre, déduit de son occupation : libre tant qu'il lui reste une place,
+ * saturée sinon.
+ * <p>
+ * Les sauvegardes, les dépôts et les exports enregistrent le libellé du statut
+ * ({@link #getLibelle()}), inchangé depuis que le statut était une chaîne.
+ * </p>
+ *
+ * @version 1.0
+ * @see Chambre#getStatut()
+ */
+public enum StatutChambre {
+
+    /** Il reste au moins une place dans la chambre */
+    LIBRE("libre"),
+
+    /** La chambre a atteint sa capacité */
+    SATUREE("saturé");
+
+    /** Libellé enregistré dans les sauvegardes et les exports */
+    private final String libelle;
+
+    StatutChambre(String libelle) {
+        this.libelle = libelle;
+    }
+
+    /**
+     * Retourne le libellé du statut, tel qu'enregistré dans les sauvegardes et les exports.
+     *
+     * @return "libre" ou "saturé"
+     */
+    public String getLibelle() {
+        return libelle;
+    }
+
+    @Override
+    public String toString() {
+        return libelle;
+    }
+}
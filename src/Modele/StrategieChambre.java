@@ -0,0 +1,55 @@
+package Modele;
+
+/**
+ * Stratégie de choix de la chambre d'un étudiant logé dans une maison étudiante.
+ * <p>
+ * Les maisons mêlent des chambres simples et doubles : prendre toujours la première chambre
+ * libre entame des chambres doubles encore vides, alors que les chambres qui n'ont plus qu'une
+ * place pourraient être remplies d'abord. Chaque maison choisit sa stratégie
+ * ({@link MaisonEtudiante#setStrategieChambre}) ; toutes trouvent leur chambre dans l'index des
+ * chambres de la maison, sans parcourir ses chambres une à une.
+ * </p>
+ *
+ * @version 1.0
+ * @see MaisonEtudiante#chercheChambreLibre()
+ */
+public enum StrategieChambre {
+
+    /** Première chambre libre dans l'ordre des chambres de la maison */
+    PREMIERE_LIBRE {
+        @Override
+        int choisir(IndexChambres index) {
+            return index.premiereLibre();
+        }
+    },
+
+    /**
+     * Chambre libre ayant le moins de places restantes : les chambres qui n'ont plus qu'une
+     * place, simples vides ou doubles entamées, avant les doubles vides
+     */
+    AJUSTEE {
+        @Override
+        int choisir(IndexChambres index) {
+            return index.plusAjustee();
+        }
+    },
+
+    /**
+     * Chambres entamées d'abord, celle qui a le moins de places restantes en premier ;
+     * à défaut, la plus petite chambre vide
+     */
+    DOUBLES_ENTAMEES {
+        @Override
+        int choisir(IndexChambres index) {
+            return index.entameeDAbord();
+        }
+    };
+
+    /**
+     * Choisit une chambre libre.
+     *
+     * @param index l'index des chambres de la maison
+     * @return le rang de la chambre choisie, ou -1 si aucune chambre n'est libre
+     */
+    abstract int choisir(IndexChambres index);
+}
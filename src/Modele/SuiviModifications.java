@@ -0,0 +1,316 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Suivi des entités de la CIUP modifiées depuis le dernier point de contrôle.
+ * <p>
+ * Les modificateurs du modèle ({@link Maison}, {@link MaisonEtudiante}, {@link Etudiant},
+ * {@link Chambre}, {@link Soiree} et {@link Ciup}) signalent ici chaque changement.
+ * Toute modification d'une chambre ou d'une soirée marque aussi la maison qui la contient,
+ * ce qui permet à la sauvegarde de ne réécrire que les maisons concernées.
+ * Chaque maison marquée perd aussi son dernier {@link InstantaneMaison}.
+ * </p>
+ * <p>
+ * {@link #extraire()} renvoie les modifications relevées sous la forme d'un
+ * {@link EnsembleModifications} et ouvre un nouveau point de contrôle ;
+ * {@link #consulter()} les renvoie sans rien réinitialiser.
+ * </p>
+ * <p>
+ * Le suivi retient aussi, d'un point de contrôle à l'autre, les maisons dont le contenu
+ * mentionne un étudiant en liste d'attente ou parmi les inscrits d'une soirée, par numéro d'étudiant.
+ * Les sections lues d'une sauvegarde y sont relevées par le {@link ChargeurMaisonsDiffere}, puis
+ * les maisons chargées à chaque ajout : la modification d'un étudiant ne fait ainsi réécrire que
+ * les maisons qui le mentionnent, sans charger les autres. L'index peut citer une maison qui ne
+ * mentionne plus l'étudiant : elle est alors réécrite sans nécessité, jamais oubliée.
+ * </p>
+ *
+ * @version 1.0
+ * @see EnsembleModifications
+ */
+public class SuiviModifications {
+
+    // --------------------------
+    //       ATTRIBUTS
+    // --------------------------
+
+    /** Indique si la maison internationale ou la liste des maisons a changé */
+    private boolean racineModifiee;
+
+    /** Indique si tout l'état est à considérer comme modifié */
+    private boolean toutModifie;
+
+    /** Maisons étudiantes modifiées */
+    private Set<MaisonEtudiante> maisons = nouvelEnsemble();
+
+    /** Maisons étudiantes retirées de la CIUP */
+    private Set<MaisonEtudiante> maisonsSupprimees = nouvelEnsemble();
+
+    /** Étudiants dont les informations propres ont changé */
+    private Set<Etudiant> etudiants = nouvelEnsemble();
+
+    /** Chambres modifiées */
+    private Set<Chambre> chambres = nouvelEnsemble();
+
+    /** Soirées modifiées */
+    private Set<Soiree> soirees = nouvelEnsemble();
+
+    /**
+     * Nombre de modifications d'informations propres d'étudiants depuis la création du suivi.
+     * Un étudiant peut figurer dans l'instantané de plusieurs maisons (liste d'attente, inscrits) :
+     * ces instantanés ne sont valides que pour la révision sous laquelle ils ont été pris.
+     */
+    private long revisionEtudiants;
+
+    /** Identifiants des maisons dont le contenu mentionne chaque étudiant, par numéro d'étudiant */
+    private final Map<Integer, Set<Integer>> maisonsParEtudiant = new HashMap<>();
+
+    /** Identifiants des maisons relues d'une section antérieure aux numéros d'étudiants */
+    private final Set<Integer> maisonsSansNumeros = new HashSet<>();
+
+    // --------------------------
+    //       SIGNALEMENTS
+    // --------------------------
+
+    /**
+     * Signale la modification d'une maison : contenu d'une maison étudiante,
+     * ou informations de la maison internationale (qui relèvent de la racine).
+     *
+     * @param maison la maison modifiée
+     */
+    public synchronized void maisonModifiee(Maison maison) {
+        if (maison instanceof MaisonEtudiante) {
+            marquer((MaisonEtudiante) maison);
+        } else {
+            racineModifiee = true;
+        }
+    }
+
+    /**
+     * Signale l'ajout d'une maison étudiante à la CIUP.
+     *
+     * @param maison la maison ajoutée
+     */
+    public synchronized void maisonAjoutee(MaisonEtudiante maison) {
+        racineModifiee = true;
+        marquer(maison);
+        maisonsSupprimees.remove(maison);
+    }
+
+    /**
+     * Signale le retrait d'une maison étudiante de la CIUP.
+     *
+     * @param maison la maison retirée
+     */
+    public synchronized void maisonSupprimee(MaisonEtudiante maison) {
+        racineModifiee = true;
+        maisons.remove(maison);
+        maisonsSupprimees.add(maison);
+        maisonsSansNumeros.remove(maison.getIdentifiant());
+    }
+
+    /**
+     * Signale la modification des informations propres d'un étudiant.
+     * Sa maison de résidence est marquée ; les autres maisons qui le référencent
+     * (liste d'attente, inscrits aux soirées) sont retrouvées par le consommateur.
+     *
+     * @param etudiant l'étudiant modifié
+     */
+    public synchronized void etudiantModifie(Etudiant etudiant) {
+        etudiants.add(etudiant);
+        revisionEtudiants++;
+        if (etudiant.getMaisonResidence() != null) {
+            marquer(etudiant.getMaisonResidence());
+        }
+    }
+
+    /**
+     * Signale la modification d'une chambre, et donc de sa maison.
+     *
+     * @param chambre la chambre modifiée
+     */
+    public synchronized void chambreModifiee(Chambre chambre) {
+        chambres.add(chambre);
+        if (chambre.getMaison() != null) {
+            marquer(chambre.getMaison());
+        }
+    }
+
+    /**
+     * Signale la modification d'une soirée, et donc de la maison qui l'organise.
+     *
+     * @param soiree la soirée modifiée
+     */
+    public synchronized void soireeModifiee(Soiree soiree) {
+        soirees.add(soiree);
+        if (soiree.getMaison() != null) {
+            marquer(soiree.getMaison());
+        }
+    }
+
+    /**
+     * Signale qu'une maison mentionne un étudiant, en liste d'attente ou parmi les inscrits d'une soirée.
+     *
+     * @param numero le numéro de l'étudiant (0 s'il n'en a pas : la maison est alors citée pour tous)
+     * @param maison l'identifiant de la maison
+     */
+    synchronized void etudiantReference(int numero, int maison) {
+        if (numero == 0) {
+            maisonsSansNumeros.add(maison);
+        } else {
+            maisonsParEtudiant.computeIfAbsent(numero, n -> new HashSet<>(2)).add(maison);
+        }
+    }
+
+    /**
+     * Relève les étudiants mentionnés par la section d'une maison lue dans une sauvegarde.
+     *
+     * @param section la section décodée
+     */
+    synchronized void sectionLue(CodecBinaireCiup.SectionMaison section) {
+        for (int candidat : section.attente) {
+            etudiantReference(numero(section, candidat), section.identifiant);
+        }
+        for (int[] inscrits : section.inscrits) {
+            for (int inscrit : inscrits) {
+                etudiantReference(numero(section, inscrit), section.identifiant);
+            }
+        }
+    }
+
+    /**
+     * Relève les étudiants mentionnés par une maison qui vient d'être réécrite, si sa section
+     * précédente ne portait pas de numéros : elle n'a plus à être réécrite pour tout étudiant modifié.
+     *
+     * @param maison l'instantané complet de la maison réécrite
+     */
+    synchronized void maisonReecrite(InstantaneMaison maison) {
+        if (!maisonsSansNumeros.remove(maison.getIdentifiant())) {
+            return;
+        }
+        for (InstantaneMaison.InstantaneEtudiant candidat : maison.getAttente()) {
+            etudiantReference(candidat.getIdentifiant(), maison.getIdentifiant());
+        }
+        for (InstantaneMaison.InstantaneSoiree soiree : maison.getAgenda()) {
+            for (InstantaneMaison.InstantaneEtudiant inscrit : soiree.getInscrits()) {
+                etudiantReference(inscrit.getIdentifiant(), maison.getIdentifiant());
+            }
+        }
+    }
+
+    /**
+     * Considère tout l'état comme modifié, par exemple quand la liste des maisons est remplacée.
+     */
+    public synchronized void toutModifie() {
+        toutModifie = true;
+    }
+
+    /**
+     * Marque une maison comme modifiée et invalide son dernier instantané.
+     */
+    private void marquer(MaisonEtudiante maison) {
+        maisons.add(maison);
+        maison.invaliderInstantane();
+    }
+
+    // --------------------------
+    //       CONSULTATION
+    // --------------------------
+
+    /**
+     * Retourne la révision des informations propres des étudiants, incrémentée
+     * à chaque {@link #etudiantModifie}. Elle n'est pas remise à zéro par les points de contrôle.
+     *
+     * @return la révision courante
+     */
+    public synchronized long getRevisionEtudiants() {
+        return revisionEtudiants;
+    }
+
+    /**
+     * Retourne les maisons dont le contenu mentionne l'un des étudiants donnés, ainsi que
+     * celles relues d'une section sans numéros, qui peuvent mentionner n'importe quel étudiant.
+     *
+     * @param numeros les numéros des étudiants
+     * @return les identifiants de ces maisons
+     */
+    synchronized Set<Integer> maisonsReferencant(Collection<Integer> numeros) {
+        Set<Integer> identifiants = new HashSet<>(maisonsSansNumeros);
+        for (int numero : numeros) {
+            Set<Integer> referencantes = maisonsParEtudiant.get(numero);
+            if (referencantes != null) {
+                identifiants.addAll(referencantes);
+            }
+        }
+        return identifiants;
+    }
+
+    /**
+     * Retourne les modifications relevées depuis le dernier point de contrôle, sans les effacer.
+     *
+     * @return une copie figée des modifications
+     */
+    public synchronized EnsembleModifications consulter() {
+        return new EnsembleModifications(racineModifiee, toutModifie, copie(maisons), copie(maisonsSupprimees),
+                copie(etudiants), copie(chambres), copie(soirees));
+    }
+
+    /**
+     * Retourne les modifications relevées depuis le dernier point de contrôle,
+     * puis ouvre un nouveau point de contrôle.
+     *
+     * @return les modifications relevées
+     */
+    public synchronized EnsembleModifications extraire() {
+        if (!racineModifiee && !toutModifie && maisons.isEmpty() && maisonsSupprimees.isEmpty()
+                && etudiants.isEmpty() && chambres.isEmpty() && soirees.isEmpty()) {
+            return EnsembleModifications.VIDE;
+        }
+        EnsembleModifications ensemble = new EnsembleModifications(racineModifiee, toutModifie,
+                maisons, maisonsSupprimees, etudiants, chambres, soirees);
+        reinitialiser();
+        return ensemble;
+    }
+
+    /**
+     * Oublie toutes les modifications relevées, sans les renvoyer.
+     * Utilisé après le chargement d'une sauvegarde, dont l'état est déjà sur disque.
+     */
+    public synchronized void reinitialiser() {
+        racineModifiee = false;
+        toutModifie = false;
+        maisons = nouvelEnsemble();
+        maisonsSupprimees = nouvelEnsemble();
+        etudiants = nouvelEnsemble();
+        chambres = nouvelEnsemble();
+        soirees = nouvelEnsemble();
+    }
+
+    // --------------------------
+    //       UTILITAIRES
+    // --------------------------
+
+    /**
+     * Retourne le numéro du e-ième étudiant d'une section, ou 0 si la section n'en porte pas.
+     */
+    private static int numero(CodecBinaireCiup.SectionMaison section, int e) {
+        return (section.numeros == null) ? 0 : section.numeros[e];
+    }
+
+    /**
+     * Crée un ensemble comparant ses éléments par identité : plusieurs entités
+     * du modèle redéfinissent equals sur des champs modifiables.
+     */
+    private static <T> Set<T> nouvelEnsemble() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Copie un ensemble en conservant la comparaison par identité.
+     */
+    private static <T> Set<T> copie(Set<T> ensemble) {
+        Set<T> copie = nouvelEnsemble();
+        copie.addAll(ensemble);
+        return copie;
+    }
+}
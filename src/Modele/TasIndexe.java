@@ -0,0 +1,192 @@
+package Modele;
+
+import java.util.*;
+
+/**
+ * Tas binaire indexé : file de priorité dont chaque élément connaît sa position,
+ * ce qui permet de le retirer ou de le replacer après un changement de priorité
+ * en temps logarithmique.
+ * <p>
+ * Le premier élément selon le comparateur est en tête. Les éléments sont repérés
+ * par identité ; le comparateur ne doit lire que des valeurs qui ne changent pas
+ * tant que l'élément est dans le tas, ou appeler {@link #actualiser} après chaque changement.
+ * </p>
+ *
+ * @param <T> le type des éléments
+ * @version 1.0
+ * @see RepartitionEquitable
+ * @see PromotionAttente
+ */
+class TasIndexe<T> {
+
+    /** Ordre des éléments, le premier étant en tête */
+    private final Comparator<? super T> ordre;
+
+    /** Éléments, rangés en tas binaire */
+    private final List<T> elements = new ArrayList<>();
+
+    /** Position de chaque élément dans le tas */
+    private final Map<T, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * Crée un tas vide.
+     *
+     * @param ordre l'ordre des éléments, le premier étant en tête
+     */
+    TasIndexe(Comparator<? super T> ordre) {
+        this.ordre = ordre;
+    }
+
+    /** @return le nombre d'éléments */
+    int taille() {
+        return elements.size();
+    }
+
+    /** @return true si le tas est vide */
+    boolean estVide() {
+        return elements.isEmpty();
+    }
+
+    /**
+     * Indique si un élément est dans le tas.
+     *
+     * @param element l'élément cherché
+     * @return true s'il est présent
+     */
+    boolean contient(T element) {
+        return positions.containsKey(element);
+    }
+
+    /**
+     * Retourne le premier élément, sans le retirer.
+     *
+     * @return le premier élément, ou null si le tas est vide
+     */
+    T tete() {
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * Retourne les éléments du tas, dans l'ordre du tas et non dans l'ordre du comparateur.
+     *
+     * @return une vue non modifiable des éléments, à recopier avant de modifier le tas
+     */
+    List<T> elements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Retourne le premier élément différent d'un élément exclu, sans le retirer.
+     * Si l'exclu est en tête, le suivant est l'un de ses deux enfants : la recherche
+     * se fait en temps constant.
+     *
+     * @param exclu l'élément à ignorer (peut être null)
+     * @return le premier élément autre que l'exclu, ou null s'il n'y en a pas
+     */
+    T premierSauf(T exclu) {
+        if (elements.isEmpty()) {
+            return null;
+        }
+        if (elements.get(0) != exclu) {
+            return elements.get(0);
+        }
+        T gauche = (elements.size() > 1) ? elements.get(1) : null;
+        T droite = (elements.size() > 2) ? elements.get(2) : null;
+        if (droite != null && ordre.compare(droite, gauche) < 0) {
+            return droite;
+        }
+        return gauche;
+    }
+
+    /**
+     * Ajoute un élément, ou le replace s'il est déjà présent.
+     *
+     * @param element l'élément à ajouter
+     */
+    void ajouter(T element) {
+        if (positions.containsKey(element)) {
+            actualiser(element);
+            return;
+        }
+        elements.add(element);
+        positions.put(element, elements.size() - 1);
+        monter(elements.size() - 1);
+    }
+
+    /**
+     * Retire un élément, s'il est présent.
+     *
+     * @param element l'élément à retirer
+     */
+    void retirer(T element) {
+        Integer position = positions.remove(element);
+        if (position == null) {
+            return;
+        }
+        T dernier = elements.remove(elements.size() - 1);
+        if (position < elements.size()) {
+            elements.set(position, dernier);
+            positions.put(dernier, position);
+            replacer(position);
+        }
+    }
+
+    /**
+     * Replace un élément dont la priorité a changé.
+     *
+     * @param element l'élément à replacer
+     */
+    void actualiser(T element) {
+        Integer position = positions.get(element);
+        if (position != null) {
+            replacer(position);
+        }
+    }
+
+    private void replacer(int position) {
+        if (position > 0 && ordre.compare(elements.get(position), elements.get((position - 1) / 2)) < 0) {
+            monter(position);
+        } else {
+            descendre(position);
+        }
+    }
+
+    private void monter(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (ordre.compare(elements.get(position), elements.get(parent)) >= 0) {
+                return;
+            }
+            echanger(position, parent);
+            position = parent;
+        }
+    }
+
+    private void descendre(int position) {
+        while (true) {
+            int premier = position;
+            int gauche = 2 * position + 1;
+            int droite = gauche + 1;
+            if (gauche < elements.size() && ordre.compare(elements.get(gauche), elements.get(premier)) < 0) {
+                premier = gauche;
+            }
+            if (droite < elements.size() && ordre.compare(elements.get(droite), elements.get(premier)) < 0) {
+                premier = droite;
+            }
+            if (premier == position) {
+                return;
+            }
+            echanger(position, premier);
+            position = premier;
+        }
+    }
+
+    private void echanger(int i, int j) {
+        T a = elements.get(i);
+        T b = elements.get(j);
+        elements.set(i, b);
+        elements.set(j, a);
+        positions.put(b, i);
+        positions.put(a, j);
+    }
+}
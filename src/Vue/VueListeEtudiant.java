@@ -141,7 +141,8 @@ public class VueListeEtudiant extends VuePageEtudiant {
             nomMaison.setEditable(false);
             nomMaison.setBorder(null);
         } else {
-            nomMaison = new JTextArea("Maison : " + maison.getNom() + " (Liste d'attente)");
+            nomMaison = new JTextArea("Maison : " + maison.getNom() + " (Liste d'attente, rang "
+                    + maison.getRangAttente(etu) + " sur " + maison.getlisteAttente().size() + ")");
             nomMaison.setForeground(Color.RED);
             nomMaison.setBackground(Color.WHITE);
             nomMaison.setFont(new Font("Arial Black", Font.BOLD, 21));
@@ -200,7 +201,7 @@ public class VueListeEtudiant extends VuePageEtudiant {
     public void afficherVue(JFrame frame) {
         VueListeEtudiant panel;
 
-        Ciup ciupCharge = GestionSauvegarde.charger();
+        Ciup ciupCharge = Persistance.getDepot().charger();
         if (ciupCharge == null) {
             ciupCharge = Factory.constructionCiup();
         }
@@ -170,10 +170,10 @@ public class VueListeMaisons extends VueHeaderGlobal {
         JLabel labelTitre = new JLabel(maison.getNom());
         labelTitre.setFont(new Font("Arial Black", Font.PLAIN, 20));
 
-        JLabel labelEtudiants = new JLabel("👨‍🎓 Étudiants : " + maison.getListeEtudiante().size());
+        JLabel labelEtudiants = new JLabel("👨‍🎓 Étudiants : " + maison.getNbEtudiants());
         labelEtudiants.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 15));
 
-        JLabel labelChambres = new JLabel("🛏 Chambres : " + maison.getListeChambres().size());
+        JLabel labelChambres = new JLabel("🛏 Chambres : " + maison.getNbChambres());
         labelChambres.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 15));
 
         JLabel labelNationalite = new JLabel("🏳 Nationalité : " + maison.getNationalite());
@@ -284,7 +284,7 @@ public class VueListeMaisons extends VueHeaderGlobal {
         VueListeEtudiant panelEtudiant;
         VueListeSoiree panelSoiree;
 
-        Ciup ciupCharge = GestionSauvegarde.charger();
+        Ciup ciupCharge = Persistance.getDepot().charger();
         if (ciupCharge == null) {
             ciupCharge = Factory.constructionCiup();
         }
@@ -205,7 +205,7 @@ public class VueListeSoiree extends VuePageSoiree {
     /**
      * Méthode statique pour afficher cette vue dans une JFrame donnée.
      * <p>
-     * Elle charge la CIUP via {@code GestionSauvegarde} ou la crée via {@code Factory}
+     * Elle charge la CIUP via {@code Persistance} ou la crée via {@code Factory}
      * si aucun fichier de sauvegarde n'est trouvé. Elle initialise ensuite
      * le formulaire d'ajout et le contrôleur associés.
      * 
@@ -214,11 +214,11 @@ public class VueListeSoiree extends VuePageSoiree {
     public static void afficherVue(JFrame frame) {
         VueListeSoiree panel;
 
-        if (GestionSauvegarde.charger() == null) {
+        if (Persistance.getDepot().charger() == null) {
             Factory fac = new Factory();
             panel = new VueListeSoiree(fac.constructionCiup());
         } else {
-            Ciup ciup = GestionSauvegarde.charger();
+            Ciup ciup = Persistance.getDepot().charger();
             panel = new VueListeSoiree(ciup);
         }
 